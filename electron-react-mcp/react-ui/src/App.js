@@ -1,23 +1,155 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import './App.css';
 
-const API_BASE_URL = 'http://localhost:8080';
+const WS_URL = 'ws://localhost:8080/react/ws';
+const MAX_RECONNECT_DELAY = 10000;
+// 流控：初始额度与每处理多少个事件补充一次额度
+const INITIAL_CREDITS = 256;
+const CREDIT_BATCH = 64;
 
 function App() {
   const [logs, setLogs] = useState([]);
   const [taskInput, setTaskInput] = useState('');
   const [isConnected, setIsConnected] = useState(false);
   const [springBootStatus, setSpringBootStatus] = useState({ running: false, port: null });
+  const [runningTaskId, setRunningTaskId] = useState(null);
+  const [pendingQuestion, setPendingQuestion] = useState(null);
+
+  const socketRef = useRef(null);
+  // taskId -> { lastEventId, finished }，重连后按 lastEventId 续传未结束的任务
+  const tasksRef = useRef(new Map());
+  const consumedRef = useRef(0);
+
+  const addLog = (message, type = 'info') => {
+    const timestamp = new Date().toLocaleTimeString();
+    setLogs(prevLogs => [...prevLogs, { timestamp, message, type }]);
+  };
+
+  const send = (message) => {
+    const socket = socketRef.current;
+    if (socket && socket.readyState === WebSocket.OPEN) {
+      socket.send(JSON.stringify(message));
+      return true;
+    }
+    return false;
+  };
+
+  const handleEvent = (taskId, data) => {
+    const task = tasksRef.current.get(taskId);
+    if (task && data.id != null) {
+      task.lastEventId = data.id;
+    }
+    if (data.type === 'thought') {
+      addLog(`💭 思考: ${data.content}`, 'info');
+    } else if (data.type === 'action') {
+      addLog(`🔧 执行: ${data.toolName}(${data.toolInput || ''})`, 'info');
+    } else if (data.type === 'observation') {
+      addLog(`👁️ 观察: ${data.toolOutput}`, 'info');
+    } else if (data.type === 'question') {
+      addLog(`❓ 提问: ${data.content}（在输入框中回答）`, 'warning');
+      setPendingQuestion({ taskId, content: data.content });
+    } else if (data.type === 'final_answer' || data.type === 'error') {
+      addLog(data.type === 'final_answer' ? `✅ 答案: ${data.content}` : `❌ 错误: ${data.content}`,
+        data.type === 'final_answer' ? 'success' : 'error');
+      if (task) {
+        task.finished = true;
+      }
+      setRunningTaskId(current => (current === taskId ? null : current));
+      setPendingQuestion(current => (current && current.taskId === taskId ? null : current));
+    }
+
+    // 每处理 CREDIT_BATCH 个事件补充一次额度
+    consumedRef.current += 1;
+    if (consumedRef.current >= CREDIT_BATCH) {
+      send({ op: 'credit', n: consumedRef.current });
+      consumedRef.current = 0;
+    }
+  };
+
+  // 二进制帧：[4 字节大端信封长度][信封 JSON][大字段的 UTF-8 原文]
+  const decodeBinaryFrame = (buffer) => {
+    const headerLength = new DataView(buffer).getUint32(0);
+    const decoder = new TextDecoder();
+    const envelope = JSON.parse(decoder.decode(new Uint8Array(buffer, 4, headerLength)));
+    envelope.event[envelope.payloadField] = decoder.decode(new Uint8Array(buffer, 4 + headerLength));
+    return envelope;
+  };
+
+  const handleMessage = (message) => {
+    if (message.op === 'event') {
+      handleEvent(message.taskId, message.event);
+    } else if (message.op === 'accepted') {
+      if (message.resumed) {
+        addLog(`任务 ${message.taskId} 已存在，继续接收事件`, 'info');
+      }
+    } else if (message.op === 'ack') {
+      if (!message.ok) {
+        addLog(`操作 ${message.ref} 未生效（任务可能已结束）`, 'warning');
+      }
+    } else if (message.op === 'error') {
+      addLog(`服务端错误: ${message.message}`, 'error');
+      if (message.ref === 'subscribe' && message.taskId) {
+        // 任务已过期，不再续传
+        tasksRef.current.delete(message.taskId);
+        setRunningTaskId(current => (current === message.taskId ? null : current));
+      }
+    }
+  };
 
   useEffect(() => {
+    let closedByUnmount = false;
+    let reconnectTimer = null;
+    let attempt = 0;
+
+    // 一个客户端只保持一条 WebSocket 连接，断开后指数退避重连，并续传未结束的任务
+    const connect = () => {
+      const socket = new WebSocket(WS_URL);
+      socket.binaryType = 'arraybuffer';
+      socketRef.current = socket;
+
+      socket.onopen = () => {
+        const reconnected = attempt > 0;
+        attempt = 0;
+        consumedRef.current = 0;
+        setIsConnected(true);
+        socket.send(JSON.stringify({ op: 'hello', credits: INITIAL_CREDITS }));
+        tasksRef.current.forEach((task, taskId) => {
+          if (!task.finished) {
+            socket.send(JSON.stringify({ op: 'subscribe', taskId, lastEventId: task.lastEventId || 0 }));
+          }
+        });
+        if (reconnected) {
+          addLog('连接已恢复', 'success');
+        }
+      };
+
+      socket.onmessage = (e) => {
+        try {
+          handleMessage(typeof e.data === 'string' ? JSON.parse(e.data) : decodeBinaryFrame(e.data));
+        } catch (error) {
+          // 忽略无法解析的消息
+        }
+      };
+
+      socket.onclose = () => {
+        setIsConnected(false);
+        if (closedByUnmount) {
+          return;
+        }
+        const delay = Math.min(MAX_RECONNECT_DELAY, 500 * 2 ** attempt);
+        attempt += 1;
+        addLog(`连接中断，${Math.round(delay / 1000)} 秒后重连...`, 'warning');
+        reconnectTimer = setTimeout(connect, delay);
+      };
+    };
+
     // 初始化应用
     const init = async () => {
       try {
         // 检查Spring Boot服务状态
         const status = await window.electronAPI.invoke('spring-boot-status');
         setSpringBootStatus(status);
-        setIsConnected(status.running);
-        
+
         if (status.running) {
           addLog(`服务已连接 (端口: ${status.port})`, 'success');
         } else {
@@ -27,17 +159,22 @@ function App() {
       } catch (error) {
         addLog(`初始化失败: ${error.message}`, 'error');
       }
+      connect();
     };
 
     init();
-  }, []);
 
-  const addLog = (message, type = 'info') => {
-    const timestamp = new Date().toLocaleTimeString();
-    setLogs(prevLogs => [...prevLogs, { timestamp, message, type }]);
-  };
+    return () => {
+      closedByUnmount = true;
+      clearTimeout(reconnectTimer);
+      if (socketRef.current) {
+        socketRef.current.close();
+      }
+    };
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, []);
 
-  const handleExecuteTask = async () => {
+  const handleExecuteTask = () => {
     if (!taskInput.trim()) {
       addLog('请输入任务', 'warning');
       return;
@@ -48,56 +185,32 @@ function App() {
       return;
     }
 
+    // 有待回答的问题时，输入内容作为回答发送
+    if (pendingQuestion) {
+      send({ op: 'answer', taskId: pendingQuestion.taskId, content: taskInput });
+      addLog(`💬 回答: ${taskInput}`, 'info');
+      setPendingQuestion(null);
+      setTaskInput('');
+      return;
+    }
+
     addLog(`执行任务: ${taskInput}`, 'info');
-    
-    try {
-      // 调用后端 ReAct 流式接口
-      const response = await fetch(`${API_BASE_URL}/react/solve-stream?task=${encodeURIComponent(taskInput)}`);
-      
-      if (!response.ok) {
-        throw new Error(`HTTP ${response.status}: ${response.statusText}`);
-      }
 
-      const reader = response.body.getReader();
-      const decoder = new TextDecoder();
-      let buffer = '';
-
-      while (true) {
-        const { done, value } = await reader.read();
-        if (done) break;
-
-        buffer += decoder.decode(value, { stream: true });
-        const lines = buffer.split('\n');
-        buffer = lines.pop() || '';
-
-        for (const line of lines) {
-          if (line.startsWith('data:')) {
-            try {
-              const data = JSON.parse(line.substring(5).trim());
-              if (data.type === 'thought') {
-                addLog(`💭 思考: ${data.content}`, 'info');
-              } else if (data.type === 'action') {
-                addLog(`🔧 执行: ${data.content}`, 'info');
-              } else if (data.type === 'observation') {
-                addLog(`👁️ 观察: ${data.content}`, 'info');
-              } else if (data.type === 'final_answer') {
-                addLog(`✅ 答案: ${data.content}`, 'success');
-              }
-            } catch (e) {
-              // 忽略 JSON 解析错误
-            }
-          }
-        }
-      }
+    // 任务 ID 由客户端生成，断线重连时据此续传，不会重复执行任务
+    const taskId = crypto.randomUUID();
+    tasksRef.current.set(taskId, { lastEventId: 0, finished: false });
+    setRunningTaskId(taskId);
+    send({ op: 'submit', taskId, task: taskInput });
 
-      addLog('任务执行完成', 'success');
-    } catch (error) {
-      addLog(`任务执行失败: ${error.message}`, 'error');
-    }
-    
     setTaskInput('');
   };
 
+  const handleCancelTask = () => {
+    if (runningTaskId && send({ op: 'cancel', taskId: runningTaskId })) {
+      addLog('已请求取消任务', 'warning');
+    }
+  };
+
   return (
     <div className="App">
       <header className="App-header">
@@ -113,7 +226,7 @@ function App() {
           )}
         </div>
       </header>
-      
+
       <main className="App-main">
         <div className="task-input-container">
           <input
@@ -121,14 +234,19 @@ function App() {
             value={taskInput}
             onChange={(e) => setTaskInput(e.target.value)}
             onKeyPress={(e) => e.key === 'Enter' && handleExecuteTask()}
-            placeholder="输入任务..."
+            placeholder={pendingQuestion ? '回答 Agent 的问题...' : '输入任务...'}
             className="task-input"
           />
           <button onClick={handleExecuteTask} className="execute-button">
-            执行
+            {pendingQuestion ? '回答' : '执行'}
           </button>
+          {runningTaskId && (
+            <button onClick={handleCancelTask} className="cancel-button">
+              取消
+            </button>
+          )}
         </div>
-        
+
         <div className="logs-container">
           <h2>执行日志</h2>
           <div className="logs">
@@ -0,0 +1,160 @@
+package com.example.reactmcp.fixtures;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CreationHelper;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试共用的固定数据，使用固定随机种子，每次运行生成相同内容，结果可以横向对比
+ */
+public final class BenchmarkFixtures {
+
+    private static final String[] PARAGRAPHS = {
+        "首页 新闻 产品 解决方案 关于我们 联系我们 登录 注册",
+        "本季度营收同比增长 12.5%，其中云服务收入占比首次超过 40%，管理层预计下一季度仍将保持两位数增长。",
+        "The quick brown fox jumps over the lazy dog. Product details, pricing and availability may vary by region.",
+        "用户评论：物流很快，包装完好，和描述一致，会回购。客服回复及时，解决了安装时遇到的问题。",
+        "相关阅读：国际纠纷中的贸易规则解读；战争史上的后勤补给；宗教建筑的历史与保护。",
+        "Copyright © 2024 Example Inc. All rights reserved. 隐私政策 | 使用条款 | 网站地图",
+        "表格：型号 A100 / 价格 3999 元 / 库存 120 件；型号 B200 / 价格 5999 元 / 库存 35 件。",
+        "   \n\t  ",
+        "Breaking: markets rallied after the central bank kept rates unchanged, citing stable inflation expectations."
+    };
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 模拟网页可见文本：导航、正文、评论、页脚混排，中英文混合，偶尔出现敏感词
+     */
+    public static String pageText(int chars) {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(chars + 256);
+        while (sb.length() < chars) {
+            sb.append(PARAGRAPHS[random.nextInt(PARAGRAPHS.length)]).append('\n');
+        }
+        return sb.substring(0, chars);
+    }
+
+    /**
+     * 模拟 ReAct 对话历史：系统提示、任务，之后是工具调用与结果交替，夹杂少量纯文本思考和空消息
+     * leadingAiMessage 为 true 时去掉开头的用户消息，模拟消息窗口截断后的历史
+     */
+    public static List<ChatMessage> chatHistory(int messages, boolean leadingAiMessage) {
+        Random random = new Random(42);
+        String observation = pageText(1500);
+        List<ChatMessage> history = new ArrayList<>(messages);
+        history.add(SystemMessage.from("你是一个 ReAct 智能代理，按 Thought / Action / Observation 循环完成任务。"));
+        if (!leadingAiMessage) {
+            history.add(UserMessage.from("打开 https://example.com 并总结页面上的产品价格"));
+        }
+        int call = 0;
+        while (history.size() < messages) {
+            int roll = random.nextInt(10);
+            if (roll == 0) {
+                history.add(AiMessage.from("我需要先确认页面是否已经加载完成。"));
+            } else if (roll == 1) {
+                history.add(AiMessage.from(""));
+            } else {
+                ToolExecutionRequest request = ToolExecutionRequest.builder()
+                        .id("call-" + (++call))
+                        .name(roll < 6 ? "getVisibleText" : "click")
+                        .arguments(roll < 6 ? "{}" : "{\"selector\":\"text=下一页\"}")
+                        .build();
+                history.add(AiMessage.from(List.of(request)));
+                history.add(ToolExecutionResultMessage.from(request,
+                        observation.substring(0, 200 + random.nextInt(1300))));
+            }
+        }
+        return history.subList(0, messages);
+    }
+
+    /**
+     * 模拟 Excel 工作表：字符串、整数、小数、日期、布尔、公式六种单元格，每 50 行一个空行
+     */
+    public static XSSFWorkbook spreadsheet(int rows) {
+        Random random = new Random(42);
+        XSSFWorkbook workbook = new XSSFWorkbook();
+        CreationHelper helper = workbook.getCreationHelper();
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(helper.createDataFormat().getFormat("yyyy-mm-dd"));
+        Sheet sheet = workbook.createSheet("订单");
+        long baseTime = 1_700_000_000_000L;
+        for (int r = 0; r < rows; r++) {
+            Row row = sheet.createRow(r);
+            if (r % 50 == 49) {
+                row.createCell(0).setBlank();
+                continue;
+            }
+            row.createCell(0).setCellValue("订单-" + r + "-" + PARAGRAPHS[random.nextInt(3)].substring(0, 8));
+            row.createCell(1).setCellValue(random.nextInt(1000));
+            row.createCell(2).setCellValue(random.nextDouble() * 10000);
+            Cell date = row.createCell(3);
+            date.setCellValue(new Date(baseTime + r * 3_600_000L));
+            date.setCellStyle(dateStyle);
+            row.createCell(4).setCellValue(random.nextBoolean());
+            row.createCell(5).setCellFormula("B" + (r + 1) + "*C" + (r + 1));
+        }
+        return workbook;
+    }
+
+    /**
+     * 模拟网页 HTML：导航、搜索表单、若干正文区块（段落、列表、商品表格、按钮）、隐藏的弹窗和装饰图片、
+     * 内联脚本和样式，页脚链接；sections 控制正文区块数
+     */
+    public static String pageHtml(int sections) {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder(sections * 2048);
+        sb.append("<!DOCTYPE html><html><head><title>示例商城 - 产品列表</title>")
+                .append("<style>.hidden{display:none}.card{padding:8px;margin:4px;border:1px solid #ddd}</style>")
+                .append("<script>window.analytics = { track: function () {} };</script></head><body>");
+        sb.append("<header><nav>");
+        for (int i = 0; i < 12; i++) {
+            sb.append("<a href=\"/category/").append(i).append("\">分类 ").append(i).append("</a> ");
+        }
+        sb.append("</nav><form role=\"search\"><label for=\"q\">搜索</label>")
+                .append("<input id=\"q\" name=\"q\" placeholder=\"搜索商品\">")
+                .append("<select name=\"sort\"><option>综合</option><option>价格</option><option>销量</option></select>")
+                .append("<button type=\"submit\">搜索</button></form></header><main>");
+        for (int s = 0; s < sections; s++) {
+            sb.append("<section class=\"card\" aria-label=\"区块 ").append(s).append("\"><div><div>")
+                    .append("<h2>").append(PARAGRAPHS[random.nextInt(3)], 0, 12).append("</h2>")
+                    .append("<img src=\"data:,\" alt=\"\"><p>").append(PARAGRAPHS[random.nextInt(PARAGRAPHS.length)]).append("</p>")
+                    .append("<ul>");
+            for (int i = 0; i < 4; i++) {
+                sb.append("<li><span><a href=\"/item/").append(s).append('-').append(i).append("\">商品 ")
+                        .append(s).append('-').append(i).append("</a></span></li>");
+            }
+            sb.append("</ul><table><tr><th>型号</th><th>价格</th><th>库存</th></tr>");
+            for (int i = 0; i < 3; i++) {
+                sb.append("<tr><td>M").append(random.nextInt(1000)).append("</td><td>")
+                        .append(random.nextInt(10000)).append(" 元</td><td>").append(random.nextInt(500)).append("</td></tr>");
+            }
+            sb.append("</table><label><input type=\"checkbox\"> 加入对比</label>")
+                    .append("<button").append(s % 7 == 0 ? " disabled" : "").append(">加入购物车</button>")
+                    .append("<div class=\"hidden\"><p>").append(PARAGRAPHS[random.nextInt(PARAGRAPHS.length)])
+                    .append("</p><button>隐藏按钮</button></div></div></div>")
+                    .append("<script>window.analytics.track('view-").append(s).append("');</script></section>");
+        }
+        sb.append("</main><div class=\"hidden\" role=\"dialog\"><p>登录后查看更多</p><button>登录</button></div><footer>");
+        for (int i = 0; i < 8; i++) {
+            sb.append("<a href=\"/about/").append(i).append("\">").append(PARAGRAPHS[5], 0, 8).append("</a> ");
+        }
+        sb.append("</footer></body></html>");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.reactmcp.interceptor;
+
+import com.example.reactmcp.fixtures.BenchmarkFixtures;
+import dev.langchain4j.data.message.ChatMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每轮推理前的消息序列修复（StreamingChatModelDecorator.fixMessageSequence）
+ * 100 条消息的对话历史；truncated=true 时开头没有用户消息，会走插入虚拟用户消息的分支
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageSequenceBenchmark {
+
+    @Param({"100"})
+    public int messages;
+
+    @Param({"false", "true"})
+    public boolean truncated;
+
+    private List<ChatMessage> history;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        history = BenchmarkFixtures.chatHistory(messages, truncated);
+    }
+
+    @Benchmark
+    public List<ChatMessage> fixMessageSequence() {
+        return StreamingChatModelDecorator.fixMessageSequence(history);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.reactmcp.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * /react/solve-stream 压测工具
+ * 以固定并发持续提交任务并读取 SSE 直到流结束，统计吞吐量、首个事件延迟和任务总耗时的分位数
+ * 配合 langchain4j.provider=mock 使用时不访问真实模型
+ *
+ * 参数（均可省略）：
+ *   --url http://localhost:8080   服务地址
+ *   --concurrency 20              同时进行的任务数
+ *   --requests 200                总任务数
+ *   --duration-seconds 0          大于 0 时按时长运行，忽略 --requests
+ *   --timeout-seconds 300         单个任务的超时
+ *   --task "load test task #%d"   任务内容模板，%d 替换为序号，使每个任务内容不同
+ */
+public final class SolveStreamLoadGenerator {
+
+    private final URI baseUri;
+    private final int concurrency;
+    private final int requests;
+    private final long durationMillis;
+    private final Duration timeout;
+    private final String taskTemplate;
+    private final HttpClient client;
+
+    private final AtomicInteger issued = new AtomicInteger();
+    private final ConcurrentLinkedQueue<long[]> samples = new ConcurrentLinkedQueue<>();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final LongAdder frames = new LongAdder();
+
+    private SolveStreamLoadGenerator(Map<String, String> options) {
+        this.baseUri = URI.create(options.getOrDefault("url", "http://localhost:8080"));
+        this.concurrency = Integer.parseInt(options.getOrDefault("concurrency", "20"));
+        this.requests = Integer.parseInt(options.getOrDefault("requests", "200"));
+        this.durationMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(options.getOrDefault("duration-seconds", "0")));
+        this.timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout-seconds", "300")));
+        this.taskTemplate = options.getOrDefault("task", "load test task #%d");
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newCachedThreadPool())
+                .build();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        new SolveStreamLoadGenerator(parseOptions(args)).run();
+        System.exit(0);
+    }
+
+    private void run() throws InterruptedException {
+        System.out.printf("Target %s, concurrency %d, %s%n", baseUri, concurrency,
+                durationMillis > 0 ? "duration " + durationMillis / 1000 + "s" : requests + " requests");
+        long start = System.nanoTime();
+        long deadline = durationMillis > 0 ? System.currentTimeMillis() + durationMillis : Long.MAX_VALUE;
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.submit(() -> {
+                while (true) {
+                    int index = issued.getAndIncrement();
+                    if ((durationMillis <= 0 && index >= requests) || System.currentTimeMillis() >= deadline) {
+                        return;
+                    }
+                    runOne(index);
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        report(System.nanoTime() - start);
+    }
+
+    /**
+     * 提交一个任务并读完事件流，记录 [首个事件纳秒, 总耗时纳秒]
+     */
+    private void runOne(int index) {
+        String task = String.format(taskTemplate, index);
+        URI uri = baseUri.resolve("/react/solve-stream?task=" + URLEncoder.encode(task, StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Accept", "text/event-stream")
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+            if (response.statusCode() != 200) {
+                response.body().close();
+                fail("http_" + response.statusCode());
+                return;
+            }
+            long firstEvent = -1;
+            boolean finalAnswer = false;
+            boolean error = false;
+            try (Stream<String> lines = response.body()) {
+                Iterator<String> it = lines.iterator();
+                while (it.hasNext()) {
+                    String line = it.next();
+                    if (line.startsWith("data:")) {
+                        if (firstEvent < 0) {
+                            firstEvent = System.nanoTime() - start;
+                        }
+                        frames.increment();
+                        // 单个事件和 batch 帧的 JSON 中都带 type 字段
+                        finalAnswer |= line.contains("\"type\":\"final_answer\"");
+                        error |= line.contains("\"type\":\"error\"");
+                    } else if (line.equals("event: final_answer") || line.equals("event:final_answer")) {
+                        finalAnswer = true;
+                    }
+                }
+            }
+            long total = System.nanoTime() - start;
+            if (finalAnswer && !error) {
+                samples.add(new long[]{firstEvent, total});
+            } else {
+                fail(error ? "error_event" : "incomplete_stream");
+            }
+        } catch (HttpTimeoutException e) {
+            fail("timeout");
+        } catch (IOException e) {
+            fail("io_" + e.getClass().getSimpleName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("interrupted");
+        } catch (RuntimeException e) {
+            fail("exception_" + e.getClass().getSimpleName());
+        }
+    }
+
+    private void fail(String reason) {
+        failures.computeIfAbsent(reason, r -> new LongAdder()).increment();
+    }
+
+    private void report(long elapsedNanos) {
+        long[] firstEvent = samples.stream().mapToLong(s -> s[0]).filter(v -> v >= 0).sorted().toArray();
+        long[] total = samples.stream().mapToLong(s -> s[1]).sorted().toArray();
+        long failed = failures.values().stream().mapToLong(LongAdder::sum).sum();
+        double seconds = elapsedNanos / 1e9;
+
+        System.out.println();
+        System.out.printf("Completed %d ok, %d failed in %.1fs%n", total.length, failed, seconds);
+        System.out.printf("Throughput: %.2f tasks/s, %.1f SSE frames/s%n", total.length / seconds, frames.sum() / seconds);
+        printPercentiles("First event", firstEvent);
+        printPercentiles("Task total ", total);
+        if (!failures.isEmpty()) {
+            System.out.println("Failures:");
+            failures.forEach((reason, count) -> System.out.printf("  %-24s %d%n", reason, count.sum()));
+        }
+    }
+
+    private static void printPercentiles(String label, long[] sortedNanos) {
+        if (sortedNanos.length == 0) {
+            System.out.printf("%s: no samples%n", label);
+            return;
+        }
+        System.out.printf("%s (ms): p50=%.1f p90=%.1f p95=%.1f p99=%.1f max=%.1f mean=%.1f%n", label,
+                percentile(sortedNanos, 50), percentile(sortedNanos, 90), percentile(sortedNanos, 95),
+                percentile(sortedNanos, 99), sortedNanos[sortedNanos.length - 1] / 1e6,
+                Arrays.stream(sortedNanos).average().orElse(0) / 1e6);
+    }
+
+    /**
+     * 最近秩法分位数（毫秒）
+     */
+    private static double percentile(long[] sortedNanos, double p) {
+        int rank = (int) Math.ceil(p / 100.0 * sortedNanos.length);
+        return sortedNanos[Math.max(0, Math.min(sortedNanos.length - 1, rank - 1))] / 1e6;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new ConcurrentHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --name value pairs, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.reactmcp.load;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 后端冷启动耗时：多次启动进程，测量从进程创建到第一个请求返回 200 的时间（time-to-first-request）
+ * 同时记录 Spring 日志中的 "Started ReactMcpApplication in X seconds"
+ * 第一个请求是 GET /react/events/metrics，会触发控制器及其依赖（包括 AiServices 代理）的创建，
+ * 因此延迟初始化推迟的开销也计入结果
+ *
+ * 参数（均可省略）：
+ *   --target ../react-mcp-demo/target   后端构建目录
+ *   --variant both                      default（普通 JAR）| fast-startup（AOT + CDS + 延迟初始化）| both
+ *   --runs 5                            每种方式的启动次数
+ *   --timeout-seconds 120               单次启动超时
+ */
+public final class StartupTimeBenchmark {
+
+    private static final String JAR_NAME = "react-mcp-demo-0.0.1-SNAPSHOT.jar";
+    private static final Pattern STARTED = Pattern.compile("Started ReactMcpApplication in ([0-9.]+) seconds");
+
+    private final Path target;
+    private final int runs;
+    private final Duration timeout;
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(500))
+            .build();
+
+    private StartupTimeBenchmark(Map<String, String> options) {
+        this.target = Paths.get(options.getOrDefault("target", "../react-mcp-demo/target")).toAbsolutePath().normalize();
+        this.runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        this.timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout-seconds", "120")));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        StartupTimeBenchmark benchmark = new StartupTimeBenchmark(options);
+        String variant = options.getOrDefault("variant", "both");
+        if (!variant.equals("fast-startup")) {
+            benchmark.measure("default", benchmark.target, List.of("-jar", JAR_NAME));
+        }
+        if (!variant.equals("default")) {
+            Path dir = benchmark.target.resolve("fast-startup");
+            if (!Files.exists(dir.resolve("application.jsa"))) {
+                System.out.println("fast-startup: " + dir + "/application.jsa not found, build with mvn -Pfast-startup package");
+            } else {
+                benchmark.measure("fast-startup", dir, List.of(
+                        "-XX:SharedArchiveFile=application.jsa",
+                        "-Dspring.aot.enabled=true",
+                        "-Dspring.profiles.active=fast-startup",
+                        "-jar", JAR_NAME));
+            }
+        }
+    }
+
+    private void measure(String name, Path workingDir, List<String> jvmArgs) throws Exception {
+        long[] firstRequest = new long[runs];
+        long[] started = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long[] result = startOnce(workingDir, jvmArgs);
+            firstRequest[i] = result[0];
+            started[i] = result[1];
+            System.out.printf("%s run %d: first request %d ms, context started %s%n", name, i + 1, result[0],
+                    result[1] < 0 ? "n/a" : result[1] + " ms");
+        }
+        Arrays.sort(firstRequest);
+        Arrays.sort(started);
+        System.out.printf("%s time-to-first-request (ms): min=%d median=%d max=%d%n",
+                name, firstRequest[0], firstRequest[runs / 2], firstRequest[runs - 1]);
+        if (started[0] >= 0) {
+            System.out.printf("%s context started (ms):       min=%d median=%d max=%d%n",
+                    name, started[0], started[runs / 2], started[runs - 1]);
+        }
+        System.out.println();
+    }
+
+    /**
+     * 启动一次后端，返回 [首个请求耗时毫秒, Spring 上下文启动耗时毫秒（未匹配到日志时为 -1）]
+     */
+    private long[] startOnce(Path workingDir, List<String> jvmArgs) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("--server.port=" + port);
+        // 模拟模型不访问网络，启动结果不受 API Key 和网络影响
+        command.add("--langchain4j.provider=mock");
+
+        AtomicLong startedMillis = new AtomicLong(-1);
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(workingDir.toFile())
+                .redirectErrorStream(true)
+                .start();
+        Thread reader = new Thread(() -> readOutput(process, startedMillis), "startup-output");
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/react/events/metrics"))
+                    .timeout(Duration.ofSeconds(10))
+                    .GET()
+                    .build();
+            long deadline = System.nanoTime() + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Backend exited with code " + process.exitValue());
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return new long[]{(System.nanoTime() - start) / 1_000_000, startedMillis.get()};
+                    }
+                } catch (IOException e) {
+                    // 端口尚未监听
+                }
+                TimeUnit.MILLISECONDS.sleep(20);
+            }
+            throw new IllegalStateException("Backend did not answer within " + timeout.toSeconds() + "s");
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static void readOutput(Process process, AtomicLong startedMillis) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = STARTED.matcher(line);
+                if (matcher.find()) {
+                    startedMillis.set(Math.round(Double.parseDouble(matcher.group(1)) * 1000));
+                }
+            }
+        } catch (IOException ignored) {
+            // 进程结束
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Expected --name value pairs, got: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[++i]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.reactmcp.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 工具调用日志开销对比
+ * legacy: 旧版每次工具调用 10+ 行同步框线日志，并格式化完整页面状态
+ * structured: CallLog 单条结构化事件
+ * appender 参数分别对比同步文件输出和 AsyncAppender
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CallLogBenchmark {
+
+    private static final Logger legacyLog = LoggerFactory.getLogger("com.example.reactmcp.tools.PlaywrightMcpTools");
+
+    @Param({"sync", "async"})
+    public String appender;
+
+    private Path logFile;
+    private LoggerContext loggerContext;
+    private String url;
+    private String pageState;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.reset();
+        logFile = Files.createTempFile("calllog-bench", ".log");
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss.SSS} %5p [%15.15t] %-40.40logger{39} : %m %kvp%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(loggerContext);
+        file.setFile(logFile.toString());
+        file.setEncoder(encoder);
+        file.start();
+
+        Appender<ILoggingEvent> root = file;
+        if ("async".equals(appender)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(loggerContext);
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(0);
+            async.setNeverBlock(true);
+            async.addAppender(file);
+            async.start();
+            root = async;
+        }
+
+        ch.qos.logback.classic.Logger rootLogger = loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        rootLogger.setLevel(ch.qos.logback.classic.Level.INFO);
+        rootLogger.addAppender(root);
+
+        url = "https://www.example.com/search?q=benchmark";
+        StringBuilder sb = new StringBuilder("当前 URL: ").append(url).append("\n页面标题: Example\n");
+        for (int i = 0; i < 40; i++) {
+            sb.append("可用按钮: #btn-").append(i).append(" \"提交查询按钮").append(i).append("\"\n");
+        }
+        pageState = sb.toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        loggerContext.stop();
+        Files.deleteIfExists(logFile);
+    }
+
+    @Benchmark
+    public String legacy() {
+        legacyLog.info("");
+        legacyLog.info("┌─────────────────────────────────────────────────────────────┐");
+        legacyLog.info("│ 🌐 工具调用: navigate (打开网页)                         │");
+        legacyLog.info("├─────────────────────────────────────────────────────────────┤");
+        legacyLog.info("│ 📥 输入参数:");
+        legacyLog.info("│    • url: {}", url);
+        legacyLog.info("│    • headless: {}", false);
+        legacyLog.info("│    • remote mode: {}", false);
+        legacyLog.info("│ 🌐 创建新的页面窗口");
+        String result = String.format("成功打开页面\n%s", pageState);
+        legacyLog.info("│ 📤 返回结果:");
+        legacyLog.info("│    {}", result);
+        legacyLog.info("└─────────────────────────────────────────────────────────────┘");
+        legacyLog.info("");
+        return result;
+    }
+
+    @Benchmark
+    public String structured() {
+        CallLog call = CallLog.tool("navigate", url, false).attr("remote", false);
+        return call.ok(String.format("成功打开页面\n%s", pageState));
+    }
+}
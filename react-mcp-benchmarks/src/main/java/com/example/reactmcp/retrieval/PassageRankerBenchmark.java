@@ -0,0 +1,43 @@
+package com.example.reactmcp.retrieval;
+
+import com.example.reactmcp.fixtures.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 段落检索耗时：每次调用切段、建索引、BM25 打分和选段的完整路径，以及只切段的开销
+ * pageChars 取 64 KB 的普通页面和 1 MB 的大文件；用 -prof gc 查看 gc.alloc.rate.norm
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PassageRankerBenchmark {
+
+    // 任务内容 + 上一步思考
+    private static final String QUERY = "帮我查一下这家公司本季度的营收增长和云服务收入占比\n"
+            + "页面内容很长，我需要找到财报相关的段落，重点看 growth 和 inflation 的描述";
+
+    @Param({"65536", "1048576"})
+    public int pageChars;
+
+    private String text;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        text = BenchmarkFixtures.pageText(pageChars);
+    }
+
+    @Benchmark
+    public String rank() {
+        return PassageRanker.rank(text, QUERY, 8000, 600).getText();
+    }
+
+    @Benchmark
+    public int[] split() {
+        return PassageRanker.split(text, 600);
+    }
+}
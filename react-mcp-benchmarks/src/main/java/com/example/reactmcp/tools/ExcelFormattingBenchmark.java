@@ -0,0 +1,65 @@
+package com.example.reactmcp.tools;
+
+import com.example.reactmcp.fixtures.BenchmarkFixtures;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * readExcelDocument 的格式化开销（不含文件解析）：50k 行、6 种单元格类型的工作表
+ * cellValues 只测 getCellValueAsString；appendRows 测整段行格式化循环，maxRows=1000 为工具的上限
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ExcelFormattingBenchmark {
+
+    @Param({"50000"})
+    public int rows;
+
+    @Param({"1000", "50000"})
+    public int maxRows;
+
+    private XSSFWorkbook workbook;
+    private Sheet sheet;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        workbook = BenchmarkFixtures.spreadsheet(rows);
+        sheet = workbook.getSheetAt(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        workbook.close();
+    }
+
+    @Benchmark
+    public void cellValues(Blackhole blackhole) {
+        int count = 0;
+        for (Row row : sheet) {
+            if (count++ >= maxRows) {
+                break;
+            }
+            for (Cell cell : row) {
+                blackhole.consume(DocumentReaderTools.getCellValueAsString(cell));
+            }
+        }
+    }
+
+    @Benchmark
+    public int appendRows() {
+        StringBuilder content = new StringBuilder();
+        DocumentReaderTools.appendRows(sheet, maxRows, content);
+        return content.length();
+    }
+}
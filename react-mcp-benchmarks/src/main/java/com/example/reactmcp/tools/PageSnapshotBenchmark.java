@@ -0,0 +1,88 @@
+package com.example.reactmcp.tools;
+
+import com.example.reactmcp.browser.AccessibilitySnapshot;
+import com.example.reactmcp.browser.ContentExtractor;
+import com.example.reactmcp.browser.PageStateTracker;
+import com.example.reactmcp.fixtures.BenchmarkFixtures;
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 页面理解类工具的生成耗时：snapshot（无障碍树快照）对比 getVisibleText、getVisibleHtml、analyzePage
+ * 各自执行页面内脚本加上返回前的 Java 侧处理；sections 取普通页面（20 个区块）和长列表页面（200 个区块）
+ * 启动时打印各工具输出的字符数和估算 token 数，便于同时比较体积
+ * 需要本机可运行 Playwright Chromium（首次运行时自动下载）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class PageSnapshotBenchmark {
+
+    @Param({"20", "200"})
+    public int sections;
+
+    private Playwright playwright;
+    private Browser browser;
+    private Page page;
+    private final Map<String, Object> htmlArgs = new HashMap<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        playwright = Playwright.create();
+        browser = playwright.chromium().launch(new BrowserType.LaunchOptions().setHeadless(true));
+        page = browser.newPage();
+        page.setContent(BenchmarkFixtures.pageHtml(sections));
+        htmlArgs.put("selector", null);
+        htmlArgs.put("cleanHtml", true);
+
+        report("snapshot", snapshot());
+        report("getVisibleText", visibleText());
+        report("getVisibleHtml", visibleHtml());
+        report("analyzePage", analyzePage());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        browser.close();
+        playwright.close();
+    }
+
+    @Benchmark
+    public String snapshot() {
+        return AccessibilitySnapshot.capture(page, 2000, 100).getText();
+    }
+
+    @Benchmark
+    public String visibleText() {
+        return ContentExtractor.extract(page, 5000).getText();
+    }
+
+    @Benchmark
+    public String visibleHtml() {
+        return PlaywrightMcpTools.compressText((String) page.evaluate(PlaywrightMcpTools.VISIBLE_HTML_SCRIPT, htmlArgs), 8000);
+    }
+
+    /**
+     * analyzePage 的路径；DOM 没有变化时页面内清单不重新扫描，测得的是页面静止时的开销
+     */
+    @Benchmark
+    public String analyzePage() {
+        return PlaywrightMcpTools.formatPageState(PageStateTracker.observe(page, true, false));
+    }
+
+    private void report(String tool, String output) {
+        System.out.printf("[sections=%d] %-15s %6d chars, ~%5d tokens%n",
+                sections, tool, output.length(), AccessibilitySnapshot.estimateTokens(output));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.reactmcp.tools;
+
+import com.example.reactmcp.fixtures.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 页面文本处理热点：getVisibleHtml 的压缩，返回前的敏感词过滤，getText 分段读取
+ * pageChars 取 1 MB 的大页面和 64 KB 的普通页面；用 -prof gc 查看 gc.alloc.rate.norm
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextProcessingBenchmark {
+
+    @Param({"65536", "1048576"})
+    public int pageChars;
+
+    private String page;
+    private String compressed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        page = BenchmarkFixtures.pageText(pageChars);
+        compressed = PlaywrightMcpTools.compressText(page, 5000);
+    }
+
+    @Benchmark
+    public String compressText() {
+        return PlaywrightMcpTools.compressText(page, 5000);
+    }
+
+    /**
+     * getVisibleText / getVisibleHtml 返回前的路径：截断或压缩后的 5000 字符再过滤
+     */
+    @Benchmark
+    public String filterCompressed() {
+        return PlaywrightMcpTools.filterSensitiveContent(compressed);
+    }
+
+    /**
+     * 对整页过滤（getText 分段读取时的路径）
+     */
+    @Benchmark
+    public String filterFullPage() {
+        return PlaywrightMcpTools.filterSensitiveContent(page);
+    }
+
+    /**
+     * getTextInChunks 取到页面文本之后的处理：过滤并按 2000 字符分段
+     */
+    @Benchmark
+    public List<String> textInChunks() {
+        return PlaywrightMcpTools.splitIntoChunks(PlaywrightMcpTools.filterSensitiveContent(page), 2000);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.reactmcp.web;
+
+import com.example.reactmcp.model.ReActStepEvent;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个事件序列化到输出缓冲区的开销
+ * legacy: 旧版可变事件（Long 时间戳）先 writeValueAsString，再由 SSE 转换器编码成字节写出
+ * objectMapper: 新的不可变事件交给 ObjectMapper 反射序列化，直接写入输出流
+ * codec: EventJsonCodec 按字段写入可复用的输出缓冲区
+ * 用 -prof gc 运行，对比 gc.alloc.rate.norm（每次操作分配的字节数）
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventSerializationBenchmark {
+
+    @Param({"200", "8000"})
+    public int payloadChars;
+
+    private ObjectMapper mapper;
+    private EventJsonCodec codec;
+    private ByteArrayOutputStream buffer;
+    private LegacyStepEvent legacyEvent;
+    private ReActStepEvent event;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        codec = new EventJsonCodec(mapper);
+        buffer = new ByteArrayOutputStream(payloadChars * 2 + 256);
+
+        StringBuilder sb = new StringBuilder(payloadChars);
+        while (sb.length() < payloadChars) {
+            sb.append("页面文本 observation line with \"quotes\" ");
+        }
+        String output = sb.substring(0, payloadChars);
+
+        legacyEvent = new LegacyStepEvent();
+        legacyEvent.setType("observation");
+        legacyEvent.setToolOutput(output);
+        event = ReActStepEvent.observation(output).withId(42);
+    }
+
+    @Benchmark
+    public int legacy() throws IOException {
+        buffer.reset();
+        String json = mapper.writeValueAsString(legacyEvent);
+        buffer.write(json.getBytes(StandardCharsets.UTF_8));
+        return buffer.size();
+    }
+
+    @Benchmark
+    public int objectMapper() throws IOException {
+        buffer.reset();
+        mapper.writeValue(buffer, event);
+        return buffer.size();
+    }
+
+    @Benchmark
+    public int codec() throws IOException {
+        buffer.reset();
+        codec.write(event, buffer);
+        return buffer.size();
+    }
+
+    /**
+     * 旧版 ReActStepEvent 的结构（可变、字符串类型、装箱时间戳）
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class LegacyStepEvent {
+        private Long id = 42L;
+        private String type;
+        private String content;
+        private String toolName;
+        private String toolInput;
+        private String toolOutput;
+        private Long timestamp = System.currentTimeMillis();
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public String getToolName() {
+            return toolName;
+        }
+
+        public String getToolInput() {
+            return toolInput;
+        }
+
+        public String getToolOutput() {
+            return toolOutput;
+        }
+
+        public void setToolOutput(String toolOutput) {
+            this.toolOutput = toolOutput;
+        }
+
+        public Long getTimestamp() {
+            return timestamp;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.reactmcp.browser;
+
+import com.microsoft.playwright.Page;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 无障碍树快照
+ * 页面内脚本按 DOM 顺序计算每个节点的角色、名称和状态，去掉不可见、装饰性（presentation / none）
+ * 和没有语义的容器（只保留其子节点），输出缩进的紧凑文本；可交互元素带 ref 编号（e1、e2…），
+ * 编号按元素记在页面内，同一文档中重复快照时保持不变，跳转到新文档后失效（见 ElementRefs）
+ * 输出按估算的 token 数截断
+ */
+public final class AccessibilitySnapshot {
+
+    // 页面内的 ref 表：__reactRefs.els 为 ref -> WeakRef(元素)，ids 为元素 -> ref
+    static final String SNAPSHOT_SCRIPT = """
+            opts => {
+              const refs = window.__reactRefs || (window.__reactRefs = { next: 1, ids: new WeakMap(), els: new Map() });
+              const refOf = el => {
+                let id = refs.ids.get(el);
+                if (!id) { id = 'e' + refs.next++; refs.ids.set(el, id); }
+                refs.els.set(id, new WeakRef(el));
+                return id;
+              };
+              const SKIP = new Set(['SCRIPT', 'STYLE', 'NOSCRIPT', 'TEMPLATE', 'META', 'LINK', 'HEAD']);
+              const INTERACTIVE = new Set(['link', 'button', 'textbox', 'searchbox', 'checkbox', 'radio', 'combobox',
+                'listbox', 'option', 'slider', 'spinbutton', 'switch', 'tab', 'menuitem', 'menuitemcheckbox',
+                'menuitemradio', 'treeitem']);
+              const FROM_CONTENT = new Set(['link', 'button', 'heading', 'option', 'tab', 'menuitem', 'menuitemcheckbox',
+                'menuitemradio', 'treeitem', 'cell', 'columnheader', 'rowheader', 'switch', 'checkbox', 'radio']);
+              const TAGS = { BUTTON: 'button', TEXTAREA: 'textbox', NAV: 'navigation', MAIN: 'main', HEADER: 'banner',
+                FOOTER: 'contentinfo', ASIDE: 'complementary', FORM: 'form', UL: 'list', OL: 'list', LI: 'listitem',
+                TABLE: 'table', TR: 'row', TH: 'columnheader', TD: 'cell', DIALOG: 'dialog', P: 'paragraph',
+                OPTION: 'option', ARTICLE: 'article', SUMMARY: 'button', IFRAME: 'iframe', H1: 'heading',
+                H2: 'heading', H3: 'heading', H4: 'heading', H5: 'heading', H6: 'heading' };
+              const INPUTS = { checkbox: 'checkbox', radio: 'radio', button: 'button', submit: 'button', reset: 'button',
+                image: 'button', range: 'slider', search: 'searchbox', number: 'spinbutton' };
+              const clean = s => (s || '').replace(/\\s+/g, ' ').trim();
+              const cut = s => s.length > opts.maxText ? s.slice(0, opts.maxText) + '…' : s;
+              const quote = s => '"' + cut(s).replace(/"/g, '\\\\"') + '"';
+              const roleOf = el => {
+                const explicit = clean(el.getAttribute('role')).split(' ')[0];
+                if (explicit) return explicit;
+                const tag = el.tagName;
+                if (tag === 'A') return el.hasAttribute('href') ? 'link' : null;
+                if (tag === 'IMG') return el.getAttribute('alt') === '' ? 'presentation' : 'img';
+                if (tag === 'SELECT') return el.multiple || el.size > 1 ? 'listbox' : 'combobox';
+                if (tag === 'INPUT') {
+                  const type = (el.getAttribute('type') || 'text').toLowerCase();
+                  return type === 'hidden' ? 'none' : INPUTS[type] || 'textbox';
+                }
+                if (tag === 'SECTION') return el.hasAttribute('aria-label') || el.hasAttribute('aria-labelledby') ? 'region' : null;
+                return TAGS[tag] || null;
+              };
+              const hidden = el => {
+                if (el.hidden || el.getAttribute('aria-hidden') === 'true') return true;
+                const style = getComputedStyle(el);
+                if (style.display === 'none' || style.visibility === 'hidden') return true;
+                return style.display !== 'contents' && el.getClientRects().length === 0;
+              };
+              const nameOf = (el, role) => {
+                const label = el.getAttribute('aria-label');
+                if (label && clean(label)) return { text: clean(label) };
+                const labelledBy = el.getAttribute('aria-labelledby');
+                if (labelledBy) {
+                  const text = clean(labelledBy.split(/\\s+/).map(id => document.getElementById(id))
+                      .filter(Boolean).map(n => n.innerText || n.textContent).join(' '));
+                  if (text) return { text };
+                }
+                if (el.labels && el.labels.length) {
+                  const text = clean(el.labels[0].innerText);
+                  if (text) return { text };
+                }
+                if (el.tagName === 'IMG' || (el.tagName === 'INPUT' && el.type === 'image')) {
+                  if (clean(el.alt)) return { text: clean(el.alt) };
+                }
+                if (el.tagName === 'INPUT' && ['submit', 'reset', 'button'].includes(el.type) && clean(el.value)) {
+                  return { text: clean(el.value) };
+                }
+                if (FROM_CONTENT.has(role)) {
+                  const text = clean(el.innerText);
+                  if (text) return { text, fromContent: true };
+                }
+                const fallback = clean(el.getAttribute('placeholder') || el.getAttribute('title'));
+                return fallback ? { text: fallback } : null;
+              };
+              const statesOf = (el, role) => {
+                const s = [];
+                if (role === 'heading') s.push('level=' + (el.getAttribute('aria-level') || el.tagName.slice(1)));
+                if ((role === 'checkbox' || role === 'radio' || role === 'switch')
+                    && (el.checked || el.getAttribute('aria-checked') === 'true')) s.push('checked');
+                if (el.disabled || el.getAttribute('aria-disabled') === 'true') s.push('disabled');
+                const expanded = el.getAttribute('aria-expanded');
+                if (expanded) s.push(expanded === 'true' ? 'expanded' : 'collapsed');
+                if (el.selected || el.getAttribute('aria-selected') === 'true') s.push('selected');
+                if (el.getAttribute('aria-pressed') === 'true') s.push('pressed');
+                if (el.required) s.push('required');
+                return s;
+              };
+              const lines = [];
+              let truncated = false;
+              let refCount = 0;
+              const emit = (depth, text) => {
+                if (lines.length >= opts.maxLines) { truncated = true; return false; }
+                lines.push('  '.repeat(depth) + '- ' + text);
+                return true;
+              };
+              // 同一层连续的文本合并成一行
+              let pending = null;
+              const flush = () => {
+                if (pending && pending.text) emit(pending.depth, 'text: ' + cut(pending.text));
+                pending = null;
+              };
+              const text = (depth, value) => {
+                if (pending && pending.depth !== depth) flush();
+                pending = pending || { depth, text: '' };
+                pending.text = clean(pending.text + ' ' + value);
+              };
+              const walk = (node, depth) => {
+                for (const child of node.childNodes) {
+                  if (truncated) return;
+                  if (child.nodeType === Node.TEXT_NODE) {
+                    const value = clean(child.textContent);
+                    if (value) text(depth, value);
+                    continue;
+                  }
+                  if (child.nodeType !== Node.ELEMENT_NODE || SKIP.has(child.tagName) || hidden(child)) continue;
+                  const role = roleOf(child);
+                  if (!role || role === 'generic' || role === 'presentation' || role === 'none') {
+                    walk(child, depth);
+                    continue;
+                  }
+                  flush();
+                  const name = nameOf(child, role);
+                  let line = role + (name ? ' ' + quote(name.text) : '');
+                  const states = statesOf(child, role);
+                  if (role === 'textbox' || role === 'searchbox' || role === 'combobox' || role === 'spinbutton') {
+                    const value = child.type === 'password' ? (child.value ? '••••' : '') : clean(child.value);
+                    if (value) line += ' value=' + quote(value);
+                  }
+                  if (states.length) line += ' [' + states.join(', ') + ']';
+                  if (INTERACTIVE.has(role)) { line += ' [ref=' + refOf(child) + ']'; refCount++; }
+                  // 名称取自内容的元素不再展开子节点，只有一段文本的非交互元素把文本放在同一行
+                  if (name && name.fromContent) { emit(depth, line); continue; }
+                  if (!INTERACTIVE.has(role) && role !== 'iframe' && child.children.length === 0 && clean(child.textContent)) {
+                    emit(depth, line + ': ' + cut(clean(child.textContent)));
+                    continue;
+                  }
+                  if (!emit(depth, line)) return;
+                  if (role !== 'iframe') walk(child, depth + 1);
+                  flush();
+                }
+              };
+              if (document.body) walk(document.body, 0);
+              flush();
+              return { lines, truncated, refs: refCount, url: location.href, title: document.title };
+            }
+            """;
+
+    private AccessibilitySnapshot() {
+    }
+
+    /**
+     * 生成快照，按 maxTokens 截断
+     *
+     * @param maxTextLength 单个名称或文本的最大字符数
+     */
+    @SuppressWarnings("unchecked")
+    public static Result capture(Page page, int maxTokens, int maxTextLength) {
+        long start = System.nanoTime();
+        // 每行至少约 3 个 token，页面内先按行数粗截，避免传回整棵树
+        Map<String, Object> raw = (Map<String, Object>) page.evaluate(SNAPSHOT_SCRIPT, Map.of(
+                "maxText", maxTextLength,
+                "maxLines", Math.max(1, maxTokens / 3)));
+        List<String> lines = (List<String>) raw.get("lines");
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("URL: ").append(raw.get("url")).append('\n');
+        sb.append("标题: ").append(raw.get("title")).append('\n');
+        int tokens = estimateTokens(sb);
+        int kept = 0;
+        for (String line : lines) {
+            int lineTokens = estimateTokens(line) + 1;
+            if (tokens + lineTokens > maxTokens) {
+                break;
+            }
+            sb.append(line).append('\n');
+            tokens += lineTokens;
+            kept++;
+        }
+        boolean truncated = kept < lines.size() || Boolean.TRUE.equals(raw.get("truncated"));
+        if (truncated) {
+            sb.append("- … 已按 ").append(maxTokens).append(" token 上限截断（可增大 maxTokens，或用 getText 读取局部）\n");
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        Object refs = raw.get("refs");
+        return new Result(sb.toString().trim(), tokens, kept, refs instanceof Number n ? n.intValue() : 0, truncated, millis);
+    }
+
+    /**
+     * 估算 token 数：中日韩字符约每字 1 个，其余字符约每 4 个 1 个
+     */
+    public static int estimateTokens(CharSequence text) {
+        int cjk = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x2E80 && c <= 0x9FFF || c >= 0xAC00 && c <= 0xD7AF || c >= 0xF900 && c <= 0xFAFF
+                    || c >= 0xFF00 && c <= 0xFFEF) {
+                cjk++;
+            } else {
+                other++;
+            }
+        }
+        return cjk + (other + 3) / 4;
+    }
+
+    /**
+     * 快照结果：文本、估算 token 数、保留的节点行数、ref 数、是否截断、生成耗时
+     */
+    public static class Result {
+        private final String text;
+        private final int tokens;
+        private final int lines;
+        private final int refs;
+        private final boolean truncated;
+        private final long millis;
+
+        Result(String text, int tokens, int lines, int refs, boolean truncated, long millis) {
+            this.text = text;
+            this.tokens = tokens;
+            this.lines = lines;
+            this.refs = refs;
+            this.truncated = truncated;
+            this.millis = millis;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public int getTokens() {
+            return tokens;
+        }
+
+        public int getLines() {
+            return lines;
+        }
+
+        public int getRefs() {
+            return refs;
+        }
+
+        public boolean isTruncated() {
+            return truncated;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+    }
+}
@@ -0,0 +1,465 @@
+package com.example.reactmcp.browser;
+
+import com.example.reactmcp.config.BrowserPoolProperties;
+import com.example.reactmcp.logging.CallLog;
+import com.example.reactmcp.model.BrowserPoolMetrics;
+import com.example.reactmcp.service.ReActEventPublisher;
+import com.example.reactmcp.service.TaskControlRegistry;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.service.tool.ToolExecutor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地浏览器池
+ * - 固定数量的工作线程，每个线程独占一个 Playwright 实例和浏览器进程（Playwright 对象只在创建它的线程上使用）
+ * - 每个任务第一次调用浏览器工具时租用一个隔离的 BrowserContext（cookies / localStorage 互不影响），任务结束时归还并关闭
+ * - 浏览器工具在租用会话所属的工作线程上执行，不同工作线程上的任务可以同时操作浏览器
+ * - 可保持若干预热的空闲上下文（已打开空白页），空闲超时的租用会被回收；仍在运行的任务（等待模型、暂停或等待回答时）不回收
+ * 远程浏览器模式下不使用本地浏览器，工具直接在调用线程上执行
+ */
+@Component
+public class BrowserPool {
+
+    private static final Logger log = LoggerFactory.getLogger(BrowserPool.class);
+
+    // 未绑定任务的调用（/react/solve）共用一个会话
+    static final String SHARED_KEY = "shared";
+
+    // 每个文档加载时生成随机标识并统计 DOM 变更次数，供 pageVersion 判断页面是否变化；
+    // 同时记录最后一次变更时间，供 PageSettler 判断 DOM 是否安静
+    private static final String PAGE_VERSION_SCRIPT = """
+            window.__reactDocId = Math.random().toString(36).slice(2);
+            window.__reactMutations = 0;
+            window.__reactLastMutation = performance.now();
+            new MutationObserver(records => {
+                window.__reactMutations += records.length;
+                window.__reactLastMutation = performance.now();
+            })
+                .observe(document, { subtree: true, childList: true, attributes: true, characterData: true });
+            """;
+
+    // 当前工作线程正在执行的会话
+    private static final ThreadLocal<BrowserSession> CURRENT = new ThreadLocal<>();
+
+    private final BrowserPoolProperties properties;
+    private final ReActEventPublisher eventPublisher;
+    private final TaskControlRegistry taskControls;
+    private final ResourceBlocker resourceBlocker;
+    private final boolean remoteBrowserEnabled;
+    private final boolean lazyInit;
+    private final boolean warmUpEnabled;
+    private final boolean warmUpHeadless;
+
+    private final List<BrowserWorker> workers = new ArrayList<>();
+    private final Semaphore permits;
+    private final Map<String, BrowserSession> leases = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<BrowserSession> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger replenishing = new AtomicInteger();
+    private final ScheduledExecutorService maintenance;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder reclaimed = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    // 预热状态：disabled / pending / warming / ready / failed
+    private volatile String warmUpState = "disabled";
+    private volatile String warmUpError;
+    private volatile long warmUpMillis = -1;
+
+    public BrowserPool(BrowserPoolProperties properties,
+                       ReActEventPublisher eventPublisher,
+                       TaskControlRegistry taskControls,
+                       ResourceBlocker resourceBlocker,
+                       @Value("${app.remote-browser.enabled:false}") boolean remoteBrowserEnabled,
+                       @Value("${app.playwright.lazy-init:false}") boolean lazyInit,
+                       @Value("${app.playwright.warm-up.enabled:false}") boolean warmUpEnabled,
+                       @Value("${app.playwright.warm-up.headless:false}") boolean warmUpHeadless) {
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.taskControls = taskControls;
+        this.resourceBlocker = resourceBlocker;
+        this.remoteBrowserEnabled = remoteBrowserEnabled;
+        this.lazyInit = lazyInit;
+        this.warmUpEnabled = warmUpEnabled;
+        this.warmUpHeadless = warmUpHeadless;
+        for (int i = 1; i <= Math.max(1, properties.getWorkers()); i++) {
+            workers.add(new BrowserWorker(i));
+        }
+        this.permits = new Semaphore(Math.max(1, properties.getMaxContexts()), true);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "browser-pool-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void init() {
+        log.info("🎭 初始化 Playwright 浏览器池...");
+
+        // 如果启用了远程浏览器模式，则不需要初始化本地 Playwright
+        if (remoteBrowserEnabled) {
+            log.info("✅ 远程浏览器模式已启用，跳过本地 Playwright 初始化");
+            return;
+        }
+
+        long period = Math.max(1, Math.min(30, properties.getIdleTimeoutSeconds()));
+        maintenance.scheduleWithFixedDelay(this::reclaimIdle, period, period, TimeUnit.SECONDS);
+
+        if (warmUpEnabled) {
+            warmUpState = "pending";
+        }
+        if (lazyInit || warmUpEnabled) {
+            log.info("✅ Playwright 将在{}时创建", warmUpEnabled ? "后台预热" : "首次启动浏览器");
+            return;
+        }
+
+        for (BrowserWorker worker : workers) {
+            try {
+                worker.call(() -> {
+                    worker.ensurePlaywright();
+                    return null;
+                });
+            } catch (Exception e) {
+                log.error("❌ Playwright 初始化失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 应用就绪后在后台预热：每个工作线程启动浏览器，并准备空闲上下文（打开空白页），不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnReady() {
+        if (remoteBrowserEnabled || !warmUpEnabled) {
+            return;
+        }
+        warmUpState = "warming";
+        maintenance.execute(this::warmUp);
+    }
+
+    private void warmUp() {
+        long start = System.nanoTime();
+        try {
+            List<Future<Boolean>> launches = new ArrayList<>();
+            for (BrowserWorker worker : workers) {
+                launches.add(worker.submit(() -> worker.ensureBrowser(warmUpHeadless)));
+            }
+            for (Future<Boolean> launch : launches) {
+                launch.get();
+            }
+            for (Future<?> warm : replenish()) {
+                warm.get();
+            }
+            warmUpMillis = (System.nanoTime() - start) / 1_000_000;
+            warmUpState = "ready";
+            log.info("✅ 浏览器预热完成，{} 个工作线程，耗时 {} ms", workers.size(), warmUpMillis);
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            warmUpError = cause.getMessage();
+            warmUpState = "failed";
+            log.warn("浏览器预热失败，首次 navigate 时重新启动: {}", cause.getMessage());
+        }
+    }
+
+    /**
+     * 为浏览器工具执行器加上会话调度：调用时为当前任务租用会话，并在会话所属的工作线程上执行
+     */
+    public Map<ToolSpecification, ToolExecutor> bind(Map<ToolSpecification, ToolExecutor> executors) {
+        Map<ToolSpecification, ToolExecutor> bound = new LinkedHashMap<>();
+        executors.forEach((specification, delegate) -> bound.put(specification, (request, memoryId) -> {
+            try {
+                return run(() -> delegate.execute(request, memoryId));
+            } catch (TimeoutException e) {
+                return CallLog.tool(request.name()).error("错误: " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for browser", e);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }));
+        return bound;
+    }
+
+    /**
+     * 在当前任务的会话上执行（没有租用时先租用），远程模式或已在会话中时直接执行
+     *
+     * @throws TimeoutException 等待 acquire-timeout-seconds 后仍没有可用的上下文
+     */
+    public <T> T run(Callable<T> task) throws Exception {
+        if (remoteBrowserEnabled || CURRENT.get() != null) {
+            return task.call();
+        }
+        String taskId = eventPublisher.currentTaskId();
+        return execute(lease(taskId != null ? taskId : SHARED_KEY), taskId, task);
+    }
+
+    /**
+     * 当前任务已租用会话时在其上执行，否则返回 null（任务检查点读取页面状态时使用，不为此租用）
+     */
+    public <T> T ifLeased(Callable<T> task) throws Exception {
+        if (remoteBrowserEnabled || CURRENT.get() != null) {
+            return task.call();
+        }
+        String taskId = eventPublisher.currentTaskId();
+        BrowserSession session = leases.get(taskId != null ? taskId : SHARED_KEY);
+        return session == null ? null : execute(session, taskId, task);
+    }
+
+    /**
+     * 当前工作线程正在执行的会话，不在会话中时返回 null
+     */
+    public static BrowserSession current() {
+        return CURRENT.get();
+    }
+
+    private <T> T execute(BrowserSession session, String taskId, Callable<T> task) throws Exception {
+        session.touch();
+        try {
+            return session.getWorker().call(() -> {
+                CURRENT.set(session);
+                try (ReActEventPublisher.Binding ignored = taskId != null ? eventPublisher.bind(taskId) : null) {
+                    return task.call();
+                } finally {
+                    CURRENT.remove();
+                }
+            });
+        } finally {
+            session.touch();
+        }
+    }
+
+    private BrowserSession lease(String key) throws InterruptedException, TimeoutException {
+        BrowserSession session = leases.get(key);
+        if (session != null) {
+            return session;
+        }
+
+        long start = System.nanoTime();
+        waiting.incrementAndGet();
+        boolean granted;
+        try {
+            granted = permits.tryAcquire(properties.getAcquireTimeoutSeconds(), TimeUnit.SECONDS);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        long waited = System.nanoTime() - start;
+        waitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (!granted) {
+            timeouts.increment();
+            throw new TimeoutException("浏览器池已满（" + properties.getMaxContexts() + " 个上下文均在使用中），等待 "
+                    + properties.getAcquireTimeoutSeconds() + " 秒后仍无空闲");
+        }
+
+        BrowserSession candidate = idle.pollFirst();
+        boolean warm = candidate != null;
+        if (candidate == null) {
+            candidate = newSession();
+        }
+        BrowserSession existing = leases.putIfAbsent(key, candidate);
+        if (existing != null) {
+            // 同一个键被并发租用，保留先到的会话
+            permits.release();
+            if (warm) {
+                idle.addFirst(candidate);
+            } else {
+                discard(candidate);
+            }
+            return existing;
+        }
+        acquired.increment();
+        candidate.touch();
+        if (warm) {
+            maintenance.execute(this::replenish);
+        }
+        log.debug("Leased browser context on worker {} for {} (warm={}, waited={}ms)",
+                candidate.getWorker().getIndex(), key, warm, waited / 1_000_000);
+        return candidate;
+    }
+
+    /**
+     * 归还任务的会话并关闭其上下文（任务结束或 closeBrowser 时调用）
+     */
+    public void release(String taskId) {
+        BrowserSession session = leases.remove(taskId);
+        if (session != null) {
+            permits.release();
+            discard(session);
+        }
+    }
+
+    /**
+     * 归还当前任务的会话
+     */
+    public void releaseCurrent() {
+        String taskId = eventPublisher.currentTaskId();
+        release(taskId != null ? taskId : SHARED_KEY);
+    }
+
+    private BrowserSession newSession() {
+        BrowserWorker worker = workers.stream()
+                .min(Comparator.comparingInt(w -> w.sessions().get()))
+                .orElseThrow();
+        worker.sessions().incrementAndGet();
+        return new BrowserSession(worker, PAGE_VERSION_SCRIPT + PageStateTracker.SCRIPT, resourceBlocker);
+    }
+
+    private void discard(BrowserSession session) {
+        BrowserWorker worker = session.getWorker();
+        worker.sessions().decrementAndGet();
+        worker.execute(session::close);
+    }
+
+    /**
+     * 补足预热的空闲上下文，上下文在各自的工作线程上创建
+     */
+    private List<Future<?>> replenish() {
+        List<Future<?>> pending = new ArrayList<>();
+        int target = idleTarget();
+        while (idle.size() + replenishing.get() < target) {
+            replenishing.incrementAndGet();
+            BrowserSession session = newSession();
+            pending.add(session.getWorker().submit(() -> {
+                try {
+                    session.warm(warmUpHeadless);
+                    created.increment();
+                    idle.addLast(session);
+                } catch (Exception e) {
+                    log.warn("预热浏览器上下文失败: {}", e.getMessage());
+                    session.getWorker().sessions().decrementAndGet();
+                    session.close();
+                } finally {
+                    replenishing.decrementAndGet();
+                }
+                return null;
+            }));
+        }
+        return pending;
+    }
+
+    private int idleTarget() {
+        return Math.max(properties.getMinIdle(), warmUpEnabled ? 1 : 0);
+    }
+
+    /**
+     * 回收空闲超时的租用和多余的空闲上下文，然后补足预热上下文
+     * 任务仍注册在 TaskControlRegistry 中时不回收其租用（两次工具调用之间可能长时间等待模型或用户），
+     * 由任务结束时 release；只回收已结束任务遗留的租用和同步接口的共享会话
+     */
+    private void reclaimIdle() {
+        try {
+            long cutoff = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(properties.getIdleTimeoutSeconds());
+            leases.forEach((key, session) -> {
+                if (session.getLastUsed() < cutoff && taskControls.get(key) == null && leases.remove(key, session)) {
+                    permits.release();
+                    discard(session);
+                    reclaimed.increment();
+                    log.info("Reclaimed browser context of {} after {}s idle", key, properties.getIdleTimeoutSeconds());
+                }
+            });
+            for (BrowserSession session : idle) {
+                if (idle.size() > idleTarget() && session.getCreatedAt() < cutoff && idle.remove(session)) {
+                    discard(session);
+                    reclaimed.increment();
+                }
+            }
+            if (!"warming".equals(warmUpState)) {
+                replenish();
+            }
+        } catch (Exception e) {
+            log.warn("Browser pool maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    public String getWarmUpState() {
+        return remoteBrowserEnabled ? "remote" : warmUpState;
+    }
+
+    public long getWarmUpMillis() {
+        return warmUpMillis;
+    }
+
+    public String getWarmUpError() {
+        return warmUpError;
+    }
+
+    /**
+     * 是否有工作线程的浏览器处于连接状态
+     */
+    public boolean isBrowserConnected() {
+        return workers.stream().anyMatch(BrowserWorker::isConnected);
+    }
+
+    public BrowserPoolMetrics getMetrics() {
+        BrowserPoolMetrics metrics = new BrowserPoolMetrics();
+        int max = Math.max(1, properties.getMaxContexts());
+        int leased = leases.size();
+        long count = acquired.sum();
+        metrics.setWorkers(workers.size());
+        metrics.setMaxContexts(max);
+        metrics.setLeased(leased);
+        metrics.setIdle(idle.size());
+        metrics.setWaiting(waiting.get());
+        metrics.setUtilization(leased / (double) max);
+        metrics.setAcquired(count);
+        metrics.setTimeouts(timeouts.sum());
+        metrics.setReclaimed(reclaimed.sum());
+        metrics.setCreated(created.sum());
+        metrics.setAvgWaitMillis(count + timeouts.sum() == 0 ? 0 : waitNanos.sum() / 1e6 / (count + timeouts.sum()));
+        metrics.setMaxWaitMillis(maxWaitNanos.get() / 1e6);
+        metrics.setWarmUp(getWarmUpState());
+        metrics.setWorkerContexts(workers.stream().map(BrowserWorker::getContexts).toList());
+        metrics.setWorkerUtilization(workers.stream().map(BrowserWorker::getUtilization).toList());
+        metrics.setBlockingPreset(resourceBlocker.getPreset());
+        metrics.setBlockedRequests(resourceBlocker.getBlockedRequests());
+        metrics.setBlockedBytes(resourceBlocker.getBlockedBytes());
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        maintenance.shutdownNow();
+        if (remoteBrowserEnabled) {
+            return;
+        }
+        log.info("🧹 清理 Playwright 资源...");
+        // 关闭浏览器时其上的上下文随之关闭
+        leases.clear();
+        idle.clear();
+        workers.forEach(BrowserWorker::shutdown);
+        log.info("✅ Playwright 资源已清理");
+    }
+}
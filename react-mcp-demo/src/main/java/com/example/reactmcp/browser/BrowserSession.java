@@ -0,0 +1,176 @@
+package com.example.reactmcp.browser;
+
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一个任务租用的浏览器会话：所属工作线程上的一个隔离上下文、当前页面和控制台日志
+ * 除租用时间外，所有方法只在所属工作线程上调用
+ */
+public class BrowserSession {
+
+    private final BrowserWorker worker;
+    private final String initScript;
+    private final ResourceBlocker blocker;
+    private final ResourceBlocker.PageStats blocked = new ResourceBlocker.PageStats();
+    private BrowserContext context;
+    private boolean headless; // 当前上下文所在浏览器的模式
+    private Page page;
+    private PageActivity activity; // 当前页面的网络和导航活动
+    private Page warmPage; // 预热时打开的空白页，第一次 navigate 直接使用
+    private final List<ConsoleLogEntry> consoleLogs = new ArrayList<>();
+    private volatile long lastUsed = System.currentTimeMillis();
+    private final long createdAt = System.currentTimeMillis();
+
+    BrowserSession(BrowserWorker worker, String initScript, ResourceBlocker blocker) {
+        this.worker = worker;
+        this.initScript = initScript;
+        this.blocker = blocker;
+    }
+
+    /**
+     * 确保指定模式的上下文可用：尚未创建、浏览器已断开或模式不同时重新创建，返回是否新启动了浏览器
+     * storageState 不为空时总是用其重建上下文（从任务检查点恢复）
+     */
+    public boolean open(boolean headless, String storageState) {
+        if (context != null && storageState == null && this.headless == headless && worker.isConnected(headless)) {
+            return false;
+        }
+        close();
+        boolean launched = worker.ensureBrowser(headless);
+        context = worker.newContext(headless, storageState, initScript);
+        this.headless = headless;
+        blocker.install(context, blocked);
+        return launched;
+    }
+
+    /**
+     * 预热：创建上下文并打开空白页
+     */
+    void warm(boolean headless) {
+        open(headless, null);
+        warmPage = context.newPage();
+        warmPage.navigate("about:blank");
+    }
+
+    /**
+     * 取出预热的空白页（只能使用一次），没有时返回 null
+     */
+    public Page takeWarmPage() {
+        Page warm = warmPage;
+        warmPage = null;
+        return warm != null && !warm.isClosed() ? warm : null;
+    }
+
+    /**
+     * 关闭页面和上下文，租用关系保留，下次 navigate 时重新创建
+     */
+    public void close() {
+        if (warmPage != null) {
+            try { warmPage.close(); } catch (Exception ignored) {}
+            warmPage = null;
+        }
+        if (page != null) {
+            try { page.close(); } catch (Exception ignored) {}
+            page = null;
+            activity = null;
+        }
+        if (context != null) {
+            try { context.close(); } catch (Exception ignored) {}
+            context = null;
+            worker.contextClosed();
+        }
+        consoleLogs.clear();
+        blocked.reset();
+    }
+
+    public boolean isConnected() {
+        return context != null && worker.isConnected(headless);
+    }
+
+    /**
+     * 当前（或最近一次）上下文是否在无头浏览器上
+     */
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    public BrowserContext getContext() {
+        return context;
+    }
+
+    public Page getPage() {
+        return page;
+    }
+
+    /**
+     * 切换当前页面，新页面注册网络和导航监听（每个页面一次）
+     */
+    public void setPage(Page page) {
+        if (page != this.page) {
+            activity = page != null ? new PageActivity(page) : null;
+        }
+        this.page = page;
+    }
+
+    PageActivity getActivity() {
+        return activity;
+    }
+
+    public List<ConsoleLogEntry> getConsoleLogs() {
+        return consoleLogs;
+    }
+
+    /**
+     * 当前页面的资源拦截统计
+     */
+    public ResourceBlocker.PageStats getBlocked() {
+        return blocked;
+    }
+
+    BrowserWorker getWorker() {
+        return worker;
+    }
+
+    void touch() {
+        lastUsed = System.currentTimeMillis();
+    }
+
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * 控制台日志条目
+     */
+    public static class ConsoleLogEntry {
+        private final String type;
+        private final String text;
+        private final long timestamp;
+
+        public ConsoleLogEntry(String type, String text) {
+            this.type = type;
+            this.text = text;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.reactmcp.browser;
+
+import com.microsoft.playwright.Browser;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.BrowserType;
+import com.microsoft.playwright.Playwright;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 浏览器池工作线程
+ * Playwright 对象不是线程安全的，每个工作线程独占一个 Playwright 实例，有界面和无头模式各最多一个浏览器进程，
+ * 其上所有上下文、页面的操作都提交到该线程执行
+ */
+final class BrowserWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(BrowserWorker.class);
+
+    private static final String USER_AGENT = "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 "
+            + "(KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36";
+
+    private final int index;
+    private final ExecutorService executor;
+    private final long createdNanos = System.nanoTime();
+    private volatile Thread thread;
+
+    // 以下字段只在工作线程上访问
+    private Playwright playwright;
+    private volatile Browser headedBrowser;
+    private volatile Browser headlessBrowser;
+
+    private final AtomicInteger contexts = new AtomicInteger();
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final LongAdder busyNanos = new LongAdder();
+
+    BrowserWorker(int index) {
+        this.index = index;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "playwright-worker-" + index);
+            t.setDaemon(true);
+            thread = t;
+            return t;
+        });
+    }
+
+    /**
+     * 在工作线程上执行并等待结果；已在该线程上时直接执行
+     */
+    <T> T call(Callable<T> task) throws Exception {
+        if (Thread.currentThread() == thread) {
+            return task.call();
+        }
+        Future<T> future = submit(task);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    /**
+     * 提交到工作线程，不等待结果
+     */
+    <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(() -> {
+            long start = System.nanoTime();
+            try {
+                return task.call();
+            } finally {
+                busyNanos.add(System.nanoTime() - start);
+            }
+        });
+    }
+
+    /**
+     * 提交到工作线程异步执行（关闭上下文等不需要等待结果的操作）
+     */
+    void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (Exception e) {
+            log.debug("Browser worker {} rejected task: {}", index, e.getMessage());
+        }
+    }
+
+    /**
+     * 确保 Playwright 已创建（工作线程上调用）
+     */
+    void ensurePlaywright() {
+        if (playwright == null) {
+            playwright = Playwright.create();
+            ElementRefs.register(playwright);
+            log.info("✅ Playwright 实例创建成功（worker {}）", index);
+        }
+    }
+
+    /**
+     * 确保指定模式的浏览器已启动（工作线程上调用），返回是否新启动了浏览器
+     * 每种模式在第一次需要时启动，之后同一工作线程上该模式的上下文共用该浏览器
+     */
+    boolean ensureBrowser(boolean headless) {
+        ensurePlaywright();
+        Browser browser = browser(headless);
+        if (browser != null && browser.isConnected()) {
+            return false;
+        }
+        if (browser != null) {
+            try { browser.close(); } catch (Exception ignored) {}
+        }
+        browser = playwright.chromium().launch(new BrowserType.LaunchOptions()
+                .setHeadless(headless)
+                .setArgs(List.of(
+                        "--window-size=1920,1080",
+                        "--disable-blink-features=AutomationControlled"
+                )));
+        if (headless) {
+            headlessBrowser = browser;
+        } else {
+            headedBrowser = browser;
+        }
+        log.debug("浏览器已启动（worker {}，{}模式）", index, headless ? "无头" : "有界面");
+        return true;
+    }
+
+    private Browser browser(boolean headless) {
+        return headless ? headlessBrowser : headedBrowser;
+    }
+
+    /**
+     * 在指定模式的浏览器上创建隔离的上下文，设置桌面浏览器 UA 和视口（工作线程上调用，浏览器需已启动）
+     * storageState 不为空时带上其中的 cookies 和 localStorage
+     */
+    BrowserContext newContext(boolean headless, String storageState, String initScript) {
+        Browser.NewContextOptions options = new Browser.NewContextOptions()
+                .setViewportSize(1920, 1080)
+                .setUserAgent(USER_AGENT);
+        if (storageState != null) {
+            options.setStorageState(storageState);
+        }
+        BrowserContext context = browser(headless).newContext(options);
+        context.addInitScript(initScript);
+        contexts.incrementAndGet();
+        return context;
+    }
+
+    void contextClosed() {
+        contexts.decrementAndGet();
+    }
+
+    /**
+     * 分配到该工作线程的会话数（租出的和空闲的），新会话分配给最少的工作线程
+     */
+    AtomicInteger sessions() {
+        return sessions;
+    }
+
+    /**
+     * 指定模式的浏览器是否处于连接状态
+     */
+    boolean isConnected(boolean headless) {
+        Browser current = browser(headless);
+        return current != null && current.isConnected();
+    }
+
+    /**
+     * 任一模式的浏览器处于连接状态
+     */
+    boolean isConnected() {
+        return isConnected(false) || isConnected(true);
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    int getContexts() {
+        return contexts.get();
+    }
+
+    /**
+     * 工作线程忙碌时间占比（自创建起）
+     */
+    double getUtilization() {
+        long elapsed = System.nanoTime() - createdNanos;
+        return elapsed <= 0 ? 0 : Math.min(1.0, busyNanos.sum() / (double) elapsed);
+    }
+
+    /**
+     * 关闭浏览器和 Playwright 并停止工作线程
+     */
+    void shutdown() {
+        try {
+            call(() -> {
+                for (Browser browser : new Browser[]{headedBrowser, headlessBrowser}) {
+                    if (browser != null) {
+                        try { browser.close(); } catch (Exception ignored) {}
+                    }
+                }
+                headedBrowser = null;
+                headlessBrowser = null;
+                if (playwright != null) {
+                    playwright.close();
+                    playwright = null;
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("关闭浏览器失败（worker {}）: {}", index, e.getMessage());
+        }
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.reactmcp.browser;
+
+import com.microsoft.playwright.Page;
+
+import java.util.Map;
+
+/**
+ * 正文提取
+ * 参照 Readability 的做法在页面内给段落打分：按文本长度和标点数累加到父节点和祖父节点，
+ * 再按类名 / id 的正负特征和链接密度修正，选出得分最高的容器（几个高分容器同属一个祖先时取该祖先）
+ * 导航、页脚、侧栏、表单和链接密度高的块视为样板内容丢弃，正文转换为 Markdown（标题、列表、表格、代码块、引用），
+ * 在页面内按字符预算截断，只传回结果
+ * 找不到足够长的正文容器时退回整个 body（同样去掉样板内容）
+ */
+public final class ContentExtractor {
+
+    // 正文容器的最小文本长度，不足时退回 body
+    private static final int MIN_CONTENT_CHARS = 200;
+
+    static final String EXTRACT_SCRIPT = """
+            opts => {
+              const UNLIKELY = /nav|menu|footer|header|sidebar|side-bar|aside|comment|breadcrumb|banner|share|social|related|recommend|advert|\\bads?\\b|sponsor|popup|modal|cookie|login|signup|subscribe|pagination|pager|toolbar|widget/i;
+              const LIKELY = /article|content|main|post|entry|body|text|story|detail|正文/i;
+              const SKIP = new Set(['SCRIPT', 'STYLE', 'NOSCRIPT', 'TEMPLATE', 'HEAD', 'SVG', 'CANVAS', 'IFRAME', 'OBJECT',
+                'EMBED', 'IMG', 'PICTURE', 'VIDEO', 'AUDIO', 'BUTTON', 'SELECT', 'INPUT', 'TEXTAREA']);
+              const BOILERPLATE = new Set(['NAV', 'ASIDE', 'FOOTER', 'FORM', 'DIALOG', 'MENU']);
+              const BLOCKS = /^(P|DIV|SECTION|ARTICLE|MAIN|HEADER|FOOTER|NAV|ASIDE|FORM|H[1-6]|UL|OL|LI|DL|DT|DD|TABLE|PRE|BLOCKQUOTE|FIGURE|FIGCAPTION|HR|ADDRESS|DETAILS|SUMMARY)$/;
+              const PARAGRAPH = new Set(['P', 'PRE', 'TD', 'BLOCKQUOTE', 'LI', 'DD']);
+              const clean = s => (s || '').replace(/\\s+/g, ' ').trim();
+              const hidden = el => {
+                if (el.hidden || el.getAttribute('aria-hidden') === 'true') return true;
+                const style = getComputedStyle(el);
+                return style.display === 'none' || style.visibility === 'hidden';
+              };
+              const hint = el => (el.id || '') + ' ' + (typeof el.className === 'string' ? el.className : '') + ' ' + (el.getAttribute('role') || '');
+              const unlikely = el => { const h = hint(el); return UNLIKELY.test(h) && !LIKELY.test(h); };
+              const textLength = el => clean(el.textContent).length;
+              const linkDensity = el => {
+                const length = textLength(el);
+                if (!length) return 0;
+                let links = 0;
+                for (const a of el.querySelectorAll('a')) links += clean(a.textContent).length;
+                return Math.min(1, links / length);
+              };
+              const boilerplate = el => BOILERPLATE.has(el.tagName) || unlikely(el)
+                  || (el.tagName !== 'TABLE' && textLength(el) < 500 && linkDensity(el) > 0.5);
+
+              // 1. 收集段落级元素，跳过隐藏和样板区域
+              const paragraphs = [];
+              const collect = el => {
+                for (const child of el.children) {
+                  if (SKIP.has(child.tagName) || BOILERPLATE.has(child.tagName) || hidden(child) || unlikely(child)) continue;
+                  if (PARAGRAPH.has(child.tagName) || (child.tagName === 'DIV' && !child.querySelector('div, p, ul, ol, table, pre, section, article'))) {
+                    paragraphs.push(child);
+                  } else {
+                    collect(child);
+                  }
+                }
+              };
+              if (document.body) collect(document.body);
+
+              // 2. 段落得分累加到父节点（全额）、祖父节点（一半）和曾祖父节点（六分之一）
+              const scores = new Map();
+              const base = el => {
+                let score = 0;
+                switch (el.tagName) {
+                  case 'ARTICLE': case 'MAIN': score = 10; break;
+                  case 'DIV': case 'SECTION': score = 5; break;
+                  case 'PRE': case 'TD': case 'BLOCKQUOTE': score = 3; break;
+                  case 'OL': case 'UL': case 'DL': case 'LI': case 'FORM': score = -3; break;
+                  case 'TH': case 'H1': case 'H2': case 'H3': case 'H4': case 'H5': case 'H6': score = -5; break;
+                }
+                const h = hint(el);
+                if (UNLIKELY.test(h)) score -= 25;
+                if (LIKELY.test(h)) score += 25;
+                return score;
+              };
+              for (const p of paragraphs) {
+                const text = clean(p.textContent);
+                if (text.length < 25) continue;
+                const score = 1 + (text.match(/[,，、。;；]/g) || []).length + Math.min(Math.floor(text.length / 100), 3);
+                let ancestor = p.parentElement;
+                for (let level = 0; ancestor && ancestor !== document.documentElement && level < 3; level++) {
+                  if (!scores.has(ancestor)) scores.set(ancestor, base(ancestor));
+                  scores.set(ancestor, scores.get(ancestor) + score / (level === 0 ? 1 : level === 1 ? 2 : 6));
+                  ancestor = ancestor.parentElement;
+                }
+              }
+
+              // 3. 按链接密度修正后取最高分；排名靠前的容器有两个以上同属一个祖先时（列表页、分块的文章）取该祖先
+              const ranked = [...scores].map(([el, s]) => [el, s * (1 - linkDensity(el))]).sort((a, b) => b[1] - a[1]);
+              let top = ranked.length && ranked[0][1] > 0 ? ranked[0][0] : null;
+              if (top) {
+                const best = ranked[0][1];
+                const peers = ranked.slice(1, 5).filter(([, s]) => s >= best * 0.75).map(([el]) => el);
+                if (peers.length >= 2) {
+                  for (let a = top.parentElement; a && a !== document.documentElement; a = a.parentElement) {
+                    if (peers.filter(p => a.contains(p)).length >= 2) { top = a; break; }
+                  }
+                }
+              }
+              let roots = [document.body];
+              if (top && top !== document.body && textLength(top) >= opts.minChars) {
+                // 得分接近的兄弟节点（正文被拆成几块）一并保留
+                const threshold = Math.max(10, (scores.get(top) || 0) * 0.2);
+                roots = top.parentElement ? [...top.parentElement.children].filter(el => el === top
+                    || (scores.has(el) && scores.get(el) * (1 - linkDensity(el)) >= threshold)) : [top];
+              }
+
+              // 4. 转换为 Markdown，超出预算时停止
+              const out = [];
+              let size = 0, truncated = false, hasTitle = false;
+              const push = block => {
+                if (!block || truncated) return;
+                if (size + block.length > opts.maxChars) {
+                  truncated = true;
+                  const rest = opts.maxChars - size;
+                  if (rest > 80) out.push(block.slice(0, rest) + '…');
+                  return;
+                }
+                out.push(block);
+                size += block.length + 2;
+              };
+              const raw = el => {
+                let s = '';
+                for (const c of el.childNodes) {
+                  if (c.nodeType === Node.TEXT_NODE) s += c.textContent;
+                  else if (c.nodeType === Node.ELEMENT_NODE && !SKIP.has(c.tagName) && !hidden(c)) {
+                    s += c.tagName === 'BR' ? ' ' : BLOCKS.test(c.tagName) ? ' ' + raw(c) + ' ' : raw(c);
+                  }
+                }
+                return s;
+              };
+              const inline = el => clean(raw(el));
+              const list = (el, depth, quote) => {
+                const lines = [];
+                let n = 1;
+                for (const li of el.children) {
+                  if (li.tagName !== 'LI' || hidden(li)) continue;
+                  let text = '';
+                  const nested = [];
+                  for (const c of li.childNodes) {
+                    if (c.nodeType === Node.TEXT_NODE) text += c.textContent;
+                    else if (c.nodeType !== Node.ELEMENT_NODE || SKIP.has(c.tagName) || hidden(c)) continue;
+                    else if (c.tagName === 'UL' || c.tagName === 'OL') nested.push(list(c, depth + 1, quote));
+                    else text += BLOCKS.test(c.tagName) ? ' ' + raw(c) + ' ' : raw(c);
+                  }
+                  text = clean(text);
+                  if (text) lines.push(quote + '  '.repeat(depth) + (el.tagName === 'OL' ? (n++) + '. ' : '- ') + text);
+                  lines.push(...nested.filter(Boolean));
+                }
+                return lines.join('\\n');
+              };
+              const table = el => {
+                const rows = [];
+                for (const tr of el.rows) {
+                  if (hidden(tr)) continue;
+                  const cells = [...tr.cells].map(c => inline(c).replace(/\\|/g, '\\\\|'));
+                  if (cells.some(Boolean)) rows.push(cells);
+                }
+                if (!rows.length) return '';
+                const width = Math.max(...rows.map(r => r.length));
+                // 单列的表格多是排版用，按段落输出
+                if (width < 2) return rows.map(r => r[0]).join('\\n');
+                const line = r => '| ' + r.concat(Array(width - r.length).fill('')).join(' | ') + ' |';
+                return [line(rows[0]), '|' + ' --- |'.repeat(width), ...rows.slice(1).map(line)].join('\\n');
+              };
+              const block = (el, quote) => {
+                let run = '';
+                const flush = () => { const t = clean(run); if (t) push(quote + t); run = ''; };
+                for (const child of el.childNodes) {
+                  if (truncated) return;
+                  if (child.nodeType === Node.TEXT_NODE) { run += child.textContent; continue; }
+                  if (child.nodeType !== Node.ELEMENT_NODE || SKIP.has(child.tagName) || hidden(child)) continue;
+                  const tag = child.tagName;
+                  if (!BLOCKS.test(tag)) { run += tag === 'BR' ? ' ' : raw(child); continue; }
+                  flush();
+                  if (tag === 'HR' || boilerplate(child)) continue;
+                  if (/^H[1-6]$/.test(tag)) {
+                    const t = inline(child);
+                    if (t) { push(quote + '#'.repeat(+tag[1]) + ' ' + t); hasTitle = hasTitle || tag === 'H1'; }
+                  } else if (tag === 'UL' || tag === 'OL') push(list(child, 0, quote));
+                  else if (tag === 'TABLE') push(table(child));
+                  else if (tag === 'PRE') push('```\\n' + child.textContent.replace(/\\n+$/, '') + '\\n```');
+                  else if (tag === 'BLOCKQUOTE') block(child, quote + '> ');
+                  else block(child, quote);
+                }
+                flush();
+              };
+              for (const root of roots) {
+                if (truncated) break;
+                if (root === document.body || !boilerplate(root)) block(root, '');
+              }
+              if (!out.length && roots[0] !== document.body) block(document.body, '');
+              if (!hasTitle && clean(document.title)) out.unshift('# ' + clean(document.title));
+
+              const describe = el => el.tagName.toLowerCase() + (el.id ? '#' + el.id : '')
+                  + (typeof el.className === 'string' && clean(el.className) ? '.' + clean(el.className).split(' ').join('.') : '');
+              return {
+                markdown: out.join('\\n\\n'),
+                truncated,
+                rawChars: document.body ? document.body.innerText.length : 0,
+                container: roots.length === 1 && roots[0] === document.body ? 'body' : roots.map(describe).join(' + ')
+              };
+            }
+            """;
+
+    private ContentExtractor() {
+    }
+
+    /**
+     * 提取当前页面正文，输出 Markdown，最多 maxChars 个字符
+     */
+    @SuppressWarnings("unchecked")
+    public static Result extract(Page page, int maxChars) {
+        long start = System.nanoTime();
+        Map<String, Object> raw = (Map<String, Object>) page.evaluate(EXTRACT_SCRIPT, Map.of(
+                "maxChars", maxChars,
+                "minChars", MIN_CONTENT_CHARS));
+        String text = (String) raw.get("markdown");
+        boolean truncated = Boolean.TRUE.equals(raw.get("truncated"));
+        if (truncated) {
+            text += "\n\n… 已按 " + maxChars + " 字符上限截断（可用 getText 读取指定元素）";
+        }
+        Object rawChars = raw.get("rawChars");
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        return new Result(text, rawChars instanceof Number n ? n.intValue() : 0,
+                String.valueOf(raw.get("container")), truncated, millis);
+    }
+
+    /**
+     * 提取结果：Markdown 文本、页面可见文本总字符数、选中的正文容器、是否截断、耗时
+     */
+    public static class Result {
+        private final String text;
+        private final int rawChars;
+        private final String container;
+        private final boolean truncated;
+        private final long millis;
+
+        Result(String text, int rawChars, String container, boolean truncated, long millis) {
+            this.text = text;
+            this.rawChars = rawChars;
+            this.container = container;
+            this.truncated = truncated;
+            this.millis = millis;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public int getRawChars() {
+            return rawChars;
+        }
+
+        public String getContainer() {
+            return container;
+        }
+
+        public boolean isTruncated() {
+            return truncated;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+    }
+}
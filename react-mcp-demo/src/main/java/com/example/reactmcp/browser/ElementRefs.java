@@ -0,0 +1,80 @@
+package com.example.reactmcp.browser;
+
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Playwright;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 元素 ref（snapshot 输出中的 e1、e2…）
+ * ref 表由快照脚本记在页面内（window.__reactRefs，ref -> WeakRef(元素)），跳转到新文档后整张表随旧文档丢弃；
+ * 每个 Playwright 实例注册 ref 选择器引擎，"ref=e5" 可以直接用于 click / fill / textContent 等任何选择器参数
+ * 元素已从 DOM 移除或表中没有该 ref 时视为失效，引擎不返回元素
+ */
+public final class ElementRefs {
+
+    static final String ENGINE = "ref";
+
+    // 模型可能写成 e5、ref=e5 或照抄快照里的 [ref=e5]
+    private static final Pattern REF = Pattern.compile("^\\[?\\s*(?:ref\\s*=\\s*)?(e\\d+)\\s*]?$");
+
+    // ref -> 仍在文档中的元素，没有时为 null
+    private static final String LOOKUP = """
+            id => {
+              const ref = window.__reactRefs && window.__reactRefs.els.get(id);
+              const el = ref && ref.deref();
+              return el && el.isConnected ? el : null;
+            }""";
+
+    // 选择器引擎：只返回 root 之内的元素，支持 "ref=e5 >> span" 这样的链式选择器
+    private static final String ENGINE_SCRIPT = "{\n"
+            + "  query(root, id) { const el = (" + LOOKUP + ")(id.trim()); return el && root.contains(el) ? el : null; },\n"
+            + "  queryAll(root, id) { const el = this.query(root, id); return el ? [el] : []; }\n"
+            + "}";
+
+    /**
+     * 页面内按选择器取元素的函数，ref=eN 查 ref 表，其余按 CSS 查询；供 JS 兜底操作使用
+     */
+    public static final String QUERY_SCRIPT = "(selector => { const m = /^ref=(e\\d+)$/.exec(selector); "
+            + "return m ? (" + LOOKUP + ")(m[1]) : document.querySelector(selector); })";
+
+    private ElementRefs() {
+    }
+
+    /**
+     * 注册 ref 选择器引擎，须在创建上下文之前调用（工作线程上）
+     */
+    static void register(Playwright playwright) {
+        playwright.selectors().register(ENGINE, ENGINE_SCRIPT);
+    }
+
+    /**
+     * 参数是 ref 时返回对应的选择器（ref=eN），否则返回 null
+     */
+    public static String toSelector(String selector) {
+        if (selector == null) {
+            return null;
+        }
+        Matcher m = REF.matcher(selector.trim());
+        return m.matches() ? ENGINE + "=" + m.group(1) : null;
+    }
+
+    /**
+     * ref 对应的元素是否仍在当前文档中，一次 evaluate 完成，不等待
+     *
+     * @param refSelector toSelector 返回的选择器
+     */
+    public static boolean isAttached(Page page, String refSelector) {
+        String id = refSelector.substring(ENGINE.length() + 1);
+        return Boolean.TRUE.equals(page.evaluate("id => !!(" + LOOKUP + ")(id)", id));
+    }
+
+    /**
+     * ref 失效时返回给模型的提示
+     */
+    public static String staleMessage(String refSelector) {
+        return "元素 " + refSelector.substring(ENGINE.length() + 1)
+                + " 已失效（页面已跳转或元素已移除），请重新调用 snapshot 获取最新的 ref";
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.reactmcp.browser;
+
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.Request;
+
+/**
+ * 单个页面的网络和导航活动，供稳定等待判断网络是否安静、是否发生了跳转
+ * 事件回调在会话所属的工作线程上触发，字段只在该线程上读写
+ */
+final class PageActivity {
+
+    private int inflight;
+    private long lastNetworkNanos = System.nanoTime();
+    private boolean navigated;
+
+    PageActivity(Page page) {
+        page.onRequest(request -> {
+            if (tracked(request)) {
+                inflight++;
+                lastNetworkNanos = System.nanoTime();
+            }
+        });
+        page.onRequestFinished(this::finished);
+        page.onRequestFailed(this::finished);
+        page.onFrameNavigated(frame -> {
+            if (frame.parentFrame() == null) {
+                navigated = true;
+            }
+        });
+    }
+
+    private void finished(Request request) {
+        if (tracked(request)) {
+            // 监听注册前发出的请求也会结束，计数不低于 0
+            inflight = Math.max(0, inflight - 1);
+            lastNetworkNanos = System.nanoTime();
+        }
+    }
+
+    // 长连接不会结束，不计入未完成请求
+    private static boolean tracked(Request request) {
+        String type = request.resourceType();
+        return !"websocket".equals(type) && !"eventsource".equals(type);
+    }
+
+    /**
+     * 操作前调用，清除之前的导航标记
+     */
+    void mark() {
+        navigated = false;
+    }
+
+    /**
+     * 自上次 mark / takeNavigated 以来主框架是否发生过导航（读取后清除）
+     */
+    boolean takeNavigated() {
+        boolean result = navigated;
+        navigated = false;
+        return result;
+    }
+
+    /**
+     * 未完成请求不超过 maxInflight，且 quietMillis 内没有请求开始或结束
+     */
+    boolean isQuiet(long quietMillis, int maxInflight) {
+        return inflight <= maxInflight && (System.nanoTime() - lastNetworkNanos) / 1_000_000 >= quietMillis;
+    }
+
+    int getInflight() {
+        return inflight;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.reactmcp.browser;
+
+import com.example.reactmcp.config.SettleProperties;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.PlaywrightException;
+import com.microsoft.playwright.TimeoutError;
+import com.microsoft.playwright.options.LoadState;
+import com.microsoft.playwright.options.WaitForSelectorState;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 页面稳定等待
+ * 操作之后按条件等待而不是固定休眠：发生跳转时等待新文档 DOMContentLoaded，
+ * 然后等待 DOM 变更和网络请求都安静一个窗口（或目标元素出现），总时长不超过上限
+ * 所有方法在会话所属的工作线程上调用
+ */
+@Component
+public class PageSettler {
+
+    // 网络未安静时的轮询间隔，期间 Playwright 处理请求事件
+    private static final long POLL_MILLIS = 50;
+
+    // 在页面内等待 DOM 安静（最后一次变更由 BrowserPool 注入的脚本记录），一次往返完成
+    private static final String DOM_QUIET_SCRIPT = """
+            q => new Promise(resolve => {
+              const end = performance.now() + q.max;
+              const check = () => {
+                const idle = performance.now() - (window.__reactLastMutation || 0);
+                if (idle >= q.quiet) { resolve(true); return; }
+                if (performance.now() >= end) { resolve(false); return; }
+                setTimeout(check, Math.max(16, Math.min(q.quiet - idle, end - performance.now())));
+              };
+              check();
+            })
+            """;
+
+    private final SettleProperties properties;
+
+    public PageSettler(SettleProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 操作前调用：清除会话当前页面的导航标记，之后的跳转才算作本次操作引起的
+     */
+    public void mark(BrowserSession session) {
+        PageActivity activity = session.getActivity();
+        if (activity != null) {
+            activity.mark();
+        }
+    }
+
+    /**
+     * 操作后等待页面稳定，上限为 app.playwright.settle.max-millis
+     *
+     * @param selector 不为空时只等待该元素可见
+     * @param network  是否同时要求网络安静（输入等不会发请求的操作可只等 DOM）
+     */
+    public Result settle(BrowserSession session, String selector, boolean network) {
+        return settle(session, selector, network, properties.getMaxMillis());
+    }
+
+    public Result settle(BrowserSession session, String selector, boolean network, long maxMillis) {
+        Page page = session.getPage();
+        PageActivity activity = session.getActivity();
+        long start = System.nanoTime();
+        long deadline = start + maxMillis * 1_000_000;
+        boolean waitSelector = selector != null && !selector.isBlank();
+        String condition = waitSelector ? "selector" : network ? "dom+network" : "dom";
+        boolean navigated = false;
+        try {
+            if (waitSelector) {
+                page.waitForSelector(selector, new Page.WaitForSelectorOptions()
+                        .setState(WaitForSelectorState.VISIBLE)
+                        .setTimeout(maxMillis));
+                return new Result(condition, elapsed(start), navigated, false);
+            }
+            while (true) {
+                long remaining = (deadline - System.nanoTime()) / 1_000_000;
+                if (remaining <= 0) {
+                    return new Result(condition, elapsed(start), navigated, true);
+                }
+                if (activity != null && activity.takeNavigated()) {
+                    navigated = true;
+                    page.waitForLoadState(LoadState.DOMCONTENTLOADED,
+                            new Page.WaitForLoadStateOptions().setTimeout(remaining));
+                    continue;
+                }
+                boolean domQuiet;
+                try {
+                    domQuiet = Boolean.TRUE.equals(page.evaluate(DOM_QUIET_SCRIPT,
+                            Map.of("quiet", properties.getQuietMillis(), "max", remaining)));
+                } catch (TimeoutError e) {
+                    throw e;
+                } catch (PlaywrightException e) {
+                    // 执行上下文因跳转被销毁，下一轮等待新文档
+                    if (page.isClosed()) {
+                        throw e;
+                    }
+                    page.waitForTimeout(Math.min(POLL_MILLIS, remaining));
+                    continue;
+                }
+                boolean networkQuiet = !network || activity == null
+                        || activity.isQuiet(properties.getQuietMillis(), properties.getMaxInflight());
+                if (domQuiet && networkQuiet) {
+                    return new Result(condition, elapsed(start), navigated, false);
+                }
+                page.waitForTimeout(Math.min(POLL_MILLIS, remaining));
+            }
+        } catch (TimeoutError e) {
+            return new Result(condition, elapsed(start), navigated, true);
+        }
+    }
+
+    private static long elapsed(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * 稳定等待结果：满足的条件、耗时、期间是否跳转、是否达到上限
+     */
+    public static class Result {
+        private final String condition;
+        private final long millis;
+        private final boolean navigated;
+        private final boolean timedOut;
+
+        Result(String condition, long millis, boolean navigated, boolean timedOut) {
+            this.condition = condition;
+            this.millis = millis;
+            this.navigated = navigated;
+            this.timedOut = timedOut;
+        }
+
+        public String getCondition() {
+            return condition;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public boolean isNavigated() {
+            return navigated;
+        }
+
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        @Override
+        public String toString() {
+            return timedOut
+                    ? String.format("等待页面稳定已达上限 %d ms（%s）", millis, condition)
+                    : String.format("页面已稳定（%s，%d ms）", condition, millis);
+        }
+    }
+}
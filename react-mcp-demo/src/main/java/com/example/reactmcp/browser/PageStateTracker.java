@@ -0,0 +1,104 @@
+package com.example.reactmcp.browser;
+
+import com.microsoft.playwright.Page;
+
+import java.util.Map;
+
+/**
+ * 页面状态跟踪
+ * 注入页面的脚本维护可见输入框、文本区和按钮的清单：MutationObserver 只标记清单过期，
+ * 读取时才重新扫描，DOM 没有变化时直接返回上次的清单；每次观察记住结果，下次可只返回差异
+ * 新文档（跳转后）没有上次的观察，总是返回完整状态
+ */
+public final class PageStateTracker {
+
+    // 幂等安装：上下文初始化脚本在每个文档开始时安装，evaluate 前也会补装（初始化脚本之前已加载的文档）
+    public static final String SCRIPT = """
+            if (!window.__reactPageState) {
+              window.__reactPageState = (() => {
+                let dirty = true, inventory = null, observed = null;
+                new MutationObserver(() => { dirty = true; })
+                    .observe(document, { subtree: true, childList: true, attributes: true, characterData: true });
+                const visible = el => {
+                  const style = getComputedStyle(el);
+                  return style.display !== 'none' && style.visibility !== 'hidden';
+                };
+                const collect = (selector, map, limit) => {
+                  const items = [];
+                  try {
+                    for (const el of document.querySelectorAll(selector)) {
+                      try { if (visible(el)) items.push(map(el)); } catch (e) { }
+                      if (items.length >= limit) break;
+                    }
+                  } catch (e) { }
+                  return items;
+                };
+                const scan = () => ({
+                  inputs: collect('input[type=text], input[type=search], input:not([type])',
+                      el => ({ id: el.id || '', name: el.name || '', placeholder: el.placeholder || '' }), 3),
+                  textareas: collect('textarea', el => ({ id: el.id || '', placeholder: el.placeholder || '' }), 3),
+                  buttons: collect('button, input[type=submit]', el => {
+                    let text = '';
+                    if (el.tagName === 'BUTTON' && el.textContent) text = el.textContent.trim().substring(0, 20);
+                    else if (el.tagName === 'INPUT' && el.value) text = el.value.trim().substring(0, 20);
+                    return { id: el.id || '', text: text };
+                  }, 5)
+                });
+                const minus = (a, b) => {
+                  const keys = new Set(b.map(e => JSON.stringify(e)));
+                  return a.filter(e => !keys.has(JSON.stringify(e)));
+                };
+                return {
+                  observe(full) {
+                    if (dirty || !inventory) { inventory = scan(); dirty = false; }
+                    const current = { url: location.href, title: document.title, ...inventory };
+                    const result = { url: current.url, title: current.title, full: full || !observed };
+                    if (result.full) {
+                      Object.assign(result, inventory);
+                    } else {
+                      result.urlChanged = observed.url !== current.url;
+                      result.titleChanged = observed.title !== current.title;
+                      result.added = {}; result.removed = {};
+                      let changed = result.urlChanged || result.titleChanged;
+                      for (const kind of ['inputs', 'textareas', 'buttons']) {
+                        result.added[kind] = minus(current[kind], observed[kind]);
+                        result.removed[kind] = minus(observed[kind], current[kind]);
+                        changed = changed || result.added[kind].length > 0 || result.removed[kind].length > 0;
+                      }
+                      result.changed = changed;
+                    }
+                    observed = current;
+                    return result;
+                  }
+                };
+              })();
+            }
+            """;
+
+    // Navigation Timing：首字节、DOMContentLoaded、load（相对导航开始，毫秒）和传输大小，没有导航记录时为 null
+    private static final String TIMING_SCRIPT = """
+            (() => {
+              const nav = performance.getEntriesByType('navigation')[0];
+              return nav ? { ttfb: nav.responseStart - nav.startTime,
+                             domContentLoaded: nav.domContentLoadedEventEnd - nav.startTime,
+                             load: nav.loadEventEnd - nav.startTime,
+                             transferSize: nav.transferSize } : null;
+            })()""";
+
+    private PageStateTracker() {
+    }
+
+    /**
+     * 观察页面状态并记为下次比较的基准，一次 evaluate 完成
+     * full 为 true 时返回完整清单（url / title / inputs / textareas / buttons），
+     * 否则返回与上次观察的差异（urlChanged / titleChanged / added / removed / changed），没有基准时仍返回完整清单（full 为 true）
+     * timing 为 true 时附带 Navigation Timing（timing 字段）
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> observe(Page page, boolean full, boolean timing) {
+        return (Map<String, Object>) page.evaluate("full => { " + SCRIPT
+                + " const result = window.__reactPageState.observe(full); "
+                + (timing ? "result.timing = " + TIMING_SCRIPT + "; " : "")
+                + "return result; }", full);
+    }
+}
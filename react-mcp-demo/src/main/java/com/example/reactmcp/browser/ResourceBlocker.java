@@ -0,0 +1,236 @@
+package com.example.reactmcp.browser;
+
+import com.example.reactmcp.config.ResourceBlockingProperties;
+import com.microsoft.playwright.BrowserContext;
+import com.microsoft.playwright.Request;
+import com.microsoft.playwright.Route;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 资源拦截策略
+ * 在上下文上注册路由，按资源类型、域名和是否第三方拦截子资源请求，并统计拦截数和估算节省的流量
+ * 注意：Playwright 在上下文启用路由后会关闭 HTTP 缓存，因此只在配置了拦截时注册
+ */
+@Component
+public class ResourceBlocker {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceBlocker.class);
+
+    private static final List<String> NO_MEDIA_TYPES = List.of("image", "media", "font");
+    private static final List<String> TEXT_ONLY_TYPES = List.of("image", "media", "font", "stylesheet");
+
+    // 常见广告和统计域名，no-media / text-only 预设默认拦截
+    private static final List<String> TRACKER_DOMAINS = List.of(
+            "google-analytics.com", "googletagmanager.com", "googlesyndication.com", "doubleclick.net",
+            "adservice.google.com", "facebook.net", "connect.facebook.net", "hotjar.com", "clarity.ms",
+            "hm.baidu.com", "cnzz.com", "51.la", "growingio.com", "sensorsdata.cn");
+
+    // 被拦截资源的估算大小（字节），拦截的请求没有响应，只能按类型估算节省的流量
+    private static final Map<String, Long> ESTIMATED_BYTES = Map.of(
+            "image", 40_000L,
+            "media", 500_000L,
+            "font", 30_000L,
+            "stylesheet", 20_000L,
+            "script", 25_000L);
+    private static final long DEFAULT_ESTIMATED_BYTES = 5_000L;
+
+    private final String preset;
+    private final Set<String> types;
+    private final List<String> domains;
+    private final boolean blockThirdParty;
+
+    private final LongAdder blockedRequests = new LongAdder();
+    private final LongAdder blockedBytes = new LongAdder();
+
+    public ResourceBlocker(ResourceBlockingProperties properties) {
+        this.preset = properties.getPreset() == null ? "off" : properties.getPreset().trim().toLowerCase(Locale.ROOT);
+        Set<String> blockedTypes = new LinkedHashSet<>();
+        List<String> blockedDomains = new ArrayList<>();
+        switch (preset) {
+            case "off" -> { }
+            case "no-media" -> {
+                blockedTypes.addAll(NO_MEDIA_TYPES);
+                blockedDomains.addAll(TRACKER_DOMAINS);
+            }
+            case "text-only" -> {
+                blockedTypes.addAll(TEXT_ONLY_TYPES);
+                blockedDomains.addAll(TRACKER_DOMAINS);
+            }
+            default -> log.warn("Unknown resource blocking preset '{}', only explicit rules apply", preset);
+        }
+        properties.getResourceTypes().forEach(type -> blockedTypes.add(type.trim().toLowerCase(Locale.ROOT)));
+        properties.getDomains().forEach(domain -> blockedDomains.add(normalizeDomain(domain)));
+        // 页面文档本身永远不拦截
+        blockedTypes.remove("document");
+        this.types = Set.copyOf(blockedTypes);
+        this.domains = List.copyOf(blockedDomains);
+        this.blockThirdParty = properties.isBlockThirdParty();
+    }
+
+    /**
+     * 是否配置了任何拦截规则
+     */
+    public boolean isEnabled() {
+        return !types.isEmpty() || !domains.isEmpty() || blockThirdParty;
+    }
+
+    /**
+     * 在上下文上注册拦截路由，拦截结果计入 stats（路由回调在上下文所属的工作线程上执行）
+     */
+    void install(BrowserContext context, PageStats stats) {
+        if (!isEnabled()) {
+            return;
+        }
+        context.route("**/*", route -> handle(route, stats));
+    }
+
+    private void handle(Route route, PageStats stats) {
+        Request request = route.request();
+        String type = request.resourceType();
+        String host = host(request.url());
+        if ("document".equals(type)) {
+            // 记录顶层页面的主域名，用于判断第三方请求
+            if (host != null && request.isNavigationRequest() && request.frame().parentFrame() == null) {
+                stats.site = site(host);
+            }
+            route.resume();
+            return;
+        }
+        String reason = reason(type, host, stats.site);
+        if (reason == null) {
+            route.resume();
+            return;
+        }
+        long bytes = ESTIMATED_BYTES.getOrDefault(type, DEFAULT_ESTIMATED_BYTES);
+        stats.record(reason, bytes);
+        blockedRequests.increment();
+        blockedBytes.add(bytes);
+        route.abort("blockedbyclient");
+    }
+
+    /**
+     * 返回拦截原因（资源类型、tracker 或 third-party），不拦截时返回 null
+     */
+    String reason(String type, String host, String pageSite) {
+        if (types.contains(type)) {
+            return type;
+        }
+        if (host == null) {
+            return null;
+        }
+        for (String domain : domains) {
+            if (host.equals(domain) || host.endsWith("." + domain)) {
+                return "tracker";
+            }
+        }
+        if (blockThirdParty && pageSite != null && !site(host).equals(pageSite)) {
+            return "third-party";
+        }
+        return null;
+    }
+
+    public String getPreset() {
+        return preset;
+    }
+
+    public long getBlockedRequests() {
+        return blockedRequests.sum();
+    }
+
+    public long getBlockedBytes() {
+        return blockedBytes.sum();
+    }
+
+    private static String normalizeDomain(String domain) {
+        String d = domain.trim().toLowerCase(Locale.ROOT);
+        return d.startsWith("*.") ? d.substring(2) : d;
+    }
+
+    private static String host(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? null : host.toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 主域名（近似的可注册域名）：取最后两段，形如 com.cn / co.uk 的二级后缀取最后三段；IP 原样返回
+     */
+    static String site(String host) {
+        if (host.isEmpty() || Character.isDigit(host.charAt(host.length() - 1)) || host.contains(":")) {
+            return host;
+        }
+        String[] labels = host.split("\\.");
+        if (labels.length <= 2) {
+            return host;
+        }
+        String second = labels[labels.length - 2];
+        boolean secondLevelSuffix = labels[labels.length - 1].length() == 2
+                && Set.of("com", "net", "org", "gov", "edu", "co", "ac").contains(second);
+        int keep = secondLevelSuffix ? 3 : 2;
+        return String.join(".", Arrays.copyOfRange(labels, labels.length - keep, labels.length));
+    }
+
+    /**
+     * 单个会话当前页面的拦截统计，每次 navigate 前清零
+     * 只在会话所属的工作线程上读写
+     */
+    public static class PageStats {
+        private final Map<String, Integer> byReason = new LinkedHashMap<>();
+        private int requests;
+        private long bytes;
+        private String site;
+
+        void record(String reason, long estimatedBytes) {
+            byReason.merge(reason, 1, Integer::sum);
+            requests++;
+            bytes += estimatedBytes;
+        }
+
+        public void reset() {
+            byReason.clear();
+            requests = 0;
+            bytes = 0;
+        }
+
+        public int getRequests() {
+            return requests;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public Map<String, Integer> getByReason() {
+            return byReason;
+        }
+
+        /**
+         * 拦截摘要，没有拦截时返回空字符串
+         */
+        public String summary() {
+            if (requests == 0) {
+                return "";
+            }
+            StringBuilder sb = new StringBuilder("已拦截 ").append(requests).append(" 个请求（");
+            byReason.forEach((reason, count) -> sb.append(reason).append(' ').append(count).append("，"));
+            sb.setLength(sb.length() - 1);
+            return sb.append("），约节省 ").append(bytes / 1024).append(" KB").toString();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.reactmcp.browser;
+
+import com.microsoft.playwright.Locator;
+import com.microsoft.playwright.Page;
+import com.microsoft.playwright.TimeoutError;
+import com.microsoft.playwright.options.WaitForSelectorState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 候选选择器解析
+ * 所有 CSS 候选在一次页面内脚本中检查，脚本在共享的等待时间内轮询，返回第一个可见且可用的匹配；
+ * 某个站点上用兜底选择器成功后，按域名和操作记住它，下次排在兜底列表最前面；
+ * 只记住能确定具体元素的选择器，button、input[type=text] 这类只按标签匹配的通用兜底不记
+ * Playwright 专有语法（text=、role=、>> 等）无法在页面内求值，改用 Locator 检查
+ */
+@Component
+public class SelectorResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(SelectorResolver.class);
+
+    // Playwright 选择器引擎语法（任意 name= 前缀，包括 placeholder=、data-test-id= 和自定义的 ref=），document.querySelector 不支持
+    private static final Pattern ENGINE_SELECTOR = Pattern.compile(
+            "^[a-zA-Z][\\w-]*(:light)?=|^internal:|^//|^\\.\\.|>>|:has-text\\(|:text(-is|-matches)?\\(|:visible|:nth-match\\(");
+
+    // 只按标签（可带 type 属性）匹配的通用选择器，不作为站点学习结果
+    private static final Pattern GENERIC_SELECTOR = Pattern.compile(
+            "^[a-zA-Z][a-zA-Z0-9-]*(\\[type=(['\"]?)[\\w-]+\\2\\])?$");
+
+    // 依次检查候选：ready（可见且可用）/ disabled / hidden / missing / engine（非 CSS）
+    // 前 preferred 个候选（原始选择器和已学习的选择器）在等待时间内优先，超时后再取第一个 ready 的兜底
+    private static final String RESOLVE_SCRIPT = """
+            args => new Promise(resolve => {
+              const end = performance.now() + args.wait;
+              const state = s => {
+                if (args.engine.includes(s)) return 'engine';
+                let el;
+                try { el = document.querySelector(s); } catch (e) { return 'engine'; }
+                if (!el) return 'missing';
+                const style = getComputedStyle(el);
+                if (style.display === 'none' || style.visibility === 'hidden' || style.opacity === '0'
+                    || el.getClientRects().length === 0) return 'hidden';
+                return el.disabled || el.getAttribute('aria-disabled') === 'true' ? 'disabled' : 'ready';
+              };
+              const probe = () => {
+                const states = args.candidates.map(state);
+                const ready = states.indexOf('ready');
+                const waitable = states.slice(0, args.preferred).some(s => s !== 'engine');
+                if ((ready >= 0 && ready < args.preferred) || !waitable || performance.now() >= end) {
+                  resolve(states);
+                  return;
+                }
+                setTimeout(probe, 50);
+              };
+              probe();
+            })
+            """;
+
+    private final long waitMillis;
+    private final int cacheSize;
+
+    private final Object lock = new Object();
+    // 域名 + 操作 -> 该站点上成功过的兜底选择器
+    private final LinkedHashMap<String, String> learned = new LinkedHashMap<>(64, 0.75f, true);
+
+    public SelectorResolver(@Value("${app.playwright.selector.wait-millis:1500}") long waitMillis,
+                            @Value("${app.playwright.selector.cache-size:256}") int cacheSize) {
+        this.waitMillis = waitMillis;
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * 解析出要操作的选择器，候选顺序：原始选择器、该站点学习到的选择器、兜底列表
+     * 没有可见候选时返回第一个存在但不可见的 CSS 候选（调用方用 JS 操作），都不存在时 selector 为 null
+     *
+     * @param action 操作名（click / fill），不同操作分别学习
+     */
+    public Resolution resolve(Page page, String action, String selector, List<String> fallbacks) {
+        long start = System.nanoTime();
+        String key = cacheKey(page.url(), action);
+        String remembered = key == null ? null : get(key);
+
+        Set<String> ordered = new LinkedHashSet<>();
+        if (selector != null && !selector.isBlank()) {
+            ordered.add(selector);
+        }
+        if (remembered != null) {
+            ordered.add(remembered);
+        }
+        int preferred = ordered.size();
+        ordered.addAll(fallbacks);
+        List<String> candidates = new ArrayList<>(ordered);
+        List<String> engine = candidates.stream().filter(SelectorResolver::isEngineSelector).toList();
+
+        // 原始选择器是 Playwright 专有语法时，共享等待时间花在它上面，页面内脚本不再等待，
+        // 之后按顺序和其他非 CSS 候选一样用 Locator 再检查一次
+        long wait = waitMillis;
+        if (selector != null && engine.contains(selector)) {
+            if (waitVisible(page, selector, waitMillis)) {
+                return new Resolution(selector, true, false, false, List.of("ready"), elapsed(start));
+            }
+            wait = 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<String> states = new ArrayList<>((List<String>) page.evaluate(RESOLVE_SCRIPT, Map.of(
+                "candidates", candidates,
+                "engine", engine,
+                "preferred", preferred,
+                "wait", wait)));
+
+        String chosen = null;
+        boolean visible = false;
+        String hidden = null;
+        for (int i = 0; i < candidates.size() && chosen == null; i++) {
+            String candidate = candidates.get(i);
+            switch (states.get(i)) {
+                case "ready" -> {
+                    chosen = candidate;
+                    visible = true;
+                }
+                case "engine" -> {
+                    if (page.locator(candidate).first().isVisible()) {
+                        states.set(i, "ready");
+                        chosen = candidate;
+                        visible = true;
+                    }
+                }
+                case "hidden", "disabled" -> {
+                    if (hidden == null) {
+                        hidden = candidate;
+                    }
+                }
+                default -> { }
+            }
+        }
+        if (chosen == null) {
+            chosen = hidden;
+        }
+
+        boolean learnedHit = remembered != null && remembered.equals(chosen) && !remembered.equals(selector);
+        if (key != null) {
+            if (visible && !chosen.equals(selector) && !isGenericSelector(chosen)) {
+                put(key, chosen);
+            } else if (remembered != null && !visible) {
+                // 学到的选择器在该站点上已失效
+                remove(key, remembered);
+            }
+        }
+        boolean fallback = chosen != null && !chosen.equals(selector);
+        Resolution resolution = new Resolution(chosen, visible, learnedHit, fallback, states, elapsed(start));
+        log.debug("Resolved {} selector {} -> {} in {} ms (states={})",
+                action, selector, chosen, resolution.getMillis(), states);
+        return resolution;
+    }
+
+    private static boolean waitVisible(Page page, String selector, long timeout) {
+        try {
+            page.locator(selector).first().waitFor(new Locator.WaitForOptions()
+                    .setState(WaitForSelectorState.VISIBLE)
+                    .setTimeout(timeout));
+            return true;
+        } catch (TimeoutError e) {
+            return false;
+        }
+    }
+
+    static boolean isEngineSelector(String selector) {
+        return ENGINE_SELECTOR.matcher(selector.trim()).find();
+    }
+
+    static boolean isGenericSelector(String selector) {
+        return GENERIC_SELECTOR.matcher(selector.trim()).matches();
+    }
+
+    private static String cacheKey(String url, String action) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? null : host + "|" + action;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String get(String key) {
+        synchronized (lock) {
+            return learned.get(key);
+        }
+    }
+
+    private void put(String key, String selector) {
+        synchronized (lock) {
+            learned.put(key, selector);
+            Iterator<String> it = learned.keySet().iterator();
+            while (learned.size() > cacheSize && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    private void remove(String key, String selector) {
+        synchronized (lock) {
+            learned.remove(key, selector);
+        }
+    }
+
+    private static long elapsed(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * 解析结果：选中的选择器（可能为 null）、是否可见、是否来自站点学习、是否用了原始选择器之外的候选、各候选状态和耗时
+     */
+    public static class Resolution {
+        private final String selector;
+        private final boolean visible;
+        private final boolean learned;
+        private final boolean fallback;
+        private final List<String> states;
+        private final long millis;
+
+        Resolution(String selector, boolean visible, boolean learned, boolean fallback, List<String> states, long millis) {
+            this.selector = selector;
+            this.visible = visible;
+            this.learned = learned;
+            this.fallback = fallback;
+            this.states = states;
+            this.millis = millis;
+        }
+
+        public String getSelector() {
+            return selector;
+        }
+
+        public boolean isVisible() {
+            return visible;
+        }
+
+        public boolean isLearned() {
+            return learned;
+        }
+
+        public boolean isFallback() {
+            return fallback;
+        }
+
+        public List<String> getStates() {
+            return states;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.reactmcp.cache;
+
+import com.example.reactmcp.logging.CallLog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.NullNode;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.service.tool.ToolExecutor;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * 带结果缓存的工具执行器
+ * - 配置了有效期的工具：命中缓存直接返回，未命中时执行并缓存成功的结果
+ * - 未配置有效期的工具：照常执行，结束后使同作用域的缓存失效（点击、输入、写文件等都可能改变状态）
+ * - 缓存键包含是否有任务查询：有查询时 getVisibleText 提取的原始正文更长（见 TaskFocus）
+ */
+class CachingToolExecutor implements ToolExecutor {
+
+    private final ToolResultCache cache;
+    private final ObjectMapper mapper;
+    private final ToolExecutor delegate;
+    private final String toolName;
+    private final String scope;
+    private final long ttlMillis;
+    private final ValidityTokenSource tokens;
+    private final BooleanSupplier focused;
+
+    CachingToolExecutor(ToolResultCache cache, ObjectMapper mapper, ToolExecutor delegate,
+                        String toolName, String scope, long ttlMillis, ValidityTokenSource tokens,
+                        BooleanSupplier focused) {
+        this.cache = cache;
+        this.mapper = mapper;
+        this.delegate = delegate;
+        this.toolName = toolName;
+        this.scope = scope;
+        this.ttlMillis = ttlMillis;
+        this.tokens = tokens;
+        this.focused = focused;
+    }
+
+    @Override
+    public String execute(ToolExecutionRequest request, Object memoryId) {
+        if (ttlMillis <= 0) {
+            try {
+                return delegate.execute(request, memoryId);
+            } finally {
+                cache.invalidate(scope);
+            }
+        }
+
+        JsonNode arguments = parseArguments(request.arguments());
+        String token = tokens.token(arguments);
+        if (token == null) {
+            cache.bypass();
+            return delegate.execute(request, memoryId);
+        }
+        // 参数按解析后的 JSON 重新序列化，空白差异不影响命中
+        String key = toolName + '\u0000' + arguments + '\u0000' + cache.generation(scope) + '\u0000' + token
+                + '\u0000' + focused.getAsBoolean();
+        String cached = cache.get(toolName, key);
+        if (cached != null) {
+            return CallLog.tool(toolName).attr("cache", "hit").ok(cached);
+        }
+
+        String result = delegate.execute(request, memoryId);
+        if (result != null && !CallLog.isError(result)) {
+            cache.put(key, result, ttlMillis);
+        }
+        return result;
+    }
+
+    private JsonNode parseArguments(String arguments) {
+        if (arguments == null || arguments.isBlank()) {
+            return NullNode.getInstance();
+        }
+        try {
+            return mapper.readTree(arguments);
+        } catch (JsonProcessingException e) {
+            return mapper.getNodeFactory().textNode(arguments);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.reactmcp.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+
+/**
+ * 文件工具的有效性标记：路径 + 修改时间 + 大小
+ * 路径与 FileSystemTools / DocumentReaderTools 一样相对于用户目录解析；文件不存在时不缓存
+ * 目录不缓存：子目录或文件内容变化不会改变目录的修改时间和大小，标记无法反映列表是否过期
+ */
+public class FileValidityToken implements ValidityTokenSource {
+
+    private static final Path BASE_PATH = Paths.get(System.getProperty("user.home"));
+
+    @Override
+    public String token(JsonNode arguments) {
+        String pathArgument = pathArgument(arguments);
+        if (pathArgument == null) {
+            return null;
+        }
+        Path path = BASE_PATH.resolve(pathArgument).normalize();
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (attributes.isDirectory()) {
+                return null;
+            }
+            return path + "|" + attributes.lastModifiedTime().toMillis() + "|" + attributes.size();
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 取名称中带 path 的第一个参数（filePath、directoryPath 等），没有时取第一个字符串参数
+     */
+    private static String pathArgument(JsonNode arguments) {
+        if (arguments == null || !arguments.isObject()) {
+            return null;
+        }
+        String firstText = null;
+        for (Map.Entry<String, JsonNode> field : arguments.properties()) {
+            if (!field.getValue().isTextual()) {
+                continue;
+            }
+            if (field.getKey().toLowerCase().contains("path")) {
+                return field.getValue().asText();
+            }
+            if (firstText == null) {
+                firstText = field.getValue().asText();
+            }
+        }
+        return firstText;
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.reactmcp.cache;
+
+import com.example.reactmcp.config.ToolCacheProperties;
+import com.example.reactmcp.model.ToolCacheMetrics;
+import com.example.reactmcp.retrieval.TaskFocus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.agent.tool.ToolSpecifications;
+import dev.langchain4j.service.tool.DefaultToolExecutor;
+import dev.langchain4j.service.tool.ToolExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 工具结果缓存
+ * 缓存键 = 工具名 + 规范化后的参数 + 作用域版本 + 有效性标记（页面 URL 与 DOM 变更计数 / 文件修改时间与大小）+ 是否有任务查询，
+ * 缓存的是工具的原始内容，按任务选段在缓存外层每次进行（见 TaskFocus），
+ * 只缓存 app.tool-cache.ttl-seconds 中配置了有效期的工具；未配置的工具视为有副作用，执行后使同作用域的缓存全部失效
+ * 按访问顺序 LRU 淘汰，条数和字符总数都有上限
+ */
+@Component
+public class ToolResultCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ToolResultCache.class);
+
+    private final ToolCacheProperties properties;
+    private final ObjectMapper mapper;
+    private final TaskFocus taskFocus;
+
+    private final Object lock = new Object();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalChars;
+
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder bypassed = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final Map<String, LongAdder> hitsByTool = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> missesByTool = new ConcurrentHashMap<>();
+
+    public ToolResultCache(ToolCacheProperties properties, ObjectMapper mapper, TaskFocus taskFocus) {
+        this.properties = properties;
+        this.mapper = mapper;
+        this.taskFocus = taskFocus;
+    }
+
+    /**
+     * 为一个工具对象的所有 @Tool 方法创建执行器
+     * 未开启缓存时直接使用 DefaultToolExecutor，与 AiServices.tools(Object...) 行为一致；聚焦工具再包一层选段
+     *
+     * @param tools  工具对象
+     * @param scope  作用域（browser / file ...），同作用域的写操作会使读结果失效
+     * @param tokens 有效性标记来源，为 null 时该对象的工具都不缓存
+     */
+    public Map<ToolSpecification, ToolExecutor> executors(Object tools, String scope, ValidityTokenSource tokens) {
+        Map<ToolSpecification, ToolExecutor> executors = new LinkedHashMap<>();
+        for (Method method : tools.getClass().getDeclaredMethods()) {
+            if (!method.isAnnotationPresent(Tool.class)) {
+                continue;
+            }
+            ToolSpecification specification = ToolSpecifications.toolSpecificationFrom(method);
+            ToolExecutor executor = new DefaultToolExecutor(tools, method);
+            if (properties.isEnabled() && tokens != null) {
+                Long ttlSeconds = properties.getTtlSeconds().get(specification.name());
+                long ttlMillis = ttlSeconds == null ? 0 : TimeUnit.SECONDS.toMillis(ttlSeconds);
+                executor = new CachingToolExecutor(this, mapper, executor, specification.name(), scope, ttlMillis,
+                        tokens, taskFocus::isActive);
+            }
+            executors.put(specification, taskFocus.executor(specification.name(), executor));
+        }
+        log.info("Registered {} tools from {} (scope={}, cache={})", executors.size(),
+                tools.getClass().getSimpleName(), scope, properties.isEnabled() && tokens != null);
+        return executors;
+    }
+
+    /**
+     * 作用域当前版本，写操作后递增，使之前的缓存键全部失效
+     */
+    long generation(String scope) {
+        return generations.computeIfAbsent(scope, s -> new AtomicLong()).get();
+    }
+
+    /**
+     * 使作用域内的缓存失效；旧条目不再命中，随 LRU / 过期自然清除
+     */
+    public void invalidate(String scope) {
+        generations.computeIfAbsent(scope, s -> new AtomicLong()).incrementAndGet();
+        invalidations.increment();
+    }
+
+    String get(String tool, String key) {
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                hits.increment();
+                counter(hitsByTool, tool).increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                totalChars -= entry.weight;
+                expirations.increment();
+            }
+        }
+        misses.increment();
+        counter(missesByTool, tool).increment();
+        return null;
+    }
+
+    void put(String key, String value, long ttlMillis) {
+        long weight = (long) key.length() + value.length();
+        // 单条结果超过总上限的 1/4 时不缓存，避免一条大页面挤掉所有条目
+        if (weight > properties.getMaxChars() / 4) {
+            bypassed.increment();
+            return;
+        }
+        Entry entry = new Entry(value, System.currentTimeMillis() + ttlMillis, weight);
+        synchronized (lock) {
+            Entry previous = entries.put(key, entry);
+            if (previous != null) {
+                totalChars -= previous.weight;
+            }
+            totalChars += weight;
+            evictIfNeeded();
+        }
+    }
+
+    void bypass() {
+        bypassed.increment();
+    }
+
+    private void evictIfNeeded() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext() && (entries.size() > properties.getMaxEntries() || totalChars > properties.getMaxChars())) {
+            Entry eldest = it.next();
+            it.remove();
+            totalChars -= eldest.weight;
+            if (eldest.expiresAt <= now) {
+                expirations.increment();
+            } else {
+                evictions.increment();
+            }
+        }
+    }
+
+    public ToolCacheMetrics getMetrics() {
+        ToolCacheMetrics metrics = new ToolCacheMetrics();
+        synchronized (lock) {
+            metrics.setEntries(entries.size());
+            metrics.setChars(totalChars);
+        }
+        metrics.setMaxChars(properties.getMaxChars());
+        metrics.setHits(hits.sum());
+        metrics.setMisses(misses.sum());
+        metrics.setBypassed(bypassed.sum());
+        metrics.setExpirations(expirations.sum());
+        metrics.setEvictions(evictions.sum());
+        metrics.setInvalidations(invalidations.sum());
+        metrics.setHitsByTool(snapshot(hitsByTool));
+        metrics.setMissesByTool(snapshot(missesByTool));
+        return metrics;
+    }
+
+    private static LongAdder counter(Map<String, LongAdder> counters, String tool) {
+        return counters.computeIfAbsent(tool, t -> new LongAdder());
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        counters.forEach((tool, count) -> result.put(tool, count.sum()));
+        return result;
+    }
+
+    private static final class Entry {
+        final String value;
+        final long expiresAt;
+        final long weight;
+
+        Entry(String value, long expiresAt, long weight) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.weight = weight;
+        }
+    }
+}
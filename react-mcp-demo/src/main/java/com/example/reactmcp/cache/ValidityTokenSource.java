@@ -0,0 +1,16 @@
+package com.example.reactmcp.cache;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * 工具结果的有效性标记：标记不变时，相同参数的调用结果可以复用
+ */
+@FunctionalInterface
+public interface ValidityTokenSource {
+
+    /**
+     * @param arguments 工具调用参数
+     * @return 有效性标记，返回 null 表示当前状态无法判断，本次调用不使用缓存
+     */
+    String token(JsonNode arguments);
+}
@@ -0,0 +1,69 @@
+package com.example.reactmcp.checkpoint;
+
+import com.example.reactmcp.cluster.SharedChatMemoryStore;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按任务 ID 隔离的对话记忆存储
+ * 消息保存在内存中，每次变化把不可变快照交给 TaskCheckpointStore 异步写盘；
+ * 启动恢复任务时先用 restore 放回检查点中的对话
+ * 集群模式下对话只保存在共享存储中，各节点读写同一份（检查点照常写本地）
+ */
+@Component
+public class CheckpointChatMemoryStore implements ChatMemoryStore {
+
+    private final Map<Object, List<ChatMessage>> messagesById = new ConcurrentHashMap<>();
+    private final TaskCheckpointStore checkpoints;
+    private final SharedChatMemoryStore shared;
+
+    public CheckpointChatMemoryStore(TaskCheckpointStore checkpoints,
+                                     ObjectProvider<SharedChatMemoryStore> shared) {
+        this.checkpoints = checkpoints;
+        this.shared = shared.getIfAvailable();
+    }
+
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        if (shared != null) {
+            return shared.getMessages(memoryId);
+        }
+        return messagesById.getOrDefault(memoryId, List.of());
+    }
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        List<ChatMessage> snapshot = List.copyOf(messages);
+        if (shared != null) {
+            shared.updateMessages(memoryId, snapshot);
+        } else {
+            messagesById.put(memoryId, snapshot);
+        }
+        checkpoints.memoryChanged(memoryId, snapshot);
+    }
+
+    @Override
+    public void deleteMessages(Object memoryId) {
+        messagesById.remove(memoryId);
+        if (shared != null) {
+            shared.deleteMessages(memoryId);
+        }
+    }
+
+    /**
+     * 放回检查点中的对话，不触发检查点写盘
+     */
+    public void restore(String taskId, List<ChatMessage> messages) {
+        if (shared != null) {
+            shared.updateMessages(taskId, List.copyOf(messages));
+        } else {
+            messagesById.put(taskId, List.copyOf(messages));
+        }
+    }
+}
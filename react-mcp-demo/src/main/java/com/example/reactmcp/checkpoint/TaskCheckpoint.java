@@ -0,0 +1,73 @@
+package com.example.reactmcp.checkpoint;
+
+import dev.langchain4j.data.message.ChatMessage;
+
+import java.util.List;
+
+/**
+ * 从磁盘读回的任务检查点，启动时用于恢复被中断的任务
+ */
+public final class TaskCheckpoint {
+
+    private final String taskId;
+    private final String task;
+    private final int stepIndex;
+    private final int resumeCount;
+    private final long createdAt;
+    private final String currentUrl;
+    private final String storageState;
+    private final List<ChatMessage> messages;
+
+    TaskCheckpoint(String taskId, String task, int stepIndex, int resumeCount, long createdAt,
+                   String currentUrl, String storageState, List<ChatMessage> messages) {
+        this.taskId = taskId;
+        this.task = task;
+        this.stepIndex = stepIndex;
+        this.resumeCount = resumeCount;
+        this.createdAt = createdAt;
+        this.currentUrl = currentUrl;
+        this.storageState = storageState;
+        this.messages = messages;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public String getTask() {
+        return task;
+    }
+
+    /**
+     * 中断前已开始的推理轮数
+     */
+    public int getStepIndex() {
+        return stepIndex;
+    }
+
+    /**
+     * 已经恢复过的次数，用于避免反复崩溃的任务无限重试
+     */
+    public int getResumeCount() {
+        return resumeCount;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getCurrentUrl() {
+        return currentUrl;
+    }
+
+    /**
+     * Playwright storageState JSON（cookies 和 localStorage），远程浏览器模式下为 null
+     */
+    public String getStorageState() {
+        return storageState;
+    }
+
+    public List<ChatMessage> getMessages() {
+        return messages;
+    }
+}
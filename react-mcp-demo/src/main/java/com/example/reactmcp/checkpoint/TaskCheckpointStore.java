@@ -0,0 +1,432 @@
+package com.example.reactmcp.checkpoint;
+
+import com.example.reactmcp.service.ReActEventPublisher;
+import com.example.reactmcp.tools.PlaywrightMcpTools;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 长时间运行任务的检查点
+ * 每个任务一个目录 {directory}/{taskId}/，分三个文件分别保存：
+ * - meta.json：任务内容、推理轮数、当前页面 URL
+ * - memory.json：对话记忆（含工具调用和结果）
+ * - browser-state.json：浏览器 cookies 和 localStorage
+ * 任务线程只更新内存中的状态并标记哪一部分变了；写盘在后台线程上合并进行，只重写变化的文件，
+ * 每个文件先写临时文件再原子替换，崩溃时不会留下写了一半的检查点
+ * 任务结束（完成、失败或取消）后删除检查点；服务关闭或进程崩溃时保留，下次启动后恢复执行
+ */
+@Component
+public class TaskCheckpointStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskCheckpointStore.class);
+    private static final String META_FILE = "meta.json";
+    private static final String MEMORY_FILE = "memory.json";
+    private static final String BROWSER_FILE = "browser-state.json";
+
+    private final ObjectMapper mapper;
+    private final ReActEventPublisher eventPublisher;
+    private final PlaywrightMcpTools browser;
+    private final boolean enabled;
+    private final Path directory;
+    private final long debounceMillis;
+    private final int storageStateIntervalSteps;
+    private final boolean resumeOnStartup;
+    private final int maxResumes;
+    private final Map<String, TaskState> tasks = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService writer;
+
+    public TaskCheckpointStore(
+            ObjectMapper mapper,
+            ReActEventPublisher eventPublisher,
+            PlaywrightMcpTools browser,
+            @Value("${app.checkpoint.enabled:true}") boolean enabled,
+            @Value("${app.checkpoint.directory:data/checkpoints}") String directory,
+            @Value("${app.checkpoint.debounce-ms:500}") long debounceMillis,
+            @Value("${app.checkpoint.storage-state-interval-steps:5}") int storageStateIntervalSteps,
+            @Value("${app.checkpoint.resume-on-startup:true}") boolean resumeOnStartup,
+            @Value("${app.checkpoint.max-resumes:3}") int maxResumes) {
+        this.mapper = mapper;
+        this.eventPublisher = eventPublisher;
+        this.browser = browser;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.debounceMillis = Math.max(0, debounceMillis);
+        this.storageStateIntervalSteps = Math.max(1, storageStateIntervalSteps);
+        this.resumeOnStartup = resumeOnStartup;
+        this.maxResumes = Math.max(0, maxResumes);
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "task-checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            log.info("Task checkpoints enabled: dir={}, debounceMs={}, storageStateIntervalSteps={}",
+                    this.directory, this.debounceMillis, this.storageStateIntervalSteps);
+        }
+    }
+
+    /**
+     * 新任务开始时建立检查点
+     */
+    public void begin(String taskId, String task) {
+        if (!enabled) {
+            return;
+        }
+        TaskState state = new TaskState(taskId, task, System.currentTimeMillis(), 0, 0);
+        state.metaDirty = true;
+        tasks.put(taskId, state);
+        schedule(state);
+    }
+
+    /**
+     * 从检查点恢复的任务继续使用原目录，对话记忆和浏览器状态沿用磁盘上的文件
+     */
+    public void resume(TaskCheckpoint checkpoint) {
+        if (!enabled) {
+            return;
+        }
+        TaskState state = new TaskState(checkpoint.getTaskId(), checkpoint.getTask(), checkpoint.getCreatedAt(),
+                checkpoint.getStepIndex(), checkpoint.getResumeCount() + 1);
+        state.currentUrl = checkpoint.getCurrentUrl();
+        state.storageState = checkpoint.getStorageState();
+        state.lastStorageStep = checkpoint.getStepIndex();
+        state.metaDirty = true;
+        tasks.put(checkpoint.getTaskId(), state);
+        schedule(state);
+    }
+
+    /**
+     * 每一轮推理开始前由模型装饰器调用（任务线程上）
+     * 只读取当前 URL；storageState 需要一次浏览器往返，每隔 storage-state-interval-steps 轮才导出一次
+     */
+    public void stepStarted() {
+        String taskId = eventPublisher.currentTaskId();
+        TaskState state = taskId == null ? null : tasks.get(taskId);
+        if (state == null) {
+            return;
+        }
+        String url = browser.currentUrl();
+        boolean captureStorage;
+        synchronized (state) {
+            state.stepIndex++;
+            state.currentUrl = url;
+            state.metaDirty = true;
+            captureStorage = state.stepIndex - state.lastStorageStep >= storageStateIntervalSteps;
+            if (captureStorage) {
+                state.lastStorageStep = state.stepIndex;
+            }
+        }
+        if (captureStorage) {
+            String storageState = browser.storageState();
+            synchronized (state) {
+                if (storageState != null && !storageState.equals(state.storageState)) {
+                    state.storageState = storageState;
+                    state.browserDirty = true;
+                }
+            }
+        }
+        schedule(state);
+    }
+
+    /**
+     * 对话记忆变化时由 CheckpointChatMemoryStore 调用，messages 是不可变快照，序列化在写线程上进行
+     */
+    void memoryChanged(Object memoryId, List<ChatMessage> messages) {
+        TaskState state = tasks.get(String.valueOf(memoryId));
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            state.messages = messages;
+            state.memoryDirty = true;
+        }
+        schedule(state);
+    }
+
+    /**
+     * 任务结束，删除检查点（在写线程上执行，排在该任务尚未完成的写入之后）
+     */
+    public void finish(String taskId) {
+        TaskState state = tasks.remove(taskId);
+        if (state == null) {
+            return;
+        }
+        state.finished = true;
+        try {
+            writer.execute(() -> deleteDirectory(directory.resolve(taskId)));
+        } catch (Exception e) {
+            log.debug("Checkpoint writer rejected deletion of task {}: {}", taskId, e.getMessage());
+        }
+    }
+
+    /**
+     * 删除不再恢复的检查点（任务已由集群中其他节点接管）
+     */
+    public void discard(String taskId) {
+        try {
+            writer.execute(() -> deleteDirectory(directory.resolve(taskId)));
+        } catch (Exception e) {
+            log.debug("Checkpoint writer rejected deletion of task {}: {}", taskId, e.getMessage());
+        }
+    }
+
+    /**
+     * 在任务线程上按检查点恢复浏览器：带上 cookies 和 localStorage 重新打开中断时的页面
+     */
+    public void restoreBrowser(TaskCheckpoint checkpoint) {
+        if (checkpoint.getCurrentUrl() == null || checkpoint.getCurrentUrl().isEmpty()
+                || "about:blank".equals(checkpoint.getCurrentUrl())) {
+            return;
+        }
+        try {
+            String result = browser.restoreBrowser(checkpoint.getCurrentUrl(), checkpoint.getStorageState());
+            log.info("Restored browser for task {}: {}", checkpoint.getTaskId(),
+                    result.length() > 200 ? result.substring(0, 200) + "..." : result);
+        } catch (Exception e) {
+            log.warn("Failed to restore browser for task {}: {}", checkpoint.getTaskId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 启动时读取需要恢复的检查点
+     * 超过最大恢复次数或无法解析的检查点直接删除
+     */
+    public List<TaskCheckpoint> loadResumable() {
+        List<TaskCheckpoint> result = new ArrayList<>();
+        if (!enabled || !resumeOnStartup || !Files.isDirectory(directory)) {
+            return result;
+        }
+        List<Path> dirs;
+        try (Stream<Path> stream = Files.list(directory)) {
+            dirs = stream.filter(Files::isDirectory).toList();
+        } catch (IOException e) {
+            log.warn("Failed to list task checkpoints in {}: {}", directory, e.getMessage());
+            return result;
+        }
+        for (Path dir : dirs) {
+            TaskCheckpoint checkpoint;
+            try {
+                checkpoint = read(dir);
+            } catch (Exception e) {
+                log.warn("Discarding unreadable task checkpoint {}: {}", dir, e.getMessage());
+                deleteDirectory(dir);
+                continue;
+            }
+            if (checkpoint == null) {
+                deleteDirectory(dir);
+            } else if (checkpoint.getResumeCount() >= maxResumes) {
+                log.warn("Task {} was resumed {} times, giving up", checkpoint.getTaskId(), checkpoint.getResumeCount());
+                deleteDirectory(dir);
+            } else {
+                result.add(checkpoint);
+            }
+        }
+        result.sort(Comparator.comparingLong(TaskCheckpoint::getCreatedAt));
+        return result;
+    }
+
+    private TaskCheckpoint read(Path dir) throws IOException {
+        Path metaFile = dir.resolve(META_FILE);
+        if (!Files.exists(metaFile)) {
+            return null;
+        }
+        JsonNode meta = mapper.readTree(metaFile.toFile());
+        String taskId = meta.path("taskId").asText(null);
+        if (taskId == null || !taskId.equals(dir.getFileName().toString())) {
+            return null;
+        }
+        Path memoryFile = dir.resolve(MEMORY_FILE);
+        List<ChatMessage> messages = Files.exists(memoryFile)
+                ? ChatMessageDeserializer.messagesFromJson(Files.readString(memoryFile, StandardCharsets.UTF_8))
+                : new ArrayList<>();
+        Path browserFile = dir.resolve(BROWSER_FILE);
+        String storageState = Files.exists(browserFile) ? Files.readString(browserFile, StandardCharsets.UTF_8) : null;
+        return new TaskCheckpoint(taskId, meta.path("task").asText(""), meta.path("stepIndex").asInt(),
+                meta.path("resumeCount").asInt(), meta.path("createdAt").asLong(),
+                meta.path("currentUrl").asText(null), storageState, trimIncompleteToolCalls(messages));
+    }
+
+    /**
+     * 中断可能发生在工具执行期间：去掉最后一条结果不全的工具调用，否则模型接口会拒绝这段对话
+     */
+    static List<ChatMessage> trimIncompleteToolCalls(List<ChatMessage> messages) {
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (messages.get(i) instanceof AiMessage ai && ai.hasToolExecutionRequests()) {
+                int results = 0;
+                for (int j = i + 1; j < messages.size(); j++) {
+                    if (messages.get(j) instanceof ToolExecutionResultMessage) {
+                        results++;
+                    }
+                }
+                return results >= ai.toolExecutionRequests().size()
+                        ? messages : new ArrayList<>(messages.subList(0, i));
+            }
+        }
+        return messages;
+    }
+
+    private void schedule(TaskState state) {
+        synchronized (state) {
+            if (state.scheduled) {
+                return;
+            }
+            state.scheduled = true;
+        }
+        try {
+            writer.schedule(() -> flush(state), debounceMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            // 关闭过程中不再接受新的写入
+            log.debug("Checkpoint writer rejected task {}: {}", state.taskId, e.getMessage());
+        }
+    }
+
+    /**
+     * 在写线程上把变化的部分写盘；延迟期间的多次变化合并为一次写入
+     */
+    private void flush(TaskState state) {
+        boolean writeMeta;
+        boolean writeMemory;
+        boolean writeBrowser;
+        Map<String, Object> meta = null;
+        List<ChatMessage> messages;
+        String storageState;
+        synchronized (state) {
+            state.scheduled = false;
+            if (state.finished) {
+                return;
+            }
+            writeMeta = state.metaDirty;
+            writeMemory = state.memoryDirty;
+            writeBrowser = state.browserDirty;
+            state.metaDirty = state.memoryDirty = state.browserDirty = false;
+            if (writeMeta) {
+                meta = new LinkedHashMap<>();
+                meta.put("taskId", state.taskId);
+                meta.put("task", state.task);
+                meta.put("stepIndex", state.stepIndex);
+                meta.put("resumeCount", state.resumeCount);
+                meta.put("currentUrl", state.currentUrl);
+                meta.put("createdAt", state.createdAt);
+                meta.put("updatedAt", System.currentTimeMillis());
+            }
+            messages = state.messages;
+            storageState = state.storageState;
+        }
+        Path dir = directory.resolve(state.taskId);
+        try {
+            Files.createDirectories(dir);
+            // 先写记忆和浏览器状态，最后写 meta：只有 meta 存在的目录才会被恢复
+            if (writeMemory && messages != null) {
+                writeAtomically(dir.resolve(MEMORY_FILE),
+                        ChatMessageSerializer.messagesToJson(messages).getBytes(StandardCharsets.UTF_8));
+            }
+            if (writeBrowser && storageState != null) {
+                writeAtomically(dir.resolve(BROWSER_FILE), storageState.getBytes(StandardCharsets.UTF_8));
+            }
+            if (writeMeta) {
+                writeAtomically(dir.resolve(META_FILE), mapper.writeValueAsBytes(meta));
+            }
+        } catch (IOException e) {
+            log.warn("Failed to write checkpoint for task {}: {}", state.taskId, e.getMessage());
+            synchronized (state) {
+                state.metaDirty |= writeMeta;
+                state.memoryDirty |= writeMemory;
+                state.browserDirty |= writeBrowser;
+            }
+        }
+    }
+
+    private static void writeAtomically(Path target, byte[] content) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(temp, content);
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void deleteDirectory(Path dir) {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> stream = Files.walk(dir)) {
+            for (Path path : stream.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to delete task checkpoint {}: {}", dir, e.getMessage());
+        }
+    }
+
+    /**
+     * 等待写线程写完已合并的检查点（延迟中的写入在关闭后仍会执行）
+     */
+    @PreDestroy
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("Task checkpoint writer did not finish in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 单个任务在内存中的最新状态，字段由对象锁保护
+     */
+    private static final class TaskState {
+        private final String taskId;
+        private final String task;
+        private final long createdAt;
+        private final int resumeCount;
+        private int stepIndex;
+        private int lastStorageStep;
+        private String currentUrl;
+        private String storageState;
+        private List<ChatMessage> messages;
+        private boolean metaDirty;
+        private boolean memoryDirty;
+        private boolean browserDirty;
+        private boolean scheduled;
+        private volatile boolean finished;
+
+        TaskState(String taskId, String task, long createdAt, int stepIndex, int resumeCount) {
+            this.taskId = taskId;
+            this.task = task;
+            this.createdAt = createdAt;
+            this.stepIndex = stepIndex;
+            this.resumeCount = resumeCount;
+        }
+    }
+}
@@ -0,0 +1,526 @@
+package com.example.reactmcp.cluster;
+
+import com.example.reactmcp.model.ClusterNodeInfo;
+import com.example.reactmcp.model.ClusterStatus;
+import com.example.reactmcp.model.EventKind;
+import com.example.reactmcp.model.ReActStepEvent;
+import com.example.reactmcp.service.ReActEventPublisher;
+import com.example.reactmcp.service.ReActTaskService;
+import com.example.reactmcp.service.TaskEventSession;
+import com.example.reactmcp.web.EventJsonCodec;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 集群模式协调器（app.cluster.enabled=true 时启用）
+ * - 提交：任务进入共享队列，本节点建立一个转发会话，客户端照常通过 SSE / WebSocket 订阅
+ * - 执行：worker 线程在有空闲容量时才领取任务，容量为 min(浏览器槽位, 大模型槽位)
+ * - 转发：任务被其他节点领取后，转发会话连接该节点的 /react/stream/{taskId}，把事件逐个转发给本地订阅者，
+ *   断线时按远端事件 ID 续传；任务被本节点领取时直接复用这个会话
+ * - 控制：取消 / 暂停 / 继续 / 回答转发给执行任务的节点，排队中的任务取消时直接出队
+ * - 故障转移：每次心跳时把心跳超时节点的处理中任务放回队列，由其他节点重新执行；转发会话发现执行节点变化后从头转发新节点的事件
+ */
+@Component
+@ConditionalOnProperty(name = "app.cluster.enabled", havingValue = "true")
+public class ClusterCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterCoordinator.class);
+
+    /**
+     * 节点间转发请求携带的请求头，收到该请求头的节点只使用本地会话，不再向其他节点转发
+     */
+    public static final String RELAY_HEADER = "X-Cluster-Relay";
+    private static final long OWNER_POLL_MS = 500;
+
+    private final ClusterTaskQueue queue;
+    private final ReActEventPublisher eventPublisher;
+    private final ReActTaskService taskService;
+    private final ObjectMapper mapper;
+    private final String store;
+    private final String nodeId;
+    private final String nodeUrl;
+    private final int capacity;
+    private final Semaphore slots;
+    private final long pollTimeoutMillis;
+    private final long heartbeatMillis;
+    private final long ownerWaitMillis;
+    private final long nodeTimeoutMillis;
+    private final AtomicInteger running = new AtomicInteger();
+    private final Map<String, Relay> relays = new ConcurrentHashMap<>();
+    private final ExecutorService relayExecutor;
+    private final ScheduledExecutorService heartbeat;
+    private final Thread worker;
+    private volatile boolean stopped;
+
+    public ClusterCoordinator(ClusterTaskQueue queue,
+                              ReActEventPublisher eventPublisher,
+                              ReActTaskService taskService,
+                              ObjectMapper mapper,
+                              @Value("${app.cluster.store:file}") String store,
+                              @Value("${app.cluster.node-id:}") String nodeId,
+                              @Value("${app.cluster.advertised-url:http://localhost:${server.port:8080}}") String nodeUrl,
+                              @Value("${app.cluster.browser-slots:${app.playwright.pool.max-contexts:4}}") int browserSlots,
+                              @Value("${app.cluster.llm-slots:4}") int llmSlots,
+                              @Value("${app.cluster.poll-timeout-ms:2000}") long pollTimeoutMillis,
+                              @Value("${app.cluster.heartbeat-seconds:5}") long heartbeatSeconds,
+                              @Value("${app.cluster.owner-wait-seconds:60}") long ownerWaitSeconds,
+                              @Value("${app.cluster.node-timeout-seconds:30}") long nodeTimeoutSeconds) {
+        this.queue = queue;
+        this.eventPublisher = eventPublisher;
+        this.taskService = taskService;
+        this.mapper = mapper;
+        this.store = store;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.nodeUrl = nodeUrl.endsWith("/") ? nodeUrl.substring(0, nodeUrl.length() - 1) : nodeUrl;
+        // 每个 ReAct 任务都可能租用一个浏览器上下文并反复调用大模型，两种资源取较小者作为并发上限
+        this.capacity = Math.max(1, Math.min(browserSlots, llmSlots));
+        this.slots = new Semaphore(capacity);
+        this.pollTimeoutMillis = Math.max(100, pollTimeoutMillis);
+        this.heartbeatMillis = TimeUnit.SECONDS.toMillis(Math.max(1, heartbeatSeconds));
+        this.ownerWaitMillis = TimeUnit.SECONDS.toMillis(Math.max(1, ownerWaitSeconds));
+        // 至少错过三次心跳才认为节点失联
+        this.nodeTimeoutMillis = Math.max(heartbeatMillis * 3, TimeUnit.SECONDS.toMillis(nodeTimeoutSeconds));
+        AtomicInteger relayIndex = new AtomicInteger();
+        this.relayExecutor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "cluster-relay-" + relayIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "cluster-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.worker = new Thread(this::work, "cluster-worker");
+        this.worker.setDaemon(true);
+    }
+
+    /**
+     * Web 服务就绪后才开始领取任务，保证其他节点能连上本节点转发事件
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // 先写入心跳再领取任务，其他节点不会把本节点刚领取的任务当作失联节点的任务放回队列
+        sendHeartbeat();
+        heartbeat.scheduleWithFixedDelay(this::sendHeartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        worker.start();
+        log.info("Cluster node {} started: url={}, capacity={}, store={}", nodeId, nodeUrl, capacity, store);
+    }
+
+    /**
+     * 提交任务到共享队列，返回本节点的转发会话；任务 ID 在本节点已存在时返回 null
+     */
+    public TaskEventSession submit(String taskId, String task) {
+        TaskEventSession session = eventPublisher.createSession(taskId);
+        if (session == null) {
+            return null;
+        }
+        session.publish(ReActStepEvent.taskStarted(taskId));
+        queue.enqueue(new QueuedTask(taskId, task, System.currentTimeMillis(), nodeId));
+        log.info("📥 任务 {} 已进入集群队列", taskId);
+        startRelay(taskId, session);
+        return session;
+    }
+
+    /**
+     * 在本节点直接执行任务（重启后从检查点恢复）：占用一个容量并登记为本节点处理中，
+     * 其他节点据此转发事件和控制请求，本节点失联时任务同样会被放回队列；没有空闲容量或登记失败时返回 false
+     */
+    public boolean adopt(TaskEventSession session, String task) {
+        if (!slots.tryAcquire()) {
+            return false;
+        }
+        QueuedTask queued = new QueuedTask(session.getTaskId(), task, System.currentTimeMillis(), nodeId);
+        try {
+            // 先写入心跳，其他节点不会把刚登记的任务当作失联节点的任务放回队列
+            queue.heartbeat(selfInfo());
+            queue.adopt(selfInfo(), queued);
+        } catch (RuntimeException e) {
+            slots.release();
+            log.warn("Failed to register task {} with the cluster: {}", session.getTaskId(), e.getMessage());
+            return false;
+        }
+        running.incrementAndGet();
+        session.subscribe(event -> { }, () -> finished(queued));
+        return true;
+    }
+
+    /**
+     * 任务是否已在其他节点执行（本节点失联期间被放回队列并由其他节点领取），无法判断时返回 false
+     */
+    public boolean isRunningElsewhere(String taskId) {
+        try {
+            String owner = queue.ownerOf(taskId);
+            return owner != null && !owner.equals(nodeUrl);
+        } catch (RuntimeException e) {
+            log.warn("Failed to look up owner of task {}: {}", taskId, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 订阅在其他节点执行的任务：建立转发会话，从头重放远端事件
+     * 任务不在集群中（已过期或由本节点执行）时返回 null
+     */
+    public TaskEventSession attach(String taskId) {
+        String owner = queue.ownerOf(taskId);
+        if (owner == null || owner.equals(nodeUrl)) {
+            return null;
+        }
+        TaskEventSession session = eventPublisher.createSession(taskId);
+        if (session == null) {
+            return eventPublisher.getSession(taskId);
+        }
+        session.publish(ReActStepEvent.taskStarted(taskId));
+        startRelay(taskId, session);
+        return session;
+    }
+
+    /**
+     * 把控制请求转发给执行任务的节点；排队中的任务取消时直接出队
+     *
+     * @param action cancel / pause / resume / answer
+     */
+    public boolean control(String taskId, String action, String content) {
+        if ("cancel".equals(action) && queue.remove(taskId)) {
+            TaskEventSession session = eventPublisher.getSession(taskId);
+            if (session != null) {
+                session.complete(ReActStepEvent.error("Task cancelled"));
+            }
+            return true;
+        }
+        String owner = queue.ownerOf(taskId);
+        if (owner == null || owner.equals(nodeUrl)) {
+            return false;
+        }
+        try {
+            HttpURLConnection connection = open(owner + "/react/tasks/" + encode(taskId) + "/" + action);
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "text/plain;charset=UTF-8");
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write((content == null ? "" : content).getBytes(StandardCharsets.UTF_8));
+            }
+            if (connection.getResponseCode() != 200) {
+                return false;
+            }
+            try (InputStream in = connection.getInputStream()) {
+                return mapper.readTree(in).path("ok").asBoolean(false);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to forward {} for task {} to {}: {}", action, taskId, owner, e.getMessage());
+            return false;
+        }
+    }
+
+    public ClusterStatus getStatus() {
+        ClusterStatus status = new ClusterStatus();
+        status.setSelf(selfInfo());
+        status.setStore(store);
+        status.setRelays(relays.size());
+        try {
+            status.setQueueSize(queue.size());
+            status.setNodes(queue.nodes(heartbeatMillis * 3));
+        } catch (RuntimeException e) {
+            log.warn("Failed to read cluster state: {}", e.getMessage());
+            status.setNodes(List.of());
+        }
+        return status;
+    }
+
+    // ---------------------------------------------------------------- worker
+
+    private void work() {
+        while (!stopped) {
+            try {
+                // 先占用容量再领取：没有空闲容量的节点不会从队列中拿走任务
+                slots.acquire();
+                QueuedTask task;
+                try {
+                    task = queue.claim(selfInfo(), pollTimeoutMillis);
+                } catch (RuntimeException e) {
+                    slots.release();
+                    log.warn("Failed to claim cluster task: {}", e.getMessage());
+                    TimeUnit.MILLISECONDS.sleep(pollTimeoutMillis);
+                    continue;
+                }
+                if (task == null) {
+                    slots.release();
+                    continue;
+                }
+                execute(task);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void execute(QueuedTask task) {
+        String taskId = task.getTaskId();
+        running.incrementAndGet();
+        // 本节点提交的任务直接复用转发会话，订阅者无需重连
+        Relay relay = relays.remove(taskId);
+        TaskEventSession session = relay != null ? relay.session : eventPublisher.createSession(taskId);
+        if (session == null) {
+            log.warn("Task {} already has a session on node {}, skipping", taskId, nodeId);
+            finished(task);
+            return;
+        }
+        log.info("📤 节点 {} 领取任务 {}（提交节点 {}）", nodeId, taskId, task.getSubmittedBy());
+        session.subscribe(event -> { }, () -> finished(task));
+        taskService.execute(session, task.getTask());
+    }
+
+    private void finished(QueuedTask task) {
+        running.decrementAndGet();
+        slots.release();
+        try {
+            queue.release(selfInfo(), task);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release cluster task {}: {}", task.getTaskId(), e.getMessage());
+        }
+    }
+
+    private void sendHeartbeat() {
+        try {
+            queue.heartbeat(selfInfo());
+        } catch (RuntimeException e) {
+            log.warn("Cluster heartbeat failed: {}", e.getMessage());
+        }
+        try {
+            int requeued = queue.requeueOrphaned(nodeTimeoutMillis);
+            if (requeued > 0) {
+                log.warn("Requeued {} task(s) from cluster nodes without heartbeat for {}ms", requeued, nodeTimeoutMillis);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to requeue tasks of unresponsive nodes: {}", e.getMessage());
+        }
+    }
+
+    private ClusterNodeInfo selfInfo() {
+        ClusterNodeInfo info = new ClusterNodeInfo();
+        info.setNodeId(nodeId);
+        info.setUrl(nodeUrl);
+        info.setCapacity(capacity);
+        info.setFreeSlots(slots.availablePermits());
+        info.setRunningTasks(running.get());
+        info.setLastHeartbeat(System.currentTimeMillis());
+        return info;
+    }
+
+    // ---------------------------------------------------------------- relay
+
+    private void startRelay(String taskId, TaskEventSession session) {
+        Relay relay = new Relay(taskId, session);
+        relays.put(taskId, relay);
+        relayExecutor.execute(() -> relay(relay));
+    }
+
+    private void relay(Relay relay) {
+        TaskEventSession session = relay.session;
+        long lastSuccess = System.currentTimeMillis();
+        try {
+            while (!stopped && !session.isClosed()) {
+                String owner = queue.ownerOf(relay.taskId);
+                if (owner == null) {
+                    // 仍在排队（或执行节点失联后被放回队列）
+                    TimeUnit.MILLISECONDS.sleep(OWNER_POLL_MS);
+                    continue;
+                }
+                if (!owner.equals(relay.owner)) {
+                    // 执行节点变化（任务被重新领取）：新节点从头执行，事件 ID 从头计
+                    relay.owner = owner;
+                    relay.remoteEventId = 0;
+                    lastSuccess = System.currentTimeMillis();
+                }
+                if (owner.equals(nodeUrl)) {
+                    // 本节点的 worker 领取了任务，会话已交给本地执行
+                    return;
+                }
+                try {
+                    if (stream(relay, owner)) {
+                        return;
+                    }
+                    lastSuccess = System.currentTimeMillis();
+                } catch (TaskGoneException e) {
+                    session.complete(ReActStepEvent.error("Task not found on cluster node " + owner));
+                    return;
+                } catch (IOException e) {
+                    if (System.currentTimeMillis() - lastSuccess > ownerWaitMillis) {
+                        log.warn("Giving up relay of task {} from {}: {}", relay.taskId, owner, e.getMessage());
+                        session.complete(ReActStepEvent.error("Cluster node unreachable: " + owner));
+                        return;
+                    }
+                    log.debug("Relay of task {} from {} interrupted, retrying: {}", relay.taskId, owner, e.getMessage());
+                    TimeUnit.SECONDS.sleep(1);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.warn("Relay of task {} failed: {}", relay.taskId, e.getMessage());
+            session.complete(ReActStepEvent.error("Cluster relay failed: " + e.getMessage()));
+        } finally {
+            if (session.isClosed()) {
+                relays.remove(relay.taskId, relay);
+            }
+        }
+    }
+
+    /**
+     * 读取远端 SSE 流直到断开，收到最终答案或错误事件时返回 true
+     */
+    private boolean stream(Relay relay, String owner) throws IOException {
+        HttpURLConnection connection = open(owner + "/react/stream/" + encode(relay.taskId)
+                + "?lastEventId=" + relay.remoteEventId);
+        connection.setRequestProperty("Accept", "text/event-stream");
+        // 读超时大于远端心跳间隔，超时说明连接已失效
+        connection.setReadTimeout(60_000);
+        relay.connection = connection;
+        int status = connection.getResponseCode();
+        if (status == 404) {
+            throw new TaskGoneException();
+        }
+        if (status != 200) {
+            throw new IOException("HTTP " + status);
+        }
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            String id = null;
+            StringBuilder data = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    if (data.length() > 0 && dispatch(relay.session, data.toString())) {
+                        return true;
+                    }
+                    if (id != null) {
+                        relay.remoteEventId = Long.parseLong(id);
+                    }
+                    id = null;
+                    data.setLength(0);
+                } else if (line.startsWith("data:")) {
+                    if (data.length() > 0) {
+                        data.append('\n');
+                    }
+                    data.append(fieldValue(line, 5));
+                } else if (line.startsWith("id:")) {
+                    id = fieldValue(line, 3);
+                }
+                // event: 字段不需要，事件类型在 JSON 中；以冒号开头的是心跳注释
+            }
+        } finally {
+            relay.connection = null;
+        }
+        return false;
+    }
+
+    /**
+     * 转发一帧（单个事件或 batch 数组），远端的 task_started 由本地会话自己发布
+     */
+    private boolean dispatch(TaskEventSession session, String data) throws IOException {
+        JsonNode node = mapper.readTree(data);
+        Iterable<JsonNode> events = node.isArray() ? node : List.of(node);
+        for (JsonNode item : events) {
+            ReActStepEvent event = EventJsonCodec.read(item);
+            if (event == null || event.getKind() == EventKind.TASK_STARTED) {
+                continue;
+            }
+            if (event.getKind() == EventKind.FINAL_ANSWER || event.getKind() == EventKind.ERROR) {
+                session.complete(event);
+                return true;
+            }
+            session.publish(event);
+        }
+        return false;
+    }
+
+    private HttpURLConnection open(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(5000);
+        connection.setReadTimeout(10000);
+        connection.setRequestProperty(RELAY_HEADER, nodeId);
+        return connection;
+    }
+
+    private static String fieldValue(String line, int prefixLength) {
+        return line.length() > prefixLength && line.charAt(prefixLength) == ' '
+                ? line.substring(prefixLength + 1) : line.substring(prefixLength);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            host = "node";
+        }
+        return host + "-" + ProcessHandle.current().pid();
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopped = true;
+        worker.interrupt();
+        heartbeat.shutdownNow();
+        relayExecutor.shutdownNow();
+        // 阻塞在网络读取上的转发线程不响应中断，直接断开连接
+        for (Relay relay : relays.values()) {
+            HttpURLConnection connection = relay.connection;
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    private static final class Relay {
+        private final String taskId;
+        private final TaskEventSession session;
+        private volatile long remoteEventId;
+        private volatile String owner;
+        private volatile HttpURLConnection connection;
+
+        Relay(String taskId, TaskEventSession session) {
+            this.taskId = taskId;
+            this.session = session;
+        }
+    }
+
+    private static final class TaskGoneException extends IOException {
+        TaskGoneException() {
+            super("Task not found");
+        }
+    }
+}
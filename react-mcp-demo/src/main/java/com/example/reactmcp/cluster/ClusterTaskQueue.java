@@ -0,0 +1,62 @@
+package com.example.reactmcp.cluster;
+
+import com.example.reactmcp.model.ClusterNodeInfo;
+
+import java.util.List;
+
+/**
+ * 集群共享任务队列
+ * 任何节点都可以提交任务，worker 按自身空闲容量领取；领取时记录任务所在节点，
+ * 其他节点据此转发 SSE 事件流和控制请求。实现：FileClusterTaskQueue（共享目录）、RedisClusterTaskQueue
+ */
+public interface ClusterTaskQueue {
+
+    /**
+     * 任务入队（先进先出）
+     */
+    void enqueue(QueuedTask task);
+
+    /**
+     * 领取一个任务并把 node 记为任务所在节点，超时仍没有任务时返回 null
+     */
+    QueuedTask claim(ClusterNodeInfo node, long timeoutMillis) throws InterruptedException;
+
+    /**
+     * 把不经过队列、直接在 node 上执行的任务（重启后从检查点恢复的任务）记为 node 处理中，效果与 claim 领取相同
+     * 同一任务上次运行时留下的排队或处理中记录（节点重启后 ID 变化、或已被放回队列）一并移除，避免被再次执行
+     */
+    void adopt(ClusterNodeInfo node, QueuedTask task);
+
+    /**
+     * 任务执行结束，从 node 的处理中记录移除；任务所在节点的记录保留到过期，供迟到的重连查询
+     */
+    void release(ClusterNodeInfo node, QueuedTask task);
+
+    /**
+     * 移除尚未被领取的任务（取消排队中的任务），任务不在队列中时返回 false
+     */
+    boolean remove(String taskId);
+
+    /**
+     * 执行任务的节点地址，任务仍在排队或已过期时返回 null
+     */
+    String ownerOf(String taskId);
+
+    int size();
+
+    /**
+     * 上报本节点的心跳和空闲容量，并续期本节点处理中任务的所在节点记录（长时间运行的任务不会因记录过期而无法转发）
+     */
+    void heartbeat(ClusterNodeInfo node);
+
+    /**
+     * 把超过 nodeTimeoutMillis 没有心跳的节点的处理中任务放回队列，并清除其所在节点记录，返回放回的任务数
+     * 各节点在心跳时调用；多个节点同时执行时每个任务只会被放回一次
+     */
+    int requeueOrphaned(long nodeTimeoutMillis);
+
+    /**
+     * 最近 maxAgeMillis 内有心跳的节点
+     */
+    List<ClusterNodeInfo> nodes(long maxAgeMillis);
+}
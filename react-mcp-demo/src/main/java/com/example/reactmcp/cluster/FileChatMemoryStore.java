@@ -0,0 +1,68 @@
+package com.example.reactmcp.cluster;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * 基于共享目录的对话记忆，每个记忆 ID 一个 JSON 文件（与 FileClusterTaskQueue 配套使用）
+ */
+public class FileChatMemoryStore implements SharedChatMemoryStore {
+
+    private final Path directory;
+
+    public FileChatMemoryStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        Path file = fileOf(memoryId);
+        try {
+            return Files.exists(file)
+                    ? ChatMessageDeserializer.messagesFromJson(Files.readString(file, StandardCharsets.UTF_8))
+                    : List.of();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        Path file = fileOf(memoryId);
+        try {
+            Path temp = Files.createTempFile(directory, ".memory-", ".tmp");
+            Files.writeString(temp, ChatMessageSerializer.messagesToJson(messages), StandardCharsets.UTF_8);
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void deleteMessages(Object memoryId) {
+        try {
+            Files.deleteIfExists(fileOf(memoryId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path fileOf(Object memoryId) {
+        return directory.resolve(URLEncoder.encode(String.valueOf(memoryId), StandardCharsets.UTF_8) + ".json");
+    }
+}
@@ -0,0 +1,286 @@
+package com.example.reactmcp.cluster;
+
+import com.example.reactmcp.model.ClusterNodeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * 基于共享目录的任务队列，用于测试和单机多进程部署（目录可以放在 NFS 上）
+ * - queue/：每个排队任务一个文件，文件名以提交时间开头，按文件名排序即先进先出
+ * - running/{nodeId}/：领取时把任务文件原子移动到这里，移动成功的节点获得任务
+ * - owners/{taskId}：任务所在节点的地址，执行节点每次心跳时重写，超过 ownerTtl 未更新后清理
+ * - nodes/{nodeId}.json：节点心跳；心跳超时的节点的 running/{nodeId}/ 由其他节点移回 queue/（保留原文件名即原排队位置）
+ * 所有写入都先写临时文件再原子移动，其他进程不会读到半个文件
+ */
+public class FileClusterTaskQueue implements ClusterTaskQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(FileClusterTaskQueue.class);
+    private static final long POLL_INTERVAL_MS = 200;
+
+    private final ObjectMapper mapper;
+    private final Path queueDir;
+    private final Path runningDir;
+    private final Path ownersDir;
+    private final Path nodesDir;
+    private final Path tempDir;
+    private final long ownerTtlMillis;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public FileClusterTaskQueue(Path directory, ObjectMapper mapper, long ownerTtlMillis) throws IOException {
+        this.mapper = mapper;
+        this.queueDir = Files.createDirectories(directory.resolve("queue"));
+        this.runningDir = Files.createDirectories(directory.resolve("running"));
+        this.ownersDir = Files.createDirectories(directory.resolve("owners"));
+        this.nodesDir = Files.createDirectories(directory.resolve("nodes"));
+        this.tempDir = Files.createDirectories(directory.resolve("tmp"));
+        this.ownerTtlMillis = ownerTtlMillis;
+    }
+
+    @Override
+    public void enqueue(QueuedTask task) {
+        try {
+            writeAtomically(queueDir.resolve(fileName(task)), mapper.writeValueAsBytes(task));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to enqueue task " + task.getTaskId(), e);
+        }
+    }
+
+    @Override
+    public void adopt(ClusterNodeInfo node, QueuedTask task) {
+        String suffix = "-" + task.getTaskId() + ".json";
+        for (Path dir : listDirectories(runningDir)) {
+            for (Path file : listSorted(dir)) {
+                if (file.getFileName().toString().endsWith(suffix)) {
+                    deleteQuietly(file);
+                }
+            }
+        }
+        remove(task.getTaskId());
+        String name = fileName(task);
+        try {
+            Path nodeRunning = Files.createDirectories(runningDir.resolve(node.getNodeId()));
+            writeAtomically(nodeRunning.resolve(name), mapper.writeValueAsBytes(task));
+            writeAtomically(ownersDir.resolve(task.getTaskId()), node.getUrl().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to adopt task " + task.getTaskId(), e);
+        }
+        task.setRaw(name);
+    }
+
+    @Override
+    public QueuedTask claim(ClusterNodeInfo node, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        Path nodeRunning = runningDir.resolve(node.getNodeId());
+        while (true) {
+            for (Path file : listSorted(queueDir)) {
+                Path target = nodeRunning.resolve(file.getFileName());
+                try {
+                    Files.createDirectories(nodeRunning);
+                    Files.move(file, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (NoSuchFileException e) {
+                    // 被其他节点抢先领取
+                    continue;
+                } catch (IOException e) {
+                    log.warn("Failed to claim queued task {}: {}", file, e.getMessage());
+                    continue;
+                }
+                try {
+                    QueuedTask task = mapper.readValue(target.toFile(), QueuedTask.class);
+                    task.setRaw(target.getFileName().toString());
+                    writeAtomically(ownersDir.resolve(task.getTaskId()), node.getUrl().getBytes(StandardCharsets.UTF_8));
+                    return task;
+                } catch (IOException e) {
+                    log.warn("Discarding unreadable queued task {}: {}", target, e.getMessage());
+                    deleteQuietly(target);
+                }
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return null;
+            }
+            TimeUnit.MILLISECONDS.sleep(Math.min(POLL_INTERVAL_MS, remaining));
+        }
+    }
+
+    @Override
+    public void release(ClusterNodeInfo node, QueuedTask task) {
+        if (task.getRaw() != null) {
+            deleteQuietly(runningDir.resolve(node.getNodeId()).resolve(task.getRaw()));
+        }
+    }
+
+    @Override
+    public boolean remove(String taskId) {
+        String suffix = "-" + taskId + ".json";
+        for (Path file : listSorted(queueDir)) {
+            if (file.getFileName().toString().endsWith(suffix)) {
+                try {
+                    return Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String ownerOf(String taskId) {
+        try {
+            return Files.readString(ownersDir.resolve(taskId), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public int size() {
+        return listSorted(queueDir).size();
+    }
+
+    @Override
+    public void heartbeat(ClusterNodeInfo node) {
+        try {
+            writeAtomically(nodesDir.resolve(node.getNodeId() + ".json"), mapper.writeValueAsBytes(node));
+        } catch (IOException e) {
+            log.warn("Failed to write cluster heartbeat: {}", e.getMessage());
+        }
+        refreshOwners(node);
+        purgeExpiredOwners();
+    }
+
+    @Override
+    public int requeueOrphaned(long nodeTimeoutMillis) {
+        long now = System.currentTimeMillis();
+        int requeued = 0;
+        for (Path nodeRunning : listDirectories(runningDir)) {
+            String nodeId = nodeRunning.getFileName().toString();
+            if (now - lastHeartbeat(nodeId) <= nodeTimeoutMillis) {
+                continue;
+            }
+            for (Path file : listSorted(nodeRunning)) {
+                try {
+                    Files.move(file, queueDir.resolve(file.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException e) {
+                    // 已被其他节点放回
+                    continue;
+                }
+                String taskId = taskIdOf(file);
+                deleteQuietly(ownersDir.resolve(taskId));
+                requeued++;
+                log.warn("Requeued task {} from unresponsive node {}", taskId, nodeId);
+            }
+        }
+        return requeued;
+    }
+
+    @Override
+    public List<ClusterNodeInfo> nodes(long maxAgeMillis) {
+        long now = System.currentTimeMillis();
+        List<ClusterNodeInfo> nodes = new ArrayList<>();
+        for (Path file : listSorted(nodesDir)) {
+            try {
+                ClusterNodeInfo node = mapper.readValue(file.toFile(), ClusterNodeInfo.class);
+                if (now - node.getLastHeartbeat() <= maxAgeMillis) {
+                    nodes.add(node);
+                }
+            } catch (IOException e) {
+                log.debug("Skipping unreadable cluster node file {}: {}", file, e.getMessage());
+            }
+        }
+        return nodes;
+    }
+
+    // 重写而不是只更新修改时间：记录被误删（例如任务刚被放回又被领取）时也能恢复
+    private void refreshOwners(ClusterNodeInfo node) {
+        byte[] url = node.getUrl().getBytes(StandardCharsets.UTF_8);
+        for (Path file : listSorted(runningDir.resolve(node.getNodeId()))) {
+            try {
+                writeAtomically(ownersDir.resolve(taskIdOf(file)), url);
+            } catch (IOException e) {
+                log.debug("Failed to refresh owner of {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    // 节点最近一次心跳时间，没有心跳记录时返回 0
+    private long lastHeartbeat(String nodeId) {
+        try {
+            return mapper.readValue(nodesDir.resolve(nodeId + ".json").toFile(), ClusterNodeInfo.class).getLastHeartbeat();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void purgeExpiredOwners() {
+        long expiredBefore = System.currentTimeMillis() - ownerTtlMillis;
+        for (Path file : listSorted(ownersDir)) {
+            try {
+                if (Files.getLastModifiedTime(file).toMillis() < expiredBefore) {
+                    Files.deleteIfExists(file);
+                }
+            } catch (IOException ignored) {
+                // 其他节点同时清理
+            }
+        }
+    }
+
+    private void writeAtomically(Path target, byte[] content) throws IOException {
+        Path temp = Files.createTempFile(tempDir, "write-", ".tmp");
+        Files.write(temp, content);
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static List<Path> listSorted(Path dir) {
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.filter(Files::isRegularFile).sorted().toList();
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    private static List<Path> listDirectories(Path dir) {
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.filter(Files::isDirectory).toList();
+        } catch (IOException e) {
+            return List.of();
+        }
+    }
+
+    // 文件名为 {提交时间}-{序号}-{taskId}.json
+    private String fileName(QueuedTask task) {
+        return String.format("%013d-%06d-%s.json", task.getSubmittedAt(),
+                sequence.incrementAndGet() % 1_000_000, task.getTaskId());
+    }
+
+    private static String taskIdOf(Path file) {
+        String name = file.getFileName().toString();
+        return name.substring(0, name.length() - ".json".length()).split("-", 3)[2];
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // 下次清理
+        }
+    }
+}
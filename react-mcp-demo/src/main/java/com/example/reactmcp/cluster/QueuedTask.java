@@ -0,0 +1,59 @@
+package com.example.reactmcp.cluster;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * 共享队列中等待执行的任务
+ */
+@JsonPropertyOrder({"taskId", "task", "submittedAt", "submittedBy"})
+public final class QueuedTask {
+
+    private final String taskId;
+    private final String task;
+    private final long submittedAt;
+    private final String submittedBy;
+    // 领取时队列中的原始记录，Redis 实现据此从处理中列表移除
+    private String raw;
+
+    @JsonCreator
+    public QueuedTask(@JsonProperty("taskId") String taskId,
+                      @JsonProperty("task") String task,
+                      @JsonProperty("submittedAt") long submittedAt,
+                      @JsonProperty("submittedBy") String submittedBy) {
+        this.taskId = taskId;
+        this.task = task;
+        this.submittedAt = submittedAt;
+        this.submittedBy = submittedBy;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public String getTask() {
+        return task;
+    }
+
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    /**
+     * 提交任务的节点 ID
+     */
+    public String getSubmittedBy() {
+        return submittedBy;
+    }
+
+    @JsonIgnore
+    String getRaw() {
+        return raw;
+    }
+
+    void setRaw(String raw) {
+        this.raw = raw;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.reactmcp.cluster;
+
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+
+/**
+ * 基于 Redis 的对话记忆，key 为 {prefix}memory:{memoryId}，值为序列化后的消息列表
+ */
+public class RedisChatMemoryStore implements SharedChatMemoryStore {
+
+    private final StringRedisTemplate redis;
+    private final String prefix;
+
+    public RedisChatMemoryStore(StringRedisTemplate redis, String prefix) {
+        this.redis = redis;
+        this.prefix = prefix + "memory:";
+    }
+
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        String json = redis.opsForValue().get(prefix + memoryId);
+        return json == null ? List.of() : ChatMessageDeserializer.messagesFromJson(json);
+    }
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        redis.opsForValue().set(prefix + memoryId, ChatMessageSerializer.messagesToJson(messages));
+    }
+
+    @Override
+    public void deleteMessages(Object memoryId) {
+        redis.delete(prefix + memoryId);
+    }
+}
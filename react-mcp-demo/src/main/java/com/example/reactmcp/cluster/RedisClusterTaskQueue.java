@@ -0,0 +1,221 @@
+package com.example.reactmcp.cluster;
+
+import com.example.reactmcp.model.ClusterNodeInfo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于 Redis 的任务队列，用于生产环境的多机部署
+ * - {prefix}queue：LIST，LPUSH 入队
+ * - {prefix}running:{nodeId}：LIST，领取用 BRPOPLPUSH 原子地从队列移到节点的处理中列表
+ * - {prefix}owner:{taskId}：STRING，任务所在节点地址，带过期时间，执行节点每次心跳时续期
+ * - {prefix}nodes：HASH，nodeId -> 心跳 JSON；心跳超时的节点的处理中列表由其他节点用 RPOPLPUSH 逐个移回队列（排到队尾）
+ */
+public class RedisClusterTaskQueue implements ClusterTaskQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisClusterTaskQueue.class);
+
+    private final StringRedisTemplate redis;
+    private final ObjectMapper mapper;
+    private final String prefix;
+    private final String queueKey;
+    private final String nodesKey;
+    private final Duration ownerTtl;
+
+    public RedisClusterTaskQueue(StringRedisTemplate redis, ObjectMapper mapper, String prefix, long ownerTtlMillis) {
+        this.redis = redis;
+        this.mapper = mapper;
+        this.prefix = prefix;
+        this.queueKey = prefix + "queue";
+        this.nodesKey = prefix + "nodes";
+        this.ownerTtl = Duration.ofMillis(ownerTtlMillis);
+    }
+
+    @Override
+    public void enqueue(QueuedTask task) {
+        redis.opsForList().leftPush(queueKey, toJson(task));
+    }
+
+    @Override
+    public QueuedTask claim(ClusterNodeInfo node, long timeoutMillis) {
+        // BRPOPLPUSH 的超时以秒为单位，最少 1 秒
+        long timeoutSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis));
+        String raw = redis.opsForList().rightPopAndLeftPush(queueKey, runningKey(node),
+                timeoutSeconds, TimeUnit.SECONDS);
+        if (raw == null) {
+            return null;
+        }
+        try {
+            QueuedTask task = mapper.readValue(raw, QueuedTask.class);
+            task.setRaw(raw);
+            redis.opsForValue().set(ownerKey(task.getTaskId()), node.getUrl(), ownerTtl);
+            return task;
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable queued task: {}", e.getMessage());
+            redis.opsForList().remove(runningKey(node), 1, raw);
+            return null;
+        }
+    }
+
+    @Override
+    public void adopt(ClusterNodeInfo node, QueuedTask task) {
+        for (Object nodeId : redis.opsForHash().keys(nodesKey)) {
+            String key = runningKey(String.valueOf(nodeId));
+            List<String> running = redis.opsForList().range(key, 0, -1);
+            if (running != null) {
+                for (String previous : running) {
+                    if (task.getTaskId().equals(taskIdOf(previous))) {
+                        redis.opsForList().remove(key, 1, previous);
+                    }
+                }
+            }
+        }
+        remove(task.getTaskId());
+        String raw = toJson(task);
+        redis.opsForList().leftPush(runningKey(node), raw);
+        redis.opsForValue().set(ownerKey(task.getTaskId()), node.getUrl(), ownerTtl);
+        task.setRaw(raw);
+    }
+
+    @Override
+    public void release(ClusterNodeInfo node, QueuedTask task) {
+        if (task.getRaw() != null) {
+            redis.opsForList().remove(runningKey(node), 1, task.getRaw());
+        }
+    }
+
+    @Override
+    public boolean remove(String taskId) {
+        List<String> queued = redis.opsForList().range(queueKey, 0, -1);
+        if (queued == null) {
+            return false;
+        }
+        for (String raw : queued) {
+            try {
+                if (taskId.equals(mapper.readValue(raw, QueuedTask.class).getTaskId())) {
+                    Long removed = redis.opsForList().remove(queueKey, 1, raw);
+                    return removed != null && removed > 0;
+                }
+            } catch (JsonProcessingException ignored) {
+                // 跳过无法解析的记录
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String ownerOf(String taskId) {
+        return redis.opsForValue().get(ownerKey(taskId));
+    }
+
+    @Override
+    public int size() {
+        Long size = redis.opsForList().size(queueKey);
+        return size == null ? 0 : size.intValue();
+    }
+
+    @Override
+    public void heartbeat(ClusterNodeInfo node) {
+        redis.opsForHash().put(nodesKey, node.getNodeId(), toJson(node));
+        List<String> running = redis.opsForList().range(runningKey(node.getNodeId()), 0, -1);
+        if (running != null) {
+            for (String raw : running) {
+                String taskId = taskIdOf(raw);
+                if (taskId != null) {
+                    // 重新设置而不是只续期：记录被误删时也能恢复
+                    redis.opsForValue().set(ownerKey(taskId), node.getUrl(), ownerTtl);
+                }
+            }
+        }
+    }
+
+    @Override
+    public int requeueOrphaned(long nodeTimeoutMillis) {
+        long now = System.currentTimeMillis();
+        int requeued = 0;
+        for (Map.Entry<Object, Object> entry : redis.opsForHash().entries(nodesKey).entrySet()) {
+            String nodeId = String.valueOf(entry.getKey());
+            long lastHeartbeat = lastHeartbeat(String.valueOf(entry.getValue()));
+            if (now - lastHeartbeat <= nodeTimeoutMillis) {
+                continue;
+            }
+            String raw;
+            while ((raw = redis.opsForList().rightPopAndLeftPush(runningKey(nodeId), queueKey)) != null) {
+                String taskId = taskIdOf(raw);
+                if (taskId != null) {
+                    redis.delete(ownerKey(taskId));
+                }
+                requeued++;
+                log.warn("Requeued task {} from unresponsive node {}", taskId, nodeId);
+            }
+            if (now - lastHeartbeat > ownerTtl.toMillis()) {
+                // 长时间没有心跳的节点从注册表中清除（处理中列表已清空）
+                redis.opsForHash().delete(nodesKey, entry.getKey());
+            }
+        }
+        return requeued;
+    }
+
+    @Override
+    public List<ClusterNodeInfo> nodes(long maxAgeMillis) {
+        long now = System.currentTimeMillis();
+        List<ClusterNodeInfo> nodes = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : redis.opsForHash().entries(nodesKey).entrySet()) {
+            try {
+                ClusterNodeInfo node = mapper.readValue(String.valueOf(entry.getValue()), ClusterNodeInfo.class);
+                if (now - node.getLastHeartbeat() <= maxAgeMillis) {
+                    nodes.add(node);
+                }
+            } catch (JsonProcessingException e) {
+                log.debug("Skipping unreadable cluster node {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+        return nodes;
+    }
+
+    private String runningKey(ClusterNodeInfo node) {
+        return runningKey(node.getNodeId());
+    }
+
+    private String runningKey(String nodeId) {
+        return prefix + "running:" + nodeId;
+    }
+
+    private String ownerKey(String taskId) {
+        return prefix + "owner:" + taskId;
+    }
+
+    private String taskIdOf(String raw) {
+        try {
+            return mapper.readValue(raw, QueuedTask.class).getTaskId();
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    // 心跳 JSON 中的时间，无法解析时返回 0（视为超时）
+    private long lastHeartbeat(String json) {
+        try {
+            return mapper.readValue(json, ClusterNodeInfo.class).getLastHeartbeat();
+        } catch (JsonProcessingException e) {
+            return 0;
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.reactmcp.cluster;
+
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+
+/**
+ * 集群共享的对话记忆存储，所有节点读写同一份对话
+ * 与节点本地的 CheckpointChatMemoryStore 区分类型，避免注入时产生歧义
+ */
+public interface SharedChatMemoryStore extends ChatMemoryStore {
+}
@@ -0,0 +1,78 @@
+package com.example.reactmcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 本地浏览器池配置
+ * 每个工作线程独占一个 Playwright 实例和一个浏览器进程，任务租用其中隔离的 BrowserContext
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.playwright.pool")
+public class BrowserPoolProperties {
+
+    /**
+     * 工作线程数（即 Playwright 实例 / 浏览器进程数），同时执行浏览器操作的任务数不超过该值
+     */
+    private int workers = 2;
+
+    /**
+     * 同时租出的上下文上限，达到上限后新任务等待
+     */
+    private int maxContexts = 4;
+
+    /**
+     * 保持的预热空闲上下文数（已打开空白页）
+     */
+    private int minIdle = 0;
+
+    /**
+     * 租用的上下文超过该时长未使用且所属任务已结束时回收，多余的空闲上下文同样按该时长关闭
+     */
+    private long idleTimeoutSeconds = 300;
+
+    /**
+     * 等待空闲上下文的最长时间
+     */
+    private long acquireTimeoutSeconds = 60;
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getMaxContexts() {
+        return maxContexts;
+    }
+
+    public void setMaxContexts(int maxContexts) {
+        this.maxContexts = maxContexts;
+    }
+
+    public int getMinIdle() {
+        return minIdle;
+    }
+
+    public void setMinIdle(int minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    public long getIdleTimeoutSeconds() {
+        return idleTimeoutSeconds;
+    }
+
+    public void setIdleTimeoutSeconds(long idleTimeoutSeconds) {
+        this.idleTimeoutSeconds = idleTimeoutSeconds;
+    }
+
+    public long getAcquireTimeoutSeconds() {
+        return acquireTimeoutSeconds;
+    }
+
+    public void setAcquireTimeoutSeconds(long acquireTimeoutSeconds) {
+        this.acquireTimeoutSeconds = acquireTimeoutSeconds;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.reactmcp.config;
+
+import com.example.reactmcp.cluster.ClusterTaskQueue;
+import com.example.reactmcp.cluster.FileChatMemoryStore;
+import com.example.reactmcp.cluster.FileClusterTaskQueue;
+import com.example.reactmcp.cluster.RedisChatMemoryStore;
+import com.example.reactmcp.cluster.RedisClusterTaskQueue;
+import com.example.reactmcp.cluster.SharedChatMemoryStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 集群模式配置（app.cluster.enabled=true 时生效）
+ * app.cluster.store 选择共享存储：file 使用共享目录（测试 / 单机多进程），redis 使用 spring.data.redis 连接
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.cluster.enabled", havingValue = "true")
+public class ClusterConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterConfig.class);
+
+    private final String store;
+    private final Path directory;
+    private final String redisKeyPrefix;
+    private final long ownerTtlMillis;
+
+    public ClusterConfig(@Value("${app.cluster.store:file}") String store,
+                         @Value("${app.cluster.directory:data/cluster}") String directory,
+                         @Value("${app.cluster.redis-key-prefix:react:cluster:}") String redisKeyPrefix,
+                         @Value("${app.cluster.owner-ttl-minutes:60}") long ownerTtlMinutes) {
+        this.store = store;
+        this.directory = Paths.get(directory);
+        this.redisKeyPrefix = redisKeyPrefix;
+        this.ownerTtlMillis = TimeUnit.MINUTES.toMillis(Math.max(1, ownerTtlMinutes));
+    }
+
+    @Bean
+    public ClusterTaskQueue clusterTaskQueue(ObjectMapper mapper,
+                                             ObjectProvider<StringRedisTemplate> redis) throws IOException {
+        if (isRedis()) {
+            log.info("Cluster task queue: redis (prefix={})", redisKeyPrefix);
+            return new RedisClusterTaskQueue(redis.getObject(), mapper, redisKeyPrefix, ownerTtlMillis);
+        }
+        log.info("Cluster task queue: file (dir={})", directory.toAbsolutePath());
+        return new FileClusterTaskQueue(directory, mapper, ownerTtlMillis);
+    }
+
+    @Bean
+    public SharedChatMemoryStore sharedChatMemoryStore(ObjectProvider<StringRedisTemplate> redis) throws IOException {
+        if (isRedis()) {
+            return new RedisChatMemoryStore(redis.getObject(), redisKeyPrefix);
+        }
+        return new FileChatMemoryStore(directory.resolve("memory"));
+    }
+
+    private boolean isRedis() {
+        return "redis".equalsIgnoreCase(store);
+    }
+}
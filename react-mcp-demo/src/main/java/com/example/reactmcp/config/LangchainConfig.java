@@ -1,25 +1,45 @@
 package com.example.reactmcp.config;
 
 import com.example.reactmcp.agent.McpAssistant;
+import com.example.reactmcp.browser.BrowserPool;
+import com.example.reactmcp.cache.FileValidityToken;
+import com.example.reactmcp.cache.ToolResultCache;
+import com.example.reactmcp.cache.ValidityTokenSource;
+import com.example.reactmcp.checkpoint.CheckpointChatMemoryStore;
+import com.example.reactmcp.checkpoint.TaskCheckpointStore;
+import com.example.reactmcp.interceptor.LoggingChatModelDecorator;
 import com.example.reactmcp.interceptor.StreamingChatModelDecorator;
+import com.example.reactmcp.logging.AuditLogWriter;
+import com.example.reactmcp.mock.MockChatLanguageModel;
 import com.example.reactmcp.service.ReActEventPublisher;
+import com.example.reactmcp.service.TaskControlRegistry;
 import com.example.reactmcp.tools.McpTools;
 import com.example.reactmcp.tools.FileSystemTools;
 import com.example.reactmcp.tools.DocumentReaderTools;
 import com.example.reactmcp.tools.PlaywrightMcpTools;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.agent.tool.ToolSpecification;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.dashscope.QwenChatModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 import dev.langchain4j.service.AiServices;
+import dev.langchain4j.service.tool.ToolExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * LangChain4j 配置类
- * 支持多种 LLM 提供商：Qwen、OpenAI 等
+ * 支持多种 LLM 提供商：Qwen、OpenAI 等，以及离线压测用的模拟模型
  * 通过 langchain4j.provider 配置项切换
  */
 @Configuration
@@ -35,10 +55,10 @@ public class LangchainConfig {
 
     /**
      * 创建基础的 ChatLanguageModel
-     * 根据 provider 配置自动选择 Qwen 或 OpenAI
+     * 根据 provider 配置自动选择 Qwen、OpenAI 或模拟模型
      */
     @Bean
-    public ChatLanguageModel baseChatLanguageModel() {
+    public ChatLanguageModel baseChatLanguageModel(ObjectMapper objectMapper) {
         String provider = properties.getProvider();
         log.info("Initializing ChatLanguageModel with provider: {}", provider);
         
@@ -46,9 +66,11 @@ public class LangchainConfig {
             return createOpenAiChatModel();
         } else if ("qwen".equalsIgnoreCase(provider)) {
             return createQwenChatModel();
+        } else if ("mock".equalsIgnoreCase(provider)) {
+            return createMockChatModel(objectMapper);
         } else {
             throw new IllegalArgumentException(
-                "Unsupported LLM provider: " + provider + ". Supported values: qwen, openai"
+                "Unsupported LLM provider: " + provider + ". Supported values: qwen, openai, mock"
             );
         }
     }
@@ -81,20 +103,65 @@ public class LangchainConfig {
                 .build();
     }
 
+    /**
+     * 创建模拟模型（离线压测，不访问网络）
+     */
+    private ChatLanguageModel createMockChatModel(ObjectMapper objectMapper) {
+        LangchainProperties.MockConfig config = properties.getMock();
+        log.info("Creating MockChatLanguageModel: mode={}, latency={} {}ms (max {}ms), errorRate={}, rateLimitRate={}",
+                 config.getMode(), config.getLatencyDistribution(), config.getLatencyMs(),
+                 config.getLatencyMaxMs(), config.getErrorRate(), config.getRateLimitRate());
+        try {
+            return new MockChatLanguageModel(config, objectMapper);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load mock script: " + config.getScriptFile(), e);
+        }
+    }
+
+    /**
+     * 审计日志后台写入器，仅在 langchain4j.audit.enabled=true 时创建
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "langchain4j.audit", name = "enabled", havingValue = "true")
+    public AuditLogWriter auditLogWriter(ObjectMapper objectMapper) {
+        LangchainProperties.AuditConfig config = properties.getAudit();
+        return new AuditLogWriter(
+                objectMapper,
+                Paths.get(config.getDirectory()),
+                config.getMaxFileSizeMb() * 1024 * 1024,
+                config.getMaxFiles(),
+                config.getQueueCapacity());
+    }
+
     /**
      * 包装 ChatLanguageModel 为流式装饰器
-     * 支持 ReAct 流式事件推送
+     * 支持 ReAct 流式事件推送，以及每轮推理前的取消 / 暂停检查
+     * 开启审计时在基础模型外层加审计装饰器，每次实际请求（包括重试）单独采样
      */
     @Bean
     public ChatLanguageModel chatLanguageModel(
             ChatLanguageModel baseChatLanguageModel, 
-            ReActEventPublisher eventPublisher) {
+            ReActEventPublisher eventPublisher,
+            TaskControlRegistry taskControls,
+            TaskCheckpointStore checkpoints,
+            ObjectProvider<AuditLogWriter> auditLogWriter) {
+        ChatLanguageModel model = baseChatLanguageModel;
+        AuditLogWriter writer = auditLogWriter.getIfAvailable();
+        if (writer != null) {
+            LangchainProperties.AuditConfig config = properties.getAudit();
+            log.info("Wrapping ChatLanguageModel with LoggingChatModelDecorator: sampleRate={}, slowThresholdMs={}",
+                     config.getSampleRate(), config.getSlowThresholdMs());
+            model = new LoggingChatModelDecorator(model, writer,
+                    config.getSampleRate(), config.getSlowThresholdMs());
+        }
         log.info("Wrapping ChatLanguageModel with StreamingChatModelDecorator");
-        return new StreamingChatModelDecorator(baseChatLanguageModel, eventPublisher);
+        return new StreamingChatModelDecorator(model, eventPublisher, taskControls, checkpoints);
     }
 
     /**
      * 创建 ReAct Agent
+     * 工具通过 ToolResultCache 包装：浏览器工具以页面版本、文件工具以文件修改时间作为缓存有效性标记，
+     * 数学 / 提问工具不缓存；浏览器工具再经 BrowserPool 调度到当前任务租用的浏览器会话上执行
      */
     @Bean
     public McpAssistant mcpAssistant(
@@ -102,12 +169,30 @@ public class LangchainConfig {
             McpTools mcpTools,
             FileSystemTools fileSystemTools,
             DocumentReaderTools documentReaderTools,
-            PlaywrightMcpTools playwrightMcpTools) {
+            PlaywrightMcpTools playwrightMcpTools,
+            CheckpointChatMemoryStore chatMemoryStore,
+            ToolResultCache toolResultCache,
+            BrowserPool browserPool) {
         log.info("Building McpAssistant with {} max messages", properties.getMaxMessages());
+        int maxMessages = properties.getMaxMessages();
+        FileValidityToken fileTokens = new FileValidityToken();
+        Map<ToolSpecification, ToolExecutor> tools = new LinkedHashMap<>();
+        tools.putAll(toolResultCache.executors(mcpTools, "math", null));
+        tools.putAll(toolResultCache.executors(fileSystemTools, "file", fileTokens));
+        tools.putAll(toolResultCache.executors(documentReaderTools, "file", fileTokens));
+        // getText(chunked=true) 通过事件推送分段内容、只返回完成提示，命中缓存会跳过推送，因此不缓存
+        ValidityTokenSource pageTokens = arguments -> arguments.path("chunked").asBoolean(false)
+                ? null : playwrightMcpTools.pageVersion();
+        tools.putAll(browserPool.bind(toolResultCache.executors(playwrightMcpTools, "browser", pageTokens)));
         return AiServices.builder(McpAssistant.class)
                 .chatLanguageModel(chatLanguageModel)
-                .chatMemory(MessageWindowChatMemory.withMaxMessages(properties.getMaxMessages()))
-                .tools(mcpTools, fileSystemTools, documentReaderTools, playwrightMcpTools)
+                // 每个任务独立的对话记忆，变化时异步写入任务检查点
+                .chatMemoryProvider(memoryId -> MessageWindowChatMemory.builder()
+                        .id(memoryId)
+                        .maxMessages(maxMessages)
+                        .chatMemoryStore(chatMemoryStore)
+                        .build())
+                .tools(tools)
                 .build();
     }
 }
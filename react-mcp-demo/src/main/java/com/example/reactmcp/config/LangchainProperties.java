@@ -3,6 +3,9 @@ package com.example.reactmcp.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * LangChain4j 通用配置类
  * 支持多种 LLM 提供商：Qwen、OpenAI 等
@@ -12,7 +15,7 @@ import org.springframework.context.annotation.Configuration;
 public class LangchainProperties {
     
     /**
-     * 模型提供商：qwen | openai
+     * 模型提供商：qwen | openai | mock
      */
     private String provider = "qwen";
     
@@ -31,6 +34,16 @@ public class LangchainProperties {
      */
     private OpenAiConfig openai = new OpenAiConfig();
 
+    /**
+     * 大模型调用审计日志配置
+     */
+    private AuditConfig audit = new AuditConfig();
+
+    /**
+     * 模拟模型配置（provider=mock，离线压测用）
+     */
+    private MockConfig mock = new MockConfig();
+
     // Getter & Setter
     public String getProvider() {
         return provider;
@@ -64,6 +77,22 @@ public class LangchainProperties {
         this.openai = openai;
     }
 
+    public AuditConfig getAudit() {
+        return audit;
+    }
+
+    public void setAudit(AuditConfig audit) {
+        this.audit = audit;
+    }
+
+    public MockConfig getMock() {
+        return mock;
+    }
+
+    public void setMock(MockConfig mock) {
+        this.mock = mock;
+    }
+
     /**
      * Qwen 模型配置
      */
@@ -120,4 +149,249 @@ public class LangchainProperties {
             this.modelName = modelName;
         }
     }
+
+    /**
+     * 大模型调用审计日志配置
+     * 命中采样的调用会把完整请求 / 响应写入压缩的 JSON Lines 文件
+     */
+    public static class AuditConfig {
+        private boolean enabled = false;
+        private String directory = "logs/llm-audit";
+        /**
+         * 随机采样比例，0 表示不随机采样，1 表示全部记录
+         */
+        private double sampleRate = 0.01;
+        /**
+         * 耗时超过该值（毫秒）的调用必记，0 表示不启用
+         */
+        private long slowThresholdMs = 20000;
+        /**
+         * 单个文件的最大未压缩字节数，超过后滚动
+         */
+        private long maxFileSizeMb = 64;
+        private int maxFiles = 20;
+        private int queueCapacity = 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public long getSlowThresholdMs() {
+            return slowThresholdMs;
+        }
+
+        public void setSlowThresholdMs(long slowThresholdMs) {
+            this.slowThresholdMs = slowThresholdMs;
+        }
+
+        public long getMaxFileSizeMb() {
+            return maxFileSizeMb;
+        }
+
+        public void setMaxFileSizeMb(long maxFileSizeMb) {
+            this.maxFileSizeMb = maxFileSizeMb;
+        }
+
+        public int getMaxFiles() {
+            return maxFiles;
+        }
+
+        public void setMaxFiles(int maxFiles) {
+            this.maxFiles = maxFiles;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    /**
+     * 模拟模型配置
+     * 不访问网络，按脚本或随机生成带工具调用的对话，可配置延迟分布、token 数以及错误 / 429 注入
+     */
+    public static class MockConfig {
+        /**
+         * random：每个任务随机调用若干次工具后给出答案；script：按 script-file 中的步骤回放
+         */
+        private String mode = "random";
+        /**
+         * 脚本文件（JSON 数组），每一步为 {"thought","tool","arguments"} 或 {"answer"}
+         */
+        private String scriptFile;
+        /**
+         * random 模式每个任务调用工具的次数范围
+         */
+        private int minSteps = 1;
+        private int maxSteps = 4;
+        /**
+         * random 模式可以调用的工具，默认只用无副作用的数学工具
+         */
+        private List<String> tools = new ArrayList<>(List.of("add", "subtract", "multiply"));
+        /**
+         * 延迟分布：fixed | uniform | lognormal
+         */
+        private String latencyDistribution = "lognormal";
+        /**
+         * fixed 的延迟、uniform 的下限、lognormal 的中位数（毫秒）
+         */
+        private long latencyMs = 800;
+        /**
+         * uniform 的上限，同时是所有分布的截断上限（毫秒）
+         */
+        private long latencyMaxMs = 10000;
+        /**
+         * lognormal 的形状参数，越大长尾越明显
+         */
+        private double latencySigma = 0.5;
+        private int minOutputTokens = 20;
+        private int maxOutputTokens = 200;
+        /**
+         * 每次调用抛出普通错误的概率
+         */
+        private double errorRate = 0;
+        /**
+         * 每次调用抛出 429 限流错误的概率（会触发装饰器的退避重试）
+         */
+        private double rateLimitRate = 0;
+        /**
+         * 随机种子，0 表示每次启动不同
+         */
+        private long seed = 0;
+
+        public String getMode() {
+            return mode;
+        }
+
+        public void setMode(String mode) {
+            this.mode = mode;
+        }
+
+        public String getScriptFile() {
+            return scriptFile;
+        }
+
+        public void setScriptFile(String scriptFile) {
+            this.scriptFile = scriptFile;
+        }
+
+        public int getMinSteps() {
+            return minSteps;
+        }
+
+        public void setMinSteps(int minSteps) {
+            this.minSteps = minSteps;
+        }
+
+        public int getMaxSteps() {
+            return maxSteps;
+        }
+
+        public void setMaxSteps(int maxSteps) {
+            this.maxSteps = maxSteps;
+        }
+
+        public List<String> getTools() {
+            return tools;
+        }
+
+        public void setTools(List<String> tools) {
+            this.tools = tools;
+        }
+
+        public String getLatencyDistribution() {
+            return latencyDistribution;
+        }
+
+        public void setLatencyDistribution(String latencyDistribution) {
+            this.latencyDistribution = latencyDistribution;
+        }
+
+        public long getLatencyMs() {
+            return latencyMs;
+        }
+
+        public void setLatencyMs(long latencyMs) {
+            this.latencyMs = latencyMs;
+        }
+
+        public long getLatencyMaxMs() {
+            return latencyMaxMs;
+        }
+
+        public void setLatencyMaxMs(long latencyMaxMs) {
+            this.latencyMaxMs = latencyMaxMs;
+        }
+
+        public double getLatencySigma() {
+            return latencySigma;
+        }
+
+        public void setLatencySigma(double latencySigma) {
+            this.latencySigma = latencySigma;
+        }
+
+        public int getMinOutputTokens() {
+            return minOutputTokens;
+        }
+
+        public void setMinOutputTokens(int minOutputTokens) {
+            this.minOutputTokens = minOutputTokens;
+        }
+
+        public int getMaxOutputTokens() {
+            return maxOutputTokens;
+        }
+
+        public void setMaxOutputTokens(int maxOutputTokens) {
+            this.maxOutputTokens = maxOutputTokens;
+        }
+
+        public double getErrorRate() {
+            return errorRate;
+        }
+
+        public void setErrorRate(double errorRate) {
+            this.errorRate = errorRate;
+        }
+
+        public double getRateLimitRate() {
+            return rateLimitRate;
+        }
+
+        public void setRateLimitRate(double rateLimitRate) {
+            this.rateLimitRate = rateLimitRate;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public void setSeed(long seed) {
+            this.seed = seed;
+        }
+    }
 }
@@ -0,0 +1,69 @@
+package com.example.reactmcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 浏览器上下文的资源拦截策略
+ * 只读取文本的任务不需要图片、字体、视频和统计脚本，在上下文上拦截这些请求以缩短加载时间、降低浏览器内存
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.playwright.blocking")
+public class ResourceBlockingProperties {
+
+    /**
+     * 预设：off（不拦截）、no-media（图片 / 视频音频 / 字体 + 广告统计域名）、
+     * text-only（在 no-media 基础上再拦截样式表）
+     */
+    private String preset = "off";
+
+    /**
+     * 额外拦截的资源类型（Playwright resourceType，如 image、media、font、stylesheet、script）
+     */
+    private List<String> resourceTypes = new ArrayList<>();
+
+    /**
+     * 额外拦截的域名，*.example.com 或 example.com 均匹配该域名及其子域名
+     */
+    private List<String> domains = new ArrayList<>();
+
+    /**
+     * 是否拦截第三方（与当前页面主域名不同）的子资源请求，页面和 iframe 文档不拦截
+     */
+    private boolean blockThirdParty = false;
+
+    public String getPreset() {
+        return preset;
+    }
+
+    public void setPreset(String preset) {
+        this.preset = preset;
+    }
+
+    public List<String> getResourceTypes() {
+        return resourceTypes;
+    }
+
+    public void setResourceTypes(List<String> resourceTypes) {
+        this.resourceTypes = resourceTypes;
+    }
+
+    public List<String> getDomains() {
+        return domains;
+    }
+
+    public void setDomains(List<String> domains) {
+        this.domains = domains;
+    }
+
+    public boolean isBlockThirdParty() {
+        return blockThirdParty;
+    }
+
+    public void setBlockThirdParty(boolean blockThirdParty) {
+        this.blockThirdParty = blockThirdParty;
+    }
+}
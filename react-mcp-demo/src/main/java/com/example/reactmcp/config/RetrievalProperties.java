@@ -0,0 +1,75 @@
+package com.example.reactmcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 段落检索配置
+ * getVisibleText / readFile / readWordDocument 的内容超过预算时，按与当前任务和上一步思考的相关度（BM25）只返回排名靠前的段落
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.retrieval")
+public class RetrievalProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 段落目标长度（字符）
+     */
+    private int passageChars = 600;
+
+    /**
+     * getVisibleText 返回内容的字符预算
+     */
+    private int pageBudgetChars = 5000;
+
+    /**
+     * readFile / readWordDocument 返回内容的字符预算，未超过时原样返回
+     */
+    private int fileBudgetChars = 8000;
+
+    /**
+     * 有查询时 getVisibleText 先提取的正文上限（字符），再按相关度选段压缩到返回预算内
+     */
+    private int pageSourceChars = 100000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getPassageChars() {
+        return passageChars;
+    }
+
+    public void setPassageChars(int passageChars) {
+        this.passageChars = passageChars;
+    }
+
+    public int getPageBudgetChars() {
+        return pageBudgetChars;
+    }
+
+    public void setPageBudgetChars(int pageBudgetChars) {
+        this.pageBudgetChars = pageBudgetChars;
+    }
+
+    public int getFileBudgetChars() {
+        return fileBudgetChars;
+    }
+
+    public void setFileBudgetChars(int fileBudgetChars) {
+        this.fileBudgetChars = fileBudgetChars;
+    }
+
+    public int getPageSourceChars() {
+        return pageSourceChars;
+    }
+
+    public void setPageSourceChars(int pageSourceChars) {
+        this.pageSourceChars = pageSourceChars;
+    }
+}
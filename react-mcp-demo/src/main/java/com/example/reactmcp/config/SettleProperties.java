@@ -0,0 +1,78 @@
+package com.example.reactmcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 页面稳定等待配置
+ * click / fill 之后不再固定等待，而是等到导航提交、网络安静、DOM 不再变化（或目标元素出现），最长不超过上限
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.playwright.settle")
+public class SettleProperties {
+
+    /**
+     * 安静窗口：网络请求和 DOM 变更都停止超过该时长即认为页面已稳定
+     */
+    private long quietMillis = 300;
+
+    /**
+     * click / fill 后稳定等待的上限，超过后直接返回（不算失败）
+     */
+    private long maxMillis = 5000;
+
+    /**
+     * 判定网络安静时允许的未完成请求数（长轮询页面可调大，否则只能等到上限）
+     */
+    private int maxInflight = 0;
+
+    /**
+     * waitFor 工具未指定超时时的默认超时
+     */
+    private long waitTimeoutMillis = 10000;
+
+    /**
+     * waitFor 工具允许的最大超时
+     */
+    private long waitMaxMillis = 30000;
+
+    public long getQuietMillis() {
+        return quietMillis;
+    }
+
+    public void setQuietMillis(long quietMillis) {
+        this.quietMillis = quietMillis;
+    }
+
+    public long getMaxMillis() {
+        return maxMillis;
+    }
+
+    public void setMaxMillis(long maxMillis) {
+        this.maxMillis = maxMillis;
+    }
+
+    public int getMaxInflight() {
+        return maxInflight;
+    }
+
+    public void setMaxInflight(int maxInflight) {
+        this.maxInflight = maxInflight;
+    }
+
+    public long getWaitTimeoutMillis() {
+        return waitTimeoutMillis;
+    }
+
+    public void setWaitTimeoutMillis(long waitTimeoutMillis) {
+        this.waitTimeoutMillis = waitTimeoutMillis;
+    }
+
+    public long getWaitMaxMillis() {
+        return waitMaxMillis;
+    }
+
+    public void setWaitMaxMillis(long waitMaxMillis) {
+        this.waitMaxMillis = waitMaxMillis;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.reactmcp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 工具结果缓存配置
+ * 只有在 ttl-seconds 中配置了有效期的工具才会缓存结果
+ */
+@Configuration
+@ConfigurationProperties(prefix = "app.tool-cache")
+public class ToolCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * 最多缓存的结果条数
+     */
+    private int maxEntries = 512;
+
+    /**
+     * 所有缓存结果的字符总数上限（约占 2 倍字节的堆内存）
+     */
+    private long maxChars = 4_000_000;
+
+    /**
+     * 工具名（方法名）-> 结果有效期（秒）
+     */
+    private Map<String, Long> ttlSeconds = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getMaxChars() {
+        return maxChars;
+    }
+
+    public void setMaxChars(long maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    public Map<String, Long> getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(Map<String, Long> ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+}
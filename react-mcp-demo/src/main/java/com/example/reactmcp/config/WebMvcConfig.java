@@ -1,6 +1,11 @@
 package com.example.reactmcp.config;
 
+import com.example.reactmcp.web.EventJsonCodec;
+import com.example.reactmcp.web.ReActEventMessageConverter;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.HttpMessageConverter;
@@ -12,10 +17,28 @@ import java.util.List;
 /**
  * Web MVC 配置类
  * 配置 HTTP 消息转换器
+ * 全应用只使用 Spring Boot 创建的一个 ObjectMapper，调优项统一在这里配置
  */
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    private final EventJsonCodec eventJsonCodec;
+
+    public WebMvcConfig(EventJsonCodec eventJsonCodec) {
+        this.eventJsonCodec = eventJsonCodec;
+    }
+
+    /**
+     * 共享 ObjectMapper 的调优：不输出 null 字段，空对象不报错
+     * static 方法：ObjectMapper 创建时不依赖本配置类实例（本类构造需要 EventJsonCodec -> ObjectMapper）
+     */
+    @Bean
+    public static Jackson2ObjectMapperBuilderCustomizer objectMapperCustomizer() {
+        return builder -> builder
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .featuresToDisable(SerializationFeature.FAIL_ON_EMPTY_BEANS);
+    }
+
     @Bean
     public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
         MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
@@ -24,10 +47,8 @@ public class WebMvcConfig implements WebMvcConfigurer {
     }
 
     @Override
-    public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
-        // 添加 Jackson 转换器，支持 SSE 流式响应
-        MappingJackson2HttpMessageConverter converter = new MappingJackson2HttpMessageConverter();
-        converter.setObjectMapper(new ObjectMapper());
-        converters.add(converter);
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // ReAct 事件（SSE 流式响应）走专用编码器，直接写入响应流
+        converters.add(0, new ReActEventMessageConverter(eventJsonCodec));
     }
-}
\ No newline at end of file
+}
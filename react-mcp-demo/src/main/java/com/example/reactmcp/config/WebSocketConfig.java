@@ -0,0 +1,49 @@
+package com.example.reactmcp.config;
+
+import com.example.reactmcp.web.AgentWebSocketHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+/**
+ * WebSocket 配置类
+ * 注册 /react/ws；只接受 app.ws.allowed-origins 中的来源：
+ * Electron 用 loadFile 加载的页面（Origin 为 file://）和本地开发服务器（react-scripts start）
+ * 不接受 Origin: null：任意网站都可以通过沙箱 iframe 或 data: 页面发出这种请求
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final AgentWebSocketHandler agentWebSocketHandler;
+    private final String[] allowedOrigins;
+
+    public WebSocketConfig(AgentWebSocketHandler agentWebSocketHandler,
+                           @Value("${app.ws.allowed-origins:file:*,http://localhost:3000}") String[] allowedOrigins) {
+        this.agentWebSocketHandler = agentWebSocketHandler;
+        this.allowedOrigins = allowedOrigins;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(agentWebSocketHandler, "/react/ws")
+                .setAllowedOriginPatterns(allowedOrigins);
+    }
+
+    /**
+     * 客户端消息大小上限（任务描述和澄清回答可能较长），以及空闲超时
+     */
+    @Bean
+    public ServletServerContainerFactoryBean webSocketContainer(
+            @Value("${app.ws.max-message-kb:64}") int maxMessageKb,
+            @Value("${app.ws.idle-timeout-seconds:120}") long idleTimeoutSeconds) {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(maxMessageKb * 1024);
+        container.setMaxSessionIdleTimeout(idleTimeoutSeconds * 1000);
+        return container;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.reactmcp.health;
+
+import com.example.reactmcp.browser.BrowserPool;
+import com.example.reactmcp.model.BrowserPoolMetrics;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * 浏览器预热状态（/actuator/health 中的 browser 项，同时计入 readiness 探针）
+ * 预热进行中为 OUT_OF_SERVICE；预热失败不影响服务，仍为 UP，首次 navigate 时重新启动浏览器
+ */
+@Component
+public class BrowserHealthIndicator implements HealthIndicator {
+
+    private final BrowserPool browserPool;
+
+    public BrowserHealthIndicator(BrowserPool browserPool) {
+        this.browserPool = browserPool;
+    }
+
+    @Override
+    public Health health() {
+        String state = browserPool.getWarmUpState();
+        Health.Builder builder = "pending".equals(state) || "warming".equals(state)
+                ? Health.outOfService()
+                : Health.up();
+        builder.withDetail("warmUp", state);
+        if (!"remote".equals(state)) {
+            BrowserPoolMetrics pool = browserPool.getMetrics();
+            builder.withDetail("connected", browserPool.isBrowserConnected())
+                    .withDetail("leased", pool.getLeased())
+                    .withDetail("idle", pool.getIdle())
+                    .withDetail("maxContexts", pool.getMaxContexts());
+        }
+        if (browserPool.getWarmUpMillis() >= 0) {
+            builder.withDetail("warmUpMillis", browserPool.getWarmUpMillis());
+        }
+        if (browserPool.getWarmUpError() != null) {
+            builder.withDetail("error", browserPool.getWarmUpError());
+        }
+        return builder.build();
+    }
+}
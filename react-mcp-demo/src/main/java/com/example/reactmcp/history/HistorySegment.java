@@ -0,0 +1,166 @@
+package com.example.reactmcp.history;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * 任务历史日志的一个分段文件，整个文件按固定大小映射到内存
+ * 文件格式：[4 字节魔数] 之后依次是记录 [4 字节长度][4 字节 CRC32][1 字节类型][负载]，
+ * 长度为 0 表示后面尚未写入（映射区域初始为全 0）
+ * 只有写线程追加；读取全部使用绝对位置，不改变缓冲区的 position，读写线程可以共享同一个映射
+ */
+final class HistorySegment {
+
+    static final int MAGIC = 0x52484C31; // "RHL1"
+    static final int HEADER_SIZE = 4;
+    static final int RECORD_HEADER_SIZE = 9;
+
+    private final int id;
+    private final Path file;
+    private final int capacity;
+    private final MappedByteBuffer buffer;
+    private volatile int writePosition;
+    private boolean dirty;
+
+    private HistorySegment(int id, Path file, int capacity, MappedByteBuffer buffer, int writePosition) {
+        this.id = id;
+        this.file = file;
+        this.capacity = capacity;
+        this.buffer = buffer;
+        this.writePosition = writePosition;
+    }
+
+    /**
+     * 创建新的分段文件
+     */
+    static HistorySegment create(int id, Path file, int capacity) throws IOException {
+        MappedByteBuffer buffer = map(file, capacity, true);
+        buffer.putInt(0, MAGIC);
+        return new HistorySegment(id, file, capacity, buffer, HEADER_SIZE);
+    }
+
+    /**
+     * 打开已有分段文件，写入位置在扫描记录时确定（见 recover）
+     */
+    static HistorySegment open(int id, Path file) throws IOException {
+        int capacity = (int) Math.min(Integer.MAX_VALUE, Files.size(file));
+        MappedByteBuffer buffer = map(file, capacity, false);
+        if (capacity < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a task history segment: " + file);
+        }
+        return new HistorySegment(id, file, capacity, buffer, HEADER_SIZE);
+    }
+
+    private static MappedByteBuffer map(Path file, int capacity, boolean create) throws IOException {
+        try (FileChannel channel = create
+                ? FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // 映射在通道关闭后依然有效
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+    }
+
+    int getId() {
+        return id;
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    int getWritePosition() {
+        return writePosition;
+    }
+
+    /**
+     * 追加一条记录，空间不足时返回 -1（由调用方滚动到新分段）
+     *
+     * @return 记录在分段中的偏移量
+     */
+    int append(byte type, byte[] payload) {
+        int offset = writePosition;
+        int length = payload.length;
+        // 末尾至少保留 4 字节的 0 作为结束标记
+        if ((long) offset + RECORD_HEADER_SIZE + length + 4 > capacity) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        buffer.put(offset + RECORD_HEADER_SIZE, payload);
+        buffer.put(offset + 8, type);
+        buffer.putInt(offset + 4, (int) crc.getValue());
+        // 长度最后写入：崩溃时最多留下一条长度为 0 的未完成记录
+        buffer.putInt(offset, length);
+        writePosition = offset + RECORD_HEADER_SIZE + length;
+        dirty = true;
+        return offset;
+    }
+
+    /**
+     * 读取指定偏移量的记录负载，记录无效时返回 null
+     */
+    Record read(int offset) {
+        if (offset < HEADER_SIZE || offset + RECORD_HEADER_SIZE > capacity) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || (long) offset + RECORD_HEADER_SIZE + length > capacity) {
+            return null;
+        }
+        byte type = buffer.get(offset + 8);
+        byte[] payload = new byte[length];
+        buffer.get(offset + RECORD_HEADER_SIZE, payload);
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+            return null;
+        }
+        return new Record(offset, type, payload);
+    }
+
+    /**
+     * 启动时顺序扫描全部有效记录，遇到结束标记或损坏的记录停止，并把写入位置设在其后
+     */
+    void recover(RecordVisitor visitor) {
+        int offset = HEADER_SIZE;
+        Record record;
+        while ((record = read(offset)) != null) {
+            visitor.visit(record);
+            offset += RECORD_HEADER_SIZE + record.payload.length;
+        }
+        writePosition = offset;
+    }
+
+    /**
+     * 把已写入的内容刷到磁盘
+     */
+    void force() {
+        if (dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    interface RecordVisitor {
+        void visit(Record record);
+    }
+
+    static final class Record {
+        final int offset;
+        final byte type;
+        final byte[] payload;
+
+        Record(int offset, byte type, byte[] payload) {
+            this.offset = offset;
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+}
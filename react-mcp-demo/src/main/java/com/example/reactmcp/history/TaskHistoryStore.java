@@ -0,0 +1,521 @@
+package com.example.reactmcp.history;
+
+import com.example.reactmcp.model.EventKind;
+import com.example.reactmcp.model.ReActStepEvent;
+import com.example.reactmcp.model.TaskHistoryEntry;
+import com.example.reactmcp.model.TaskHistoryPage;
+import com.example.reactmcp.web.EventJsonCodec;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 任务历史存储：只追加的分段日志，通过内存映射文件写入
+ * - 提交记录和每个已投递的事件都只做一次非阻塞入队，由后台线程编码并写入当前分段，队列满时丢弃并计数
+ * - 分段写满后滚动到新文件，只保留最近 maxSegments 个分段，删除分段时一并移除其中提交的任务
+ * - 内存索引：按任务 ID 的哈希表，以及按提交顺序排列的时间线（提交时间单调不减），
+ *   分页按下标直接定位，时间范围用二分查找确定区间
+ * - 启动时扫描全部分段重建索引，上次运行时未结束的任务标记为 interrupted
+ */
+@Component
+public class TaskHistoryStore {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskHistoryStore.class);
+
+    static final byte TYPE_SUBMITTED = 1;
+    static final byte TYPE_EVENT = 2;
+
+    private static final String FILE_PREFIX = "history-";
+    private static final String FILE_SUFFIX = ".log";
+    private static final int RESULT_PREVIEW_CHARS = 500;
+
+    private final ObjectMapper mapper;
+    private final EventJsonCodec codec;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final long flushIntervalMillis;
+    private final BlockingQueue<Pending> queue;
+    private final Thread worker;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running = true;
+
+    // 分段由写线程创建和删除，读取方按 ID 查找
+    private final ConcurrentSkipListMap<Integer, HistorySegment> segments = new ConcurrentSkipListMap<>();
+    private HistorySegment active;
+    // 已移出索引但删除失败的分段文件（Windows 上仍被映射的文件不能删除），下次滚动时重试
+    private final List<Path> retired = new ArrayList<>();
+
+    // 索引由 this 保护
+    private final Map<String, TaskRecord> byId = new HashMap<>();
+    private final ArrayList<TaskRecord> timeline = new ArrayList<>();
+    private int evicted;
+    private long lastSubmittedAt;
+
+    public TaskHistoryStore(
+            ObjectMapper mapper,
+            EventJsonCodec codec,
+            @Value("${app.history.enabled:true}") boolean enabled,
+            @Value("${app.history.directory:data/history}") String directory,
+            @Value("${app.history.segment-size-mb:64}") int segmentSizeMb,
+            @Value("${app.history.max-segments:16}") int maxSegments,
+            @Value("${app.history.queue-capacity:4096}") int queueCapacity,
+            @Value("${app.history.flush-interval-ms:1000}") long flushIntervalMillis) {
+        this.mapper = mapper;
+        this.codec = codec;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = (int) Math.min(Integer.MAX_VALUE, Math.max(1, segmentSizeMb) * 1024L * 1024L);
+        this.maxSegments = Math.max(1, maxSegments);
+        this.flushIntervalMillis = Math.max(10, flushIntervalMillis);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.worker = new Thread(this::run, "task-history-writer");
+        this.worker.setDaemon(true);
+        if (enabled) {
+            recover();
+            this.worker.start();
+            log.info("Task history enabled: dir={}, segmentBytes={}, maxSegments={}, tasks={}",
+                    this.directory, segmentBytes, this.maxSegments, timeline.size() - evicted);
+        } else {
+            running = false;
+        }
+    }
+
+    /**
+     * 记录任务提交（非阻塞）
+     */
+    public void taskSubmitted(String taskId, String task) {
+        submit(new Pending(TYPE_SUBMITTED, taskId, task, null, System.currentTimeMillis()));
+    }
+
+    /**
+     * 记录已投递（已分配 ID）的事件，在事件投递线程上调用（非阻塞）
+     */
+    public void eventDelivered(String taskId, ReActStepEvent event) {
+        submit(new Pending(TYPE_EVENT, taskId, null, event, event.getTimestamp()));
+    }
+
+    private void submit(Pending pending) {
+        if (!running || !queue.offer(pending)) {
+            if (enabled && dropped.incrementAndGet() % 100 == 1) {
+                log.warn("Task history queue full, dropped {} records so far", dropped.get());
+            }
+        }
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * 按提交时间倒序分页，from / to 为提交时间范围（毫秒时间戳，含 from 不含 to），可为 null
+     */
+    public synchronized TaskHistoryPage page(int offset, int limit, Long from, Long to) {
+        int low = from == null ? evicted : lowerBound(from);
+        int high = to == null ? timeline.size() : lowerBound(to);
+        int total = Math.max(0, high - low);
+        int start = Math.max(0, offset);
+        int count = Math.max(0, Math.min(limit, total - start));
+        List<TaskHistoryEntry> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(timeline.get(high - 1 - start - i).summary());
+        }
+        return new TaskHistoryPage(total, start, limit, items);
+    }
+
+    /**
+     * 任务详情：摘要加上从日志中读回的全部事件，任务不存在时返回 null
+     */
+    public TaskHistoryEntry get(String taskId) {
+        TaskHistoryEntry entry;
+        long[] positions;
+        synchronized (this) {
+            TaskRecord record = byId.get(taskId);
+            if (record == null) {
+                return null;
+            }
+            entry = record.summary();
+            positions = Arrays.copyOf(record.eventPositions, record.eventCount);
+        }
+        List<JsonNode> events = new ArrayList<>(positions.length);
+        for (long position : positions) {
+            HistorySegment segment = segments.get((int) (position >>> 32));
+            HistorySegment.Record record = segment == null ? null : segment.read((int) position);
+            if (record == null) {
+                continue;
+            }
+            try {
+                events.add(mapper.readTree(record.payload).get("event"));
+            } catch (IOException e) {
+                log.debug("Unreadable task history record at {}:{}", segment.getId(), (int) position);
+            }
+        }
+        entry.setEvents(events);
+        return entry;
+    }
+
+    /**
+     * 时间线中第一个提交时间 >= time 的下标
+     */
+    private int lowerBound(long time) {
+        int low = evicted;
+        int high = timeline.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timeline.get(mid).submittedAt < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        long lastFlush = System.currentTimeMillis();
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                    for (Pending pending : batch) {
+                        try {
+                            write(pending);
+                        } catch (IOException e) {
+                            // 只丢弃写入失败的这一条，批次中的其余记录继续写入
+                            log.warn("Failed to write task history record for task {}: {}", pending.taskId, e.getMessage());
+                        }
+                    }
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastFlush >= flushIntervalMillis && active != null) {
+                    active.force();
+                    lastFlush = now;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+        if (active != null) {
+            active.force();
+        }
+    }
+
+    private void write(Pending pending) throws IOException {
+        byte[] payload;
+        try {
+            payload = encode(pending);
+        } catch (IOException e) {
+            log.warn("Failed to encode task history record for task {}: {}", pending.taskId, e.getMessage());
+            return;
+        }
+        if (active == null) {
+            rotate();
+        }
+        int offset = active.append(pending.type, payload);
+        if (offset < 0) {
+            rotate();
+            offset = active.append(pending.type, payload);
+            if (offset < 0) {
+                log.warn("Task history record of {} bytes exceeds segment size, skipped", payload.length);
+                return;
+            }
+        }
+        long position = ((long) active.getId() << 32) | offset;
+        synchronized (this) {
+            if (pending.type == TYPE_SUBMITTED) {
+                indexSubmitted(pending.taskId, pending.task, pending.timestamp, active.getId());
+            } else {
+                ReActStepEvent event = pending.event;
+                indexEvent(pending.taskId, event.getType(), resultOf(event), event.getTimestamp(), position);
+            }
+        }
+        written.incrementAndGet();
+    }
+
+    private byte[] encode(Pending pending) throws IOException {
+        if (pending.type == TYPE_SUBMITTED) {
+            return mapper.writeValueAsBytes(mapper.createObjectNode()
+                    .put("taskId", pending.taskId)
+                    .put("task", pending.task)
+                    .put("timestamp", pending.timestamp));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        codec.writeEnvelope(pending.taskId, pending.event, null, out);
+        return out.toByteArray();
+    }
+
+    private static String resultOf(ReActStepEvent event) {
+        return event.getKind() == EventKind.FINAL_ANSWER || event.getKind() == EventKind.ERROR
+                ? event.getContent() : null;
+    }
+
+    private void rotate() throws IOException {
+        if (active != null) {
+            active.force();
+        }
+        Files.createDirectories(directory);
+        int id = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        Path file = directory.resolve(String.format("%s%010d%s", FILE_PREFIX, id, FILE_SUFFIX));
+        active = HistorySegment.create(id, file, segmentBytes);
+        segments.put(id, active);
+        while (segments.size() > maxSegments) {
+            HistorySegment oldest = segments.pollFirstEntry().getValue();
+            synchronized (this) {
+                evictSegment(oldest.getId());
+            }
+            retired.add(oldest.getFile());
+        }
+        deleteRetired();
+    }
+
+    /**
+     * 删除已移出索引的分段文件；删除失败不影响写入，留到下次滚动（或下次启动）再删
+     */
+    private void deleteRetired() {
+        for (Iterator<Path> it = retired.iterator(); it.hasNext(); ) {
+            Path file = it.next();
+            try {
+                Files.deleteIfExists(file);
+                it.remove();
+                log.info("Task history segment {} removed", file.getFileName());
+            } catch (IOException e) {
+                log.debug("Task history segment {} not removed yet: {}", file.getFileName(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 启动时按分段 ID 顺序扫描全部记录，重建索引并定位最后一个分段的写入位置
+     */
+    private void recover() {
+        List<Path> files = new ArrayList<>();
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+                stream.forEach(files::add);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to list task history directory {}: {}", directory, e.getMessage());
+            return;
+        }
+        // 文件名中的分段 ID 定长补零，按名称排序即按 ID 排序
+        files.sort(null);
+        // 超出 max-segments 的旧分段（上次运行时没删掉的）不再加载
+        while (files.size() > maxSegments) {
+            retired.add(files.remove(0));
+        }
+        deleteRetired();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            int id;
+            try {
+                id = Integer.parseInt(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            try {
+                HistorySegment segment = HistorySegment.open(id, file);
+                segment.recover(record -> recoverRecord(segment.getId(), record));
+                segments.put(id, segment);
+                active = segment;
+            } catch (IOException e) {
+                log.warn("Skipping task history segment {}: {}", file, e.getMessage());
+            }
+        }
+        synchronized (this) {
+            for (int i = evicted; i < timeline.size(); i++) {
+                TaskRecord record = timeline.get(i);
+                if ("running".equals(record.status)) {
+                    record.status = "interrupted";
+                }
+            }
+        }
+    }
+
+    private void recoverRecord(int segmentId, HistorySegment.Record record) {
+        JsonNode node;
+        try {
+            node = mapper.readTree(record.payload);
+        } catch (IOException e) {
+            return;
+        }
+        String taskId = node.path("taskId").asText(null);
+        if (taskId == null) {
+            return;
+        }
+        synchronized (this) {
+            if (record.type == TYPE_SUBMITTED) {
+                indexSubmitted(taskId, node.path("task").asText(""), node.path("timestamp").asLong(), segmentId);
+            } else if (record.type == TYPE_EVENT) {
+                JsonNode event = node.path("event");
+                String type = event.path("type").asText("");
+                String content = EventKind.FINAL_ANSWER.wireName().equals(type) || EventKind.ERROR.wireName().equals(type)
+                        ? event.path("content").asText(null) : null;
+                indexEvent(taskId, type, content, event.path("timestamp").asLong(),
+                        ((long) segmentId << 32) | record.offset);
+            }
+        }
+    }
+
+    private void indexSubmitted(String taskId, String task, long timestamp, int segmentId) {
+        TaskRecord existing = byId.get(taskId);
+        if (existing != null) {
+            // 从检查点恢复的任务沿用原记录，事件继续追加
+            existing.status = "running";
+            existing.result = null;
+            existing.finishedAt = 0;
+            return;
+        }
+        // 保证时间线按提交时间单调不减，二分查找才成立
+        long submittedAt = Math.max(timestamp, lastSubmittedAt);
+        lastSubmittedAt = submittedAt;
+        TaskRecord record = new TaskRecord(taskId, task, submittedAt, segmentId);
+        byId.put(taskId, record);
+        timeline.add(record);
+    }
+
+    private void indexEvent(String taskId, String type, String result, long timestamp, long position) {
+        TaskRecord record = byId.get(taskId);
+        if (record == null) {
+            return;
+        }
+        record.addEvent(position);
+        if (EventKind.FINAL_ANSWER.wireName().equals(type)) {
+            record.finish("completed", result, timestamp);
+        } else if (EventKind.ERROR.wireName().equals(type)) {
+            record.finish("failed", result, timestamp);
+        }
+    }
+
+    /**
+     * 删除分段时移除在该分段及之前提交的任务（它们位于时间线头部）
+     */
+    private void evictSegment(int segmentId) {
+        while (evicted < timeline.size() && timeline.get(evicted).segmentId <= segmentId) {
+            byId.remove(timeline.get(evicted).taskId);
+            timeline.set(evicted, null);
+            evicted++;
+        }
+        if (evicted > 1024 && evicted > timeline.size() / 2) {
+            timeline.subList(0, evicted).clear();
+            evicted = 0;
+        }
+    }
+
+    /**
+     * 停止接收新记录，等待后台线程写完队列中剩余记录并刷盘
+     */
+    @PreDestroy
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Task history closed: written={}, dropped={}", written.get(), dropped.get());
+    }
+
+    private static final class Pending {
+        private final byte type;
+        private final String taskId;
+        private final String task;
+        private final ReActStepEvent event;
+        private final long timestamp;
+
+        Pending(byte type, String taskId, String task, ReActStepEvent event, long timestamp) {
+            this.type = type;
+            this.taskId = taskId;
+            this.task = task;
+            this.event = event;
+            this.timestamp = timestamp;
+        }
+    }
+
+    /**
+     * 索引中的单个任务，事件位置为 (分段 ID << 32 | 偏移量)
+     */
+    private static final class TaskRecord {
+        private final String taskId;
+        private final String task;
+        private final long submittedAt;
+        private final int segmentId;
+        private String status = "running";
+        private String result;
+        private long finishedAt;
+        private long[] eventPositions = new long[16];
+        private int eventCount;
+
+        TaskRecord(String taskId, String task, long submittedAt, int segmentId) {
+            this.taskId = taskId;
+            this.task = task;
+            this.submittedAt = submittedAt;
+            this.segmentId = segmentId;
+        }
+
+        void addEvent(long position) {
+            if (eventCount == eventPositions.length) {
+                eventPositions = Arrays.copyOf(eventPositions, eventCount * 2);
+            }
+            eventPositions[eventCount++] = position;
+        }
+
+        void finish(String status, String result, long finishedAt) {
+            this.status = status;
+            // 索引中只保留结果的开头，完整内容在事件记录中
+            this.result = result != null && result.length() > RESULT_PREVIEW_CHARS
+                    ? result.substring(0, RESULT_PREVIEW_CHARS) + "..." : result;
+            this.finishedAt = finishedAt;
+        }
+
+        TaskHistoryEntry summary() {
+            TaskHistoryEntry entry = new TaskHistoryEntry();
+            entry.setTaskId(taskId);
+            entry.setTask(task);
+            entry.setStatus(status);
+            entry.setSubmittedAt(submittedAt);
+            entry.setFinishedAt(finishedAt > 0 ? finishedAt : null);
+            entry.setEventCount(eventCount);
+            entry.setResult(result);
+            return entry;
+        }
+    }
+}
@@ -1,28 +1,40 @@
 package com.example.reactmcp.interceptor;
 
+import com.example.reactmcp.logging.AuditLogWriter;
+import com.example.reactmcp.logging.LlmAuditRecord;
 import dev.langchain4j.agent.tool.ToolSpecification;
 import dev.langchain4j.data.message.AiMessage;
 import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.model.chat.ChatLanguageModel;
 import dev.langchain4j.model.output.Response;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * ChatLanguageModel 日志装饰器
- * 用于记录大模型的完整交互过程，包括请求和响应
+ * ChatLanguageModel 审计装饰器
+ * 按采样规则把大模型的完整请求 / 响应交给 AuditLogWriter 异步落盘：
+ * - 按 sampleRate 随机采样
+ * - 耗时超过 slowThresholdMs 的调用必记
+ * - 调用异常必记
+ * 未命中采样的调用只有一次计数和一次计时的开销
  */
 public class LoggingChatModelDecorator implements ChatLanguageModel {
 
-    private static final Logger log = LoggerFactory.getLogger(LoggingChatModelDecorator.class);
-    private static int requestCounter = 0;
-    
+    private static final AtomicLong requestCounter = new AtomicLong();
+
     private final ChatLanguageModel delegate;
+    private final AuditLogWriter writer;
+    private final double sampleRate;
+    private final long slowThresholdMs;
 
-    public LoggingChatModelDecorator(ChatLanguageModel delegate) {
+    public LoggingChatModelDecorator(ChatLanguageModel delegate, AuditLogWriter writer,
+                                     double sampleRate, long slowThresholdMs) {
         this.delegate = delegate;
+        this.writer = writer;
+        this.sampleRate = sampleRate;
+        this.slowThresholdMs = slowThresholdMs;
     }
 
     @Override
@@ -36,69 +48,42 @@ public class LoggingChatModelDecorator implements ChatLanguageModel {
     }
 
     private Response<AiMessage> logAndGenerate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
-        int currentRequest = ++requestCounter;
-        
-        log.info("╔═══════════════════════════════════════════════════════════════");
-        log.info("║ 🤖 大模型调用 #{} - 开始", currentRequest);
-        log.info("╠═══════════════════════════════════════════════════════════════");
-        
-        // 打印所有消息
-        for (int i = 0; i < messages.size(); i++) {
-            ChatMessage msg = messages.get(i);
-            log.info("║ 📨 消息 [{}] - 类型: {}", i + 1, msg.type());
-            log.info("║    内容: {}", formatMessageContent(msg.text()));
-        }
-        
-        // 打印工具规范
-        if (toolSpecifications != null && !toolSpecifications.isEmpty()) {
-            log.info("╠═══════════════════════════════════════════════════════════════");
-            log.info("║ 🔧 可用工具: {} 个", toolSpecifications.size());
-            toolSpecifications.forEach(tool -> {
-                log.info("║    • {}: {}", tool.name(), tool.description());
-            });
-        }
-        
-        log.info("╠═══════════════════════════════════════════════════════════════");
-        log.info("║ ⏳ 等待大模型响应...");
-        
-        long startTime = System.currentTimeMillis();
+        long requestId = requestCounter.incrementAndGet();
+        long startTime = System.nanoTime();
+
         Response<AiMessage> response;
-        if (toolSpecifications != null) {
-            response = delegate.generate(messages, toolSpecifications);
-        } else {
-            response = delegate.generate(messages);
+        try {
+            if (toolSpecifications != null) {
+                response = delegate.generate(messages, toolSpecifications);
+            } else {
+                response = delegate.generate(messages);
+            }
+        } catch (RuntimeException e) {
+            long duration = (System.nanoTime() - startTime) / 1_000_000;
+            writer.submit(new LlmAuditRecord(requestId, "error", duration,
+                    messages, toolSpecifications, null, null, e));
+            throw e;
         }
-        long duration = System.currentTimeMillis() - startTime;
-        
-        log.info("║ ✅ 响应耗时: {}ms", duration);
-        log.info("╠═══════════════════════════════════════════════════════════════");
-        log.info("║ 📥 大模型响应内容:");
-        log.info("║    {}", formatMessageContent(response.content().text()));
-        
-        // 如果有工具调用，打印工具调用信息
-        if (response.content().hasToolExecutionRequests()) {
-            log.info("╠═══════════════════════════════════════════════════════════════");
-            log.info("║ 🔧 工具调用请求:");
-            response.content().toolExecutionRequests().forEach(request -> {
-                log.info("║    • 工具名称: {}", request.name());
-                log.info("║      参数: {}", request.arguments());
-            });
+
+        long duration = (System.nanoTime() - startTime) / 1_000_000;
+        String reason = sampleReason(duration);
+        if (reason != null) {
+            writer.submit(new LlmAuditRecord(requestId, reason, duration,
+                    messages, toolSpecifications, response.content(), response.tokenUsage(), null));
         }
-        
-        log.info("╚═══════════════════════════════════════════════════════════════");
-        
         return response;
     }
 
-    private String formatMessageContent(String content) {
-        if (content == null) {
-            return "(空)";
+    /**
+     * 判断本次调用是否需要记录，返回命中的规则名，未命中返回 null
+     */
+    private String sampleReason(long durationMs) {
+        if (slowThresholdMs > 0 && durationMs >= slowThresholdMs) {
+            return "slow";
         }
-        // 对于过长的内容，进行格式化处理
-        if (content.length() > 500) {
-            return content.substring(0, 500) + "... (共 " + content.length() + " 字符)";
+        if (sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            return "rate";
         }
-        // 将多行内容缩进
-        return content.replace("\n", "\n║    ");
+        return null;
     }
 }
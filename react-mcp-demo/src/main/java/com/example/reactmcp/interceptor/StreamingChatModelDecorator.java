@@ -1,7 +1,11 @@
 package com.example.reactmcp.interceptor;
 
+import com.example.reactmcp.checkpoint.TaskCheckpointStore;
+import com.example.reactmcp.logging.CallLog;
 import com.example.reactmcp.model.ReActStepEvent;
 import com.example.reactmcp.service.ReActEventPublisher;
+import com.example.reactmcp.service.TaskControl;
+import com.example.reactmcp.service.TaskControlRegistry;
 import dev.langchain4j.agent.tool.ToolExecutionRequest;
 import dev.langchain4j.agent.tool.ToolSpecification;
 import dev.langchain4j.data.message.AiMessage;
@@ -28,110 +32,85 @@ public class StreamingChatModelDecorator implements ChatLanguageModel {
     
     private final ChatLanguageModel delegate;
     private final ReActEventPublisher eventPublisher;
+    private final TaskControlRegistry taskControls;
+    private final TaskCheckpointStore checkpoints;
     
-    public StreamingChatModelDecorator(ChatLanguageModel delegate, ReActEventPublisher eventPublisher) {
+    public StreamingChatModelDecorator(ChatLanguageModel delegate, ReActEventPublisher eventPublisher,
+                                       TaskControlRegistry taskControls, TaskCheckpointStore checkpoints) {
         this.delegate = delegate;
         this.eventPublisher = eventPublisher;
+        this.taskControls = taskControls;
+        this.checkpoints = checkpoints;
     }
     
     @Override
     public Response<AiMessage> generate(List<ChatMessage> messages) {
-        log.debug("Generating response for {} messages", messages.size());
-        
-        // 验证和修复消息序列
-        List<ChatMessage> fixedMessages = fixMessageSequence(messages);
-        
-        // 实现重试逻辑，处理 API 限流问题
-        int maxRetries = 3;
-        int retryDelay = 2000; // 2秒初始延迟
-        
-        for (int attempt = 1; attempt <= maxRetries; attempt++) {
-            try {
-                Response<AiMessage> response = delegate.generate(fixedMessages);
-                
-                // 发布 Thought 事件（如果有文本内容）
-                if (response.content() != null && response.content().text() != null) {
-                    String text = response.content().text();
-                    if (!text.isEmpty()) {
-                        eventPublisher.publish(ReActStepEvent.thought(text));
-                    }
-                }
-                
-                // 发布 Action 事件（如果有工具调用）
-                if (response.content() != null && response.content().hasToolExecutionRequests()) {
-                    for (ToolExecutionRequest request : response.content().toolExecutionRequests()) {
-                        eventPublisher.publish(ReActStepEvent.action(
-                            request.name(),
-                            request.arguments()
-                        ));
-                    }
-                }
-                
-                return response;
-            } catch (Exception e) {
-                // 检查是否是内容审查异常
-                if (isContentInspectionError(e)) {
-                    log.warn("检测到敏感内容，已被阿里云内容审查拦截: {}", e.getMessage());
-                    String warningMessage = "⚠️ 请求包含敏感内容，已被系统拦截。请调整输入内容后重试。";
-                    eventPublisher.publish(ReActStepEvent.thought(warningMessage));
-                    // 返回一个安全的响应
-                    return Response.from(AiMessage.from(warningMessage));
-                }
-                
-                // 检查是否是限流错误
-                if (isRateLimitError(e) && attempt < maxRetries) {
-                    log.warn("API 限流错误，第 {} 次尝试失败，{} 秒后重试: {}", attempt, retryDelay / 1000, e.getMessage());
-                    try {
-                        TimeUnit.MILLISECONDS.sleep(retryDelay);
-                        retryDelay *= 2; // 指数退避
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException("重试被中断", ie);
-                    }
-                } else {
-                    // 非限流错误或已达到最大重试次数
-                    throw new RuntimeException("生成 AI 响应时发生错误: " + e.getMessage(), e);
-                }
-            }
-        }
-        
-        // 理论上不会到达这里，但为了安全起见
-        throw new RuntimeException("达到最大重试次数，仍然无法获取响应");
+        return generateWithRetry(messages, null);
     }
     
     @Override
     public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
-        log.debug("Generating response with {} tools", toolSpecifications != null ? toolSpecifications.size() : 0);
+        return generateWithRetry(messages, toolSpecifications);
+    }
+    
+    /**
+     * 调用底层模型并发布 Thought / Action 事件，带限流重试
+     * toolSpecifications 为 null 时走无工具的 generate 重载
+     */
+    private Response<AiMessage> generateWithRetry(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        // 每一轮推理前的检查点：任务已取消则结束 ReAct 循环，已暂停则在这里等待继续
+        taskControls.checkpoint();
+        // 记录推理轮数和当前页面，检查点在后台线程上写盘
+        checkpoints.stepStarted();
         
         // 验证和修复消息序列
         List<ChatMessage> fixedMessages = fixMessageSequence(messages);
         
+        CallLog call = CallLog.llm("generate")
+                .attr("messages", fixedMessages == null ? 0 : fixedMessages.size())
+                .attr("tools", toolSpecifications == null ? 0 : toolSpecifications.size());
+        
         // 实现重试逻辑，处理 API 限流问题
         int maxRetries = 3;
         int retryDelay = 2000; // 2秒初始延迟
         
         for (int attempt = 1; attempt <= maxRetries; attempt++) {
             try {
-                Response<AiMessage> response = delegate.generate(fixedMessages, toolSpecifications);
+                Response<AiMessage> response = toolSpecifications != null
+                        ? delegate.generate(fixedMessages, toolSpecifications)
+                        : delegate.generate(fixedMessages);
                 
-                // 发布 Thought 事件
+                // 发布 Thought 事件（如果有文本内容）
                 if (response.content() != null && response.content().text() != null) {
                     String text = response.content().text();
                     if (!text.isEmpty()) {
                         eventPublisher.publish(ReActStepEvent.thought(text));
+                        // 记为段落检索的查询，本轮工具按它选取相关内容
+                        TaskControl control = taskControls.current();
+                        if (control != null) {
+                            control.setLastThought(text);
+                        }
                     }
                 }
                 
-                // 发布 Action 事件
+                // 发布 Action 事件（如果有工具调用）
+                int toolRequests = 0;
                 if (response.content() != null && response.content().hasToolExecutionRequests()) {
                     for (ToolExecutionRequest request : response.content().toolExecutionRequests()) {
                         eventPublisher.publish(ReActStepEvent.action(
                             request.name(),
                             request.arguments()
                         ));
+                        toolRequests++;
                     }
                 }
                 
+                call.attr("attempts", attempt).attr("toolRequests", toolRequests);
+                if (response.tokenUsage() != null) {
+                    call.attr("inputTokens", response.tokenUsage().inputTokenCount())
+                        .attr("outputTokens", response.tokenUsage().outputTokenCount());
+                }
+                call.ok(response.content() != null ? response.content().text() : null);
                 return response;
             } catch (Exception e) {
                 // 检查是否是内容审查异常
@@ -139,6 +118,7 @@ public class StreamingChatModelDecorator implements ChatLanguageModel {
                     log.warn("检测到敏感内容，已被阿里云内容审查拦截: {}", e.getMessage());
                     String warningMessage = "⚠️ 请求包含敏感内容，已被系统拦截。请调整输入内容后重试。";
                     eventPublisher.publish(ReActStepEvent.thought(warningMessage));
+                    call.attr("attempts", attempt).error(warningMessage);
                     // 返回一个安全的响应
                     return Response.from(AiMessage.from(warningMessage));
                 }
@@ -151,10 +131,12 @@ public class StreamingChatModelDecorator implements ChatLanguageModel {
                         retryDelay *= 2; // 指数退避
                     } catch (InterruptedException ie) {
                         Thread.currentThread().interrupt();
+                        call.attr("attempts", attempt).failed(ie);
                         throw new RuntimeException("重试被中断", ie);
                     }
                 } else {
                     // 非限流错误或已达到最大重试次数
+                    call.attr("attempts", attempt).failed(e);
                     throw new RuntimeException("生成 AI 响应时发生错误: " + e.getMessage(), e);
                 }
             }
@@ -205,7 +187,7 @@ public class StreamingChatModelDecorator implements ChatLanguageModel {
      * 2. 最后一条消息必须是 UserMessage 或 ToolExecutionResultMessage
      * 3. 移除无效的空消息
      */
-    private List<ChatMessage> fixMessageSequence(List<ChatMessage> messages) {
+    static List<ChatMessage> fixMessageSequence(List<ChatMessage> messages) {
         if (messages == null || messages.isEmpty()) {
             return messages;
         }
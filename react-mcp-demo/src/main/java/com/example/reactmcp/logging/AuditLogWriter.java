@@ -0,0 +1,186 @@
+package com.example.reactmcp.logging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 大模型审计日志的后台写入器
+ * - 调用线程只做一次非阻塞入队，队列满时丢弃并计数，不影响 Agent 主流程
+ * - 后台线程负责序列化，写入 gzip 压缩的 JSON Lines 文件（llm-audit-*.jsonl.gz）
+ * - 单个文件超过 maxFileBytes（未压缩字节）后滚动，目录中只保留最近 maxFiles 个文件
+ */
+public class AuditLogWriter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String FILE_PREFIX = "llm-audit-";
+    private static final String FILE_SUFFIX = ".jsonl.gz";
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final Path directory;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final BlockingQueue<LlmAuditRecord> queue;
+    private final ObjectMapper mapper;
+    private final Thread worker;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running = true;
+
+    // 以下字段只在后台线程访问
+    private OutputStream out;
+    private long currentBytes;
+
+    public AuditLogWriter(ObjectMapper mapper, Path directory, long maxFileBytes, int maxFiles, int queueCapacity) {
+        this.mapper = mapper;
+        this.directory = directory;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = Math.max(1, maxFiles);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.worker = new Thread(this::run, "llm-audit-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+        log.info("LLM audit log enabled: dir={}, maxFileBytes={}, maxFiles={}", directory, maxFileBytes, maxFiles);
+    }
+
+    /**
+     * 提交一条记录，队列满时直接丢弃
+     *
+     * @return 是否成功入队
+     */
+    public boolean submit(LlmAuditRecord record) {
+        if (!running || !queue.offer(record)) {
+            if (dropped.incrementAndGet() % 100 == 1) {
+                log.warn("LLM audit queue full, dropped {} records so far", dropped.get());
+            }
+            return false;
+        }
+        return true;
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void run() {
+        List<LlmAuditRecord> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                LlmAuditRecord first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                for (LlmAuditRecord record : batch) {
+                    write(record);
+                }
+                // 每批写完 flush 一次（gzip 使用 syncFlush），进程异常退出时最多丢失当前批次
+                if (out != null) {
+                    out.flush();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (IOException e) {
+                log.warn("Failed to write LLM audit log: {}", e.getMessage());
+                closeQuietly();
+            } finally {
+                batch.clear();
+            }
+        }
+        closeQuietly();
+    }
+
+    private void write(LlmAuditRecord record) throws IOException {
+        byte[] bytes;
+        try {
+            bytes = (record.toJson(mapper) + "\n").getBytes(StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            log.warn("Failed to serialize LLM audit record #{}: {}", record.getRequestId(), e.getMessage());
+            return;
+        }
+        if (out == null || currentBytes + bytes.length > maxFileBytes) {
+            rotate();
+        }
+        out.write(bytes);
+        currentBytes += bytes.length;
+        written.incrementAndGet();
+    }
+
+    private void rotate() throws IOException {
+        closeQuietly();
+        Files.createDirectories(directory);
+        Path file = directory.resolve(FILE_PREFIX + LocalDateTime.now().format(FILE_TIME) + FILE_SUFFIX);
+        out = new GZIPOutputStream(Files.newOutputStream(file), 8192, true);
+        currentBytes = 0;
+        pruneOldFiles();
+    }
+
+    /**
+     * 文件名带时间戳，按名称排序即按时间排序，删除最旧的文件
+     */
+    private void pruneOldFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        if (files.size() <= maxFiles) {
+            return;
+        }
+        Collections.sort(files);
+        for (Path old : files.subList(0, files.size() - maxFiles)) {
+            Files.deleteIfExists(old);
+        }
+    }
+
+    private void closeQuietly() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            log.warn("Failed to close LLM audit log: {}", e.getMessage());
+        }
+        out = null;
+    }
+
+    /**
+     * 停止接收新记录，等待后台线程写完队列中剩余记录
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("LLM audit log closed: written={}, dropped={}", written.get(), dropped.get());
+    }
+}
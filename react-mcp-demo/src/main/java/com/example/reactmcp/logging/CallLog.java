@@ -0,0 +1,161 @@
+package com.example.reactmcp.logging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.slf4j.spi.LoggingEventBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 工具 / 大模型调用的结构化日志
+ * 每次调用只输出一条事件（key=value 形式），INFO 级别只包含名称、结果、耗时和载荷大小，
+ * 参数与结果预览只有在对应 logger 开启 DEBUG 时才会构建
+ * 工具调用以 error 结束时返回的结果统一以 ERROR_PREFIX 开头，调用方（如结果缓存）用 isError 判断成败
+ */
+public final class CallLog {
+
+    private static final Logger TOOL_LOG = LoggerFactory.getLogger("com.example.reactmcp.tool");
+    private static final Logger LLM_LOG = LoggerFactory.getLogger("com.example.reactmcp.llm");
+
+    // 预览最大长度，避免把整页内容写进日志
+    private static final int PREVIEW_LENGTH = 200;
+
+    /**
+     * 工具调用失败时结果的前缀
+     */
+    public static final String ERROR_PREFIX = "错误: ";
+
+    private final Logger logger;
+    private final String kind;
+    private final String name;
+    private final Object[] args;
+    private final long startNanos;
+    private Map<String, Object> attributes;
+
+    private CallLog(Logger logger, String kind, String name, Object[] args) {
+        this.logger = logger;
+        this.kind = kind;
+        this.name = name;
+        this.args = args;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * 开始记录一次工具调用
+     */
+    public static CallLog tool(String name, Object... args) {
+        return new CallLog(TOOL_LOG, "tool", name, args);
+    }
+
+    /**
+     * 开始记录一次大模型调用
+     */
+    public static CallLog llm(String name, Object... args) {
+        return new CallLog(LLM_LOG, "llm", name, args);
+    }
+
+    /**
+     * 附加一个结构化字段（例如消息数、重试次数）
+     */
+    public CallLog attr(String key, Object value) {
+        if (attributes == null) {
+            attributes = new LinkedHashMap<>();
+        }
+        attributes.put(key, value);
+        return this;
+    }
+
+    /**
+     * 当前调用已耗时（毫秒）
+     */
+    public long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    public String ok(String result) {
+        emit(Level.INFO, "ok", result, null);
+        return result;
+    }
+
+    /**
+     * 调用失败；工具调用返回的结果没有 ERROR_PREFIX 时补上
+     */
+    public String error(String result) {
+        return error(result, null);
+    }
+
+    public String error(String result, Throwable cause) {
+        if ("tool".equals(kind) && result != null && !result.startsWith(ERROR_PREFIX)) {
+            result = ERROR_PREFIX + result;
+        }
+        emit(Level.WARN, "error", result, cause);
+        return result;
+    }
+
+    /**
+     * 调用以异常结束（没有可返回的结果）
+     */
+    public void failed(Throwable cause) {
+        emit(Level.WARN, "failed", null, cause);
+    }
+
+    /**
+     * 工具返回的结果是否表示失败（由 error 返回）
+     */
+    public static boolean isError(String result) {
+        return result != null && result.startsWith(ERROR_PREFIX);
+    }
+
+    private void emit(Level level, String outcome, String result, Throwable cause) {
+        if (!logger.isEnabledForLevel(level)) {
+            return;
+        }
+        LoggingEventBuilder event = logger.atLevel(level)
+                .setMessage(kind + " call")
+                .addKeyValue(kind, name)
+                .addKeyValue("outcome", outcome)
+                .addKeyValue("durationMs", elapsedMillis())
+                .addKeyValue("resultChars", result == null ? 0 : result.length());
+        if (attributes != null) {
+            attributes.forEach(event::addKeyValue);
+        }
+        if (logger.isDebugEnabled()) {
+            event.addKeyValue("args", (Supplier<Object>) this::argsPreview);
+            event.addKeyValue("result", (Supplier<Object>) () -> preview(result));
+        }
+        if (cause != null) {
+            event.setCause(cause);
+        }
+        event.log();
+    }
+
+    private String argsPreview() {
+        if (args == null || args.length == 0) {
+            return "[]";
+        }
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(preview(args[i] == null ? null : String.valueOf(args[i])));
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * 生成单行预览：截断并去掉换行
+     */
+    static String preview(String value) {
+        if (value == null) {
+            return "null";
+        }
+        String oneLine = value.length() > PREVIEW_LENGTH
+                ? value.substring(0, PREVIEW_LENGTH) + "...(" + value.length() + " chars)"
+                : value;
+        return oneLine.replace('\n', ' ').replace('\r', ' ');
+    }
+}
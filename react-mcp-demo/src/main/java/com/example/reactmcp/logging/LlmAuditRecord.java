@@ -0,0 +1,84 @@
+package com.example.reactmcp.logging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一次大模型调用的审计记录
+ * 调用线程只拷贝消息列表（消息对象本身不可变），JSON 序列化由 AuditLogWriter 的后台线程完成
+ */
+public final class LlmAuditRecord {
+
+    private final long requestId;
+    private final long timestamp;
+    private final String reason;
+    private final long durationMs;
+    private final List<ChatMessage> messages;
+    private final List<ToolSpecification> toolSpecifications;
+    private final AiMessage response;
+    private final TokenUsage tokenUsage;
+    private final Throwable error;
+
+    public LlmAuditRecord(long requestId, String reason, long durationMs,
+                          List<ChatMessage> messages, List<ToolSpecification> toolSpecifications,
+                          AiMessage response, TokenUsage tokenUsage, Throwable error) {
+        this.requestId = requestId;
+        this.timestamp = System.currentTimeMillis();
+        this.reason = reason;
+        this.durationMs = durationMs;
+        // 拷贝列表，避免后台线程序列化时调用方继续修改
+        this.messages = new ArrayList<>(messages);
+        this.toolSpecifications = toolSpecifications;
+        this.response = response;
+        this.tokenUsage = tokenUsage;
+        this.error = error;
+    }
+
+    public long getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * 序列化为单行 JSON（JSON Lines 格式）
+     */
+    String toJson(ObjectMapper mapper) throws Exception {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("requestId", requestId);
+        root.put("time", Instant.ofEpochMilli(timestamp).toString());
+        root.put("sampledBy", reason);
+        root.put("durationMs", durationMs);
+        root.putRawValue("messages", new RawValue(ChatMessageSerializer.messagesToJson(messages)));
+
+        if (toolSpecifications != null) {
+            ArrayNode tools = root.putArray("tools");
+            for (ToolSpecification spec : toolSpecifications) {
+                tools.addObject()
+                        .put("name", spec.name())
+                        .put("description", spec.description());
+            }
+        }
+        if (response != null) {
+            root.putRawValue("response", new RawValue(ChatMessageSerializer.messageToJson(response)));
+        }
+        if (tokenUsage != null) {
+            ObjectNode usage = root.putObject("tokenUsage");
+            usage.put("input", tokenUsage.inputTokenCount());
+            usage.put("output", tokenUsage.outputTokenCount());
+        }
+        if (error != null) {
+            root.put("error", error.getClass().getName() + ": " + error.getMessage());
+        }
+        return mapper.writeValueAsString(root);
+    }
+}
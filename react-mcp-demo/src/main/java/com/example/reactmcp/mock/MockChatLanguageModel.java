@@ -0,0 +1,260 @@
+package com.example.reactmcp.mock;
+
+import com.example.reactmcp.config.LangchainProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 模拟大模型（langchain4j.provider=mock），用于离线压测，不访问网络也不消耗额度
+ * - random 模式：每个任务按任务内容确定调用工具的次数（min-steps ~ max-steps），每次随机选一个允许的工具并生成参数，之后给出最终答案
+ * - script 模式：按脚本文件逐步回放，第 N 次调用返回脚本第 N 步
+ * 当前是第几步由对话中最后一条用户消息之后带工具调用的 AI 消息数决定，模型本身无状态，可被多个任务并发调用
+ * 每次调用先按配置的分布休眠，再按概率抛出普通错误或 429 限流错误
+ * seed 不为 0 时每次调用的随机数由 seed、任务内容、步数和该步的第几次尝试（出错重试）决定，相同配置的压测可以复现；
+ * seed 为 0 时每次调用随机
+ */
+public class MockChatLanguageModel implements ChatLanguageModel {
+
+    private static final String[] FILLER = {
+        "the", "page", "shows", "result", "value", "step", "task", "data", "next", "check"
+    };
+
+    private final LangchainProperties.MockConfig config;
+    private final ObjectMapper mapper;
+    private final List<JsonNode> script;
+    private final long seed;
+    private final AtomicLong requestIds = new AtomicLong();
+    // 任务内容 + 步数 -> 已尝试次数，调用成功后移除
+    private final ConcurrentHashMap<Long, AtomicInteger> attempts = new ConcurrentHashMap<>();
+
+    public MockChatLanguageModel(LangchainProperties.MockConfig config, ObjectMapper mapper) throws IOException {
+        this.config = config;
+        this.mapper = mapper;
+        this.seed = config.getSeed() != 0 ? config.getSeed() : System.nanoTime();
+        this.script = "script".equalsIgnoreCase(config.getMode()) ? loadScript(config.getScriptFile()) : List.of();
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages) {
+        return generate(messages, List.of());
+    }
+
+    @Override
+    public Response<AiMessage> generate(List<ChatMessage> messages, List<ToolSpecification> toolSpecifications) {
+        String task = lastUserText(messages);
+        int step = completedSteps(messages);
+        long callKey = (31L * task.hashCode() + step) * 0x9E3779B97F4A7C15L ^ seed;
+        SplittableRandom random = callRandom(callKey);
+        sleep(latencyMillis(random));
+
+        double roll = random.nextDouble();
+        if (roll < config.getRateLimitRate()) {
+            throw new RuntimeException("429 Too many requests (mock rate limit)");
+        }
+        if (roll < config.getRateLimitRate() + config.getErrorRate()) {
+            throw new RuntimeException("Mock provider injected error");
+        }
+        attempts.remove(callKey);
+
+        int outputTokens = config.getMinOutputTokens()
+                + random.nextInt(Math.max(1, config.getMaxOutputTokens() - config.getMinOutputTokens() + 1));
+        TokenUsage usage = new TokenUsage(estimateTokens(messages), outputTokens);
+
+        ToolExecutionRequest toolRequest;
+        String text;
+        if (!script.isEmpty()) {
+            JsonNode scripted = step < script.size() ? script.get(step) : null;
+            toolRequest = scripted != null && scripted.hasNonNull("tool") ? scriptedRequest(scripted) : null;
+            text = scripted == null ? "Mock script finished after " + step + " steps"
+                    : scripted.path(toolRequest != null ? "thought" : "answer").asText(filler(random, outputTokens));
+        } else {
+            toolRequest = step < targetSteps(task) ? randomRequest(random, toolSpecifications) : null;
+            text = toolRequest != null
+                    ? "Step " + (step + 1) + ": call " + toolRequest.name() + ". " + filler(random, outputTokens)
+                    : "Final answer after " + step + " steps: " + filler(random, outputTokens);
+        }
+
+        if (toolRequest != null) {
+            return Response.from(AiMessage.from(text, List.of(toolRequest)), usage, FinishReason.TOOL_EXECUTION);
+        }
+        return Response.from(AiMessage.from(text), usage, FinishReason.STOP);
+    }
+
+    /**
+     * 本次调用的随机数：固定 seed 时由调用键和尝试次数决定，重试同一步会得到不同但可复现的结果
+     */
+    private SplittableRandom callRandom(long callKey) {
+        if (config.getSeed() == 0) {
+            return new SplittableRandom(seed ^ System.nanoTime() ^ Thread.currentThread().getId());
+        }
+        if (attempts.size() > 10_000) {
+            // 放弃重试的任务不会移除记录，防止无限增长
+            attempts.clear();
+        }
+        int attempt = attempts.computeIfAbsent(callKey, k -> new AtomicInteger()).getAndIncrement();
+        return new SplittableRandom(callKey + attempt * 0xBF58476D1CE4E5B9L);
+    }
+
+    /**
+     * 按配置的分布生成一次调用的延迟，截断到 latency-max-ms
+     */
+    private long latencyMillis(SplittableRandom random) {
+        long base = Math.max(0, config.getLatencyMs());
+        long max = Math.max(base, config.getLatencyMaxMs());
+        double value;
+        switch (config.getLatencyDistribution().toLowerCase()) {
+            case "fixed" -> value = base;
+            case "uniform" -> value = base + random.nextDouble() * (max - base);
+            default -> {
+                // 对数正态：中位数为 latency-ms，sigma 控制长尾
+                value = base * Math.exp(config.getLatencySigma() * random.nextGaussian());
+            }
+        }
+        return Math.min(max, Math.round(value));
+    }
+
+    /**
+     * 最后一条用户消息之后已经完成的工具调用轮数
+     */
+    private static int completedSteps(List<ChatMessage> messages) {
+        int steps = 0;
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            ChatMessage message = messages.get(i);
+            if (message instanceof UserMessage) {
+                break;
+            }
+            if (message instanceof AiMessage ai && ai.hasToolExecutionRequests()) {
+                steps++;
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * 每个任务的工具调用次数由任务内容决定，同一任务的多轮调用结果一致
+     */
+    private int targetSteps(String task) {
+        int min = Math.max(0, config.getMinSteps());
+        int range = Math.max(0, config.getMaxSteps() - min) + 1;
+        return min + new SplittableRandom(seed ^ task.hashCode()).nextInt(range);
+    }
+
+    private static String lastUserText(List<ChatMessage> messages) {
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            if (messages.get(i) instanceof UserMessage user) {
+                return String.valueOf(user.contents());
+            }
+        }
+        return "";
+    }
+
+    private ToolExecutionRequest randomRequest(SplittableRandom random, List<ToolSpecification> specifications) {
+        List<ToolSpecification> allowed = new ArrayList<>();
+        if (specifications != null) {
+            for (ToolSpecification specification : specifications) {
+                if (config.getTools().contains(specification.name())) {
+                    allowed.add(specification);
+                }
+            }
+        }
+        if (allowed.isEmpty()) {
+            return null;
+        }
+        ToolSpecification tool = allowed.get(random.nextInt(allowed.size()));
+        ObjectNode arguments = mapper.createObjectNode();
+        if (tool.parameters() != null) {
+            for (Map.Entry<String, Map<String, Object>> parameter : tool.parameters().properties().entrySet()) {
+                String type = String.valueOf(parameter.getValue().get("type"));
+                switch (type) {
+                    case "integer" -> arguments.put(parameter.getKey(), 1 + random.nextInt(100));
+                    case "number" -> arguments.put(parameter.getKey(), 1 + random.nextInt(100) / 10.0);
+                    case "boolean" -> arguments.put(parameter.getKey(), false);
+                    default -> arguments.put(parameter.getKey(), "mock");
+                }
+            }
+        }
+        return request(tool.name(), arguments.toString());
+    }
+
+    private ToolExecutionRequest scriptedRequest(JsonNode step) {
+        JsonNode arguments = step.path("arguments");
+        return request(step.get("tool").asText(), arguments.isMissingNode() ? "{}" : arguments.toString());
+    }
+
+    private ToolExecutionRequest request(String name, String arguments) {
+        return ToolExecutionRequest.builder()
+                .id("mock-" + requestIds.incrementAndGet())
+                .name(name)
+                .arguments(arguments)
+                .build();
+    }
+
+    private static String filler(SplittableRandom random, int tokens) {
+        StringBuilder sb = new StringBuilder(tokens * 6);
+        for (int i = 0; i < tokens; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(FILLER[random.nextInt(FILLER.length)]);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 粗略估算输入 token 数（约 4 个字符一个 token）
+     */
+    private static int estimateTokens(List<ChatMessage> messages) {
+        long chars = 0;
+        for (ChatMessage message : messages) {
+            chars += String.valueOf(message).length();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, chars / 4);
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Mock model call interrupted", e);
+        }
+    }
+
+    private List<JsonNode> loadScript(String scriptFile) throws IOException {
+        if (scriptFile == null || scriptFile.isBlank()) {
+            throw new IllegalArgumentException("langchain4j.mock.script-file is required when mode=script");
+        }
+        JsonNode root = mapper.readTree(Files.readAllBytes(Paths.get(scriptFile)));
+        if (!root.isArray() || root.isEmpty()) {
+            throw new IllegalArgumentException("Mock script must be a non-empty JSON array: " + scriptFile);
+        }
+        List<JsonNode> steps = new ArrayList<>();
+        root.forEach(steps::add);
+        return List.copyOf(steps);
+    }
+}
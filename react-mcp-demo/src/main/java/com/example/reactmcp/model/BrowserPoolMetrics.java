@@ -0,0 +1,181 @@
+package com.example.reactmcp.model;
+
+import java.util.List;
+
+/**
+ * 浏览器池指标
+ */
+public class BrowserPoolMetrics {
+
+    // 工作线程（Playwright 实例）数
+    private int workers;
+    private int maxContexts;
+    // 当前租出的上下文数
+    private int leased;
+    // 预热的空闲上下文数
+    private int idle;
+    // 正在等待上下文的任务数
+    private int waiting;
+    // 租出数 / 上限
+    private double utilization;
+    private long acquired;
+    private long timeouts;
+    // 因空闲超时回收的上下文数
+    private long reclaimed;
+    private long created;
+    private double avgWaitMillis;
+    private double maxWaitMillis;
+    private String warmUp;
+    // 各工作线程上打开的上下文数
+    private List<Integer> workerContexts;
+    // 各工作线程忙碌时间占比
+    private List<Double> workerUtilization;
+    // 资源拦截预设、累计拦截请求数和估算节省的字节数
+    private String blockingPreset;
+    private long blockedRequests;
+    private long blockedBytes;
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getMaxContexts() {
+        return maxContexts;
+    }
+
+    public void setMaxContexts(int maxContexts) {
+        this.maxContexts = maxContexts;
+    }
+
+    public int getLeased() {
+        return leased;
+    }
+
+    public void setLeased(int leased) {
+        this.leased = leased;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public void setIdle(int idle) {
+        this.idle = idle;
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public void setWaiting(int waiting) {
+        this.waiting = waiting;
+    }
+
+    public double getUtilization() {
+        return utilization;
+    }
+
+    public void setUtilization(double utilization) {
+        this.utilization = utilization;
+    }
+
+    public long getAcquired() {
+        return acquired;
+    }
+
+    public void setAcquired(long acquired) {
+        this.acquired = acquired;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public void setTimeouts(long timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    public long getReclaimed() {
+        return reclaimed;
+    }
+
+    public void setReclaimed(long reclaimed) {
+        this.reclaimed = reclaimed;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public double getAvgWaitMillis() {
+        return avgWaitMillis;
+    }
+
+    public void setAvgWaitMillis(double avgWaitMillis) {
+        this.avgWaitMillis = avgWaitMillis;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public void setMaxWaitMillis(double maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public String getWarmUp() {
+        return warmUp;
+    }
+
+    public void setWarmUp(String warmUp) {
+        this.warmUp = warmUp;
+    }
+
+    public List<Integer> getWorkerContexts() {
+        return workerContexts;
+    }
+
+    public void setWorkerContexts(List<Integer> workerContexts) {
+        this.workerContexts = workerContexts;
+    }
+
+    public List<Double> getWorkerUtilization() {
+        return workerUtilization;
+    }
+
+    public void setWorkerUtilization(List<Double> workerUtilization) {
+        this.workerUtilization = workerUtilization;
+    }
+
+    public String getBlockingPreset() {
+        return blockingPreset;
+    }
+
+    public void setBlockingPreset(String blockingPreset) {
+        this.blockingPreset = blockingPreset;
+    }
+
+    public long getBlockedRequests() {
+        return blockedRequests;
+    }
+
+    public void setBlockedRequests(long blockedRequests) {
+        this.blockedRequests = blockedRequests;
+    }
+
+    public long getBlockedBytes() {
+        return blockedBytes;
+    }
+
+    public void setBlockedBytes(long blockedBytes) {
+        this.blockedBytes = blockedBytes;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.reactmcp.model;
+
+/**
+ * 集群节点心跳信息：节点地址和当前空闲的执行容量
+ */
+public class ClusterNodeInfo {
+
+    private String nodeId;
+    private String url;
+    private int capacity;
+    private int freeSlots;
+    private int runningTasks;
+    private long lastHeartbeat;
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * 其他节点转发 SSE 和控制请求使用的地址，如 http://10.0.0.5:8080
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    /**
+     * 同时执行的任务上限：min(浏览器槽位, 大模型槽位)
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getFreeSlots() {
+        return freeSlots;
+    }
+
+    public void setFreeSlots(int freeSlots) {
+        this.freeSlots = freeSlots;
+    }
+
+    public int getRunningTasks() {
+        return runningTasks;
+    }
+
+    public void setRunningTasks(int runningTasks) {
+        this.runningTasks = runningTasks;
+    }
+
+    public long getLastHeartbeat() {
+        return lastHeartbeat;
+    }
+
+    public void setLastHeartbeat(long lastHeartbeat) {
+        this.lastHeartbeat = lastHeartbeat;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.reactmcp.model;
+
+import java.util.List;
+
+/**
+ * 集群状态：本节点的容量和转发情况、共享队列长度以及存活节点列表
+ */
+public class ClusterStatus {
+
+    private ClusterNodeInfo self;
+    private String store;
+    private int queueSize;
+    private int relays;
+    private List<ClusterNodeInfo> nodes;
+
+    public ClusterNodeInfo getSelf() {
+        return self;
+    }
+
+    public void setSelf(ClusterNodeInfo self) {
+        this.self = self;
+    }
+
+    /**
+     * 共享存储实现：file / redis
+     */
+    public String getStore() {
+        return store;
+    }
+
+    public void setStore(String store) {
+        this.store = store;
+    }
+
+    /**
+     * 等待领取的任务数
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * 本节点正在转发的其他节点任务事件流数量
+     */
+    public int getRelays() {
+        return relays;
+    }
+
+    public void setRelays(int relays) {
+        this.relays = relays;
+    }
+
+    public List<ClusterNodeInfo> getNodes() {
+        return nodes;
+    }
+
+    public void setNodes(List<ClusterNodeInfo> nodes) {
+        this.nodes = nodes;
+    }
+}
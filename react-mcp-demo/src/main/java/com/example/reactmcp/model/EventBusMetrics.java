@@ -0,0 +1,156 @@
+package com.example.reactmcp.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 事件总线运行指标
+ */
+public class EventBusMetrics {
+
+    private int activeSessions;
+    private long published;
+    private long dropped;
+    private long delivered;
+    private long queued;
+    private long unbound;
+    private List<SessionMetrics> sessions = new ArrayList<>();
+    private List<SseConnectionMetrics> connections = new ArrayList<>();
+    private List<WsConnectionMetrics> wsConnections = new ArrayList<>();
+
+    public int getActiveSessions() {
+        return activeSessions;
+    }
+
+    public void setActiveSessions(int activeSessions) {
+        this.activeSessions = activeSessions;
+    }
+
+    public long getPublished() {
+        return published;
+    }
+
+    public void setPublished(long published) {
+        this.published = published;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public void setDropped(long dropped) {
+        this.dropped = dropped;
+    }
+
+    public long getDelivered() {
+        return delivered;
+    }
+
+    public void setDelivered(long delivered) {
+        this.delivered = delivered;
+    }
+
+    public long getQueued() {
+        return queued;
+    }
+
+    public void setQueued(long queued) {
+        this.queued = queued;
+    }
+
+    /**
+     * 没有绑定任务上下文的线程发布的事件数（直接丢弃）
+     */
+    public long getUnbound() {
+        return unbound;
+    }
+
+    public void setUnbound(long unbound) {
+        this.unbound = unbound;
+    }
+
+    public List<SessionMetrics> getSessions() {
+        return sessions;
+    }
+
+    public void setSessions(List<SessionMetrics> sessions) {
+        this.sessions = sessions;
+    }
+
+    /**
+     * 各 SSE 连接的写入指标（排队、丢弃、合并和延迟）
+     */
+    public List<SseConnectionMetrics> getConnections() {
+        return connections;
+    }
+
+    public void setConnections(List<SseConnectionMetrics> connections) {
+        this.connections = connections;
+    }
+
+    /**
+     * 各 WebSocket 连接的写入指标（额度、排队、帧类型和字节数）
+     */
+    public List<WsConnectionMetrics> getWsConnections() {
+        return wsConnections;
+    }
+
+    public void setWsConnections(List<WsConnectionMetrics> wsConnections) {
+        this.wsConnections = wsConnections;
+    }
+
+    /**
+     * 单个任务会话的指标
+     */
+    public static class SessionMetrics {
+        private String taskId;
+        private long published;
+        private long dropped;
+        private long delivered;
+        private int queued;
+        private long lastEventId;
+        private boolean closed;
+
+        public SessionMetrics(String taskId, long published, long dropped, long delivered, int queued,
+                              long lastEventId, boolean closed) {
+            this.taskId = taskId;
+            this.published = published;
+            this.dropped = dropped;
+            this.delivered = delivered;
+            this.queued = queued;
+            this.lastEventId = lastEventId;
+            this.closed = closed;
+        }
+
+        public String getTaskId() {
+            return taskId;
+        }
+
+        public long getPublished() {
+            return published;
+        }
+
+        public long getDropped() {
+            return dropped;
+        }
+
+        public long getDelivered() {
+            return delivered;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        public long getLastEventId() {
+            return lastEventId;
+        }
+
+        /**
+         * 任务已结束，会话仅为断线重连保留
+         */
+        public boolean isClosed() {
+            return closed;
+        }
+    }
+}
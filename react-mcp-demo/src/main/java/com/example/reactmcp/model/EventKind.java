@@ -0,0 +1,55 @@
+package com.example.reactmcp.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * ReAct 事件类型
+ * wireName 是 JSON 中 type 字段和 SSE 事件名使用的值，与前端约定保持一致
+ */
+public enum EventKind {
+
+    TASK_STARTED("task_started"),
+    THOUGHT("thought"),
+    ACTION("action"),
+    OBSERVATION("observation"),
+    FINAL_ANSWER("final_answer"),
+    ERROR("error"),
+    QUESTION("question");
+
+    private final String wireName;
+
+    EventKind(String wireName) {
+        this.wireName = wireName;
+    }
+
+    @JsonValue
+    public String wireName() {
+        return wireName;
+    }
+
+    /**
+     * 按线上名称查找事件类型，未知名称返回 null
+     */
+    public static EventKind fromWireName(String name) {
+        for (EventKind kind : values()) {
+            if (kind.wireName.equals(name)) {
+                return kind;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 慢客户端缓冲区溢出时可以与相邻同类事件合并
+     */
+    public boolean isMergeable() {
+        return this == THOUGHT || this == OBSERVATION;
+    }
+
+    /**
+     * 慢客户端缓冲区溢出时可以丢弃；任务开始、最终答案、错误和向用户提问的事件必须送达
+     */
+    public boolean isDroppable() {
+        return this == THOUGHT || this == ACTION || this == OBSERVATION;
+    }
+}
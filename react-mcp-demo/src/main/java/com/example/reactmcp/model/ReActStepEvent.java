@@ -1,100 +1,142 @@
 package com.example.reactmcp.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 /**
  * ReAct 执行步骤事件
  * 用于流式输出每一轮的推理和执行过程
+ * 不可变对象：同一个事件会被多个连接和重放缓冲区共享，事件 ID 通过 withId 生成新对象
  */
 @JsonInclude(JsonInclude.Include.NON_NULL)
-public class ReActStepEvent {
-    
-    private String type; // "thought", "action", "observation", "final_answer"
-    private String content;
-    private String toolName;
-    private String toolInput;
-    private String toolOutput;
-    private Long timestamp;
-    
-    public ReActStepEvent() {
-        this.timestamp = System.currentTimeMillis();
-    }
-    
+@JsonPropertyOrder({"id", "type", "content", "toolName", "toolInput", "toolOutput", "timestamp"})
+public final class ReActStepEvent {
+
+    private final long id; // 任务内单调递增的事件 ID，投递时分配（0 表示未分配），用于断线续传
+    private final EventKind kind;
+    private final String content;
+    private final String toolName;
+    private final String toolInput;
+    private final String toolOutput;
+    private final long timestamp;
+
+    private ReActStepEvent(long id, EventKind kind, String content, String toolName,
+                           String toolInput, String toolOutput, long timestamp) {
+        this.id = id;
+        this.kind = kind;
+        this.content = content;
+        this.toolName = toolName;
+        this.toolInput = toolInput;
+        this.toolOutput = toolOutput;
+        this.timestamp = timestamp;
+    }
+
+    private static ReActStepEvent of(EventKind kind, String content, String toolName,
+                                     String toolInput, String toolOutput) {
+        return new ReActStepEvent(0, kind, content, toolName, toolInput, toolOutput, System.currentTimeMillis());
+    }
+
+    public static ReActStepEvent taskStarted(String taskId) {
+        return of(EventKind.TASK_STARTED, taskId, null, null, null);
+    }
+
     public static ReActStepEvent thought(String content) {
-        ReActStepEvent event = new ReActStepEvent();
-        event.setType("thought");
-        event.setContent(content);
-        return event;
+        return of(EventKind.THOUGHT, content, null, null, null);
     }
-    
+
     public static ReActStepEvent action(String toolName, String toolInput) {
-        ReActStepEvent event = new ReActStepEvent();
-        event.setType("action");
-        event.setToolName(toolName);
-        event.setToolInput(toolInput);
-        return event;
+        return of(EventKind.ACTION, null, toolName, toolInput, null);
     }
-    
+
     public static ReActStepEvent observation(String toolOutput) {
-        ReActStepEvent event = new ReActStepEvent();
-        event.setType("observation");
-        event.setToolOutput(toolOutput);
-        return event;
+        return of(EventKind.OBSERVATION, null, null, null, toolOutput);
     }
-    
+
     public static ReActStepEvent finalAnswer(String content) {
-        ReActStepEvent event = new ReActStepEvent();
-        event.setType("final_answer");
-        event.setContent(content);
-        return event;
+        return of(EventKind.FINAL_ANSWER, content, null, null, null);
     }
 
-    // Getters and Setters
-    public String getType() {
-        return type;
+    public static ReActStepEvent error(String content) {
+        return of(EventKind.ERROR, content, null, null, null);
     }
 
-    public void setType(String type) {
-        this.type = type;
+    /**
+     * Agent 向用户提出的澄清问题，客户端通过 answer 控制消息回答
+     */
+    public static ReActStepEvent question(String content) {
+        return of(EventKind.QUESTION, content, null, null, null);
     }
 
-    public String getContent() {
-        return content;
+    /**
+     * 按字段还原事件（集群模式下转发其他节点推送的事件），事件 ID 由本地会话重新分配
+     */
+    public static ReActStepEvent restore(EventKind kind, String content, String toolName,
+                                         String toolInput, String toolOutput, long timestamp) {
+        return new ReActStepEvent(0, kind, content, toolName, toolInput, toolOutput, timestamp);
     }
 
-    public void setContent(String content) {
-        this.content = content;
+    /**
+     * 合并两个同类型事件的文本，使用后一个事件的 ID 和时间戳
+     */
+    public static ReActStepEvent merge(ReActStepEvent earlier, ReActStepEvent later) {
+        return new ReActStepEvent(later.id, later.kind,
+                join(earlier.content, later.content),
+                later.toolName != null ? later.toolName : earlier.toolName,
+                later.toolInput != null ? later.toolInput : earlier.toolInput,
+                join(earlier.toolOutput, later.toolOutput),
+                later.timestamp);
     }
 
-    public String getToolName() {
-        return toolName;
+    private static String join(String a, String b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null ? a : a + "\n" + b;
     }
 
-    public void setToolName(String toolName) {
-        this.toolName = toolName;
+    /**
+     * 返回分配了事件 ID 的副本
+     */
+    public ReActStepEvent withId(long newId) {
+        return new ReActStepEvent(newId, kind, content, toolName, toolInput, toolOutput, timestamp);
     }
 
-    public String getToolInput() {
-        return toolInput;
+    // Getters
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    public long getId() {
+        return id;
     }
 
-    public void setToolInput(String toolInput) {
-        this.toolInput = toolInput;
+    @JsonIgnore
+    public EventKind getKind() {
+        return kind;
     }
 
-    public String getToolOutput() {
-        return toolOutput;
+    /**
+     * 事件类型的线上名称（JSON 的 type 字段、SSE 事件名）
+     */
+    public String getType() {
+        return kind.wireName();
     }
 
-    public void setToolOutput(String toolOutput) {
-        this.toolOutput = toolOutput;
+    public String getContent() {
+        return content;
     }
 
-    public Long getTimestamp() {
-        return timestamp;
+    public String getToolName() {
+        return toolName;
     }
 
-    public void setTimestamp(Long timestamp) {
-        this.timestamp = timestamp;
+    public String getToolInput() {
+        return toolInput;
+    }
+
+    public String getToolOutput() {
+        return toolOutput;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
     }
 }
@@ -0,0 +1,152 @@
+package com.example.reactmcp.model;
+
+/**
+ * 单个 SSE 连接的写入指标
+ */
+public class SseConnectionMetrics {
+
+    private long connectionId;
+    private String taskId;
+    private long connectedAt;
+    private int queued;
+    private int maxQueued;
+    private long dropped;
+    private long merged;
+    private long eventsSent;
+    private long framesSent;
+    private long heartbeatsSent;
+    private long lastSentEventId;
+    private long currentLagMs;
+    private long lastLagMs;
+    private long maxLagMs;
+
+    public long getConnectionId() {
+        return connectionId;
+    }
+
+    public void setConnectionId(long connectionId) {
+        this.connectionId = connectionId;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+
+    public long getConnectedAt() {
+        return connectedAt;
+    }
+
+    public void setConnectedAt(long connectedAt) {
+        this.connectedAt = connectedAt;
+    }
+
+    /**
+     * 当前缓冲区中待发送的事件数
+     */
+    public int getQueued() {
+        return queued;
+    }
+
+    public void setQueued(int queued) {
+        this.queued = queued;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public void setMaxQueued(int maxQueued) {
+        this.maxQueued = maxQueued;
+    }
+
+    /**
+     * 缓冲区满时丢弃的事件数
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    public void setDropped(long dropped) {
+        this.dropped = dropped;
+    }
+
+    /**
+     * 缓冲区满时合并的事件数
+     */
+    public long getMerged() {
+        return merged;
+    }
+
+    public void setMerged(long merged) {
+        this.merged = merged;
+    }
+
+    public long getEventsSent() {
+        return eventsSent;
+    }
+
+    public void setEventsSent(long eventsSent) {
+        this.eventsSent = eventsSent;
+    }
+
+    /**
+     * 实际写出的 SSE 帧数（合批后）
+     */
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    public void setFramesSent(long framesSent) {
+        this.framesSent = framesSent;
+    }
+
+    public long getHeartbeatsSent() {
+        return heartbeatsSent;
+    }
+
+    public void setHeartbeatsSent(long heartbeatsSent) {
+        this.heartbeatsSent = heartbeatsSent;
+    }
+
+    public long getLastSentEventId() {
+        return lastSentEventId;
+    }
+
+    public void setLastSentEventId(long lastSentEventId) {
+        this.lastSentEventId = lastSentEventId;
+    }
+
+    /**
+     * 缓冲区中最旧事件已等待的时长
+     */
+    public long getCurrentLagMs() {
+        return currentLagMs;
+    }
+
+    public void setCurrentLagMs(long currentLagMs) {
+        this.currentLagMs = currentLagMs;
+    }
+
+    /**
+     * 最近一帧从入队到写出的延迟
+     */
+    public long getLastLagMs() {
+        return lastLagMs;
+    }
+
+    public void setLastLagMs(long lastLagMs) {
+        this.lastLagMs = lastLagMs;
+    }
+
+    public long getMaxLagMs() {
+        return maxLagMs;
+    }
+
+    public void setMaxLagMs(long maxLagMs) {
+        this.maxLagMs = maxLagMs;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.reactmcp.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+
+/**
+ * 任务历史记录
+ * 列表接口只返回摘要，详情接口附带从历史日志读回的全部事件
+ */
+public class TaskHistoryEntry {
+
+    private String taskId;
+    private String task;
+    private String status;
+    private long submittedAt;
+    private Long finishedAt;
+    private int eventCount;
+    private String result;
+    private List<JsonNode> events;
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(String taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getTask() {
+        return task;
+    }
+
+    public void setTask(String task) {
+        this.task = task;
+    }
+
+    /**
+     * running / completed / failed / interrupted（服务重启时尚未结束）
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(long submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public Long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(Long finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    public void setEventCount(int eventCount) {
+        this.eventCount = eventCount;
+    }
+
+    /**
+     * 最终答案或错误信息（摘要中截断）
+     */
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    public List<JsonNode> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<JsonNode> events) {
+        this.events = events;
+    }
+}
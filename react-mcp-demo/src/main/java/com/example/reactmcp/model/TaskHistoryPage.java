@@ -0,0 +1,40 @@
+package com.example.reactmcp.model;
+
+import java.util.List;
+
+/**
+ * 任务历史分页结果（按提交时间倒序）
+ */
+public class TaskHistoryPage {
+
+    private long total;
+    private int offset;
+    private int limit;
+    private List<TaskHistoryEntry> items;
+
+    public TaskHistoryPage(long total, int offset, int limit, List<TaskHistoryEntry> items) {
+        this.total = total;
+        this.offset = offset;
+        this.limit = limit;
+        this.items = items;
+    }
+
+    /**
+     * 满足时间范围条件的任务总数
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public List<TaskHistoryEntry> getItems() {
+        return items;
+    }
+}
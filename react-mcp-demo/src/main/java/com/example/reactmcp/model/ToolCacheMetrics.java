@@ -0,0 +1,121 @@
+package com.example.reactmcp.model;
+
+import java.util.Map;
+
+/**
+ * 工具结果缓存指标
+ */
+public class ToolCacheMetrics {
+
+    private int entries;
+    private long chars;
+    private long maxChars;
+    private long hits;
+    private long misses;
+    private long bypassed;
+    private long expirations;
+    private long evictions;
+    private long invalidations;
+    private Map<String, Long> hitsByTool;
+    private Map<String, Long> missesByTool;
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public void setEntries(int entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * 当前缓存的字符总数（键 + 结果）
+     */
+    public long getChars() {
+        return chars;
+    }
+
+    public void setChars(long chars) {
+        this.chars = chars;
+    }
+
+    public long getMaxChars() {
+        return maxChars;
+    }
+
+    public void setMaxChars(long maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    /**
+     * 配置了有效期但拿不到有效性标记（如页面未打开、文件不存在）而直接执行的调用数
+     */
+    public long getBypassed() {
+        return bypassed;
+    }
+
+    public void setBypassed(long bypassed) {
+        this.bypassed = bypassed;
+    }
+
+    public long getExpirations() {
+        return expirations;
+    }
+
+    public void setExpirations(long expirations) {
+        this.expirations = expirations;
+    }
+
+    /**
+     * 因条数或字符总数超限被淘汰的结果数
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    /**
+     * 同一作用域内的其他工具（click、writeFile 等）执行后使缓存失效的次数
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public void setInvalidations(long invalidations) {
+        this.invalidations = invalidations;
+    }
+
+    public Map<String, Long> getHitsByTool() {
+        return hitsByTool;
+    }
+
+    public void setHitsByTool(Map<String, Long> hitsByTool) {
+        this.hitsByTool = hitsByTool;
+    }
+
+    public Map<String, Long> getMissesByTool() {
+        return missesByTool;
+    }
+
+    public void setMissesByTool(Map<String, Long> missesByTool) {
+        this.missesByTool = missesByTool;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.reactmcp.model;
+
+/**
+ * 单个 WebSocket 连接的写入指标
+ */
+public class WsConnectionMetrics {
+
+    private String connectionId;
+    private long connectedAt;
+    private int subscriptions;
+    private long credits;
+    private int queued;
+    private int maxQueued;
+    private long dropped;
+    private long merged;
+    private long eventsSent;
+    private long textFrames;
+    private long binaryFrames;
+    private long bytesSent;
+    private long controlMessages;
+    private long maxLagMs;
+
+    public String getConnectionId() {
+        return connectionId;
+    }
+
+    public void setConnectionId(String connectionId) {
+        this.connectionId = connectionId;
+    }
+
+    public long getConnectedAt() {
+        return connectedAt;
+    }
+
+    public void setConnectedAt(long connectedAt) {
+        this.connectedAt = connectedAt;
+    }
+
+    /**
+     * 当前订阅的任务数
+     */
+    public int getSubscriptions() {
+        return subscriptions;
+    }
+
+    public void setSubscriptions(int subscriptions) {
+        this.subscriptions = subscriptions;
+    }
+
+    /**
+     * 客户端剩余的发送额度（事件数），为 0 时事件在服务端缓冲
+     */
+    public long getCredits() {
+        return credits;
+    }
+
+    public void setCredits(long credits) {
+        this.credits = credits;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public void setQueued(int queued) {
+        this.queued = queued;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public void setMaxQueued(int maxQueued) {
+        this.maxQueued = maxQueued;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public void setDropped(long dropped) {
+        this.dropped = dropped;
+    }
+
+    public long getMerged() {
+        return merged;
+    }
+
+    public void setMerged(long merged) {
+        this.merged = merged;
+    }
+
+    public long getEventsSent() {
+        return eventsSent;
+    }
+
+    public void setEventsSent(long eventsSent) {
+        this.eventsSent = eventsSent;
+    }
+
+    public long getTextFrames() {
+        return textFrames;
+    }
+
+    public void setTextFrames(long textFrames) {
+        this.textFrames = textFrames;
+    }
+
+    /**
+     * 大段观察结果使用的二进制帧数
+     */
+    public long getBinaryFrames() {
+        return binaryFrames;
+    }
+
+    public void setBinaryFrames(long binaryFrames) {
+        this.binaryFrames = binaryFrames;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public void setBytesSent(long bytesSent) {
+        this.bytesSent = bytesSent;
+    }
+
+    /**
+     * 收到的客户端控制消息数（提交、订阅、取消、暂停、回答、额度）
+     */
+    public long getControlMessages() {
+        return controlMessages;
+    }
+
+    public void setControlMessages(long controlMessages) {
+        this.controlMessages = controlMessages;
+    }
+
+    public long getMaxLagMs() {
+        return maxLagMs;
+    }
+
+    public void setMaxLagMs(long maxLagMs) {
+        this.maxLagMs = maxLagMs;
+    }
+}
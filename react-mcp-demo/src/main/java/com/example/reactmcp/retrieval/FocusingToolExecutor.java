@@ -0,0 +1,26 @@
+package com.example.reactmcp.retrieval;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.service.tool.ToolExecutor;
+
+/**
+ * 按当前任务聚焦结果的工具执行器
+ * 包在结果缓存外层：缓存保存工具的原始内容，每次调用（包括命中缓存）都按当时的查询重新选段
+ */
+class FocusingToolExecutor implements ToolExecutor {
+
+    private final TaskFocus taskFocus;
+    private final ToolExecutor delegate;
+    private final String toolName;
+
+    FocusingToolExecutor(TaskFocus taskFocus, ToolExecutor delegate, String toolName) {
+        this.taskFocus = taskFocus;
+        this.delegate = delegate;
+        this.toolName = toolName;
+    }
+
+    @Override
+    public String execute(ToolExecutionRequest request, Object memoryId) {
+        return taskFocus.focus(toolName, delegate.execute(request, memoryId));
+    }
+}
@@ -0,0 +1,343 @@
+package com.example.reactmcp.retrieval;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * 段落检索（BM25）
+ * 文本按空行和换行切成约 passageChars 字符的段落，用查询词对各段打分，按分数选段直到用完字符预算，再按原文顺序输出
+ * 每次调用在内存中建索引，只统计查询词：词项用 64 位哈希表示，不为正文创建字符串；
+ * 段落边界、段长、词频都放在基本类型数组中，1 MB 文本只扫描一遍
+ * 分词：拉丁字母和数字按连续串切分并转小写，中日韩文字取相邻两字（单字成串时取单字）
+ */
+public final class PassageRanker {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // 查询中忽略的英文虚词
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "the", "of", "to", "in", "on", "for", "and", "or", "is", "are", "be", "with", "by",
+            "at", "as", "it", "this", "that", "from", "i", "we", "you", "me", "my", "please");
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private PassageRanker() {
+    }
+
+    /**
+     * 选出与查询最相关的段落，总字符数不超过 budgetChars
+     * 没有任何段落命中查询词时按原文顺序取开头的段落
+     */
+    public static Result rank(CharSequence text, String query, int budgetChars, int passageChars) {
+        long start = System.nanoTime();
+
+        // 1. 查询词去重，放入开放寻址哈希表（哈希 -> 查询词序号）
+        long[] terms = queryTerms(query);
+        int termCount = terms.length;
+        int mask = Integer.highestOneBit(Math.max(termCount, 1) * 4 - 1) * 2 - 1;
+        long[] slots = new long[mask + 1];
+        int[] slotTerm = new int[mask + 1];
+        Arrays.fill(slotTerm, -1);
+        for (int t = 0; t < termCount; t++) {
+            int slot = (int) (mix(terms[t]) & mask);
+            while (slotTerm[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = terms[t];
+            slotTerm[slot] = t;
+        }
+
+        // 2. 切分段落
+        int[] bounds = split(text, passageChars);
+        int passages = bounds.length / 2;
+
+        // 3. 一遍扫描：段长（词数）和查询词在各段的词频（tf[词 * 段数 + 段]）
+        int[] length = new int[passages];
+        int[] tf = new int[Math.max(termCount, 1) * passages];
+        long totalLength = 0;
+        int[] current = new int[1];
+        LongConsumer sink = hash -> {
+            int p = current[0];
+            length[p]++;
+            int slot = (int) (mix(hash) & mask);
+            while (slotTerm[slot] >= 0) {
+                if (slots[slot] == hash) {
+                    tf[slotTerm[slot] * passages + p]++;
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+        };
+        for (int p = 0; p < passages; p++) {
+            current[0] = p;
+            tokenize(text, bounds[2 * p], bounds[2 * p + 1], sink);
+            totalLength += length[p];
+        }
+
+        // 4. BM25 打分
+        double avgLength = passages == 0 ? 0 : Math.max(1.0, (double) totalLength / passages);
+        float[] scores = new float[passages];
+        boolean matched = false;
+        for (int t = 0; t < termCount; t++) {
+            int base = t * passages;
+            int df = 0;
+            for (int p = 0; p < passages; p++) {
+                if (tf[base + p] > 0) {
+                    df++;
+                }
+            }
+            if (df == 0) {
+                continue;
+            }
+            matched = true;
+            double idf = Math.log(1 + (passages - df + 0.5) / (df + 0.5));
+            for (int p = 0; p < passages; p++) {
+                int f = tf[base + p];
+                if (f > 0) {
+                    double norm = K1 * (1 - B + B * length[p] / avgLength);
+                    scores[p] += (float) (idf * f * (K1 + 1) / (f + norm));
+                }
+            }
+        }
+
+        // 5. 按分数从高到低选段（分数和段号打包成 long 排序，非负 float 的位模式与数值同序），预算内尽量多选
+        boolean[] chosen = new boolean[passages];
+        int selected = 0;
+        int used = 0;
+        if (matched) {
+            long[] order = new long[passages];
+            for (int p = 0; p < passages; p++) {
+                order[p] = ((long) Float.floatToIntBits(scores[p]) << 32) | (passages - 1 - p);
+            }
+            Arrays.sort(order);
+            for (int i = passages - 1; i >= 0; i--) {
+                int p = passages - 1 - (int) order[i];
+                if (scores[p] <= 0) {
+                    break;
+                }
+                int size = bounds[2 * p + 1] - bounds[2 * p];
+                if (used + size <= budgetChars) {
+                    chosen[p] = true;
+                    used += size;
+                    selected++;
+                }
+            }
+        }
+        if (selected == 0) {
+            for (int p = 0; p < passages; p++) {
+                int size = bounds[2 * p + 1] - bounds[2 * p];
+                if (used + size > budgetChars && selected > 0) {
+                    break;
+                }
+                chosen[p] = true;
+                used += Math.min(size, budgetChars);
+                selected++;
+            }
+        }
+
+        // 6. 按原文顺序输出，不相邻的段落之间标出省略
+        StringBuilder sb = new StringBuilder(used + selected * 16);
+        int previous = -1;
+        for (int p = 0; p < passages; p++) {
+            if (!chosen[p]) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(p == previous + 1 ? "\n" : "\n\n…\n\n");
+            }
+            int from = bounds[2 * p];
+            int to = Math.min(bounds[2 * p + 1], from + budgetChars);
+            sb.append(text, from, to);
+            previous = p;
+        }
+        return new Result(sb.toString(), passages, selected, matched, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * 切分段落，返回 [start0, end0, start1, end1, ...]
+     * 在换行处断开：已满 passageChars 时遇到换行即断，满 1/4 时遇到空行即断；
+     * 超过 2 倍仍没有换行时在最近的句末标点（找不到则直接）截断
+     */
+    static int[] split(CharSequence text, int passageChars) {
+        int n = text.length();
+        int[] bounds = new int[Math.max(8, n / Math.max(1, passageChars / 4) * 2 + 4)];
+        int count = 0;
+        int start = 0;
+        int i = 0;
+        while (i < n) {
+            char c = text.charAt(i);
+            int size = i - start;
+            int cut = -1;
+            if (c == '\n') {
+                boolean blank = i + 1 < n && text.charAt(i + 1) == '\n';
+                if (size >= passageChars || (blank && size >= passageChars / 4)) {
+                    cut = i;
+                }
+            } else if (size >= passageChars * 2) {
+                cut = i;
+                for (int j = i; j > i - passageChars / 2; j--) {
+                    char d = text.charAt(j - 1);
+                    if (d == '。' || d == '！' || d == '？' || d == '.' || d == '!' || d == '?' || d == '；' || d == ';') {
+                        cut = j;
+                        break;
+                    }
+                }
+            }
+            if (cut < 0) {
+                i++;
+                continue;
+            }
+            count = add(bounds, count, text, start, cut);
+            bounds = count + 2 > bounds.length ? Arrays.copyOf(bounds, bounds.length * 2) : bounds;
+            start = cut;
+            i = cut + 1;
+        }
+        count = add(bounds, count, text, start, n);
+        return Arrays.copyOf(bounds, count);
+    }
+
+    // 去掉首尾空白后记录一段，空段跳过
+    private static int add(int[] bounds, int count, CharSequence text, int from, int to) {
+        while (from < to && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        while (to > from && Character.isWhitespace(text.charAt(to - 1))) {
+            to--;
+        }
+        if (from < to) {
+            bounds[count++] = from;
+            bounds[count++] = to;
+        }
+        return count;
+    }
+
+    /**
+     * 查询分词，去掉英文虚词和重复项
+     */
+    static long[] queryTerms(String query) {
+        if (query == null || query.isBlank()) {
+            return new long[0];
+        }
+        long[] stop = new long[STOP_WORDS.size()];
+        int s = 0;
+        for (String word : STOP_WORDS) {
+            long[] one = new long[1];
+            tokenize(word, 0, word.length(), hash -> one[0] = hash);
+            stop[s++] = one[0];
+        }
+        long[] buffer = new long[16];
+        int[] count = new int[1];
+        long[][] holder = {buffer};
+        tokenize(query, 0, query.length(), hash -> {
+            for (long w : stop) {
+                if (w == hash) {
+                    return;
+                }
+            }
+            long[] terms = holder[0];
+            for (int i = 0; i < count[0]; i++) {
+                if (terms[i] == hash) {
+                    return;
+                }
+            }
+            if (count[0] == terms.length) {
+                holder[0] = terms = Arrays.copyOf(terms, terms.length * 2);
+            }
+            terms[count[0]++] = hash;
+        });
+        return Arrays.copyOf(holder[0], count[0]);
+    }
+
+    /**
+     * 对 text[from, to) 分词，每个词项的哈希交给 sink
+     */
+    static void tokenize(CharSequence text, int from, int to, LongConsumer sink) {
+        int i = from;
+        while (i < to) {
+            char c = text.charAt(i);
+            if (isCjk(c)) {
+                int runStart = i;
+                while (i < to && isCjk(text.charAt(i))) {
+                    i++;
+                }
+                if (i - runStart == 1) {
+                    sink.accept(hash(FNV_OFFSET, c));
+                } else {
+                    for (int j = runStart; j + 1 < i; j++) {
+                        sink.accept(hash(hash(FNV_OFFSET, text.charAt(j)), text.charAt(j + 1)));
+                    }
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                long h = FNV_OFFSET;
+                while (i < to) {
+                    char d = text.charAt(i);
+                    if (!Character.isLetterOrDigit(d) || isCjk(d)) {
+                        break;
+                    }
+                    h = hash(h, Character.toLowerCase(d));
+                    i++;
+                }
+                sink.accept(h);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private static boolean isCjk(char c) {
+        return c >= 0x2E80 && c <= 0x9FFF || c >= 0xAC00 && c <= 0xD7AF || c >= 0xF900 && c <= 0xFAFF;
+    }
+
+    private static long hash(long h, char c) {
+        return (h ^ c) * FNV_PRIME;
+    }
+
+    // 哈希表下标用的二次混合，避免 FNV 低位分布不均
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * 检索结果：选出的文本、段落总数、选中段数、是否有段落命中查询、耗时
+     */
+    public static class Result {
+        private final String text;
+        private final int passages;
+        private final int selected;
+        private final boolean matched;
+        private final long millis;
+
+        Result(String text, int passages, int selected, boolean matched, long millis) {
+            this.text = text;
+            this.passages = passages;
+            this.selected = selected;
+            this.matched = matched;
+            this.millis = millis;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public int getPassages() {
+            return passages;
+        }
+
+        public int getSelected() {
+            return selected;
+        }
+
+        public boolean isMatched() {
+            return matched;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.reactmcp.retrieval;
+
+import com.example.reactmcp.config.RetrievalProperties;
+import com.example.reactmcp.logging.CallLog;
+import com.example.reactmcp.service.TaskControl;
+import com.example.reactmcp.service.TaskControlRegistry;
+import dev.langchain4j.service.tool.ToolExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * 按当前任务聚焦工具结果
+ * 查询取当前线程所执行任务的内容和模型最近一次的思考；内容超过预算时用 PassageRanker 只保留相关段落
+ * 选段在工具执行器外层进行（见 executor），工具和结果缓存只处理原始内容，查询每一步都变化也不影响缓存命中
+ * 同步接口（/react/solve）等未注册控制状态的任务没有查询，结果原样返回
+ */
+@Component
+public class TaskFocus {
+
+    /**
+     * 按任务聚焦结果的工具
+     */
+    private static final Set<String> TOOLS = Set.of("getVisibleText", "readFile", "readWordDocument");
+
+    private static final String PAGE_TOOL = "getVisibleText";
+
+    private final RetrievalProperties properties;
+    private final TaskControlRegistry taskControls;
+
+    public TaskFocus(RetrievalProperties properties, TaskControlRegistry taskControls) {
+        this.properties = properties;
+        this.taskControls = taskControls;
+    }
+
+    /**
+     * 当前任务的查询，未启用或没有任务时返回 null
+     */
+    public String query() {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        TaskControl control = taskControls.current();
+        if (control == null || control.getTask() == null) {
+            return null;
+        }
+        String thought = control.getLastThought();
+        return thought == null ? control.getTask() : control.getTask() + "\n" + thought;
+    }
+
+    /**
+     * 为聚焦工具包一层选段执行器，其他工具原样返回
+     */
+    public ToolExecutor executor(String toolName, ToolExecutor delegate) {
+        return TOOLS.contains(toolName) ? new FocusingToolExecutor(this, delegate, toolName) : delegate;
+    }
+
+    /**
+     * 当前是否有查询；getVisibleText 的原始内容随之变化（见 pageSourceChars），结果缓存以此区分
+     */
+    public boolean isActive() {
+        return query() != null;
+    }
+
+    /**
+     * 内容超过该工具的预算且有查询时返回相关段落（附说明），否则原样返回；检索指标单独记一条调用日志
+     */
+    String focus(String toolName, String text) {
+        int budgetChars = PAGE_TOOL.equals(toolName) ? properties.getPageBudgetChars() : properties.getFileBudgetChars();
+        if (text == null || text.length() <= budgetChars) {
+            return text;
+        }
+        String query = query();
+        if (query == null) {
+            return text;
+        }
+        PassageRanker.Result ranked = PassageRanker.rank(text, query, budgetChars, properties.getPassageChars());
+        String note = ranked.isMatched()
+                ? String.format("[内容共 %d 字符，按与当前任务的相关度选取 %d/%d 段]",
+                        text.length(), ranked.getSelected(), ranked.getPassages())
+                : String.format("[内容共 %d 字符，没有与当前任务相关的段落，返回开头 %d 段]",
+                        text.length(), ranked.getSelected());
+        return CallLog.tool(toolName)
+                .attr("focus", true)
+                .attr("chars", text.length())
+                .attr("passages", ranked.getPassages())
+                .attr("selectedPassages", ranked.getSelected())
+                .attr("rankMs", ranked.getMillis())
+                .ok(note + "\n\n" + ranked.getText());
+    }
+
+    /**
+     * 有查询时 getVisibleText 先提取的正文上限（再由外层选段压缩到预算内），没有查询时返回 fallback
+     */
+    public int pageSourceChars(int fallback) {
+        return query() == null ? fallback : Math.max(fallback, properties.getPageSourceChars());
+    }
+}
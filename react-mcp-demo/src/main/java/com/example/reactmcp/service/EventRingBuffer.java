@@ -0,0 +1,92 @@
+package com.example.reactmcp.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁环形队列（多生产者 / 单消费者）
+ * 基于 Vyukov 的序号槽位算法：每个槽位带一个序号，生产者 CAS 抢占写入位置，
+ * 消费者按序号判断槽位是否已发布。offer 永不阻塞，队列满时返回 false
+ * poll 只允许一个线程同时调用（由 TaskEventSession 的 draining 标志保证）
+ */
+final class EventRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> buffer;
+    private final AtomicLongArray sequences;
+    private final AtomicLong producerIndex = new AtomicLong();
+    // 只有消费者写入，volatile 用于 size() 读取
+    private volatile long consumerIndex;
+
+    EventRingBuffer(int requestedCapacity) {
+        int cap = 1;
+        while (cap < Math.max(2, requestedCapacity)) {
+            cap <<= 1;
+        }
+        this.capacity = cap;
+        this.mask = cap - 1;
+        this.buffer = new AtomicReferenceArray<>(cap);
+        this.sequences = new AtomicLongArray(cap);
+        for (int i = 0; i < cap; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 入队，队列满时立即返回 false
+     */
+    boolean offer(E element) {
+        long pos = producerIndex.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (producerIndex.compareAndSet(pos, pos + 1)) {
+                    buffer.lazySet(index, element);
+                    // 发布槽位：消费者看到序号 pos + 1 后即可读取
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+                pos = producerIndex.get();
+            } else if (diff < 0) {
+                // 槽位还没被消费者释放，队列已满
+                return false;
+            } else {
+                // 其他生产者已经抢占了该位置
+                pos = producerIndex.get();
+            }
+        }
+    }
+
+    /**
+     * 出队，队列为空（或下一个槽位尚未发布完成）时返回 null
+     */
+    E poll() {
+        long pos = consumerIndex;
+        int index = (int) (pos & mask);
+        if (sequences.get(index) != pos + 1) {
+            return null;
+        }
+        E element = buffer.get(index);
+        buffer.lazySet(index, null);
+        // 释放槽位给下一轮生产者
+        sequences.set(index, pos + capacity);
+        consumerIndex = pos + 1;
+        return element;
+    }
+
+    int size() {
+        long size = producerIndex.get() - consumerIndex;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    boolean isEmpty() {
+        return size() == 0;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -1,47 +1,208 @@
 package com.example.reactmcp.service;
 
+import com.example.reactmcp.model.EventBusMetrics;
 import com.example.reactmcp.model.ReActStepEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * ReAct 事件发布器
- * 用于在 ReAct 执行过程中发布事件
+ * 按任务 ID 维护事件会话（TaskEventSession），事件不再依赖发布线程本身：
+ * - 执行任务的线程通过 wrap / bind 绑定任务 ID，之后在该线程上 publish 的事件进入对应会话
+ * - 切换线程时用 wrap(Runnable) 把当前任务 ID 带到新线程，或直接调用 publish(taskId, event)
+ * - 会话结束后保留 retentionSeconds，期间断线的客户端可以按 Last-Event-ID 重连续传
  */
 @Component
 public class ReActEventPublisher {
-    
-    private final ThreadLocal<List<Consumer<ReActStepEvent>>> listeners = ThreadLocal.withInitial(ArrayList::new);
-    
+
+    private final ConcurrentHashMap<String, TaskEventSession> sessions = new ConcurrentHashMap<>();
+    // 只保存任务 ID，监听器本身存放在会话中，与线程无关
+    private final ThreadLocal<String> currentTask = new ThreadLocal<>();
+    private final ScheduledExecutorService drainExecutor;
+    private final int sessionCapacity;
+    private final int replayCapacity;
+    private final long retentionSeconds;
+
+    // 已结束会话的累计指标
+    private final AtomicLong closedPublished = new AtomicLong();
+    private final AtomicLong closedDropped = new AtomicLong();
+    private final AtomicLong closedDelivered = new AtomicLong();
+    private final AtomicLong unbound = new AtomicLong();
+
+    public ReActEventPublisher(
+            @Value("${app.events.session-capacity:1024}") int sessionCapacity,
+            @Value("${app.events.drain-threads:2}") int drainThreads,
+            @Value("${app.events.replay-size:512}") int replayCapacity,
+            @Value("${app.events.retention-seconds:300}") long retentionSeconds) {
+        this.sessionCapacity = sessionCapacity;
+        this.replayCapacity = replayCapacity;
+        this.retentionSeconds = retentionSeconds;
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 同一个线程池负责事件投递和过期会话清理
+        this.drainExecutor = Executors.newScheduledThreadPool(Math.max(1, drainThreads), r -> {
+            Thread thread = new Thread(r, "react-events-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 为任务创建事件会话（已存在则直接返回）
+     */
+    public TaskEventSession openSession(String taskId) {
+        return sessions.computeIfAbsent(taskId,
+                id -> new TaskEventSession(id, sessionCapacity, replayCapacity, drainExecutor, this::onSessionClosed));
+    }
+
     /**
-     * 注册事件监听器
+     * 创建新的任务会话，任务 ID 已存在时返回 null（用于判断是否为重复提交）
      */
-    public void registerListener(Consumer<ReActStepEvent> listener) {
-        listeners.get().add(listener);
+    public TaskEventSession createSession(String taskId) {
+        TaskEventSession created = new TaskEventSession(taskId, sessionCapacity, replayCapacity,
+                drainExecutor, this::onSessionClosed);
+        return sessions.putIfAbsent(taskId, created) == null ? created : null;
+    }
+
+    public TaskEventSession getSession(String taskId) {
+        return sessions.get(taskId);
     }
-    
+
     /**
-     * 发布事件
+     * 当前线程绑定的任务 ID，未绑定时返回 null
+     */
+    public String currentTaskId() {
+        return currentTask.get();
+    }
+
+    /**
+     * 在当前线程上绑定任务 ID，返回的句柄关闭时恢复之前的绑定
+     */
+    public Binding bind(String taskId) {
+        String previous = currentTask.get();
+        currentTask.set(taskId);
+        return () -> {
+            if (previous == null) {
+                currentTask.remove();
+            } else {
+                currentTask.set(previous);
+            }
+        };
+    }
+
+    /**
+     * 包装任务，使其在任意线程上执行时都绑定到指定任务 ID
+     */
+    public Runnable wrap(String taskId, Runnable task) {
+        return () -> {
+            try (Binding ignored = bind(taskId)) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * 包装任务，把当前线程绑定的任务 ID 传递到执行线程
+     */
+    public Runnable wrap(Runnable task) {
+        String taskId = currentTask.get();
+        return taskId == null ? task : wrap(taskId, task);
+    }
+
+    /**
+     * 发布事件到当前线程绑定的任务会话
      */
     public void publish(ReActStepEvent event) {
-        List<Consumer<ReActStepEvent>> currentListeners = listeners.get();
-        for (Consumer<ReActStepEvent> listener : currentListeners) {
-            try {
-                listener.accept(event);
-            } catch (Exception e) {
-                // 忽略监听器异常，避免影响主流程
+        String taskId = currentTask.get();
+        if (taskId == null) {
+            unbound.incrementAndGet();
+            return;
+        }
+        publish(taskId, event);
+    }
+
+    /**
+     * 发布事件到指定任务会话（非阻塞）
+     */
+    public void publish(String taskId, ReActStepEvent event) {
+        TaskEventSession session = sessions.get(taskId);
+        if (session == null) {
+            unbound.incrementAndGet();
+            return;
+        }
+        session.publish(event);
+    }
+
+    /**
+     * 结束任务会话，结束事件会在已有事件之后投递
+     */
+    public void complete(String taskId, ReActStepEvent finalEvent) {
+        TaskEventSession session = sessions.get(taskId);
+        if (session != null) {
+            session.complete(finalEvent);
+        }
+    }
+
+    public EventBusMetrics getMetrics() {
+        EventBusMetrics metrics = new EventBusMetrics();
+        long published = closedPublished.get();
+        long dropped = closedDropped.get();
+        long delivered = closedDelivered.get();
+        long queued = 0;
+        int active = 0;
+        for (TaskEventSession session : sessions.values()) {
+            if (!session.isClosed()) {
+                active++;
             }
+            published += session.getPublished();
+            dropped += session.getDropped();
+            delivered += session.getDelivered();
+            queued += session.getQueued();
+            metrics.getSessions().add(new EventBusMetrics.SessionMetrics(session.getTaskId(),
+                    session.getPublished(), session.getDropped(), session.getDelivered(), session.getQueued(),
+                    session.getLastEventId(), session.isClosed()));
         }
+        metrics.setActiveSessions(active);
+        metrics.setPublished(published);
+        metrics.setDropped(dropped);
+        metrics.setDelivered(delivered);
+        metrics.setQueued(queued);
+        metrics.setUnbound(unbound.get());
+        return metrics;
+    }
+
+    /**
+     * 会话结束后延迟移除，保留重放缓冲区供断线重连使用
+     */
+    private void onSessionClosed(TaskEventSession session) {
+        drainExecutor.schedule(() -> removeSession(session), retentionSeconds, TimeUnit.SECONDS);
     }
-    
+
+    private void removeSession(TaskEventSession session) {
+        if (sessions.remove(session.getTaskId(), session)) {
+            closedPublished.addAndGet(session.getPublished());
+            closedDropped.addAndGet(session.getDropped());
+            closedDelivered.addAndGet(session.getDelivered());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drainExecutor.shutdown();
+    }
+
     /**
-     * 清理当前线程的监听器
+     * 任务 ID 绑定句柄，配合 try-with-resources 使用
      */
-    public void clear() {
-        listeners.get().clear();
-        listeners.remove();
+    public interface Binding extends AutoCloseable {
+        @Override
+        void close();
     }
 }
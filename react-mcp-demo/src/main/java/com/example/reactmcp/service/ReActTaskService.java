@@ -0,0 +1,269 @@
+package com.example.reactmcp.service;
+
+import com.example.reactmcp.agent.McpAssistant;
+import com.example.reactmcp.browser.BrowserPool;
+import com.example.reactmcp.checkpoint.CheckpointChatMemoryStore;
+import com.example.reactmcp.cluster.ClusterCoordinator;
+import com.example.reactmcp.checkpoint.TaskCheckpoint;
+import com.example.reactmcp.checkpoint.TaskCheckpointStore;
+import com.example.reactmcp.history.TaskHistoryStore;
+import com.example.reactmcp.model.ReActStepEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * ReAct 任务执行服务
+ * SSE 和 WebSocket 两种传输方式共用：创建事件会话和控制状态，在专用线程池上执行任务
+ * 任务线程可能因暂停或等待用户回答而长时间阻塞，因此不使用公共 ForkJoinPool
+ * 服务关闭时未结束的任务保留检查点，下次启动后从检查点继续执行
+ * 集群模式下提交的任务进入共享队列，由 ClusterCoordinator 调度到有空闲容量的节点上执行
+ */
+@Component
+public class ReActTaskService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReActTaskService.class);
+    private static final Pattern TASK_ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final String RESUME_PROMPT = "服务重启导致任务中断。请根据之前的对话和工具结果，从中断处继续完成原任务，"
+            + "不要重复已经成功的步骤。原任务：";
+
+    private final McpAssistant assistant;
+    private final ReActEventPublisher eventPublisher;
+    private final TaskControlRegistry controls;
+    private final TaskHistoryStore history;
+    private final TaskCheckpointStore checkpoints;
+    private final CheckpointChatMemoryStore chatMemoryStore;
+    private final ObjectProvider<ClusterCoordinator> cluster;
+    private final BrowserPool browserPool;
+    private final ExecutorService executor;
+    private volatile boolean shuttingDown;
+
+    public ReActTaskService(McpAssistant assistant,
+                            ReActEventPublisher eventPublisher,
+                            TaskControlRegistry controls,
+                            TaskHistoryStore history,
+                            TaskCheckpointStore checkpoints,
+                            CheckpointChatMemoryStore chatMemoryStore,
+                            ObjectProvider<ClusterCoordinator> cluster,
+                            BrowserPool browserPool,
+                            @Value("${app.tasks.max-concurrent:8}") int maxConcurrent) {
+        this.assistant = assistant;
+        this.eventPublisher = eventPublisher;
+        this.controls = controls;
+        this.history = history;
+        this.checkpoints = checkpoints;
+        this.chatMemoryStore = chatMemoryStore;
+        this.cluster = cluster;
+        this.browserPool = browserPool;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, maxConcurrent), r -> {
+            Thread thread = new Thread(r, "react-task-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 客户端生成的任务 ID 只允许字母、数字、下划线和连字符
+     */
+    public static boolean isValidTaskId(String taskId) {
+        return taskId != null && TASK_ID_PATTERN.matcher(taskId).matches();
+    }
+
+    /**
+     * 提交任务，任务 ID 已存在时返回 null（由调用方改为续传事件）
+     */
+    public TaskEventSession submit(String taskId, String task) {
+        ClusterCoordinator coordinator = cluster.getIfAvailable();
+        if (coordinator != null) {
+            return coordinator.submit(taskId, task);
+        }
+        TaskEventSession session = eventPublisher.createSession(taskId);
+        return session == null ? null : start(session, task, null);
+    }
+
+    /**
+     * 在本节点执行集群 worker 领取的任务，session 是已建立的事件会话
+     */
+    public void execute(TaskEventSession session, String task) {
+        start(session, task, null);
+    }
+
+    /**
+     * 查找任务的事件会话：本节点没有时，集群模式下转发执行该任务的节点的事件流
+     *
+     * @param localOnly 节点间转发的请求只查本地，避免在节点之间循环转发
+     */
+    public TaskEventSession findSession(String taskId, boolean localOnly) {
+        TaskEventSession session = eventPublisher.getSession(taskId);
+        if (session != null || localOnly) {
+            return session;
+        }
+        ClusterCoordinator coordinator = cluster.getIfAvailable();
+        return coordinator != null ? coordinator.attach(taskId) : null;
+    }
+
+    /**
+     * 启动完成后恢复上次运行时被中断的任务（沿用原任务 ID，客户端可以重新订阅）
+     * 检查点保存在本节点，任务在本节点继续执行；集群模式下先通过 ClusterCoordinator 占用容量并登记为本节点执行，
+     * 因此排在集群 worker 开始领取任务之前。容量不足的任务保留检查点，下次启动时再恢复
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void resumeInterruptedTasks() {
+        ClusterCoordinator coordinator = cluster.getIfAvailable();
+        for (TaskCheckpoint checkpoint : checkpoints.loadResumable()) {
+            if (coordinator != null && coordinator.isRunningElsewhere(checkpoint.getTaskId())) {
+                log.info("Task {} was taken over by another cluster node, discarding checkpoint", checkpoint.getTaskId());
+                checkpoints.discard(checkpoint.getTaskId());
+                continue;
+            }
+            TaskEventSession session = eventPublisher.createSession(checkpoint.getTaskId());
+            if (session == null) {
+                log.warn("Task {} is already running, skipping checkpoint", checkpoint.getTaskId());
+                continue;
+            }
+            if (coordinator != null && !coordinator.adopt(session, checkpoint.getTask())) {
+                log.warn("No free cluster capacity for task {}, checkpoint kept for the next start", checkpoint.getTaskId());
+                session.complete(ReActStepEvent.error("Task interrupted by shutdown, will resume after restart"));
+                continue;
+            }
+            chatMemoryStore.restore(checkpoint.getTaskId(), checkpoint.getMessages());
+            start(session, checkpoint.getTask(), checkpoint);
+        }
+    }
+
+    private TaskEventSession start(TaskEventSession session, String task, TaskCheckpoint resumeFrom) {
+        String taskId = session.getTaskId();
+        TaskControl control = controls.register(taskId);
+        control.setTask(task);
+        if (resumeFrom == null) {
+            checkpoints.begin(taskId, task);
+        } else {
+            checkpoints.resume(resumeFrom);
+        }
+
+        log.info("");
+        log.info("═══════════════════════════════════════════════════════════════");
+        log.info(resumeFrom == null ? "🚀 收到新的 ReAct 流式任务请求" : "♻️ 从检查点恢复 ReAct 任务");
+        log.info("═══════════════════════════════════════════════════════════════");
+        log.info("📋 任务内容: {}", task);
+        log.info("🆔 任务 ID: {}", taskId);
+        if (resumeFrom != null) {
+            log.info("🔢 已完成推理轮数: {}，恢复次数: {}", resumeFrom.getStepIndex(), resumeFrom.getResumeCount() + 1);
+        }
+        log.info("⏰ 开始时间: {}", java.time.LocalDateTime.now());
+        log.info("───────────────────────────────────────────────────────────────");
+
+        // 任务历史作为一个订阅者记录全部事件（在投递线程上入队，不阻塞任务线程）
+        history.taskSubmitted(taskId, task);
+        session.subscribe(0, event -> history.eventDelivered(taskId, event), () -> { });
+
+        // 第一个事件告知客户端任务 ID，断线后用于重连（集群转发会话在入队时已发布）
+        if (session.getPublished() == 0) {
+            session.publish(ReActStepEvent.taskStarted(taskId));
+        }
+        if (resumeFrom != null) {
+            session.publish(ReActStepEvent.thought("♻️ 服务重启后从检查点恢复任务（已完成 "
+                    + resumeFrom.getStepIndex() + " 轮推理）"));
+        }
+        executor.execute(eventPublisher.wrap(taskId, () -> run(session, control, task, resumeFrom)));
+        return session;
+    }
+
+    private void run(TaskEventSession session, TaskControl control, String task, TaskCheckpoint resumeFrom) {
+        String taskId = session.getTaskId();
+        control.attach(Thread.currentThread());
+        boolean keepCheckpoint = false;
+        try {
+            long startTime = System.currentTimeMillis();
+            control.checkpoint();
+
+            // 执行 ReAct 任务（恢复时先重新打开中断时的页面，再让模型接着之前的对话继续）
+            String result;
+            if (resumeFrom == null) {
+                result = assistant.solve(taskId, task);
+            } else {
+                checkpoints.restoreBrowser(resumeFrom);
+                result = assistant.solve(taskId, RESUME_PROMPT + task);
+            }
+
+            // 发送最终答案（在已发布的事件之后投递，并结束事件流）
+            session.complete(ReActStepEvent.finalAnswer(result));
+
+            long duration = System.currentTimeMillis() - startTime;
+            log.info("✅ ReAct 流式任务执行完成, 耗时: {}ms", duration);
+        } catch (Exception e) {
+            // 取消时模型调用或工具可能以各种异常结束，统一按取消处理
+            if (shuttingDown && !control.isCancelled()) {
+                // 服务关闭打断的任务保留检查点，下次启动时恢复
+                keepCheckpoint = true;
+                log.info("⏸️ 服务关闭，ReAct 任务 {} 已保存检查点", taskId);
+                session.complete(ReActStepEvent.error("Task interrupted by shutdown, will resume after restart"));
+            } else if (control.isCancelled()) {
+                log.info("⏹️ ReAct 任务 {} 已取消", session.getTaskId());
+                session.complete(ReActStepEvent.error("Task cancelled"));
+            } else {
+                log.error("执行 ReAct 任务失败", e);
+                session.complete(ReActStepEvent.error("Processing error: " + e.getMessage()));
+            }
+        } finally {
+            control.detach();
+            controls.remove(control);
+            // 归还任务租用的浏览器上下文
+            browserPool.release(taskId);
+            if (!keepCheckpoint) {
+                checkpoints.finish(taskId);
+                chatMemoryStore.deleteMessages(taskId);
+            }
+            // 清除取消时设置的中断标志，避免影响线程池中的下一个任务
+            Thread.interrupted();
+        }
+    }
+
+    public boolean cancel(String taskId) {
+        TaskControl control = controls.get(taskId);
+        return control != null ? control.cancel() : forward(taskId, "cancel", null);
+    }
+
+    public boolean pause(String taskId) {
+        TaskControl control = controls.get(taskId);
+        return control != null ? control.pause() : forward(taskId, "pause", null);
+    }
+
+    public boolean resume(String taskId) {
+        TaskControl control = controls.get(taskId);
+        return control != null ? control.resume() : forward(taskId, "resume", null);
+    }
+
+    public boolean answer(String taskId, String content) {
+        TaskControl control = controls.get(taskId);
+        return control != null ? control.answer(content) : forward(taskId, "answer", content);
+    }
+
+    /**
+     * 任务不在本节点执行时，集群模式下转发给执行任务的节点
+     */
+    private boolean forward(String taskId, String action, String content) {
+        ClusterCoordinator coordinator = cluster.getIfAvailable();
+        return coordinator != null && coordinator.control(taskId, action, content);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        executor.shutdownNow();
+    }
+}
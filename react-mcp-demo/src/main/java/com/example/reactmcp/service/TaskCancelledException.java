@@ -0,0 +1,11 @@
+package com.example.reactmcp.service;
+
+/**
+ * 任务已被客户端取消，在下一个检查点中断 ReAct 循环
+ */
+public class TaskCancelledException extends RuntimeException {
+
+    public TaskCancelledException(String taskId) {
+        super("Task cancelled: " + taskId);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.reactmcp.service;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个运行中任务的控制状态：取消、暂停 / 继续、回答澄清问题
+ * - 控制消息可能来自任意线程（WebSocket 连接、HTTP 请求），只修改状态并唤醒执行线程
+ * - 执行线程在每次调用大模型前经过 checkpoint：已取消则抛出 TaskCancelledException，已暂停则阻塞等待
+ * - 取消时中断执行线程，让正在等待的模型调用、重试退避或用户回答尽快返回
+ */
+public class TaskControl {
+
+    private final String taskId;
+    private final BlockingQueue<String> answers = new LinkedBlockingQueue<>();
+    private final Object pauseLock = new Object();
+
+    private volatile boolean cancelled;
+    private volatile boolean paused;
+    private volatile boolean awaitingAnswer;
+    private volatile Thread runner;
+
+    // 任务内容和模型最近一次输出的思考，作为段落检索的查询
+    private volatile String task;
+    private volatile String lastThought;
+
+    TaskControl(String taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public boolean isAwaitingAnswer() {
+        return awaitingAnswer;
+    }
+
+    public String getTask() {
+        return task;
+    }
+
+    void setTask(String task) {
+        this.task = task;
+    }
+
+    public String getLastThought() {
+        return lastThought;
+    }
+
+    public void setLastThought(String lastThought) {
+        this.lastThought = lastThought;
+    }
+
+    /**
+     * 取消任务，返回 false 表示之前已取消
+     */
+    public boolean cancel() {
+        if (cancelled) {
+            return false;
+        }
+        cancelled = true;
+        synchronized (pauseLock) {
+            pauseLock.notifyAll();
+        }
+        Thread thread = runner;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        return true;
+    }
+
+    /**
+     * 暂停任务：当前这一步执行完后，在下一次调用大模型前停住
+     */
+    public boolean pause() {
+        if (cancelled || paused) {
+            return false;
+        }
+        paused = true;
+        return true;
+    }
+
+    public boolean resume() {
+        synchronized (pauseLock) {
+            if (!paused) {
+                return false;
+            }
+            paused = false;
+            pauseLock.notifyAll();
+        }
+        return true;
+    }
+
+    /**
+     * 提交用户对澄清问题的回答；任务没有在等待回答时也会保留，由下一次 askUser 取走
+     */
+    public boolean answer(String content) {
+        if (cancelled) {
+            return false;
+        }
+        return answers.offer(content);
+    }
+
+    /**
+     * 执行线程的检查点：已取消则抛出异常，暂停中则阻塞直到继续或取消
+     */
+    public void checkpoint() {
+        if (cancelled) {
+            throw new TaskCancelledException(taskId);
+        }
+        if (!paused) {
+            return;
+        }
+        synchronized (pauseLock) {
+            while (paused && !cancelled) {
+                try {
+                    pauseLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TaskCancelledException(taskId);
+                }
+            }
+        }
+        if (cancelled) {
+            throw new TaskCancelledException(taskId);
+        }
+    }
+
+    /**
+     * 等待用户回答，超时返回 null
+     */
+    public String awaitAnswer(long timeoutMillis) throws InterruptedException {
+        checkpoint();
+        awaitingAnswer = true;
+        try {
+            return answers.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            awaitingAnswer = false;
+        }
+    }
+
+    void attach(Thread thread) {
+        runner = thread;
+        if (cancelled) {
+            thread.interrupt();
+        }
+    }
+
+    void detach() {
+        runner = null;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.reactmcp.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 运行中任务的控制状态注册表
+ * 与事件会话一样按任务 ID 查找；执行线程通过 ReActEventPublisher 绑定的任务 ID 找到自己的控制状态
+ */
+@Component
+public class TaskControlRegistry {
+
+    private final ConcurrentHashMap<String, TaskControl> controls = new ConcurrentHashMap<>();
+    private final ReActEventPublisher eventPublisher;
+
+    public TaskControlRegistry(ReActEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    TaskControl register(String taskId) {
+        return controls.computeIfAbsent(taskId, TaskControl::new);
+    }
+
+    void remove(TaskControl control) {
+        controls.remove(control.getTaskId(), control);
+    }
+
+    public TaskControl get(String taskId) {
+        return controls.get(taskId);
+    }
+
+    /**
+     * 当前线程所执行任务的控制状态，同步接口（/react/solve）等未注册的任务返回 null
+     */
+    public TaskControl current() {
+        String taskId = eventPublisher.currentTaskId();
+        return taskId == null ? null : controls.get(taskId);
+    }
+
+    /**
+     * 当前任务的检查点，未注册控制状态时直接返回
+     */
+    public void checkpoint() {
+        TaskControl control = current();
+        if (control != null) {
+            control.checkpoint();
+        }
+    }
+
+    public int getActiveCount() {
+        return controls.size();
+    }
+}
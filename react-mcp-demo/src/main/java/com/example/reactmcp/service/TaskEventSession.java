@@ -0,0 +1,261 @@
+package com.example.reactmcp.service;
+
+import com.example.reactmcp.model.ReActStepEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 单个任务的事件会话
+ * - 任意线程都可以发布事件：只做一次无锁入队，不会被订阅方（SSE 连接）阻塞
+ * - 事件由共享的投递线程池按顺序派发给订阅者，同一会话同一时刻只有一个线程在投递
+ * - 队列满时丢弃新事件并计数；结束事件（final_answer / error）单独保存，不会被丢弃
+ * - 投递时为事件分配单调递增的 ID，并保留最近的事件用于断线重连后的重放
+ */
+public class TaskEventSession {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskEventSession.class);
+
+    // 单次投递最多处理的事件数，避免一个繁忙会话长期占用投递线程
+    private static final int DRAIN_BATCH = 256;
+
+    private final String taskId;
+    private final EventRingBuffer<ReActStepEvent> ring;
+    private final Executor drainExecutor;
+    private final Consumer<TaskEventSession> onClosed;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final long createdAt = System.currentTimeMillis();
+
+    // 重放缓冲区，同时保护 lastEventId 的分配
+    private final ArrayDeque<ReActStepEvent> replay;
+    private final int replayCapacity;
+    private long lastEventId;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+
+    private volatile ReActStepEvent terminalEvent;
+    private volatile boolean closed;
+
+    TaskEventSession(String taskId, int capacity, int replayCapacity,
+                     Executor drainExecutor, Consumer<TaskEventSession> onClosed) {
+        this.taskId = taskId;
+        this.ring = new EventRingBuffer<>(capacity);
+        this.replayCapacity = Math.max(1, replayCapacity);
+        this.replay = new ArrayDeque<>(Math.min(this.replayCapacity, 64));
+        this.drainExecutor = drainExecutor;
+        this.onClosed = onClosed;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    /**
+     * 发布事件（非阻塞）
+     *
+     * @return 事件是否入队成功，会话已结束或队列已满时返回 false
+     */
+    public boolean publish(ReActStepEvent event) {
+        if (terminalEvent != null) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        if (!ring.offer(event)) {
+            if (dropped.incrementAndGet() % 100 == 1) {
+                log.warn("Event queue full for task {}, dropped {} events so far", taskId, dropped.get());
+            }
+            return false;
+        }
+        published.incrementAndGet();
+        scheduleDrain();
+        return true;
+    }
+
+    /**
+     * 结束会话：投递完队列中已有的事件后，再投递结束事件并通知订阅者
+     */
+    public void complete(ReActStepEvent finalEvent) {
+        if (terminalEvent != null) {
+            return;
+        }
+        terminalEvent = finalEvent;
+        published.incrementAndGet();
+        scheduleDrain();
+    }
+
+    /**
+     * 订阅新事件，返回取消订阅的句柄
+     *
+     * @param onEvent    每个事件在投递线程上回调
+     * @param onComplete 结束事件投递后回调
+     */
+    public Runnable subscribe(Consumer<ReActStepEvent> onEvent, Runnable onComplete) {
+        return subscribe(Long.MAX_VALUE, onEvent, onComplete);
+    }
+
+    /**
+     * 订阅事件，先重放 ID 大于 afterEventId 的已投递事件，再接收新事件
+     * afterEventId 为 0 表示从头重放，Long.MAX_VALUE 表示不重放
+     * 重放与实时投递之间按事件 ID 去重，保证不漏不重
+     */
+    public Runnable subscribe(long afterEventId, Consumer<ReActStepEvent> onEvent, Runnable onComplete) {
+        Subscriber subscriber = new Subscriber(onEvent, onComplete);
+        synchronized (subscriber) {
+            List<ReActStepEvent> missed = new ArrayList<>();
+            synchronized (replay) {
+                if (afterEventId == Long.MAX_VALUE) {
+                    subscriber.lastEventId = lastEventId;
+                } else {
+                    subscriber.lastEventId = afterEventId;
+                    for (ReActStepEvent event : replay) {
+                        if (event.getId() > afterEventId) {
+                            missed.add(event);
+                        }
+                    }
+                    if (!replay.isEmpty() && replay.peekFirst().getId() > afterEventId + 1) {
+                        log.debug("Replay buffer for task {} no longer holds events after {}", taskId, afterEventId);
+                    }
+                }
+                subscribers.add(subscriber);
+            }
+            // 持有订阅者锁重放，投递线程的并发投递会等待重放完成后再按 ID 去重
+            for (ReActStepEvent event : missed) {
+                subscriber.deliver(event);
+            }
+        }
+        if (closed) {
+            subscriber.complete();
+            subscribers.remove(subscriber);
+        }
+        return () -> subscribers.remove(subscriber);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getPublished() {
+        return published.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getDelivered() {
+        return delivered.get();
+    }
+
+    public int getQueued() {
+        return ring.size();
+    }
+
+    public long getLastEventId() {
+        synchronized (replay) {
+            return lastEventId;
+        }
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            drainExecutor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            ReActStepEvent event;
+            int count = 0;
+            while (count < DRAIN_BATCH && (event = ring.poll()) != null) {
+                deliver(event);
+                count++;
+            }
+            if (count < DRAIN_BATCH && ring.isEmpty() && terminalEvent != null && !closed) {
+                deliver(terminalEvent);
+                close();
+            }
+        } finally {
+            draining.set(false);
+        }
+        // 释放标志后重新检查，避免与并发发布者之间丢失唤醒；会话关闭后残留的事件直接忽略
+        if (!closed && (!ring.isEmpty() || terminalEvent != null)) {
+            scheduleDrain();
+        }
+    }
+
+    private void deliver(ReActStepEvent queued) {
+        ReActStepEvent event;
+        synchronized (replay) {
+            event = queued.withId(++lastEventId);
+            replay.addLast(event);
+            if (replay.size() > replayCapacity) {
+                replay.removeFirst();
+            }
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.deliver(event);
+        }
+        delivered.incrementAndGet();
+    }
+
+    private void close() {
+        closed = true;
+        for (Subscriber subscriber : subscribers) {
+            subscriber.complete();
+        }
+        subscribers.clear();
+        onClosed.accept(this);
+    }
+
+    private final class Subscriber {
+        private final Consumer<ReActStepEvent> onEvent;
+        private final Runnable onComplete;
+        private long lastEventId;
+        private boolean completed;
+
+        Subscriber(Consumer<ReActStepEvent> onEvent, Runnable onComplete) {
+            this.onEvent = onEvent;
+            this.onComplete = onComplete;
+        }
+
+        synchronized void deliver(ReActStepEvent event) {
+            if (completed || event.getId() <= lastEventId) {
+                return;
+            }
+            lastEventId = event.getId();
+            try {
+                onEvent.accept(event);
+            } catch (Exception e) {
+                // 忽略订阅者异常，避免影响其他订阅者
+                log.debug("Event subscriber failed for task {}: {}", taskId, e.getMessage());
+            }
+        }
+
+        synchronized void complete() {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            try {
+                onComplete.run();
+            } catch (Exception e) {
+                // 忽略订阅者异常
+            }
+        }
+    }
+}
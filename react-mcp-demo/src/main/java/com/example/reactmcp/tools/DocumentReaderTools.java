@@ -1,12 +1,11 @@
 package com.example.reactmcp.tools;
 
+import com.example.reactmcp.logging.CallLog;
 import dev.langchain4j.agent.tool.Tool;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
 import org.apache.poi.xwpf.usermodel.XWPFParagraph;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.poi.ss.usermodel.*;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.FileInputStream;
@@ -24,7 +23,6 @@ import java.util.List;
 @Component
 public class DocumentReaderTools {
     
-    private static final Logger log = LoggerFactory.getLogger(DocumentReaderTools.class);
     private static final String DEFAULT_BASE_PATH = System.getProperty("user.home");
     
     /**
@@ -41,39 +39,25 @@ public class DocumentReaderTools {
         return requestedPath;
     }
 
-    @Tool("读取 Word 文档(.docx)的完整文本内容，包括所有段落。参数: filePath - Word文件路径(相对于用户目录)")
+    @Tool("读取 Word 文档(.docx)的文本内容；文档较长时只返回与当前任务最相关的段落。参数: filePath - Word文件路径(相对于用户目录)")
     public String readWordDocument(String filePath) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔧 工具调用: read_word_document                       │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • filePath: {}", filePath);
+        CallLog call = CallLog.tool("read_word_document", filePath);
         
         try {
             Path path = sanitizePath(filePath);
             
             if (!Files.exists(path)) {
-                String error = "File not found: " + filePath;
-                log.info("│ 📤 返回结果: 文件不存在");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("File not found: " + filePath);
             }
             
             if (!Files.isRegularFile(path)) {
-                String error = "Path is not a file: " + filePath;
-                log.info("│ 📤 返回结果: 路径不是文件");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("Path is not a file: " + filePath);
             }
             
             // 检查文件扩展名
             String fileName = path.getFileName().toString().toLowerCase();
             if (!fileName.endsWith(".docx")) {
-                String error = "Not a Word document (.docx): " + filePath;
-                log.info("│ 📤 返回结果: 不是 Word 文档");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("Not a Word document (.docx): " + filePath);
             }
             
             StringBuilder content = new StringBuilder();
@@ -82,6 +66,7 @@ public class DocumentReaderTools {
                  XWPFDocument document = new XWPFDocument(fis)) {
                 
                 List<XWPFParagraph> paragraphs = document.getParagraphs();
+                call.attr("paragraphs", paragraphs.size());
                 
                 content.append(String.format("Word 文档: %s\n", filePath));
                 content.append(String.format("总段落数: %d\n", paragraphs.size()));
@@ -98,63 +83,36 @@ public class DocumentReaderTools {
                 content.append("\n========== 内容结束 ==========");
             }
             
-            String result = content.toString();
-            log.info("│ 📤 返回结果: 成功读取 Word 文档，共 {} 段落", 
-                    result.split("\n").length - 4);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.ok(content.toString());
             
         } catch (SecurityException e) {
-            log.error("│ ❌ 安全错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "Security error: " + e.getMessage();
+            return call.error("Security error: " + e.getMessage());
         } catch (IOException e) {
-            log.error("│ ❌ IO错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "IO error reading Word document: " + e.getMessage();
+            return call.error("IO error reading Word document: " + e.getMessage(), e);
         } catch (Exception e) {
-            log.error("│ ❌ 解析错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "Error parsing Word document: " + e.getMessage();
+            return call.error("Error parsing Word document: " + e.getMessage(), e);
         }
     }
 
     @Tool("读取 Excel 表格(.xlsx)的内容，返回所有工作表的数据。参数: filePath - Excel文件路径(相对于用户目录), maxRows - 每个工作表最多读取的行数(默认100)")
     public String readExcelDocument(String filePath, int maxRows) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔧 工具调用: read_excel_document                      │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • filePath: {}", filePath);
-        log.info("│    • maxRows: {}", maxRows);
+        CallLog call = CallLog.tool("read_excel_document", filePath, maxRows);
         
         try {
             Path path = sanitizePath(filePath);
             
             if (!Files.exists(path)) {
-                String error = "File not found: " + filePath;
-                log.info("│ 📤 返回结果: 文件不存在");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("File not found: " + filePath);
             }
             
             if (!Files.isRegularFile(path)) {
-                String error = "Path is not a file: " + filePath;
-                log.info("│ 📤 返回结果: 路径不是文件");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("Path is not a file: " + filePath);
             }
             
             // 检查文件扩展名
             String fileName = path.getFileName().toString().toLowerCase();
             if (!fileName.endsWith(".xlsx")) {
-                String error = "Not an Excel document (.xlsx): " + filePath;
-                log.info("│ 📤 返回结果: 不是 Excel 文档");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("Not an Excel document (.xlsx): " + filePath);
             }
             
             // 设置默认值和限制
@@ -166,6 +124,7 @@ public class DocumentReaderTools {
                  XSSFWorkbook workbook = new XSSFWorkbook(fis)) {
                 
                 int numberOfSheets = workbook.getNumberOfSheets();
+                call.attr("sheets", numberOfSheets);
                 
                 content.append(String.format("Excel 文档: %s\n", filePath));
                 content.append(String.format("工作表数量: %d\n", numberOfSheets));
@@ -179,59 +138,56 @@ public class DocumentReaderTools {
                     content.append(String.format("工作表 %d: %s\n", sheetIndex + 1, sheetName));
                     content.append("========================================\n");
                     
-                    int rowCount = 0;
-                    int totalRows = sheet.getPhysicalNumberOfRows();
-                    
-                    for (Row row : sheet) {
-                        if (rowCount >= effectiveMaxRows) {
-                            content.append(String.format("... (省略剩余 %d 行)\n", totalRows - rowCount));
-                            break;
-                        }
-                        
-                        List<String> cellValues = new ArrayList<>();
-                        for (Cell cell : row) {
-                            cellValues.add(getCellValueAsString(cell));
-                        }
-                        
-                        // 只显示非空行
-                        if (!cellValues.stream().allMatch(String::isEmpty)) {
-                            content.append(String.format("行 %d: %s\n", 
-                                    row.getRowNum() + 1, 
-                                    String.join(" | ", cellValues)));
-                            rowCount++;
-                        }
-                    }
+                    int rowCount = appendRows(sheet, effectiveMaxRows, content);
                     
                     content.append(String.format("(共读取 %d 行)\n\n", rowCount));
                 }
             }
             
-            String result = content.toString();
-            log.info("│ 📤 返回结果: 成功读取 Excel 文档");
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.ok(content.toString());
             
         } catch (SecurityException e) {
-            log.error("│ ❌ 安全错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "Security error: " + e.getMessage();
+            return call.error("Security error: " + e.getMessage());
         } catch (IOException e) {
-            log.error("│ ❌ IO错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "IO error reading Excel document: " + e.getMessage();
+            return call.error("IO error reading Excel document: " + e.getMessage(), e);
         } catch (Exception e) {
-            log.error("│ ❌ 解析错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "Error parsing Excel document: " + e.getMessage();
+            return call.error("Error parsing Excel document: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 按行格式化工作表内容（跳过空行），最多 maxRows 行，返回实际输出的行数
+     */
+    static int appendRows(Sheet sheet, int maxRows, StringBuilder content) {
+        int rowCount = 0;
+        int totalRows = sheet.getPhysicalNumberOfRows();
+        
+        for (Row row : sheet) {
+            if (rowCount >= maxRows) {
+                content.append(String.format("... (省略剩余 %d 行)\n", totalRows - rowCount));
+                break;
+            }
+            
+            List<String> cellValues = new ArrayList<>();
+            for (Cell cell : row) {
+                cellValues.add(getCellValueAsString(cell));
+            }
+            
+            // 只显示非空行
+            if (!cellValues.stream().allMatch(String::isEmpty)) {
+                content.append(String.format("行 %d: %s\n", 
+                        row.getRowNum() + 1, 
+                        String.join(" | ", cellValues)));
+                rowCount++;
+            }
         }
+        return rowCount;
     }
     
     /**
      * 获取单元格的字符串值
      */
-    private String getCellValueAsString(Cell cell) {
+    static String getCellValueAsString(Cell cell) {
         if (cell == null) {
             return "";
         }
@@ -1,8 +1,7 @@
 package com.example.reactmcp.tools;
 
+import com.example.reactmcp.logging.CallLog;
 import dev.langchain4j.agent.tool.Tool;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
@@ -20,7 +19,6 @@ import java.util.stream.Stream;
 @Component
 public class FileSystemTools {
     
-    private static final Logger log = LoggerFactory.getLogger(FileSystemTools.class);
     private static final String DEFAULT_BASE_PATH = System.getProperty("user.home");
     
     /**
@@ -37,59 +35,34 @@ public class FileSystemTools {
         return requestedPath;
     }
 
-    @Tool("读取指定文件的完整内容，返回文本格式。参数: filePath - 文件路径(相对于用户目录)")
+    @Tool("读取指定文件的内容，返回文本格式；内容较长时只返回与当前任务最相关的段落。参数: filePath - 文件路径(相对于用户目录)")
     public String readFile(String filePath) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔧 工具调用: read_file                                │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • filePath: {}", filePath);
+        CallLog call = CallLog.tool("read_file", filePath);
         
         try {
             Path path = sanitizePath(filePath);
             
             if (!Files.exists(path)) {
-                String error = "File not found: " + filePath;
-                log.info("│ 📤 返回结果: 文件不存在");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("File not found: " + filePath);
             }
             
             if (!Files.isRegularFile(path)) {
-                String error = "Path is not a file: " + filePath;
-                log.info("│ 📤 返回结果: 路径不是文件");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("Path is not a file: " + filePath);
             }
             
-            String content = Files.readString(path);
-            log.info("│ 📤 返回结果: 成功读取文件，大小 {} 字节", content.length());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return content;
+            return call.ok(Files.readString(path));
             
         } catch (SecurityException e) {
-            log.error("│ ❌ 安全错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "Security error: " + e.getMessage();
+            return call.error("Security error: " + e.getMessage());
         } catch (IOException e) {
-            log.error("│ ❌ IO错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "IO error: " + e.getMessage();
+            return call.error("IO error: " + e.getMessage(), e);
         }
     }
 
     @Tool("写入内容到指定文件，如果文件不存在则创建，存在则覆盖。参数: filePath - 文件路径, content - 文件内容")
     public String writeFile(String filePath, String content) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔧 工具调用: write_file                               │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • filePath: {}", filePath);
-        log.info("│    • content length: {} 字节", content.length());
+        CallLog call = CallLog.tool("write_file", filePath, content)
+                .attr("contentChars", content.length());
         
         try {
             Path path = sanitizePath(filePath);
@@ -100,49 +73,28 @@ public class FileSystemTools {
             // 写入文件
             Files.writeString(path, content);
             
-            String result = "File written successfully: " + filePath;
-            log.info("│ 📤 返回结果: 文件写入成功");
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.ok("File written successfully: " + filePath);
             
         } catch (SecurityException e) {
-            log.error("│ ❌ 安全错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "Security error: " + e.getMessage();
+            return call.error("Security error: " + e.getMessage());
         } catch (IOException e) {
-            log.error("│ ❌ IO错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "IO error: " + e.getMessage();
+            return call.error("IO error: " + e.getMessage(), e);
         }
     }
 
     @Tool("列出指定目录下的所有文件和子目录。参数: directoryPath - 目录路径, recursive - 是否递归列出(默认false)")
     public String listFiles(String directoryPath, boolean recursive) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔧 工具调用: list_files                               │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • directoryPath: {}", directoryPath);
-        log.info("│    • recursive: {}", recursive);
+        CallLog call = CallLog.tool("list_files", directoryPath, recursive);
         
         try {
             Path path = sanitizePath(directoryPath);
             
             if (!Files.exists(path)) {
-                String error = "Directory not found: " + directoryPath;
-                log.info("│ 📤 返回结果: 目录不存在");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("Directory not found: " + directoryPath);
             }
             
             if (!Files.isDirectory(path)) {
-                String error = "Path is not a directory: " + directoryPath;
-                log.info("│ 📤 返回结果: 路径不是目录");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("Path is not a directory: " + directoryPath);
             }
             
             final List<String> entries = new ArrayList<>();
@@ -191,134 +143,77 @@ public class FileSystemTools {
                     String.join("\n", entries),
                     entries.size());
             
-            log.info("│ 📤 返回结果: 找到 {} 个条目", entries.size());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.attr("entries", entries.size()).ok(result);
             
         } catch (SecurityException e) {
-            log.error("│ ❌ 安全错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "Security error: " + e.getMessage();
+            return call.error("Security error: " + e.getMessage());
         } catch (IOException e) {
-            log.error("│ ❌ IO错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "IO error: " + e.getMessage();
+            return call.error("IO error: " + e.getMessage(), e);
         }
     }
 
     @Tool("创建新目录，支持创建父目录。参数: directoryPath - 目录路径")
     public String createDirectory(String directoryPath) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔧 工具调用: create_directory                         │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • directoryPath: {}", directoryPath);
+        CallLog call = CallLog.tool("create_directory", directoryPath);
         
         try {
             Path path = sanitizePath(directoryPath);
             
             if (Files.exists(path)) {
-                String error = "Directory already exists: " + directoryPath;
-                log.info("│ 📤 返回结果: 目录已存在");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("Directory already exists: " + directoryPath);
             }
             
             Files.createDirectories(path);
             
-            String result = "Directory created successfully: " + directoryPath;
-            log.info("│ 📤 返回结果: 目录创建成功");
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.ok("Directory created successfully: " + directoryPath);
             
         } catch (SecurityException e) {
-            log.error("│ ❌ 安全错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "Security error: " + e.getMessage();
+            return call.error("Security error: " + e.getMessage());
         } catch (IOException e) {
-            log.error("│ ❌ IO错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "IO error: " + e.getMessage();
+            return call.error("IO error: " + e.getMessage(), e);
         }
     }
 
     @Tool("删除指定文件。参数: filePath - 文件路径")
     public String deleteFile(String filePath) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔧 工具调用: delete_file                              │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • filePath: {}", filePath);
+        CallLog call = CallLog.tool("delete_file", filePath);
         
         try {
             Path path = sanitizePath(filePath);
             
             if (!Files.exists(path)) {
-                String error = "File not found: " + filePath;
-                log.info("│ 📤 返回结果: 文件不存在");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("File not found: " + filePath);
             }
             
             if (!Files.isRegularFile(path)) {
-                String error = "Path is not a file: " + filePath;
-                log.info("│ 📤 返回结果: 路径不是文件");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("Path is not a file: " + filePath);
             }
             
             Files.delete(path);
             
-            String result = "File deleted successfully: " + filePath;
-            log.info("│ 📤 返回结果: 文件删除成功");
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.ok("File deleted successfully: " + filePath);
             
         } catch (SecurityException e) {
-            log.error("│ ❌ 安全错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "Security error: " + e.getMessage();
+            return call.error("Security error: " + e.getMessage());
         } catch (IOException e) {
-            log.error("│ ❌ IO错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "IO error: " + e.getMessage();
+            return call.error("IO error: " + e.getMessage(), e);
         }
     }
 
     @Tool("复制文件从源路径到目标路径。参数: sourcePath - 源文件路径, targetPath - 目标文件路径")
     public String copyFile(String sourcePath, String targetPath) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔧 工具调用: copy_file                                │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • sourcePath: {}", sourcePath);
-        log.info("│    • targetPath: {}", targetPath);
+        CallLog call = CallLog.tool("copy_file", sourcePath, targetPath);
         
         try {
             Path source = sanitizePath(sourcePath);
             Path target = sanitizePath(targetPath);
             
             if (!Files.exists(source)) {
-                String error = "Source file not found: " + sourcePath;
-                log.info("│ 📤 返回结果: 源文件不存在");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("Source file not found: " + sourcePath);
             }
             
             if (!Files.isRegularFile(source)) {
-                String error = "Source is not a file: " + sourcePath;
-                log.info("│ 📤 返回结果: 源路径不是文件");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("Source is not a file: " + sourcePath);
             }
             
             // 确保目标目录存在
@@ -327,50 +222,29 @@ public class FileSystemTools {
             // 复制文件
             Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
             
-            String result = String.format("File copied successfully from %s to %s", sourcePath, targetPath);
-            log.info("│ 📤 返回结果: 文件复制成功");
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.ok(String.format("File copied successfully from %s to %s", sourcePath, targetPath));
             
         } catch (SecurityException e) {
-            log.error("│ ❌ 安全错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "Security error: " + e.getMessage();
+            return call.error("Security error: " + e.getMessage());
         } catch (IOException e) {
-            log.error("│ ❌ IO错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "IO error: " + e.getMessage();
+            return call.error("IO error: " + e.getMessage(), e);
         }
     }
 
     @Tool("移动或重命名文件。参数: sourcePath - 源文件路径, targetPath - 目标文件路径")
     public String moveFile(String sourcePath, String targetPath) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔧 工具调用: move_file                                │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • sourcePath: {}", sourcePath);
-        log.info("│    • targetPath: {}", targetPath);
+        CallLog call = CallLog.tool("move_file", sourcePath, targetPath);
         
         try {
             Path source = sanitizePath(sourcePath);
             Path target = sanitizePath(targetPath);
             
             if (!Files.exists(source)) {
-                String error = "Source file not found: " + sourcePath;
-                log.info("│ 📤 返回结果: 源文件不存在");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("Source file not found: " + sourcePath);
             }
             
             if (!Files.isRegularFile(source)) {
-                String error = "Source is not a file: " + sourcePath;
-                log.info("│ 📤 返回结果: 源路径不是文件");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                return error;
+                return call.error("Source is not a file: " + sourcePath);
             }
             
             // 确保目标目录存在
@@ -379,21 +253,12 @@ public class FileSystemTools {
             // 移动文件
             Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
             
-            String result = String.format("File moved successfully from %s to %s", sourcePath, targetPath);
-            log.info("│ 📤 返回结果: 文件移动成功");
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.ok(String.format("File moved successfully from %s to %s", sourcePath, targetPath));
             
         } catch (SecurityException e) {
-            log.error("│ ❌ 安全错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "Security error: " + e.getMessage();
+            return call.error("Security error: " + e.getMessage());
         } catch (IOException e) {
-            log.error("│ ❌ IO错误: {}", e.getMessage());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            return "IO error: " + e.getMessage();
+            return call.error("IO error: " + e.getMessage(), e);
         }
     }
 }
@@ -1,117 +1,74 @@
 package com.example.reactmcp.tools;
 
+import com.example.reactmcp.logging.CallLog;
 import com.example.reactmcp.model.ReActStepEvent;
 import com.example.reactmcp.service.ReActEventPublisher;
+import com.example.reactmcp.service.TaskControl;
+import com.example.reactmcp.service.TaskControlRegistry;
 import dev.langchain4j.agent.tool.Tool;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
  * 基础数学工具集
- * 提供加法、减法、乘法、除法等简单计算能力
+ * 提供加法、减法、乘法、除法等简单计算能力，以及向用户提出澄清问题
  */
 @Component
 public class McpTools {
     
-    private static final Logger log = LoggerFactory.getLogger(McpTools.class);
     private final ReActEventPublisher eventPublisher;
+    private final TaskControlRegistry taskControls;
+    private final long answerTimeoutSeconds;
     
-    public McpTools(ReActEventPublisher eventPublisher) {
+    public McpTools(ReActEventPublisher eventPublisher,
+                    TaskControlRegistry taskControls,
+                    @Value("${app.tasks.answer-timeout-seconds:300}") long answerTimeoutSeconds) {
         this.eventPublisher = eventPublisher;
+        this.taskControls = taskControls;
+        this.answerTimeoutSeconds = answerTimeoutSeconds;
     }
 
     @Tool("执行两个数的加法运算")
     public String add(int a, int b) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔧 工具调用: add                                      │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • a: {}", a);
-        log.info("│    • b: {}", b);
-        
-        int result = a + b;
-        String resultStr = String.valueOf(result);
-        
-        log.info("│ 📤 返回结果:");
-        log.info("│    {}", resultStr);
-        log.info("└─────────────────────────────────────────────────────────────┘");
-        log.info("");
-        
-        return resultStr;
+        return CallLog.tool("add", a, b).ok(String.valueOf(a + b));
     }
 
     @Tool("执行两个数的减法运算")
     public String subtract(int a, int b) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔧 工具调用: subtract                                 │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • a: {}", a);
-        log.info("│    • b: {}", b);
-        
-        int result = a - b;
-        String resultStr = String.valueOf(result);
-        
-        log.info("│ 📤 返回结果:");
-        log.info("│    {}", resultStr);
-        log.info("└─────────────────────────────────────────────────────────────┘");
-        log.info("");
-        
-        return resultStr;
+        return CallLog.tool("subtract", a, b).ok(String.valueOf(a - b));
     }
 
     @Tool("执行两个数的乘法运算")
     public String multiply(int a, int b) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔧 工具调用: multiply                                 │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • a: {}", a);
-        log.info("│    • b: {}", b);
-        
-        int result = a * b;
-        String resultStr = String.valueOf(result);
-        
-        log.info("│ 📤 返回结果:");
-        log.info("│    {}", resultStr);
-        log.info("└─────────────────────────────────────────────────────────────┘");
-        log.info("");
-        
-        return resultStr;
+        return CallLog.tool("multiply", a, b).ok(String.valueOf(a * b));
     }
 
     @Tool("执行两个数的除法运算(b 不可为 0)")
     public String divide(int a, int b) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔧 工具调用: divide                                   │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • a: {}", a);
-        log.info("│    • b: {}", b);
-        
+        CallLog call = CallLog.tool("divide", a, b);
         if (b == 0) {
-            String error = "Division by zero is not allowed";
-            log.info("│ 📤 返回结果:");
-            log.info("│    {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return error;
+            return call.error("Division by zero is not allowed");
+        }
+        return call.ok(String.valueOf(a / b));
+    }
+
+    @Tool("向用户提出澄清问题并等待回答；仅在任务信息不足、无法自行判断时使用")
+    public String askUser(String question) {
+        CallLog call = CallLog.tool("askUser", question);
+        TaskControl control = taskControls.current();
+        if (control == null) {
+            return call.error("No interactive client is attached to this task, continue without asking");
+        }
+        eventPublisher.publish(ReActStepEvent.question(question));
+        try {
+            String answer = control.awaitAnswer(answerTimeoutSeconds * 1000);
+            if (answer == null) {
+                return call.error("User did not answer within " + answerTimeoutSeconds + " seconds");
+            }
+            return call.ok(answer);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return call.error("Interrupted while waiting for the user's answer");
         }
-        
-        int result = a / b;
-        String resultStr = String.valueOf(result);
-        
-        log.info("│ 📤 返回结果:");
-        log.info("│    {}", resultStr);
-        log.info("└─────────────────────────────────────────────────────────────┘");
-        log.info("");
-        
-        return resultStr;
     }
 }
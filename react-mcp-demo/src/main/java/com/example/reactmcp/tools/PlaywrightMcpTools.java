@@ -1,8 +1,21 @@
 package com.example.reactmcp.tools;
 
+import com.example.reactmcp.browser.AccessibilitySnapshot;
+import com.example.reactmcp.browser.BrowserPool;
+import com.example.reactmcp.browser.BrowserSession;
+import com.example.reactmcp.browser.BrowserSession.ConsoleLogEntry;
+import com.example.reactmcp.browser.ContentExtractor;
+import com.example.reactmcp.browser.ElementRefs;
+import com.example.reactmcp.browser.PageSettler;
+import com.example.reactmcp.browser.PageStateTracker;
+import com.example.reactmcp.browser.SelectorResolver;
+import com.example.reactmcp.config.SettleProperties;
+import com.example.reactmcp.logging.CallLog;
 import com.example.reactmcp.model.ReActStepEvent;
+import com.example.reactmcp.retrieval.TaskFocus;
 import com.example.reactmcp.service.ReActEventPublisher;
 import com.microsoft.playwright.*;
+import com.microsoft.playwright.options.LoadState;
 import com.microsoft.playwright.options.WaitForSelectorState;
 import dev.langchain4j.agent.tool.Tool;
 import org.slf4j.Logger;
@@ -10,8 +23,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import jakarta.annotation.PostConstruct;
-import jakarta.annotation.PreDestroy;
 import java.nio.file.Paths;
 import java.util.Base64;
 import java.util.List;
@@ -21,6 +32,7 @@ import java.util.stream.Collectors;
 /**
  * Playwright MCP 工具集
  * 提供本地浏览器自动化能力
+ * 本地模式下每个任务使用浏览器池中租用的独立上下文，工具在会话所属的工作线程上执行（见 BrowserPool）
  */
 @Component
 public class PlaywrightMcpTools {
@@ -30,6 +42,39 @@ public class PlaywrightMcpTools {
     // 事件发布器（用于向 ReAct 框架发送实时事件）
     private final ReActEventPublisher eventPublisher;
     
+    private final BrowserPool browserPool;
+    
+    // 操作后的条件等待（替代固定休眠）
+    private final PageSettler pageSettler;
+    private final SettleProperties settleProperties;
+    
+    // click / fill 的候选选择器解析
+    private final SelectorResolver selectorResolver;
+    
+    // getVisibleText 按当前任务选取相关段落
+    private final TaskFocus taskFocus;
+    
+    // click 的兜底选择器（百度搜索按钮等），原始选择器找不到可见元素时依次尝试
+    private static final List<String> CLICK_FALLBACKS = List.of(
+        "#chat-submit-button",  // 百度 AI 搜索按钮（最新版）
+        "#su",     // 传统搜索按钮
+        "button.sc-btn",  // AI 搜索按钮（旧版）
+        "button[type='submit']",  // 提交按钮
+        "text=百度一下",  // 文本匹配
+        "button"  // 兜底：第一个按钮
+    );
+    
+    // fill 的兜底选择器（百度搜索框等）
+    private static final List<String> FILL_FALLBACKS = List.of(
+        "#chat-textarea",  // 百度 AI 搜索框（最新版）
+        "#kw",     // 传统搜索框
+        "textarea.sc-input",  // AI 搜索框（旧版）
+        "textarea[placeholder*='搜索']",  // 模糊匹配
+        "input[name='wd']",   // 旧版输入框
+        "textarea",  // 兜底：第一个 textarea
+        "input[type='text']"  // 兜底：第一个文本输入框
+    );
+    
     // 注入配置，决定是否使用远程浏览器模式
     @Value("${app.remote-browser.enabled:false}")
     private boolean remoteBrowserEnabled;
@@ -40,12 +85,21 @@ public class PlaywrightMcpTools {
     @Value("${app.remote-browser.port:9222}")
     private int remoteBrowserPort;
     
-    private Playwright playwright;
-    private Browser browser;
-    private BrowserContext context;
-    private Page page;
+    // 为 true 时 navigate 复用当前页面（保留渲染进程和内存缓存），只在页面不存在或已关闭时打开新页面
+    @Value("${app.playwright.navigation.reuse-page:true}")
+    private boolean reusePage;
+    
+    // snapshot 工具的默认 token 上限、允许的最大上限和单个名称 / 文本的最大字符数
+    @Value("${app.playwright.snapshot.max-tokens:2000}")
+    private int snapshotMaxTokens;
+    
+    @Value("${app.playwright.snapshot.max-tokens-limit:8000}")
+    private int snapshotMaxTokensLimit;
+    
+    @Value("${app.playwright.snapshot.max-text-length:100}")
+    private int snapshotMaxTextLength;
+    
     private String currentPageUrl; // 用于远程模式下跟踪当前页面URL
-    private final List<ConsoleLogEntry> consoleLogs = new ArrayList<>();
     
     // 敏感词过滤列表（用于防止触发阿里云内容审查）
     private static final String[] SENSITIVE_KEYWORDS = {
@@ -59,20 +113,8 @@ public class PlaywrightMcpTools {
     private static final int MAX_TEXT_LENGTH = 5000;  // 最大文本长度（约 2000 tokens）
     private static final int MAX_HTML_LENGTH = 8000;  // 最大 HTML 长度（约 3000 tokens）
     
-    // 控制台日志条目
-    private static class ConsoleLogEntry {
-        final String type;
-        final String text;
-        final long timestamp;
-        
-        ConsoleLogEntry(String type, String text) {
-            this.type = type;
-            this.text = text;
-            this.timestamp = System.currentTimeMillis();
-        }
-    }
     // 过滤敏感内容并智能压缩
-    private String filterSensitiveContent(String content) {
+    static String filterSensitiveContent(String content) {
         if (content == null || content.isEmpty()) {
             return content;
         }
@@ -90,7 +132,7 @@ public class PlaywrightMcpTools {
      * 智能压缩文本内容，避免 token 超限
      * 策略：保留开头 + 中间采样 + 结尾
      */
-    private String compressText(String text, int maxLength) {
+    static String compressText(String text, int maxLength) {
         if (text == null || text.length() <= maxLength) {
             return text;
         }
@@ -121,148 +163,235 @@ public class PlaywrightMcpTools {
         }
     }
     
-    public PlaywrightMcpTools(ReActEventPublisher eventPublisher) {
+    // getVisibleHtml 的页面内脚本：复制容器节点，cleanHtml 时去掉 script / style / meta / 样式表链接
+    static final String VISIBLE_HTML_SCRIPT =
+            "(args) => { " +
+            "  let container = args.selector ? document.querySelector(args.selector) : document.documentElement; " +
+            "  if (!container) return ''; " +
+            "  " +
+            "  let clone = container.cloneNode(true); " +
+            "  " +
+            "  if (args.cleanHtml) { " +
+            "    clone.querySelectorAll('script').forEach(el => el.remove()); " +
+            "    clone.querySelectorAll('style').forEach(el => el.remove()); " +
+            "    clone.querySelectorAll('meta').forEach(el => el.remove()); " +
+            "    clone.querySelectorAll('link[rel=\"stylesheet\"]').forEach(el => el.remove()); " +
+            "  } " +
+            "  " +
+            "  return clone.outerHTML; " +
+            "}";
+    
+    public PlaywrightMcpTools(ReActEventPublisher eventPublisher, BrowserPool browserPool,
+                              PageSettler pageSettler, SettleProperties settleProperties,
+                              SelectorResolver selectorResolver, TaskFocus taskFocus) {
         this.eventPublisher = eventPublisher;
+        this.browserPool = browserPool;
+        this.pageSettler = pageSettler;
+        this.settleProperties = settleProperties;
+        this.selectorResolver = selectorResolver;
+        this.taskFocus = taskFocus;
     }
     
-    @PostConstruct
-    public void init() {
-        log.info("🎭 初始化 Playwright MCP 工具...");
-        
-        // 如果启用了远程浏览器模式，则不需要初始化本地 Playwright
-        if (remoteBrowserEnabled) {
-            log.info("✅ 远程浏览器模式已启用，跳过本地 Playwright 初始化");
-            return;
-        }
-        
-        try {
-            playwright = Playwright.create();
-            log.info("✅ Playwright 实例创建成功");
-        } catch (Exception e) {
-            log.error("❌ Playwright 初始化失败: {}", e.getMessage());
+    /**
+     * 当前任务租用的浏览器会话（只在浏览器池的工作线程上有值）
+     */
+    private BrowserSession session() {
+        BrowserSession session = BrowserPool.current();
+        if (session == null) {
+            throw new IllegalStateException("Browser tools must run through BrowserPool");
         }
+        return session;
     }
     
-    @PreDestroy
-    public void cleanup() {
-        log.info("🧹 清理 Playwright 资源...");
-        
-        // 如果启用了远程浏览器模式，则不需要清理本地资源
-        if (remoteBrowserEnabled) {
-            log.info("✅ 远程浏览器模式下无需清理本地资源");
-            return;
-        }
-        
-        closeBrowser();
-        if (playwright != null) {
-            playwright.close();
-            log.info("✅ Playwright 资源已清理");
-        }
+    /**
+     * 当前页面，未打开时返回 null
+     */
+    private Page page() {
+        BrowserSession session = BrowserPool.current();
+        return session != null ? session.getPage() : null;
     }
     
-    @Tool("启动浏览器并打开指定网页。参数 url 是要访问的网址，headless 为 true 时无界面运行（默认 false 显示浏览器）")
+    @Tool("启动浏览器并打开指定网页。参数 url 是要访问的网址，headless 为 true 时无界面运行（默认 false 显示浏览器）；与上一次调用的模式不同时会新建浏览器会话，之前的页面和登录状态不保留")
     public String navigate(String url, Boolean headless) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🌐 工具调用: navigate (打开网页)                         │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • url: {}", url);
-        log.info("│    • headless: {}", headless == null ? false : headless);
-        log.info("│    • remote mode: {}", remoteBrowserEnabled);
+        CallLog call = CallLog.tool("navigate", url, headless).attr("remote", remoteBrowserEnabled);
         
         try {
             // 如果启用了远程浏览器模式，则通过 Electron 控制内嵌浏览器
             if (remoteBrowserEnabled) {
-                return navigateRemote(url);
+                return navigateRemote(call, url);
             }
             
-            // 本地模式：使用 Playwright 启动浏览器
-            // 每次 navigate 都创建新的浏览器窗口，确保每个任务独立
-            // 先关闭旧的浏览器窗口（如果存在）
-            if (page != null) {
-                try { 
-                    page.close(); 
-                    log.info("│ 🗑️  关闭旧的页面窗口");
-                } catch (Exception ignored) {}
-                page = null;
-            }
+            // 本地模式：在当前任务租用的上下文中打开页面
+            BrowserSession session = session();
             
-            // 检查浏览器是否需要启动
-            boolean needsLaunch = browser == null || !browser.isConnected();
+            // 上下文尚未创建、浏览器已断开或切换了 headless 模式时（重新）创建
+            if (session.open(headless != null && headless, null)) {
+                call.attr("launched", true);
+            }
             
-            if (needsLaunch) {
-                // 清理旧实例
-                if (context != null) {
-                    try { context.close(); } catch (Exception ignored) {}
-                    context = null;
+            // 复用当前页面；没有可用页面（或关闭了复用）时打开新页面，预热的空白页只用一次
+            Page page = session.getPage();
+            if (reusePage && page != null && !page.isClosed()) {
+                call.attr("reused", true);
+            } else {
+                if (page != null) {
+                    try { 
+                        page.close(); 
+                        log.debug("关闭旧的页面窗口");
+                    } catch (Exception ignored) {}
                 }
-                if (browser != null) {
-                    try { browser.close(); } catch (Exception ignored) {}
-                    browser = null;
+                page = session.takeWarmPage();
+                if (page != null) {
+                    call.attr("warm", true);
+                } else {
+                    page = session.getContext().newPage();
                 }
+                session.setPage(page);
                 
-                // 启动新的浏览器实例（添加额外参数确保桌面模式）
-                boolean isHeadless = headless != null && headless;
-                browser = playwright.chromium().launch(new BrowserType.LaunchOptions()
-                        .setHeadless(isHeadless)
-                        .setArgs(java.util.Arrays.asList(
-                                "--window-size=1920,1080",
-                                "--disable-blink-features=AutomationControlled"
-                        )));
-                
-                // 创建浏览器上下文，设置桌面浏览器 UA 和视口
-                context = browser.newContext(new Browser.NewContextOptions()
-                        .setViewportSize(1920, 1080)
-                        .setUserAgent("Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/131.0.0.0 Safari/537.36"));
-                log.info("│ 🚀 浏览器已启动（{}模式，1920x1080，桌面UA）", isHeadless ? "无头" : "有界面");
-            }
-            
-            // 创建新的页面窗口（每次 navigate 都是新窗口）
-            page = context.newPage();
-            log.info("│ 🌐 创建新的页面窗口");
-            
-            // 清空旧日志并监听控制台事件
-            consoleLogs.clear();
-            page.onConsoleMessage(msg -> {
-                consoleLogs.add(new ConsoleLogEntry(msg.type(), msg.text()));
-            });
-            
-            // 导航到目标页面
-            page.navigate(url);
-            
-            // 等待页面加载完成
+                // 每个页面只注册一次控制台监听
+                List<ConsoleLogEntry> consoleLogs = session.getConsoleLogs();
+                page.onConsoleMessage(msg -> {
+                    consoleLogs.add(new ConsoleLogEntry(msg.type(), msg.text()));
+                });
+            }
+            // 控制台日志和资源拦截统计只保留本次导航之后的
+            session.getConsoleLogs().clear();
+            session.getBlocked().reset();
+            
+            // 导航到目标页面并等待加载完成
+            long start = System.nanoTime();
+            Response response = page.navigate(url);
             page.waitForLoadState();
-            
-            // 获取页面详细状态
-            String pageState = getPageState();
-            String result = String.format("成功打开页面\n%s", pageState);
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    {}", result);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            long navigationMillis = (System.nanoTime() - start) / 1_000_000;
+            call.attr("navMs", navigationMillis);
+            if (response != null) {
+                call.attr("status", response.status());
+            }
+            String blocked = session.getBlocked().summary();
+            if (!blocked.isEmpty()) {
+                call.attr("blocked", session.getBlocked().getRequests());
+            }
+            
+            // 页面状态和浏览器记录的导航耗时在一次 evaluate 中取回
+            java.util.Map<String, Object> state = evaluatePageState(page);
+            return call.ok(String.format("成功打开页面%s\n%s%s\n%s",
+                    response != null && !response.ok() ? "（HTTP " + response.status() + "）" : "",
+                    formatNavigationTiming(navigationMillis, state.get("timing")),
+                    blocked.isEmpty() ? "" : "\n" + blocked,
+                    formatPageState(state)));
         } catch (Exception e) {
             String error = "导航失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error, e);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
             
-            // 发生错误时清理资源，下次重新启动
-            closeBrowser();
-            return error;
+            // 发生错误时关闭当前页面，下次 navigate 打开新页面（上下文和缓存保留）
+            try {
+                BrowserSession session = session();
+                if (session.getPage() != null) {
+                    session.getPage().close();
+                    session.setPage(null);
+                }
+            } catch (Exception ignored) {}
+            return call.error(error, e);
+        }
+    }
+    
+    /**
+     * 导航耗时：Java 侧总耗时，加上浏览器 Navigation Timing 中的首字节、DOMContentLoaded、load 时间和传输大小
+     */
+    @SuppressWarnings("unchecked")
+    static String formatNavigationTiming(long navigationMillis, Object timing) {
+        StringBuilder sb = new StringBuilder("导航耗时: ").append(navigationMillis).append(" ms");
+        if (timing instanceof java.util.Map<?, ?> map) {
+            java.util.Map<String, Object> t = (java.util.Map<String, Object>) map;
+            sb.append("（首字节 ").append(millis(t.get("ttfb")))
+              .append(" ms，DOMContentLoaded ").append(millis(t.get("domContentLoaded")))
+              .append(" ms，load ").append(millis(t.get("load"))).append(" ms");
+            Object transferSize = t.get("transferSize");
+            if (transferSize instanceof Number size) {
+                sb.append(size.longValue() == 0 ? "，来自缓存" : "，传输 " + size.longValue() / 1024 + " KB");
+            }
+            sb.append("）");
+        }
+        return sb.toString();
+    }
+    
+    private static long millis(Object value) {
+        return value instanceof Number number ? Math.round(number.doubleValue()) : -1;
+    }
+    
+    /**
+     * 当前页面版本：URL + 文档标识 + DOM 变更计数，任一变化说明页面内容可能已改变（工具结果缓存使用）
+     * 远程模式或浏览器未打开时返回 null
+     */
+    public String pageVersion() {
+        if (remoteBrowserEnabled) {
+            return null;
+        }
+        try {
+            return browserPool.ifLeased(() -> {
+                Page current = page();
+                if (current == null || current.isClosed()) {
+                    return null;
+                }
+                return current.url() + "#" + current.evaluate(
+                        "() => (window.__reactDocId || 'none') + ':' + (window.__reactMutations || 0)");
+            });
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    /**
+     * 当前页面 URL（任务检查点使用，不发起远程请求）
+     */
+    public String currentUrl() {
+        if (remoteBrowserEnabled) {
+            return currentPageUrl;
+        }
+        try {
+            return browserPool.ifLeased(() -> {
+                Page current = page();
+                return current != null && !current.isClosed() ? current.url() : null;
+            });
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    /**
+     * 导出当前上下文的 cookies 和 localStorage（JSON），远程模式或浏览器未打开时返回 null
+     */
+    public String storageState() {
+        if (remoteBrowserEnabled) {
+            return null;
+        }
+        try {
+            return browserPool.ifLeased(() -> {
+                BrowserContext context = session().getContext();
+                return context != null ? context.storageState() : null;
+            });
+        } catch (Exception e) {
+            log.warn("导出浏览器存储状态失败: {}", e.getMessage());
+            return null;
         }
     }
     
+    /**
+     * 从任务检查点恢复浏览器：本地模式下用保存的存储状态重建上下文，然后重新打开中断时的页面
+     */
+    public String restoreBrowser(String url, String storageState) throws Exception {
+        return browserPool.run(() -> {
+            if (!remoteBrowserEnabled && storageState != null) {
+                session().open(false, storageState);
+            }
+            return navigate(url, null);
+        });
+    }
+    
     /**
      * 远程模式下的导航实现（与 Electron BrowserView 协同工作）
      */
-    private String navigateRemote(String url) {
+    private String navigateRemote(CallLog call, String url) {
         try {
-            log.info("│ 🌐 使用远程浏览器模式");
-            
             // 构造远程控制 URL
             String remoteUrl = String.format("http://%s:%d/browser/navigate?url=%s", 
                 remoteBrowserHost, remoteBrowserPort, java.net.URLEncoder.encode(url, "UTF-8"));
@@ -290,134 +419,77 @@ public class PlaywrightMcpTools {
                 if (responseStr.contains("\"success\":true")) {
                     // 在远程模式下，设置 currentPageUrl 以便后续的工具调用可以正确检查状态
                     currentPageUrl = url;
-                    
-                    log.info("│ ✅ 远程导航成功");
-                    log.info("│ 📤 返回结果:");
-                    log.info("│    {}", response.toString());
-                    log.info("└─────────────────────────────────────────────────────────────┘");
-                    log.info("");
-                    
-                    return response.toString();
+                    return call.ok(responseStr);
                 } else {
-                    String error = "远程导航失败: " + responseStr;
-                    log.error("│ ❌ {}", error);
-                    log.info("└─────────────────────────────────────────────────────────────┘");
-                    log.info("");
-                    return error;
+                    return call.error("远程导航失败: " + responseStr);
                 }
             } else {
-                String error = "远程导航失败，HTTP 状态码: " + responseCode;
-                log.error("│ ❌ {}", error);
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                return error;
+                return call.error("远程导航失败，HTTP 状态码: " + responseCode);
             }
         } catch (Exception e) {
-            String error = "远程导航异常: " + e.getMessage();
-            log.error("│ ❌ {}", error, e);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("远程导航异常: " + e.getMessage(), e);
         }
     }
     
-    @Tool("点击页面上的元素。参数 selector 是元素选择器（支持 CSS、文本、role 等），比如 'button', 'text=提交', '#submit-btn'")
+    @Tool("点击页面上的元素。参数 selector 是元素选择器（支持 CSS、文本、role 等），比如 'button', 'text=提交', '#submit-btn'；"
+            + "也可以直接传 snapshot 返回的 ref，比如 'e5'（推荐，比猜测选择器可靠）")
     public String click(String selector) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 👆 工具调用: click (点击元素)                            │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • selector: {}", selector);
+        CallLog call = CallLog.tool("click", selector).attr("remote", remoteBrowserEnabled);
         
         try {
             // 在远程模式下检查页面是否已打开
             if (remoteBrowserEnabled) {
                 if (currentPageUrl == null || currentPageUrl.isEmpty()) {
-                    return "错误: 请先使用 navigate 工具打开网页";
+                    return call.error("错误: 请先使用 navigate 工具打开网页");
                 }
                 // 远程模式下调用远程点击方法
-                return clickRemote(selector);
+                return clickRemote(call, selector);
             }
             
             // 本地模式检查
-            if (page == null || context == null || browser == null || !browser.isConnected()) {
-                return "错误: 请先使用 navigate 工具打开网页";
-            }
-            
-            // 智能处理百度搜索按钮：尝试多个可能的选择器
-            String[] possibleSelectors = {
-                selector,  // 原始选择器
-                "#chat-submit-button",  // 百度 AI 搜索按钮（最新版）
-                "#su",     // 传统搜索按钮
-                "button.sc-btn",  // AI 搜索按钮（旧版）
-                "button[type='submit']",  // 提交按钮
-                "text=百度一下",  // 文本匹配
-                "button",  // 兜底：第一个按钮
-            };
-            
-            String actualSelector = null;
-            Exception lastException = null;
-            
-            // 尝试找到可点击的按钮
-            for (String s : possibleSelectors) {
-                try {
-                    page.waitForSelector(s, new Page.WaitForSelectorOptions()
-                            .setState(WaitForSelectorState.ATTACHED)
-                            .setTimeout(2000));
-                    
-                    // 检查是否可见
-                    Boolean isVisible = (Boolean) page.evaluate(
-                        "(selector) => { " +
-                        "  const el = document.querySelector(selector); " +
-                        "  if (!el) return false; " +
-                        "  const style = window.getComputedStyle(el); " +
-                        "  return style.display !== 'none' && style.visibility !== 'hidden'; " +
-                        "}",
-                        s
-                    );
-                    
-                    if (Boolean.TRUE.equals(isVisible)) {
-                        actualSelector = s;
-                        log.info("│ 🎯 找到可点击元素: {}", s);
-                        break;
-                    } else {
-                        // 元素存在但不可见，标记为候选（后面用 JS 点击）
-                        if (actualSelector == null) {
-                            actualSelector = s;
-                            log.info("│ ⚠️  元素不可见，将使用 JS 点击: {}", s);
-                        }
-                    }
-                } catch (Exception e) {
-                    lastException = e;
-                    continue;
+            Page page = page();
+            if (page == null || !session().isConnected()) {
+                return call.error("错误: 请先使用 navigate 工具打开网页");
+            }
+            
+            String actualSelector = ElementRefs.toSelector(selector);
+            String fallbackNote = "";
+            if (actualSelector != null) {
+                // ref 指向确定的元素，不走兜底；失效时直接报错，让模型重新 snapshot
+                call.attr("ref", true);
+                if (!ElementRefs.isAttached(page, actualSelector)) {
+                    return call.error(ElementRefs.staleMessage(actualSelector));
                 }
-            }
-            
-            if (actualSelector == null) {
-                String error = "未找到可点击的元素。尝试的选择器: " + String.join(", ", possibleSelectors);
-                if (lastException != null) {
-                    error += "。最后错误: " + lastException.getMessage();
+            } else {
+                // 原始选择器之外的兜底（百度搜索按钮等），一次页面内脚本解析出第一个可见且可用的候选
+                SelectorResolver.Resolution resolved = selectorResolver.resolve(page, "click", selector, CLICK_FALLBACKS);
+                call.attr("resolveMs", resolved.getMillis()).attr("learned", resolved.isLearned())
+                        .attr("fallback", resolved.isFallback());
+                actualSelector = resolved.getSelector();
+                fallbackNote = resolved.isFallback() ? fallbackNote(selector, actualSelector) : "";
+                if (actualSelector == null) {
+                    return call.error("未找到可点击的元素。尝试的选择器: " + selector + ", " + String.join(", ", CLICK_FALLBACKS));
+                }
+                if (!resolved.isVisible()) {
+                    // 元素存在但不可见，后面用 JS 点击
+                    log.debug("元素不可见，将使用 JS 点击: {}", actualSelector);
                 }
-                log.error("│ ❌ {}", error);
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                return error;
             }
             
             // 记录点击前的 URL
             String beforeUrl = page.url();
+            pageSettler.mark(session());
             
             // 智能点击：先尝试正常点击，失败则用 JS 绕过
             try {
                 page.click(actualSelector, new Page.ClickOptions().setTimeout(3000));
-                log.info("│ ✅ 正常点击成功");
             } catch (Exception clickError) {
-                log.info("│ ⚠️  正常点击失败，使用 JS 绕过");
+                log.debug("正常点击失败，使用 JS 绕过: {}", actualSelector);
+                call.attr("jsFallback", true);
                 // 强制显示并点击
                 page.evaluate(
                     "(selector) => { " +
-                    "  const el = document.querySelector(selector); " +
+                    "  const el = " + ElementRefs.QUERY_SCRIPT + "(selector); " +
                     "  if (el) { " +
                     "    el.style.display = 'inline-block'; " +
                     "    el.style.visibility = 'visible'; " +
@@ -428,41 +500,38 @@ public class PlaywrightMcpTools {
                 );
             }
             
-            // 等待可能的页面变化
-            page.waitForTimeout(1000);
+            // 等待跳转、网络请求和 DOM 变化稳定下来
+            PageSettler.Result settled = pageSettler.settle(session(), null, true);
+            call.attr("settleMs", settled.getMillis()).attr("settleTimedOut", settled.isTimedOut());
             
             String afterUrl = page.url();
             boolean urlChanged = !beforeUrl.equals(afterUrl);
             
-            // 获取点击后的页面状态
-            String pageState = getPageState();
-            String result = String.format("成功点击元素: %s%s\n%s", 
+            // 只返回点击后页面状态的变化
+            String pageState = getPageDelta();
+            return call.ok(String.format("成功点击元素: %s%s%s\n%s\n%s", 
                 actualSelector,
                 urlChanged ? " (页面已跳转)" : "",
-                pageState);
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    {}", result);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+                fallbackNote,
+                settled,
+                pageState));
         } catch (Exception e) {
-            String error = "点击失败: " + e.getMessage();
-            log.error("│ ❌错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("点击失败: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * 用了兜底选择器时附在结果中的说明，提醒模型实际操作的不是它给出的元素
+     */
+    private static String fallbackNote(String selector, String actualSelector) {
+        return String.format("（选择器 %s 没有可用元素，改用兜底选择器 %s，请确认是否为目标元素）", selector, actualSelector);
+    }
+    
     /**
      * 远程模式下的点击实现（与 Electron BrowserView 协同工作）
      */
-    private String clickRemote(String selector) {
+    private String clickRemote(CallLog call, String selector) {
         try {
-            log.info("│ 👆 使用远程浏览器模式");
-            
             // 构造远程控制 URL
             String remoteUrl = String.format("http://%s:%d/browser/click?selector=%s", 
                 remoteBrowserHost, remoteBrowserPort, java.net.URLEncoder.encode(selector, "UTF-8"));
@@ -490,142 +559,80 @@ public class PlaywrightMcpTools {
                 String responseStr = response.toString();
                 if (responseStr.contains("\"success\":true")) {
                     updateCurrentPageUrlRemote();
-                    
-                    log.info("│ ✅ 远程点击成功");
-                    log.info("│ 📤 返回结果:");
-                    log.info("│    {}", response.toString());
-                    log.info("└─────────────────────────────────────────────────────────────┘");
-                    log.info("");
-                    
-                    return response.toString();
+                    return call.ok(responseStr);
                 } else {
-                    String error = "远程点击失败: " + responseStr;
-                    log.error("│ ❌ {}", error);
-                    log.info("└─────────────────────────────────────────────────────────────┘");
-                    log.info("");
-                    return error;
+                    return call.error("远程点击失败: " + responseStr);
                 }
             } else {
-                String error = "远程点击失败，HTTP 状态码: " + responseCode;
-                log.error("│ ❌ {}", error);
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                return error;
+                return call.error("远程点击失败，HTTP 状态码: " + responseCode);
             }
         } catch (Exception e) {
-            String error = "远程点击异常: " + e.getMessage();
-            log.error("│ ❌ {}", error, e);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("远程点击异常: " + e.getMessage(), e);
         }
     }
     
-    @Tool("在输入框中输入文本。参数 selector 是输入框选择器，text 是要输入的内容")
+    @Tool("在输入框中输入文本。参数 selector 是输入框选择器，也可以是 snapshot 返回的 ref（如 'e3'），text 是要输入的内容")
     public String fill(String selector, String text) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ ⌨️  工具调用: fill (输入文本)                            │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • selector: {}", selector);
-        log.info("│    • text: {}", text);
+        CallLog call = CallLog.tool("fill", selector, text).attr("remote", remoteBrowserEnabled);
         
         try {
             // 在远程模式下检查页面是否已打开
             if (remoteBrowserEnabled) {
                 if (currentPageUrl == null || currentPageUrl.isEmpty()) {
-                    return "错误: 请先使用 navigate 工具打开网页";
+                    return call.error("错误: 请先使用 navigate 工具打开网页");
                 }
                 // 远程模式下调用远程输入方法
-                return fillRemote(selector, text);
+                return fillRemote(call, selector, text);
             }
             
             // 本地模式检查
-            if (page == null || context == null || browser == null || !browser.isConnected()) {
-                return "错误: 请先使用 navigate 工具打开网页";
-            }
-            
-            // 智能处理百度搜索框：先尝试多个可能的选择器
-            String[] possibleSelectors = {
-                selector,  // 原始选择器
-                "#chat-textarea",  // 百度 AI 搜索框（最新版）
-                "#kw",     // 传统搜索框
-                "textarea.sc-input",  // AI 搜索框（旧版）
-                "textarea[placeholder*='搜索']",  // 模糊匹配
-                "input[name='wd']",   // 旧版输入框
-                "textarea",  // 兜底：第一个 textarea
-                "input[type='text']",  // 兜底：第一个文本输入框
-            };
-            
-            String actualSelector = null;
-            Exception lastException = null;
-            
-            // 尝试找到可见的输入框
-            for (String s : possibleSelectors) {
-                try {
-                    // 尝试等待元素可见（2秒超时）
-                    page.waitForSelector(s, new Page.WaitForSelectorOptions()
-                            .setState(WaitForSelectorState.ATTACHED)
-                            .setTimeout(2000));
-                    
-                    // 检查是否真的可见（排除 hidden 元素）
-                    Boolean isVisible = (Boolean) page.evaluate(
-                        "(selector) => { " +
-                        "  const el = document.querySelector(selector); " +
-                        "  if (!el) return false; " +
-                        "  const style = window.getComputedStyle(el); " +
-                        "  return style.display !== 'none' && style.visibility !== 'hidden' && style.opacity !== '0'; " +
-                        "}",
-                        s
-                    );
-                    
-                    if (Boolean.TRUE.equals(isVisible)) {
-                        actualSelector = s;
-                        log.info("│ 🎯 找到可见输入框: {}", s);
-                        break;
-                    } else {
-                        // 元素存在但不可见，标记为候选（后面用 JS 操作）
-                        if (actualSelector == null) {
-                            actualSelector = s;
-                            log.info("│ ⚠️  输入框不可见，将使用 JS 操作: {}", s);
-                        }
-                    }
-                } catch (Exception e) {
-                    lastException = e;
-                    continue;  // 尝试下一个选择器
-                }
+            Page page = page();
+            if (page == null || !session().isConnected()) {
+                return call.error("错误: 请先使用 navigate 工具打开网页");
             }
             
-            if (actualSelector == null) {
-                String error = "未找到可见的输入框。尝试的选择器: " + String.join(", ", possibleSelectors);
-                if (lastException != null) {
-                    error += "。最后错误: " + lastException.getMessage();
+            String actualSelector = ElementRefs.toSelector(selector);
+            String fallbackNote = "";
+            if (actualSelector != null) {
+                call.attr("ref", true);
+                if (!ElementRefs.isAttached(page, actualSelector)) {
+                    return call.error(ElementRefs.staleMessage(actualSelector));
+                }
+            } else {
+                // 原始选择器之外的兜底（百度搜索框等），一次页面内脚本解析出第一个可见且可用的候选
+                SelectorResolver.Resolution resolved = selectorResolver.resolve(page, "fill", selector, FILL_FALLBACKS);
+                call.attr("resolveMs", resolved.getMillis()).attr("learned", resolved.isLearned())
+                        .attr("fallback", resolved.isFallback());
+                actualSelector = resolved.getSelector();
+                fallbackNote = resolved.isFallback() ? fallbackNote(selector, actualSelector) : "";
+                if (actualSelector == null) {
+                    return call.error("未找到可见的输入框。尝试的选择器: " + selector + ", " + String.join(", ", FILL_FALLBACKS));
+                }
+                if (!resolved.isVisible()) {
+                    // 输入框存在但不可见，后面用 JS 操作
+                    log.debug("输入框不可见，将使用 JS 操作: {}", actualSelector);
                 }
-                log.error("│ ❌ {}", error);
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                return error;
             }
             
             // 记录输入前的 URL
             String beforeUrl = page.url();
+            pageSettler.mark(session());
             
             // 智能输入：先尝试正常操作，失败则用 JS 绕过
             try {
                 page.click(actualSelector, new Page.ClickOptions().setTimeout(3000));  // 先点击聚焦
                 page.fill(actualSelector, "");  // 清空
                 page.type(actualSelector, text);  // 逐字输入
-                log.info("│ ✅ 正常输入成功");
             } catch (Exception fillError) {
-                log.info("│ ⚠️  正常输入失败，使用 JS 绕过");
+                log.debug("正常输入失败，使用 JS 绕过: {}", actualSelector);
+                call.attr("jsFallback", true);
                 // 强制显示并输入（使用 Map 传参）
                 java.util.Map<String, Object> args = new java.util.HashMap<>();
                 args.put("selector", actualSelector);
                 args.put("value", text);
                 page.evaluate(
                     "(args) => { " +
-                    "  const el = document.querySelector(args.selector); " +
+                    "  const el = " + ElementRefs.QUERY_SCRIPT + "(args.selector); " +
                     "  if (el) { " +
                     "    el.style.display = 'block'; " +
                     "    el.style.visibility = 'visible'; " +
@@ -639,42 +646,32 @@ public class PlaywrightMcpTools {
                 );
             }
             
-            // 等待可能的页面变化（例如自动提示、自动跳转）
-            page.waitForTimeout(1000);
+            // 等待可能的页面变化（例如自动提示请求、自动跳转）稳定下来
+            PageSettler.Result settled = pageSettler.settle(session(), null, true);
+            call.attr("settleMs", settled.getMillis()).attr("settleTimedOut", settled.isTimedOut());
             
             String afterUrl = page.url();
             boolean urlChanged = !beforeUrl.equals(afterUrl);
             
-            // 获取输入后的页面状态
-            String pageState = getPageState();
-            String result = String.format("成功在 %s 中输入: %s%s\n%s", 
+            // 只返回输入后页面状态的变化
+            String pageState = getPageDelta();
+            return call.ok(String.format("成功在 %s 中输入: %s%s%s\n%s\n%s", 
                 actualSelector, 
                 text,
                 urlChanged ? " (页面已跳转)" : "",
-                pageState);
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    {}", result);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+                fallbackNote,
+                settled,
+                pageState));
         } catch (Exception e) {
-            String error = "输入失败: " + e.getMessage();
-            log.error("│ ❌错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("输入失败: " + e.getMessage(), e);
         }
     }
     
     /**
      * 远程模式下的输入实现（与 Electron BrowserView 协同工作）
      */
-    private String fillRemote(String selector, String text) {
+    private String fillRemote(CallLog call, String selector, String text) {
         try {
-            log.info("│ ⌨️  使用远程浏览器模式");
-            
             // 构造远程控制 URL
             String remoteUrl = String.format("http://%s:%d/browser/fill?selector=%s&text=%s", 
                 remoteBrowserHost, remoteBrowserPort, 
@@ -702,281 +699,246 @@ public class PlaywrightMcpTools {
                 // 只有在输入成功的情况下才返回成功信息
                 String responseStr = response.toString();
                 if (responseStr.contains("\"success\":true")) {
-                    log.info("│ ✅ 远程输入成功");
-                    log.info("│ 📤 返回结果:");
-                    log.info("│    {}", response.toString());
-                    log.info("└─────────────────────────────────────────────────────────────┘");
-                    log.info("");
-                    
-                    return response.toString();
+                    return call.ok(responseStr);
                 } else {
-                    String error = "远程输入失败: " + responseStr;
-                    log.error("│ ❌ {}", error);
-                    log.info("└─────────────────────────────────────────────────────────────┘");
-                    log.info("");
-                    return error;
+                    return call.error("远程输入失败: " + responseStr);
                 }
             } else {
-                String error = "远程输入失败，HTTP 状态码: " + responseCode;
-                log.error("│ ❌ {}", error);
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                return error;
+                return call.error("远程输入失败，HTTP 状态码: " + responseCode);
             }
         } catch (Exception e) {
-            String error = "远程输入异常: " + e.getMessage();
-            log.error("│ ❌ {}", error, e);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("远程输入异常: " + e.getMessage(), e);
         }
     }
     
-    @Tool("获取页面上元素的文本内容。参数 selector 是元素选择器，chunked 为 true 时分段返回（默认 false）")
+    @Tool("获取页面上元素的文本内容。参数 selector 是元素选择器或 snapshot 返回的 ref（如 'e7'），chunked 为 true 时分段返回（默认 false）")
     public String getText(String selector, Boolean chunked) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 📄 工具调用: getText (获取文本)                          │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • selector: {}", selector);
-        log.info("│    • chunked: {}", chunked != null ? chunked : false);
+        CallLog call = CallLog.tool("getText", selector, chunked).attr("remote", remoteBrowserEnabled);
         
         try {
             // 在远程模式下检查页面是否已打开
             if (remoteBrowserEnabled) {
                 if (currentPageUrl == null || currentPageUrl.isEmpty()) {
-                    return "错误: 请先使用 navigate 工具打开网页";
+                    return call.error("错误: 请先使用 navigate 工具打开网页");
                 }
                 // 远程模式下调用远程截图方法
-                return screenshotRemote(false, selector);
+                return screenshotRemote(call, false, selector);
             }
             
             // 本地模式检查
+            Page page = page();
             if (page == null) {
-                return "错误: 请先使用 navigate 工具打开网页";
+                return call.error("错误: 请先使用 navigate 工具打开网页");
+            }
+            
+            String ref = ElementRefs.toSelector(selector);
+            if (ref != null) {
+                if (!ElementRefs.isAttached(page, ref)) {
+                    return call.error(ElementRefs.staleMessage(ref));
+                }
+                selector = ref;
             }
             
             // 如果启用分段读取模式
             if (chunked != null && chunked) {
                 List<String> chunks = getTextInChunks(selector, 2000); // 每块2000字符
                 if (chunks.isEmpty()) {
-                    return "未获取到文本内容或内容为空";
+                    return call.error("未获取到文本内容或内容为空");
                 }
                 
                 // 发送分段内容到前端
                 for (int i = 0; i < chunks.size(); i++) {
                     String chunkResult = String.format("[分段 %d/%d] 元素文本内容: %s", i+1, chunks.size(), chunks.get(i));
                     eventPublisher.publish(ReActStepEvent.observation(chunkResult));
-                    log.info("│ 📤 返回结果 (分段 {}/{}):", i+1, chunks.size());
-                    log.info("│    {}", chunks.get(i).length() > 100 ? chunks.get(i).substring(0, 100) + "..." : chunks.get(i));
                 }
                 
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                return "文本内容已分段发送完成";
+                return call.attr("chunks", chunks.size()).ok("文本内容已分段发送完成");
             }
             
             // 默认模式：一次性返回全部内容
             String text = page.textContent(selector);
-            String result = String.format("元素文本内容: %s", text);
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    {}", result);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.ok(String.format("元素文本内容: %s", text));
         } catch (Exception e) {
-            String error = "获取文本失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("获取文本失败: " + e.getMessage(), e);
         }
     }
     
     @Tool("截取当前页面的屏幕截图。参数 path 是保存截图的文件路径（可选，默认返回 base64）")
     public String screenshot(String path) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 📸 工具调用: screenshot (截图)                           │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • path: {}", path == null ? "无（返回 base64）" : path);
+        CallLog call = CallLog.tool("screenshot", path).attr("remote", remoteBrowserEnabled);
         
         try {
             // 在远程模式下检查页面是否已打开
             if (remoteBrowserEnabled) {
                 if (currentPageUrl == null || currentPageUrl.isEmpty()) {
-                    return "错误: 请先使用 navigate 工具打开网页";
+                    return call.error("错误: 请先使用 navigate 工具打开网页");
                 }
                 // 远程模式下暂不支持此功能，返回提示信息
-                return "错误: 远程模式下暂不支持截图功能";
+                return call.error("错误: 远程模式下暂不支持截图功能");
             }
             
+            Page page = page();
+            
             if (page == null) {
-                return "错误: 请先使用 navigate 工具打开网页";
+                return call.error("错误: 请先使用 navigate 工具打开网页");
             }
             
             byte[] screenshot;
             if (path != null && !path.isEmpty()) {
                 screenshot = page.screenshot(new Page.ScreenshotOptions().setPath(Paths.get(path)));
-                String result = String.format("截图已保存到: %s", path);
-                
-                log.info("│ 📤 返回结果:");
-                log.info("│    {}", result);
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                
-                return result;
+                return call.attr("bytes", screenshot.length).ok(String.format("截图已保存到: %s", path));
             } else {
                 screenshot = page.screenshot();
                 String base64 = Base64.getEncoder().encodeToString(screenshot);
-                String result = "截图 Base64（前50字符）: " + base64.substring(0, Math.min(50, base64.length())) + "...";
-                
-                log.info("│ 📤 返回结果:");
-                log.info("│    {}", result);
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                
-                return "截图已生成（Base64 长度: " + base64.length() + " 字符）";
+                return call.attr("bytes", screenshot.length)
+                        .ok("截图已生成（Base64 长度: " + base64.length() + " 字符）");
             }
         } catch (Exception e) {
-            String error = "截图失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("截图失败: " + e.getMessage(), e);
         }
     }
     
-    @Tool("等待指定毫秒数。参数 milliseconds 是等待时间（毫秒）")
-    public String waitTime(Integer milliseconds) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ ⏱️  工具调用: waitTime (等待)                            │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • milliseconds: {}", milliseconds);
+    @Tool("等待页面满足条件后再继续，不要猜测等待时长。参数 condition 可选 'idle'（默认，网络和 DOM 安静）、'selector'（target 元素可见）、"
+            + "'hidden'（target 元素消失）、'text'（页面出现 target 文本）、'url'（URL 包含 target）、'load'（页面 load 完成），"
+            + "timeoutMillis 为超时时间（可选，默认 10000）")
+    public String waitFor(String condition, String target, Integer timeoutMillis) {
+        CallLog call = CallLog.tool("waitFor", condition, target, timeoutMillis);
+        String mode = condition == null || condition.isBlank() ? "idle" : condition.trim().toLowerCase();
+        long timeout = Math.min(timeoutMillis != null && timeoutMillis > 0 ? timeoutMillis : settleProperties.getWaitTimeoutMillis(),
+                settleProperties.getWaitMaxMillis());
         
         try {
-            // 在远程模式下检查页面是否已打开
+            // 远程模式下无法观察页面，只能短暂休眠
             if (remoteBrowserEnabled) {
                 if (currentPageUrl == null || currentPageUrl.isEmpty()) {
-                    return "错误: 请先使用 navigate 工具打开网页";
-                }
-            } else {
-                // 本地模式检查
-                if (page == null) {
-                    return "错误: 请先使用 navigate 工具打开网页";
+                    return call.error("错误: 请先使用 navigate 工具打开网页");
                 }
+                long sleep = Math.min(timeout, 1000);
+                Thread.sleep(sleep);
+                return call.ok(String.format("远程模式不支持条件等待，已等待 %d 毫秒", sleep));
             }
             
-            // 执行等待
-            if (remoteBrowserEnabled) {
-                // 远程模式下使用简单的线程睡眠
-                Thread.sleep(milliseconds != null ? milliseconds : 1000);
-            } else {
-                // 本地模式下使用 Playwright 的等待方法
-                page.waitForTimeout(milliseconds != null ? milliseconds : 1000);
+            Page page = page();
+            if (page == null) {
+                return call.error("错误: 请先使用 navigate 工具打开网页");
+            }
+            if (!mode.equals("idle") && !mode.equals("load") && (target == null || target.isEmpty())) {
+                return call.error("错误: 条件 " + mode + " 需要提供 target");
             }
             
-            String result = String.format("已等待 %d 毫秒", milliseconds != null ? milliseconds : 1000);
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    {}", result);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            long start = System.nanoTime();
+            switch (mode) {
+                case "idle" -> {
+                    PageSettler.Result settled = pageSettler.settle(session(), null, true, timeout);
+                    if (settled.isTimedOut()) {
+                        return call.error(String.format("等待超时: 页面在 %d 毫秒内未稳定", timeout));
+                    }
+                }
+                case "selector" -> page.waitForSelector(target, new Page.WaitForSelectorOptions()
+                        .setState(WaitForSelectorState.VISIBLE).setTimeout(timeout));
+                case "hidden" -> page.waitForSelector(target, new Page.WaitForSelectorOptions()
+                        .setState(WaitForSelectorState.HIDDEN).setTimeout(timeout));
+                case "text" -> page.waitForFunction("t => !!document.body && document.body.innerText.includes(t)",
+                        target, new Page.WaitForFunctionOptions().setTimeout(timeout));
+                case "url" -> page.waitForURL(url -> url.contains(target), new Page.WaitForURLOptions().setTimeout(timeout));
+                case "load" -> page.waitForLoadState(LoadState.LOAD, new Page.WaitForLoadStateOptions().setTimeout(timeout));
+                default -> {
+                    return call.error("错误: 不支持的条件 " + condition + "，可选 idle / selector / hidden / text / url / load");
+                }
+            }
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            call.attr("waitMs", elapsed);
+            return call.ok(String.format("条件已满足: %s%s（耗时 %d 毫秒）",
+                    mode, target != null && !target.isEmpty() ? " " + target : "", elapsed));
+        } catch (TimeoutError e) {
+            return call.error(String.format("等待超时: 条件 %s%s 在 %d 毫秒内未满足",
+                    mode, target != null ? " " + target : "", timeout));
         } catch (Exception e) {
-            String error = "等待失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("等待失败: " + e.getMessage(), e);
         }
     }
     
     @Tool("获取当前页面的 URL 和标题信息")
     public String getPageInfo() {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ ℹ️  工具调用: getPageInfo (获取页面信息)                 │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
+        CallLog call = CallLog.tool("getPageInfo").attr("remote", remoteBrowserEnabled);
         
         try {
             // 在远程模式下检查页面是否已打开
             if (remoteBrowserEnabled) {
                 if (currentPageUrl == null || currentPageUrl.isEmpty()) {
-                    return "错误: 请先使用 navigate 工具打开网页";
+                    return call.error("错误: 请先使用 navigate 工具打开网页");
                 }
                 // 远程模式下调用远程获取页面信息方法
-                return getPageInfoRemote();
+                return getPageInfoRemote(call);
             }
             
             // 本地模式检查
+            Page page = page();
             if (page == null) {
-                return "错误: 请先使用 navigate 工具打开网页";
+                return call.error("错误: 请先使用 navigate 工具打开网页");
             }
             
             String url = page.url();
             String title = page.title();
-            String result = String.format("当前页面 URL: %s, 标题: %s", url, title);
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    URL: {}", url);
-            log.info("│    标题: {}", title);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.ok(String.format("当前页面 URL: %s, 标题: %s", url, title));
         } catch (Exception e) {
-            String error = "获取页面信息失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("获取页面信息失败: " + e.getMessage(), e);
         }
     }
     
     @Tool("分析当前页面并返回详细信息，包括 URL、标题、可用的输入框和按钮。用于了解页面当前状态")
     public String analyzePage() {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔍 工具调用: analyzePage (分析页面)                  │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
+        CallLog call = CallLog.tool("analyzePage").attr("remote", remoteBrowserEnabled);
         
         try {
             // 在远程模式下检查页面是否已打开
             if (remoteBrowserEnabled) {
                 if (currentPageUrl == null || currentPageUrl.isEmpty()) {
-                    return "错误: 请先使用 navigate 工具打开网页";
+                    return call.error("错误: 请先使用 navigate 工具打开网页");
                 }
                 // 远程模式下调用远程页面分析方法
-                return analyzePageRemote();
+                return analyzePageRemote(call);
             }
             
             // 本地模式检查
+            Page page = page();
             if (page == null) {
-                return "错误: 请先使用 navigate 工具打开网页";
+                return call.error("错误: 请先使用 navigate 工具打开网页");
             }
             
-            String result = getPageState();
+            return call.ok(getPageState());
+        } catch (Exception e) {
+            return call.error("分析页面失败: " + e.getMessage(), e);
+        }
+    }
+    
+    @Tool("获取页面的无障碍树快照：按层级列出元素的角色、名称和状态，可交互元素带 ref 编号（如 [ref=e5]），"
+            + "不可见和装饰性节点已去掉。比 getVisibleHtml 更省 token，适合了解页面结构、查找要操作的元素。"
+            + "click / fill / hover / select / getText 可直接传入 ref（如 'e5'），页面跳转后 ref 失效。"
+            + "参数 maxTokens 为输出上限（可选，默认 2000）")
+    public String snapshot(Integer maxTokens) {
+        CallLog call = CallLog.tool("snapshot", maxTokens);
+        
+        try {
+            if (remoteBrowserEnabled) {
+                return call.error("错误: 远程浏览器模式不支持 snapshot，请使用 analyzePage 或 getVisibleText");
+            }
             
-            log.info("│ 📤 返回结果:");
-            log.info("│    {}", result);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
+            Page page = page();
+            if (page == null) {
+                return call.error("错误: 请先使用 navigate 工具打开网页");
+            }
             
-            return result;
+            int budget = Math.min(maxTokens != null && maxTokens > 0 ? maxTokens : snapshotMaxTokens, snapshotMaxTokensLimit);
+            AccessibilitySnapshot.Result snapshot = AccessibilitySnapshot.capture(page, budget, snapshotMaxTextLength);
+            call.attr("tokens", snapshot.getTokens())
+                    .attr("nodes", snapshot.getLines())
+                    .attr("refs", snapshot.getRefs())
+                    .attr("truncated", snapshot.isTruncated())
+                    .attr("snapshotMs", snapshot.getMillis());
+            return call.ok(filterSensitiveContent(snapshot.getText()));
         } catch (Exception e) {
-            String error = "分析页面失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("获取页面快照失败: " + e.getMessage(), e);
         }
     }
     
@@ -991,104 +953,70 @@ public class PlaywrightMcpTools {
         
         try {
             // 获取完整的文本内容
-            String fullText = page.textContent(selector);
+            String fullText = page().textContent(selector);
             if (fullText == null || fullText.isEmpty()) {
                 return chunks;
             }
             
-            // 过滤敏感内容
-            fullText = filterSensitiveContent(fullText);
-            
-            // 按指定大小分段
-            for (int i = 0; i < fullText.length(); i += chunkSize) {
-                int end = Math.min(i + chunkSize, fullText.length());
-                chunks.add(fullText.substring(i, end));
-            }
+            // 过滤敏感内容后按指定大小分段
+            chunks = splitIntoChunks(filterSensitiveContent(fullText), chunkSize);
         } catch (Exception e) {
             log.error("分段读取文本失败: {}", e.getMessage());
         }
         
         return chunks;
     }
+    
+    /**
+     * 按固定字符数切分文本
+     */
+    static List<String> splitIntoChunks(String text, int chunkSize) {
+        List<String> chunks = new ArrayList<>(text.length() / chunkSize + 1);
+        for (int i = 0; i < text.length(); i += chunkSize) {
+            int end = Math.min(i + chunkSize, text.length());
+            chunks.add(text.substring(i, end));
+        }
+        return chunks;
+    }
 
 
     @Tool("关闭浏览器并释放资源")
     public String closeBrowser() {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🚪 工具调用: closeBrowser (关闭浏览器)                   │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
+        CallLog call = CallLog.tool("closeBrowser");
         
         try {
-            if (page != null) {
-                page.close();
-                page = null;
-            }
-            if (context != null) {
-                context.close();
-                context = null;
-            }
-            if (browser != null) {
-                browser.close();
-                browser = null;
-            }
-            
-            String result = "浏览器已关闭";
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    {}", result);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            // 归还当前任务的上下文，其他任务的上下文不受影响
+            browserPool.releaseCurrent();
+            return call.ok("浏览器已关闭");
         } catch (Exception e) {
-            String error = "关闭浏览器失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("关闭浏览器失败: " + e.getMessage(), e);
         }
     }
     
     @Tool("执行 JavaScript 代码并返回结果。参数 script 是要执行的 JavaScript 代码")
     public String evaluate(String script) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔧 工具调用: evaluate (执行 JS)                          │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • script: {}", script);
+        CallLog call = CallLog.tool("evaluate", script).attr("remote", remoteBrowserEnabled);
         
         try {
             // 在远程模式下检查页面是否已打开
             if (remoteBrowserEnabled) {
                 if (currentPageUrl == null || currentPageUrl.isEmpty()) {
-                    return "错误: 请先使用 navigate 工具打开网页";
+                    return call.error("错误: 请先使用 navigate 工具打开网页");
                 }
                 // 远程模式下调用远程执行JS方法
-                return evaluateRemote(script);
+                return evaluateRemote(call, script);
             }
             
             // 本地模式检查
+            Page page = page();
             if (page == null) {
-                return "错误: 请先使用 navigate 工具打开网页";
+                return call.error("错误: 请先使用 navigate 工具打开网页");
             }
             
             Object result = page.evaluate(script);
-            String resultStr = String.format("JavaScript 执行结果: %s", result);
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    {}", resultStr);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return resultStr;
+            return call.ok(String.format("JavaScript 执行结果: %s", result));
         } catch (Exception e) {
-            String error = "执行 JavaScript 失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("执行 JavaScript 失败: " + e.getMessage(), e);
         }
     }
     
@@ -1098,151 +1026,111 @@ public class PlaywrightMcpTools {
      */
     private String getPageState() {
         try {
+            Page page = page();
             if (page == null) {
                 return "页面未加载";
             }
-            
-            String url = page.url();
-            String title = page.title();
-            
-            // 检测页面上的关键元素
-            @SuppressWarnings("unchecked")
-            java.util.Map<String, Object> elements = (java.util.Map<String, Object>) page.evaluate(
-                "() => { " +
-                "  const result = { inputs: [], textareas: [], buttons: [] }; " +
-                "  " +
-                "  try { " +
-                "    document.querySelectorAll('input[type=text], input[type=search], input:not([type])').forEach(el => { " +
-                "      try { " +
-                "        const style = window.getComputedStyle(el); " +
-                "        if (style.display !== 'none' && style.visibility !== 'hidden') { " +
-                "          result.inputs.push({ " +
-                "            id: el.id || '', " +
-                "            name: el.name || '', " +
-                "            placeholder: el.placeholder || '' " +
-                "          }); " +
-                "        } " +
-                "      } catch (e) { } " +
-                "    }); " +
-                "  } catch (e) { } " +
-                "  " +
-                "  try { " +
-                "    document.querySelectorAll('textarea').forEach(el => { " +
-                "      try { " +
-                "        const style = window.getComputedStyle(el); " +
-                "        if (style.display !== 'none' && style.visibility !== 'hidden') { " +
-                "          result.textareas.push({ " +
-                "            id: el.id || '', " +
-                "            placeholder: el.placeholder || '' " +
-                "          }); " +
-                "        } " +
-                "      } catch (e) { } " +
-                "    }); " +
-                "  } catch (e) { } " +
-                "  " +
-                "  try { " +
-                "    document.querySelectorAll('button, input[type=submit]').forEach(el => { " +
-                "      try { " +
-                "        const style = window.getComputedStyle(el); " +
-                "        if (style.display !== 'none' && style.visibility !== 'hidden') { " +
-                "          let text = ''; " +
-                "          if (el.tagName === 'BUTTON' && el.textContent) { " +
-                "            text = el.textContent.trim().substring(0, 20); " +
-                "          } else if (el.tagName === 'INPUT' && el.value) { " +
-                "            text = el.value.trim().substring(0, 20); " +
-                "          } " +
-                "          result.buttons.push({ " +
-                "            id: el.id || '', " +
-                "            text: text " +
-                "          }); " +
-                "        } " +
-                "      } catch (e) { } " +
-                "    }); " +
-                "  } catch (e) { } " +
-                "  " +
-                "  result.inputs = result.inputs.slice(0, 3); " +
-                "  result.textareas = result.textareas.slice(0, 3); " +
-                "  result.buttons = result.buttons.slice(0, 5); " +
-                "  " +
-                "  return result; " +
-                "}"
-            );
-            
-            StringBuilder state = new StringBuilder();
-            state.append("当前 URL: ").append(url).append("\n");
-            state.append("页面标题: ").append(title).append("\n");
-            
-            // 输入框信息
-            @SuppressWarnings("unchecked")
-            java.util.List<java.util.Map<String, String>> inputs = 
-                (java.util.List<java.util.Map<String, String>>) elements.get("inputs");
-            if (inputs != null && !inputs.isEmpty()) {
-                state.append("可用输入框: ");
-                for (java.util.Map<String, String> input : inputs) {
-                    if (input.get("id") != null && !input.get("id").isEmpty()) {
-                        state.append("#").append(input.get("id")).append(" ");
-                    } else if (input.get("name") != null && !input.get("name").isEmpty()) {
-                        state.append("[name=\"").append(input.get("name")).append("\"] ");
-                    }
-                }
-                state.append("\n");
-            }
-            
-            // textarea 信息
-            @SuppressWarnings("unchecked")
-            java.util.List<java.util.Map<String, String>> textareas = 
-                (java.util.List<java.util.Map<String, String>>) elements.get("textareas");
-            if (textareas != null && !textareas.isEmpty()) {
-                state.append("可用文本区: ");
-                for (java.util.Map<String, String> textarea : textareas) {
-                    if (textarea.get("id") != null && !textarea.get("id").isEmpty()) {
-                        state.append("#").append(textarea.get("id")).append(" ");
-                    }
-                }
-                state.append("\n");
-            }
-            
-            // 按钮信息
-            @SuppressWarnings("unchecked")
-            java.util.List<java.util.Map<String, String>> buttons = 
-                (java.util.List<java.util.Map<String, String>>) elements.get("buttons");
-            if (buttons != null && !buttons.isEmpty()) {
-                state.append("可用按钮: ");
-                for (java.util.Map<String, String> button : buttons) {
-                    String buttonInfo = "";
-                    if (button.get("id") != null && !button.get("id").isEmpty()) {
-                        buttonInfo = "#" + button.get("id");
-                    } else if (button.get("text") != null && !button.get("text").isEmpty()) {
-                        buttonInfo = "\"" + button.get("text") + "\"";
-                    }
-                    if (!buttonInfo.isEmpty()) {
-                        state.append(buttonInfo).append(" ");
-                    }
-                }
-                state.append("\n");
+            return formatPageState(PageStateTracker.observe(page, true, false));
+        } catch (Exception e) {
+            return "无法获取页面状态: " + e.getMessage();
+        }
+    }
+    
+    /**
+     * 获取与上次观察相比的页面状态变化（click / fill 之后使用），跳转到新文档后返回完整状态
+     */
+    private String getPageDelta() {
+        try {
+            Page page = page();
+            if (page == null) {
+                return "页面未加载";
             }
-            
-            return state.toString().trim();
+            java.util.Map<String, Object> state = PageStateTracker.observe(page, false, false);
+            return Boolean.TRUE.equals(state.get("full")) ? formatPageState(state) : formatPageDelta(state);
         } catch (Exception e) {
             return "无法获取页面状态: " + e.getMessage();
         }
     }
     
+    /**
+     * 一次 evaluate 取回 URL、标题、关键元素和 Navigation Timing（timing 在没有导航记录时为 null）
+     */
+    private java.util.Map<String, Object> evaluatePageState(Page page) {
+        return PageStateTracker.observe(page, true, true);
+    }
+    
+    /**
+     * 把完整的页面状态格式化为文本
+     */
+    static String formatPageState(java.util.Map<String, Object> elements) {
+        StringBuilder state = new StringBuilder();
+        state.append("当前 URL: ").append(elements.get("url")).append("\n");
+        state.append("页面标题: ").append(elements.get("title")).append("\n");
+        appendElements(state, "可用输入框: ", elements.get("inputs"));
+        appendElements(state, "可用文本区: ", elements.get("textareas"));
+        appendElements(state, "可用按钮: ", elements.get("buttons"));
+        return state.toString().trim();
+    }
+    
+    /**
+     * 把页面状态差异格式化为文本，没有变化时只返回一行
+     */
+    @SuppressWarnings("unchecked")
+    static String formatPageDelta(java.util.Map<String, Object> delta) {
+        if (!Boolean.TRUE.equals(delta.get("changed"))) {
+            return "页面状态未变化";
+        }
+        StringBuilder state = new StringBuilder("页面状态变化:\n");
+        if (Boolean.TRUE.equals(delta.get("urlChanged"))) {
+            state.append("当前 URL: ").append(delta.get("url")).append("\n");
+        }
+        if (Boolean.TRUE.equals(delta.get("titleChanged"))) {
+            state.append("页面标题: ").append(delta.get("title")).append("\n");
+        }
+        java.util.Map<String, Object> added = (java.util.Map<String, Object>) delta.get("added");
+        java.util.Map<String, Object> removed = (java.util.Map<String, Object>) delta.get("removed");
+        appendElements(state, "新增输入框: ", added.get("inputs"));
+        appendElements(state, "新增文本区: ", added.get("textareas"));
+        appendElements(state, "新增按钮: ", added.get("buttons"));
+        appendElements(state, "消失的输入框: ", removed.get("inputs"));
+        appendElements(state, "消失的文本区: ", removed.get("textareas"));
+        appendElements(state, "消失的按钮: ", removed.get("buttons"));
+        return state.toString().trim();
+    }
+    
+    /**
+     * 追加一类元素：有 id 时用 #id，输入框其次用 name，按钮其次用文字
+     */
+    @SuppressWarnings("unchecked")
+    private static void appendElements(StringBuilder state, String label, Object list) {
+        java.util.List<java.util.Map<String, String>> elements = (java.util.List<java.util.Map<String, String>>) list;
+        if (elements == null || elements.isEmpty()) {
+            return;
+        }
+        state.append(label);
+        for (java.util.Map<String, String> element : elements) {
+            String id = element.get("id");
+            String name = element.get("name");
+            String text = element.get("text");
+            if (id != null && !id.isEmpty()) {
+                state.append("#").append(id).append(" ");
+            } else if (name != null && !name.isEmpty()) {
+                state.append("[name=\"").append(name).append("\"] ");
+            } else if (text != null && !text.isEmpty()) {
+                state.append("\"").append(text).append("\" ");
+            }
+        }
+        state.append("\n");
+    }
+    
     @Tool("对当前页面或指定元素截图。参数 fullPage 为 true 时截取整页（默认 false），selector 可指定元素选择器，返回 base64 格式图片")
     public String screenshot(Boolean fullPage, String selector) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 📸 工具调用: screenshot (截图)                           │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • fullPage: {}", fullPage == null ? false : fullPage);
-        if (selector != null) {
-            log.info("│    • selector: {}", selector);
-        }
+        CallLog call = CallLog.tool("screenshot", fullPage, selector);
         
         try {
+            Page page = page();
             if (page == null) {
-                return "错误: 请先使用 navigate 工具打开网页";
+                return call.error("错误: 请先使用 navigate 工具打开网页");
             }
             
             byte[] screenshotBytes;
@@ -1256,73 +1144,50 @@ public class PlaywrightMcpTools {
                 // 元素截图
                 Locator element = page.locator(selector);
                 screenshotBytes = element.screenshot();
-                log.info("│ ✅ 元素截图成功: {}", selector);
             } else if (isFullPage) {
                 // 全页截图
                 screenshotBytes = page.screenshot(new Page.ScreenshotOptions().setFullPage(true));
-                log.info("│ ✅ 全页截图成功");
             } else {
                 // 视口截图
                 screenshotBytes = page.screenshot();
-                log.info("│ ✅ 视口截图成功");
             }
             
-            String base64 = Base64.getEncoder().encodeToString(screenshotBytes);
             // 为避免 token 超限，不返回完整 base64 数据，只返回简短确认信息
-            String result = String.format("截图成功，大小: %d KB", screenshotBytes.length / 1024);
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    截图大小: {} KB", screenshotBytes.length / 1024);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.attr("bytes", screenshotBytes.length)
+                    .ok(String.format("截图成功，大小: %d KB", screenshotBytes.length / 1024));
         } catch (Exception e) {
-            String error = "截图失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("截图失败: " + e.getMessage(), e);
         }
     }
     
     @Tool("获取浏览器控制台日志。参数 type 可选 'all', 'error', 'warning', 'log', 'info' 等，limit 限制返回条数（默认 50）")
     public String getConsoleLogs(String type, Integer limit) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 📊 工具调用: getConsoleLogs (获取控制台日志)         │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • type: {}", type == null ? "all" : type);
-        log.info("│    • limit: {}", limit == null ? 50 : limit);
+        CallLog call = CallLog.tool("getConsoleLogs", type, limit);
         
         try {
+            Page page = page();
             if (page == null) {
-                return "错误: 请先使用 navigate 工具打开网页";
+                return call.error("错误: 请先使用 navigate 工具打开网页");
             }
             
             // 从内存中获取已收集的控制台日志
             String filterType = type == null ? "all" : type.toLowerCase();
             int maxLimit = limit == null ? 50 : limit;
             
+            List<ConsoleLogEntry> consoleLogs = session().getConsoleLogs();
             java.util.List<ConsoleLogEntry> filteredLogs = consoleLogs.stream()
-                .filter(entry -> "all".equals(filterType) || entry.type.equalsIgnoreCase(filterType))
+                .filter(entry -> "all".equals(filterType) || entry.getType().equalsIgnoreCase(filterType))
                 .collect(java.util.stream.Collectors.toList());
             
             // 只返回最后 N 条
             int fromIndex = Math.max(0, filteredLogs.size() - maxLimit);
             filteredLogs = filteredLogs.subList(fromIndex, filteredLogs.size());
+            call.attr("entries", filteredLogs.size()).attr("collected", consoleLogs.size());
             
             if (filteredLogs.isEmpty()) {
-                String msg = String.format("暂无%s类型的控制台日志（总共收集 %d 条日志）", 
+                return call.ok(String.format("暂无%s类型的控制台日志（总共收集 %d 条日志）", 
                     "all".equals(filterType) ? "任何" : filterType,
-                    consoleLogs.size());
-                
-                log.info("│ 📤 返回结果:");
-                log.info("│    {}", msg);
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                return msg;
+                    consoleLogs.size()));
             }
             
             StringBuilder result = new StringBuilder();
@@ -1334,48 +1199,43 @@ public class PlaywrightMcpTools {
                 ConsoleLogEntry entry = filteredLogs.get(i);
                 result.append(String.format("[%d] [%s] %s\n", 
                     i + 1, 
-                    entry.type.toUpperCase(), 
-                    entry.text));
+                    entry.getType().toUpperCase(), 
+                    entry.getText()));
             }
             
-            log.info("│ 📤 返回结果:");
-            log.info("│    日志条数: {} (总共收集: {})", filteredLogs.size(), consoleLogs.size());
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result.toString();
+            return call.ok(result.toString());
         } catch (Exception e) {
-            String error = "获取控制台日志失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("获取控制台日志失败: " + e.getMessage(), e);
         }
     }
     
-    @Tool("鼠标悬停在指定元素上，触发悬停事件。参数 selector 是元素选择器")
+    @Tool("鼠标悬停在指定元素上，触发悬停事件。参数 selector 是元素选择器或 snapshot 返回的 ref（如 'e2'）")
     public String hover(String selector) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🎯 工具调用: hover (鼠标悬停)                            │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • selector: {}", selector);
+        CallLog call = CallLog.tool("hover", selector);
         
         try {
+            Page page = page();
             if (page == null) {
-                return "错误: 请先使用 navigate 工具打开网页";
+                return call.error("错误: 请先使用 navigate 工具打开网页");
+            }
+            
+            String ref = ElementRefs.toSelector(selector);
+            if (ref != null) {
+                if (!ElementRefs.isAttached(page, ref)) {
+                    return call.error(ElementRefs.staleMessage(ref));
+                }
+                selector = ref;
             }
             
             // 智能悬停：先尝试正常 hover，失败则用 JS
             try {
                 page.hover(selector, new Page.HoverOptions().setTimeout(3000));
-                log.info("│ ✅ 正常悬停成功");
             } catch (Exception hoverError) {
-                log.info("│ ⚠️  正常悬停失败，使用 JS 绕过");
+                log.debug("正常悬停失败，使用 JS 绕过: {}", selector);
+                call.attr("jsFallback", true);
                 page.evaluate(
                     "(selector) => { " +
-                    "  const el = document.querySelector(selector); " +
+                    "  const el = " + ElementRefs.QUERY_SCRIPT + "(selector); " +
                     "  if (el) { " +
                     "    el.dispatchEvent(new MouseEvent('mouseover', { bubbles: true })); " +
                     "    el.dispatchEvent(new MouseEvent('mouseenter', { bubbles: true })); " +
@@ -1385,195 +1245,120 @@ public class PlaywrightMcpTools {
                 );
             }
             
-            String result = "成功悬停在元素: " + selector;
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    {}", result);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.ok("成功悬停在元素: " + selector);
         } catch (Exception e) {
-            String error = "悬停失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("悬停失败: " + e.getMessage(), e);
         }
     }
     
-    @Tool("选择下拉框（select 元素）的选项。参数 selector 是 select 元素选择器，value 是要选择的选项值")
+    @Tool("选择下拉框（select 元素）的选项。参数 selector 是 select 元素选择器或 snapshot 返回的 ref（如 'e4'），value 是要选择的选项值")
     public String select(String selector, String value) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔽 工具调用: select (选择下拉框)                         │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • selector: {}", selector);
-        log.info("│    • value: {}", value);
+        CallLog call = CallLog.tool("select", selector, value);
         
         try {
+            Page page = page();
             if (page == null) {
-                return "错误: 请先使用 navigate 工具打开网页";
+                return call.error("错误: 请先使用 navigate 工具打开网页");
+            }
+            
+            String ref = ElementRefs.toSelector(selector);
+            if (ref != null) {
+                if (!ElementRefs.isAttached(page, ref)) {
+                    return call.error(ElementRefs.staleMessage(ref));
+                }
+                selector = ref;
             }
             
             // 使用 Playwright 的 selectOption 方法
             page.selectOption(selector, value);
             
-            String result = String.format("成功选择下拉框 %s 的选项: %s", selector, value);
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    {}", result);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.ok(String.format("成功选择下拉框 %s 的选项: %s", selector, value));
         } catch (Exception e) {
-            String error = "选择下拉框失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("选择下拉框失败: " + e.getMessage(), e);
         }
     }
     
     @Tool("上传文件到文件输入框。参数 selector 是 input[type='file'] 元素选择器，filePath 是文件的绝对路径")
     public String uploadFile(String selector, String filePath) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 📂 工具调用: uploadFile (上传文件)                       │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • selector: {}", selector);
-        log.info("│    • filePath: {}", filePath);
+        CallLog call = CallLog.tool("uploadFile", selector, filePath);
         
         try {
+            Page page = page();
             if (page == null) {
-                return "错误: 请先使用 navigate 工具打开网页";
+                return call.error("错误: 请先使用 navigate 工具打开网页");
             }
             
             // 验证文件是否存在
             java.nio.file.Path path = Paths.get(filePath);
             if (!java.nio.file.Files.exists(path)) {
-                return "错误: 文件不存在: " + filePath;
+                return call.error("错误: 文件不存在: " + filePath);
             }
             
             // 使用 Playwright 的 setInputFiles 方法
             page.setInputFiles(selector, path);
             
-            String result = String.format("成功上传文件到 %s: %s", selector, filePath);
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    {}", result);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.ok(String.format("成功上传文件到 %s: %s", selector, filePath));
         } catch (Exception e) {
-            String error = "上传文件失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("上传文件失败: " + e.getMessage(), e);
         }
     }
     
-    @Tool("获取页面可见文本内容，排除隐藏元素。返回所有可见文本")
+    @Tool("获取页面正文，以 Markdown 返回（标题、列表、表格），已去掉导航、页脚、侧栏等样板内容和隐藏元素，最多 5000 字符；"
+            + "正文较长时只返回与当前任务最相关的段落")
     public String getVisibleText() {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 📄 工具调用: getVisibleText (获取可见文本)              │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
+        CallLog call = CallLog.tool("getVisibleText").attr("remote", remoteBrowserEnabled);
         
         try {
             // 在远程模式下检查页面是否已打开
             if (remoteBrowserEnabled) {
                 if (currentPageUrl == null || currentPageUrl.isEmpty()) {
-                    return "错误: 请先使用 navigate 工具打开网页";
+                    return call.error("错误: 请先使用 navigate 工具打开网页");
                 }
                 // 远程模式下调用远程获取可见文本方法
-                return getVisibleTextRemote();
+                return getVisibleTextRemote(call);
             }
             
             // 本地模式检查
+            Page page = page();
             if (page == null) {
-                return "错误: 请先使用 navigate 工具打开网页";
-            }
-            
-            // 使用 JavaScript 提取所有可见文本
-            String visibleText = (String) page.evaluate(
-                "() => { " +
-                "  function isVisible(el) { " +
-                "    const style = window.getComputedStyle(el); " +
-                "    return style.display !== 'none' && style.visibility !== 'hidden' && style.opacity !== '0'; " +
-                "  } " +
-                "  " +
-                "  function getText(node) { " +
-                "    let text = ''; " +
-                "    if (node.nodeType === Node.TEXT_NODE) { " +
-                "      return node.textContent.trim(); " +
-                "    } " +
-                "    if (node.nodeType === Node.ELEMENT_NODE && isVisible(node)) { " +
-                "      for (let child of node.childNodes) { " +
-                "        text += getText(child) + ' '; " +
-                "      } " +
-                "    } " +
-                "    return text; " +
-                "  } " +
-                "  " +
-                "  return getText(document.body).replace(/\\s+/g, ' ').trim(); " +
-                "}"
-            );
-            
-            // 应用智能压缩避免 token 超限
-            String compressed = compressText(visibleText, MAX_TEXT_LENGTH);
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    原始长度: {} 字符", visibleText.length());
-            log.info("│    压缩后长度: {} 字符", compressed.length());
-            if (compressed.length() < visibleText.length()) {
-                log.info("│    压缩率: {}%", String.format("%.1f", (1 - compressed.length() * 1.0 / visibleText.length()) * 100));
+                return call.error("错误: 请先使用 navigate 工具打开网页");
             }
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
+            
+            // 页面内提取正文并转换为 Markdown，去掉导航、页脚等样板内容；
+            // 有任务查询时多提取一些，由外层执行器按相关度选段压缩（见 TaskFocus），否则直接按 MAX_TEXT_LENGTH 截断
+            ContentExtractor.Result content = ContentExtractor.extract(page, taskFocus.pageSourceChars(MAX_TEXT_LENGTH));
+            call.attr("rawChars", content.getRawChars())
+                    .attr("chars", content.getText().length())
+                    .attr("container", content.getContainer())
+                    .attr("truncated", content.isTruncated())
+                    .attr("extractMs", content.getMillis());
             
             // 过滤敏感内容后再返回
-            return filterSensitiveContent(compressed);
+            return call.ok(filterSensitiveContent(content.getText()));
         } catch (Exception e) {
-            String error = "获取可见文本失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("获取可见文本失败: " + e.getMessage(), e);
         }
     }
     
     @Tool("获取页面 HTML 内容。参数 selector 可限制到特定元素，cleanHtml=true 移除 script/style/comment 等干扰内容")
     public String getVisibleHtml(String selector, Boolean cleanHtml) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 📝 工具调用: getVisibleHtml (获取HTML)                   │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        if (selector != null) {
-            log.info("│    • selector: {}", selector);
-        }
-        log.info("│    • cleanHtml: {}", cleanHtml == null ? false : cleanHtml);
+        CallLog call = CallLog.tool("getVisibleHtml", selector, cleanHtml).attr("remote", remoteBrowserEnabled);
         
         try {
             // 在远程模式下检查页面是否已打开
             if (remoteBrowserEnabled) {
                 if (currentPageUrl == null || currentPageUrl.isEmpty()) {
-                    return "错误: 请先使用 navigate 工具打开网页";
+                    return call.error("错误: 请先使用 navigate 工具打开网页");
                 }
                 // 远程模式下调用远程获取HTML方法
                 boolean shouldClean = cleanHtml != null ? cleanHtml : false;
-                return getVisibleHtmlRemote(selector, shouldClean);
+                return getVisibleHtmlRemote(call, selector, shouldClean);
             }
             
             // 本地模式检查
+            Page page = page();
             if (page == null) {
-                return "错误: 请先使用 navigate 工具打开网页";
+                return call.error("错误: 请先使用 navigate 工具打开网页");
             }
             
             // 确保 cleanHtml 参数是布尔类型
@@ -1587,67 +1372,34 @@ public class PlaywrightMcpTools {
             args.put("selector", selector);
             args.put("cleanHtml", shouldClean);
             
-            String html = (String) page.evaluate(
-                "(args) => { " +
-                "  let container = args.selector ? document.querySelector(args.selector) : document.documentElement; " +
-                "  if (!container) return ''; " +
-                "  " +
-                "  let clone = container.cloneNode(true); " +
-                "  " +
-                "  if (args.cleanHtml) { " +
-                "    clone.querySelectorAll('script').forEach(el => el.remove()); " +
-                "    clone.querySelectorAll('style').forEach(el => el.remove()); " +
-                "    clone.querySelectorAll('meta').forEach(el => el.remove()); " +
-                "    clone.querySelectorAll('link[rel=\"stylesheet\"]').forEach(el => el.remove()); " +
-                "  } " +
-                "  " +
-                "  return clone.outerHTML; " +
-                "}",
-                args
-            );
+            String html = (String) page.evaluate(VISIBLE_HTML_SCRIPT, args);
             
             // 应用智能压缩避免 token 超限
             String compressed = compressText(html, MAX_HTML_LENGTH);
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    原始长度: {} 字符", html.length());
-            log.info("│    压缩后长度: {} 字符", compressed.length());
-            if (compressed.length() < html.length()) {
-                log.info("│    压缩率: {}%", String.format("%.1f", (1 - compressed.length() * 1.0 / html.length()) * 100));
-            }
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
+            call.attr("rawChars", html.length());
             
             // 过滤敏感内容后再返回
-            return filterSensitiveContent(compressed);
+            return call.ok(filterSensitiveContent(compressed));
         } catch (Exception e) {
-            String error = "获取 HTML 失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("获取 HTML 失败: " + e.getMessage(), e);
         }
     }
     
     @Tool("点击链接并自动切换到新打开的标签页。参数 selector 是链接元素选择器")
     public String clickAndSwitchTab(String selector) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 💪 工具调用: clickAndSwitchTab (点击并切换标签页)       │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • selector: {}", selector);
+        CallLog call = CallLog.tool("clickAndSwitchTab", selector);
         
         try {
+            Page page = page();
+            BrowserContext context = page != null ? session().getContext() : null;
             if (page == null || context == null) {
-                return "错误: 请先使用 navigate 工具打开网页";
+                return call.error("错误: 请先使用 navigate 工具打开网页");
             }
             
             // 监听新标签页事件
             Page[] newPage = new Page[1];
             context.onPage(p -> {
                 newPage[0] = p;
-                log.info("│ 🆕 检测到新标签页");
             });
             
             // 点击链接
@@ -1667,43 +1419,28 @@ public class PlaywrightMcpTools {
             }
             
             if (newPage[0] == null) {
-                return "错误: 点击后未打开新标签页，可能不是 target=\"_blank\" 链接";
+                return call.error("错误: 点击后未打开新标签页，可能不是 target=\"_blank\" 链接");
             }
             
             // 切换到新标签页
             page = newPage[0];
+            session().setPage(page);
             page.waitForLoadState();
             
-            String result = String.format("成功切换到新标签页: %s", page.url());
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    {}", result);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.ok(String.format("成功切换到新标签页: %s", page.url()));
         } catch (Exception e) {
-            String error = "点击并切换标签页失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("点击并切换标签页失败: " + e.getMessage(), e);
         }
     }
     
     @Tool("在 iframe 中点击元素。参数 iframeSelector 是 iframe 选择器，selector 是 iframe 内部元素选择器")
     public String iframeClick(String iframeSelector, String selector) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔲 工具调用: iframeClick (iframe中点击)                  │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • iframeSelector: {}", iframeSelector);
-        log.info("│    • selector: {}", selector);
+        CallLog call = CallLog.tool("iframeClick", iframeSelector, selector);
         
         try {
+            Page page = page();
             if (page == null) {
-                return "错误: 请先使用 navigate 工具打开网页";
+                return call.error("错误: 请先使用 navigate 工具打开网页");
             }
             
             // 获取 iframe
@@ -1712,37 +1449,20 @@ public class PlaywrightMcpTools {
             // 在 iframe 中点击元素
             frameLocator.locator(selector).click();
             
-            String result = String.format("成功在 iframe %s 中点击元素: %s", iframeSelector, selector);
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    {}", result);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.ok(String.format("成功在 iframe %s 中点击元素: %s", iframeSelector, selector));
         } catch (Exception e) {
-            String error = "iframe 中点击失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("iframe 中点击失败: " + e.getMessage(), e);
         }
     }
     
     @Tool("在 iframe 中填写输入框。参数 iframeSelector 是 iframe 选择器，selector 是 iframe 内部输入框选择器，text 是要填写的文本")
     public String iframeFill(String iframeSelector, String selector, String text) {
-        log.info("");
-        log.info("┌─────────────────────────────────────────────────────────────┐");
-        log.info("│ 🔲 工具调用: iframeFill (iframe中填写)                   │");
-        log.info("├─────────────────────────────────────────────────────────────┤");
-        log.info("│ 📥 输入参数:");
-        log.info("│    • iframeSelector: {}", iframeSelector);
-        log.info("│    • selector: {}", selector);
-        log.info("│    • text: {}", text);
+        CallLog call = CallLog.tool("iframeFill", iframeSelector, selector, text);
         
         try {
+            Page page = page();
             if (page == null) {
-                return "错误: 请先使用 navigate 工具打开网页";
+                return call.error("错误: 请先使用 navigate 工具打开网页");
             }
             
             // 获取 iframe
@@ -1751,30 +1471,17 @@ public class PlaywrightMcpTools {
             // 在 iframe 中填写输入框
             frameLocator.locator(selector).fill(text);
             
-            String result = String.format("成功在 iframe %s 中填写 %s: %s", iframeSelector, selector, text);
-            
-            log.info("│ 📤 返回结果:");
-            log.info("│    {}", result);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            
-            return result;
+            return call.ok(String.format("成功在 iframe %s 中填写 %s: %s", iframeSelector, selector, text));
         } catch (Exception e) {
-            String error = "iframe 中填写失败: " + e.getMessage();
-            log.error("│ ❌ 错误: {}", error);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("iframe 中填写失败: " + e.getMessage(), e);
         }
     }
     
     /**
      * 远程模式下获取页面信息实现
      */
-    private String getPageInfoRemote() {
+    private String getPageInfoRemote(CallLog call) {
         try {
-            log.info("│ ℹ️  使用远程浏览器模式");
-            
             // 构造远程控制 URL
             String remoteUrl = String.format("http://%s:%d/browser/getPageInfo", 
                 remoteBrowserHost, remoteBrowserPort);
@@ -1800,26 +1507,12 @@ public class PlaywrightMcpTools {
                 // 更新当前页面 URL
                 updateCurrentPageUrlRemote();
                 
-                log.info("│ ✅ 远程获取页面信息成功");
-                log.info("│ 📤 返回结果:");
-                log.info("│    {}", response.toString());
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                
-                return response.toString();
+                return call.ok(response.toString());
             } else {
-                String error = "远程获取页面信息失败，HTTP 状态码: " + responseCode;
-                log.error("│ ❌ {}", error);
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                return error;
+                return call.error("远程获取页面信息失败，HTTP 状态码: " + responseCode);
             }
         } catch (Exception e) {
-            String error = "远程获取页面信息异常: " + e.getMessage();
-            log.error("│ ❌ {}", error, e);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("远程获取页面信息异常: " + e.getMessage(), e);
         }
     }
     
@@ -1867,13 +1560,12 @@ public class PlaywrightMcpTools {
         }
     }
     
+    
     /**
      * 远程模式下获取页面可见文本实现
      */
-    private String getVisibleTextRemote() {
+    private String getVisibleTextRemote(CallLog call) {
         try {
-            log.info("│ ℹ️  使用远程浏览器模式获取可见文本");
-            
             // 构造远程控制 URL
             String remoteUrl = String.format("http://%s:%d/browser/getVisibleText", 
                 remoteBrowserHost, remoteBrowserPort);
@@ -1899,36 +1591,20 @@ public class PlaywrightMcpTools {
                 // 更新当前页面 URL
                 updateCurrentPageUrlRemote();
                 
-                log.info("│ ✅ 远程获取可见文本成功");
-                log.info("│ 📤 返回结果:");
-                log.info("│    {}", response.toString());
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                
-                return response.toString();
+                return call.ok(response.toString());
             } else {
-                String error = "远程获取可见文本失败，HTTP 状态码: " + responseCode;
-                log.error("│ ❌ {}", error);
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                return error;
+                return call.error("远程获取可见文本失败，HTTP 状态码: " + responseCode);
             }
         } catch (Exception e) {
-            String error = "远程获取可见文本异常: " + e.getMessage();
-            log.error("│ ❌ {}", error, e);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("远程获取可见文本异常: " + e.getMessage(), e);
         }
     }
     
     /**
      * 远程模式下获取页面 HTML 实现方法
      */
-    private String getVisibleHtmlRemote(String selector, boolean shouldClean) {
+    private String getVisibleHtmlRemote(CallLog call, String selector, boolean shouldClean) {
         try {
-            log.info("│ ℹ️  使用远程浏览器模式获取页面 HTML");
-            
             // 构造远程控制 URL，包含参数
             String remoteUrl = String.format("http://%s:%d/browser/getVisibleHtml?selector=%s&clean=%b", 
                 remoteBrowserHost, remoteBrowserPort, 
@@ -1956,36 +1632,20 @@ public class PlaywrightMcpTools {
                 // 更新当前页面 URL
                 updateCurrentPageUrlRemote();
                 
-                log.info("│ ✅ 远程获取页面 HTML 成功");
-                log.info("│ 📤 返回结果:");
-                log.info("│    {}", response.toString());
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                
-                return response.toString();
+                return call.ok(response.toString());
             } else {
-                String error = "远程获取页面 HTML 失败，HTTP 状态码: " + responseCode;
-                log.error("│ ❌ {}", error);
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                return error;
+                return call.error("远程获取页面 HTML 失败，HTTP 状态码: " + responseCode);
             }
         } catch (Exception e) {
-            String error = "远程获取页面 HTML 异常: " + e.getMessage();
-            log.error("│ ❌ {}", error, e);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("远程获取页面 HTML 异常: " + e.getMessage(), e);
         }
     }
     
     /**
      * 远程模式下执行 JavaScript 实现方法
      */
-    private String evaluateRemote(String script) {
+    private String evaluateRemote(CallLog call, String script) {
         try {
-            log.info("│ ℹ️  使用远程浏览器模式执行 JavaScript");
-            
             // 构造远程控制 URL
             String remoteUrl = String.format("http://%s:%d/browser/executeJs", 
                 remoteBrowserHost, remoteBrowserPort);
@@ -2023,36 +1683,20 @@ public class PlaywrightMcpTools {
                 // 更新当前页面 URL
                 updateCurrentPageUrlRemote();
                 
-                log.info("│ ✅ 远程执行 JavaScript 成功");
-                log.info("│ 📤 返回结果:");
-                log.info("│    {}", response.toString());
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                
-                return response.toString();
+                return call.ok(response.toString());
             } else {
-                String error = "远程执行 JavaScript 失败，HTTP 状态码: " + responseCode;
-                log.error("│ ❌ {}", error);
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                return error;
+                return call.error("远程执行 JavaScript 失败，HTTP 状态码: " + responseCode);
             }
         } catch (Exception e) {
-            String error = "远程执行 JavaScript 异常: " + e.getMessage();
-            log.error("│ ❌ {}", error, e);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("远程执行 JavaScript 异常: " + e.getMessage(), e);
         }
     }
     
     /**
      * 远程模式下分析页面实现方法
      */
-    private String analyzePageRemote() {
+    private String analyzePageRemote(CallLog call) {
         try {
-            log.info("│ ℹ️  使用远程浏览器模式分析页面");
-            
             // 构造远程控制 URL
             String remoteUrl = String.format("http://%s:%d/browser/analyzePage", 
                 remoteBrowserHost, remoteBrowserPort);
@@ -2078,36 +1722,20 @@ public class PlaywrightMcpTools {
                 // 更新当前页面 URL
                 updateCurrentPageUrlRemote();
                 
-                log.info("│ ✅ 远程分析页面成功");
-                log.info("│ 📤 返回结果:");
-                log.info("│    {}", response.toString());
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                
-                return response.toString();
+                return call.ok(response.toString());
             } else {
-                String error = "远程分析页面失败，HTTP 状态码: " + responseCode;
-                log.error("│ ❌ {}", error);
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                return error;
+                return call.error("远程分析页面失败，HTTP 状态码: " + responseCode);
             }
         } catch (Exception e) {
-            String error = "远程分析页面异常: " + e.getMessage();
-            log.error("│ ❌ {}", error, e);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("远程分析页面异常: " + e.getMessage(), e);
         }
     }
     
     /**
      * 远程模式下截图实现方法
      */
-    private String screenshotRemote(Boolean fullPage, String selector) {
+    private String screenshotRemote(CallLog call, Boolean fullPage, String selector) {
         try {
-            log.info("│ ℹ️  使用远程浏览器模式截图");
-            
             // 构造远程控制 URL，包含参数
             String remoteUrl = String.format("http://%s:%d/browser/screenshot?fullPage=%b&selector=%s", 
                 remoteBrowserHost, remoteBrowserPort, 
@@ -2135,26 +1763,12 @@ public class PlaywrightMcpTools {
                 // 更新当前页面 URL
                 updateCurrentPageUrlRemote();
                 
-                log.info("│ ✅ 远程截图成功");
-                log.info("│ 📤 返回结果:");
-                log.info("│    base64 图片数据");
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                
-                return response.toString();
+                return call.ok(response.toString());
             } else {
-                String error = "远程截图失败，HTTP 状态码: " + responseCode;
-                log.error("│ ❌ {}", error);
-                log.info("└─────────────────────────────────────────────────────────────┘");
-                log.info("");
-                return error;
+                return call.error("远程截图失败，HTTP 状态码: " + responseCode);
             }
         } catch (Exception e) {
-            String error = "远程截图异常: " + e.getMessage();
-            log.error("│ ❌ {}", error, e);
-            log.info("└─────────────────────────────────────────────────────────────┘");
-            log.info("");
-            return error;
+            return call.error("远程截图异常: " + e.getMessage(), e);
         }
     }
 }
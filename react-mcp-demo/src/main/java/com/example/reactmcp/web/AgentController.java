@@ -1,21 +1,37 @@
 package com.example.reactmcp.web;
 
 import com.example.reactmcp.agent.McpAssistant;
-import com.example.reactmcp.model.ReActStepEvent;
+import com.example.reactmcp.browser.BrowserPool;
+import com.example.reactmcp.cache.ToolResultCache;
+import com.example.reactmcp.cluster.ClusterCoordinator;
+import com.example.reactmcp.history.TaskHistoryStore;
+import com.example.reactmcp.model.BrowserPoolMetrics;
+import com.example.reactmcp.model.ClusterStatus;
+import com.example.reactmcp.model.EventBusMetrics;
+import com.example.reactmcp.model.TaskHistoryEntry;
+import com.example.reactmcp.model.TaskHistoryPage;
+import com.example.reactmcp.model.ToolCacheMetrics;
 import com.example.reactmcp.service.ReActEventPublisher;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.reactmcp.service.ReActTaskService;
+import com.example.reactmcp.service.TaskEventSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
-import java.util.concurrent.CompletableFuture;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * ReAct Agent REST 接口
@@ -28,12 +44,28 @@ public class AgentController {
     private static final Logger log = LoggerFactory.getLogger(AgentController.class);
     private final McpAssistant assistant;
     private final ReActEventPublisher eventPublisher;
-    private final ObjectMapper objectMapper;
+    private final SseWriterStage sseWriterStage;
+    private final ReActTaskService taskService;
+    private final AgentWebSocketHandler webSocketHandler;
+    private final TaskHistoryStore taskHistory;
+    private final ObjectProvider<ClusterCoordinator> cluster;
+    private final ToolResultCache toolResultCache;
+    private final BrowserPool browserPool;
 
-    public AgentController(McpAssistant assistant, ReActEventPublisher eventPublisher, ObjectMapper objectMapper) {
+    public AgentController(McpAssistant assistant, ReActEventPublisher eventPublisher,
+                           SseWriterStage sseWriterStage, ReActTaskService taskService,
+                           AgentWebSocketHandler webSocketHandler, TaskHistoryStore taskHistory,
+                           ObjectProvider<ClusterCoordinator> cluster, ToolResultCache toolResultCache,
+                           BrowserPool browserPool) {
         this.assistant = assistant;
         this.eventPublisher = eventPublisher;
-        this.objectMapper = objectMapper;
+        this.sseWriterStage = sseWriterStage;
+        this.taskService = taskService;
+        this.webSocketHandler = webSocketHandler;
+        this.taskHistory = taskHistory;
+        this.cluster = cluster;
+        this.toolResultCache = toolResultCache;
+        this.browserPool = browserPool;
     }
 
     @GetMapping("/solve")
@@ -48,7 +80,7 @@ public class AgentController {
         
         long startTime = System.currentTimeMillis();
         
-        String result = assistant.solve(task);
+        String result = assistant.solve(McpAssistant.SHARED_MEMORY_ID, task);
         
         long duration = System.currentTimeMillis() - startTime;
         
@@ -64,64 +96,152 @@ public class AgentController {
         return result;
     }
     
+    /**
+     * 事件总线指标：各任务会话的发布、投递、丢弃和排队事件数，以及各 SSE / WebSocket 连接的写入情况
+     */
+    @GetMapping("/events/metrics")
+    public EventBusMetrics eventMetrics() {
+        EventBusMetrics metrics = eventPublisher.getMetrics();
+        metrics.setConnections(sseWriterStage.getMetrics());
+        metrics.setWsConnections(webSocketHandler.getMetrics());
+        return metrics;
+    }
+    
+    /**
+     * 工具结果缓存指标：条目数、占用字符数、命中 / 未命中 / 跳过 / 过期 / 淘汰 / 失效次数，以及按工具统计的命中率
+     */
+    @GetMapping("/tool-cache/metrics")
+    public ToolCacheMetrics toolCacheMetrics() {
+        return toolResultCache.getMetrics();
+    }
+    
+    /**
+     * 浏览器池指标：租出 / 空闲 / 等待中的上下文数、利用率、等待时间、超时和回收次数，以及各工作线程的上下文数和忙碌占比
+     */
+    @GetMapping("/browser-pool/metrics")
+    public BrowserPoolMetrics browserPoolMetrics() {
+        return browserPool.getMetrics();
+    }
+    
+    /**
+     * 提交任务并以 SSE 推送执行过程
+     * 可选的 taskId 由客户端生成：同一 taskId 再次请求时不会重新执行，而是按 Last-Event-ID 续传，
+     * 这样 EventSource 自动重连到同一 URL 也不会重复提交任务
+     */
     @GetMapping(value = "/solve-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter solveStream(@RequestParam String task) {
-        log.info("");
-        log.info("═══════════════════════════════════════════════════════════════");
-        log.info("🚀 收到新的 ReAct 流式任务请求");
-        log.info("═══════════════════════════════════════════════════════════════");
-        log.info("📋 任务内容: {}", task);
-        log.info("⏰ 开始时间: {}", java.time.LocalDateTime.now());
-        log.info("───────────────────────────────────────────────────────────────");
-        
-        SseEmitter emitter = new SseEmitter(300000L); // 5 分钟超时
-        
-        CompletableFuture.runAsync(() -> {
-            try {
-                long startTime = System.currentTimeMillis();
-                
-                // 注册事件监听器
-                eventPublisher.registerListener(event -> {
-                    try {
-                        // 确保事件数据是字符串格式，而不是 LinkedHashMap
-                        String eventData = objectMapper.writeValueAsString(event);
-                        emitter.send(SseEmitter.event()
-                                .name(event.getType())
-                                .data(eventData));
-                        log.debug("📤 发送事件: type={}", event.getType());
-                    } catch (IOException e) {
-                        log.error("发送 SSE 事件失败", e);
-                        emitter.completeWithError(e);
-                    }
-                });
-                
-                // 执行 ReAct 任务
-                String result = assistant.solve(task);
-                
-                // 发送最终答案
-                emitter.send(SseEmitter.event()
-                        .name("final_answer")
-                        .data(objectMapper.writeValueAsString(ReActStepEvent.finalAnswer(result))));
-                
-                long duration = System.currentTimeMillis() - startTime;
-                log.info("✅ ReAct 流式任务执行完成, 耗时: {}ms", duration);
-                
-                emitter.complete();
-            } catch (Exception e) {
-                log.error("执行 ReAct 任务失败", e);
-                try {
-                    emitter.send(SseEmitter.event()
-                            .name("error")
-                            .data("{\"error\": \"Processing error: " + e.getMessage() + "\"}"));
-                } catch (IOException ioException) {
-                    log.error("Error sending error event", ioException);
-                }
-                emitter.completeWithError(e);
-            } finally {
-                eventPublisher.clear();
-            }
-        });
-        
-        return emitter;
+    public SseEmitter solveStream(@RequestParam String task,
+                                  @RequestParam(required = false) String taskId,
+                                  @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        if (taskId != null && !ReActTaskService.isValidTaskId(taskId)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid taskId");
+        }
+        String id = taskId != null ? taskId : UUID.randomUUID().toString();
+        TaskEventSession session = taskService.submit(id, task);
+        if (session == null) {
+            log.info("🔁 任务 {} 已存在，续传事件 (Last-Event-ID: {})", id, lastEventId);
+            return resumeStream(id, lastEventId, null, null);
+        }
+        return sseWriterStage.open(session, 0);
+    }
+    
+    /**
+     * 断线重连：从 Last-Event-ID（请求头或 lastEventId 参数）之后的事件继续推送，不会重新执行任务
+     * 任务结束后会话保留一段时间，期间重连可以补齐结束事件
+     * 集群模式下任务在其他节点执行时，由本节点转发该节点的事件流
+     */
+    @GetMapping(value = "/stream/{taskId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter resumeStream(@PathVariable String taskId,
+                                   @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                   @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+                                   @RequestHeader(value = ClusterCoordinator.RELAY_HEADER, required = false) String relayFrom) {
+        TaskEventSession session = taskService.findSession(taskId, relayFrom != null);
+        if (session == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Task not found or expired: " + taskId);
+        }
+        long afterEventId = parseEventId(lastEventIdHeader, lastEventIdParam);
+        log.info("🔁 重连任务 {}，从事件 {} 之后续传", taskId, afterEventId);
+        return sseWriterStage.open(session, afterEventId);
+    }
+    
+    /**
+     * 集群状态：本节点容量、共享队列长度和存活节点（未启用集群模式时返回 404）
+     */
+    @GetMapping("/cluster")
+    public ClusterStatus clusterStatus() {
+        ClusterCoordinator coordinator = cluster.getIfAvailable();
+        if (coordinator == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Cluster mode is disabled");
+        }
+        return coordinator.getStatus();
+    }
+
+    /**
+     * 任务历史（按提交时间倒序分页），from / to 为提交时间范围的毫秒时间戳
+     */
+    @GetMapping("/tasks")
+    public TaskHistoryPage taskHistory(@RequestParam(defaultValue = "0") int offset,
+                                       @RequestParam(defaultValue = "20") int limit,
+                                       @RequestParam(required = false) Long from,
+                                       @RequestParam(required = false) Long to) {
+        return taskHistory.page(offset, Math.max(1, Math.min(limit, 100)), from, to);
+    }
+
+    /**
+     * 单个任务的历史详情，包含全部已记录的事件
+     */
+    @GetMapping("/tasks/{taskId}")
+    public TaskHistoryEntry taskDetail(@PathVariable String taskId) {
+        TaskHistoryEntry entry = taskHistory.get(taskId);
+        if (entry == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Task not found in history: " + taskId);
+        }
+        return entry;
+    }
+
+    /**
+     * 任务控制接口（WebSocket 控制消息的 HTTP 等价形式）
+     * 任务不存在或已结束时返回 404，状态未变化（如重复暂停）时 ok 为 false
+     */
+    @PostMapping("/tasks/{taskId}/cancel")
+    public Map<String, Object> cancel(@PathVariable String taskId) {
+        return controlResult(taskId, taskService.cancel(taskId));
+    }
+
+    @PostMapping("/tasks/{taskId}/pause")
+    public Map<String, Object> pause(@PathVariable String taskId) {
+        return controlResult(taskId, taskService.pause(taskId));
+    }
+
+    @PostMapping("/tasks/{taskId}/resume")
+    public Map<String, Object> resume(@PathVariable String taskId) {
+        return controlResult(taskId, taskService.resume(taskId));
+    }
+
+    /**
+     * 回答 Agent 提出的澄清问题（question 事件），请求体为回答文本
+     */
+    @PostMapping("/tasks/{taskId}/answer")
+    public Map<String, Object> answer(@PathVariable String taskId,
+                                      @RequestBody(required = false) String content) {
+        return controlResult(taskId, taskService.answer(taskId, content == null ? "" : content));
+    }
+
+    private Map<String, Object> controlResult(String taskId, boolean ok) {
+        if (!ok && eventPublisher.getSession(taskId) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Task not found or expired: " + taskId);
+        }
+        return Map.of("taskId", taskId, "ok", ok);
+    }
+    
+    private static long parseEventId(String header, String param) {
+        String value = header != null && !header.isBlank() ? header : param;
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
     }
 }
@@ -0,0 +1,238 @@
+package com.example.reactmcp.web;
+
+import com.example.reactmcp.model.WsConnectionMetrics;
+import com.example.reactmcp.service.ReActTaskService;
+import com.example.reactmcp.service.TaskEventSession;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ReAct Agent WebSocket 接口（/react/ws）
+ * 一个客户端一条长连接，复用提交任务、接收事件和控制消息，客户端发送的都是 JSON 文本消息：
+ * - {"op":"hello","credits":256}                       设置初始发送额度，应答 welcome
+ * - {"op":"submit","task":"...","taskId":"可选"}        提交任务并订阅其事件，应答 accepted；taskId 已存在时改为续传
+ * - {"op":"subscribe","taskId":"...","lastEventId":12}  重连后从 lastEventId 之后续传
+ * - {"op":"unsubscribe","taskId":"..."}
+ * - {"op":"cancel" | "pause" | "resume","taskId":"..."} 应答 ack
+ * - {"op":"answer","taskId":"...","content":"..."}      回答 question 事件
+ * - {"op":"credit","n":64}                              追加发送额度
+ * 服务端推送 {"op":"event","taskId":"...","event":{...}}，大段文本使用二进制帧（格式见 WsConnection）
+ */
+@Component
+public class AgentWebSocketHandler extends TextWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(AgentWebSocketHandler.class);
+
+    private final ObjectMapper objectMapper;
+    private final EventJsonCodec codec;
+    private final ReActTaskService taskService;
+    private final ScheduledExecutorService writer;
+    private final Map<String, WsConnection> connections = new ConcurrentHashMap<>();
+
+    private final long initialCredits;
+    private final int bufferSize;
+    private final boolean mergeOnOverflow;
+    private final int binaryThreshold;
+
+    public AgentWebSocketHandler(
+            ObjectMapper objectMapper,
+            EventJsonCodec codec,
+            ReActTaskService taskService,
+            @Value("${app.ws.initial-credits:256}") long initialCredits,
+            @Value("${app.ws.buffer-size:512}") int bufferSize,
+            @Value("${app.ws.overflow-policy:merge}") String overflowPolicy,
+            @Value("${app.ws.binary-threshold:16384}") int binaryThreshold,
+            @Value("${app.ws.ping-seconds:20}") long pingSeconds,
+            @Value("${app.ws.writer-threads:2}") int writerThreads) {
+        this.objectMapper = objectMapper;
+        this.codec = codec;
+        this.taskService = taskService;
+        this.initialCredits = initialCredits;
+        this.bufferSize = bufferSize;
+        this.mergeOnOverflow = !"drop".equalsIgnoreCase(overflowPolicy);
+        this.binaryThreshold = binaryThreshold;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.writer = Executors.newScheduledThreadPool(Math.max(1, writerThreads), r -> {
+            Thread thread = new Thread(r, "ws-writer-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long pingMillis = TimeUnit.SECONDS.toMillis(pingSeconds);
+        if (pingMillis > 0) {
+            writer.scheduleWithFixedDelay(() -> connections.values().forEach(c -> c.pingIfIdle(pingMillis)),
+                    pingMillis, pingMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        WsConnection connection = new WsConnection(session, codec, writer, initialCredits, bufferSize,
+                mergeOnOverflow, binaryThreshold, c -> connections.remove(c.getId()));
+        connections.put(session.getId(), connection);
+        log.info("🔌 WebSocket 连接建立: {} ({})", session.getId(), session.getRemoteAddress());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        WsConnection connection = connections.get(session.getId());
+        if (connection != null) {
+            connection.markClosed();
+        }
+        log.info("🔌 WebSocket 连接关闭: {} ({})", session.getId(), status);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("WebSocket transport error on {}: {}", session.getId(), exception.getMessage());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        WsConnection connection = connections.get(session.getId());
+        if (connection == null) {
+            return;
+        }
+        connection.countControlMessage();
+
+        JsonNode request;
+        try {
+            request = objectMapper.readTree(message.getPayload());
+        } catch (JsonProcessingException e) {
+            connection.reply(error(null, null, "Invalid JSON: " + e.getOriginalMessage()));
+            return;
+        }
+        String op = request.path("op").asText("");
+        String taskId = request.hasNonNull("taskId") ? request.get("taskId").asText() : null;
+
+        switch (op) {
+            case "hello" -> hello(connection, request);
+            case "submit" -> submit(connection, request, taskId);
+            case "subscribe" -> subscribe(connection, taskId, request.path("lastEventId").asLong(0));
+            case "unsubscribe" -> {
+                if (taskId != null) {
+                    connection.unsubscribe(taskId);
+                }
+            }
+            case "cancel" -> ack(connection, op, taskId, taskId != null && taskService.cancel(taskId));
+            case "pause" -> ack(connection, op, taskId, taskId != null && taskService.pause(taskId));
+            case "resume" -> ack(connection, op, taskId, taskId != null && taskService.resume(taskId));
+            case "answer" -> ack(connection, op, taskId,
+                    taskId != null && taskService.answer(taskId, request.path("content").asText("")));
+            case "credit" -> connection.addCredits(request.path("n").asLong(0));
+            default -> connection.reply(error(op, taskId, "Unknown op: " + op));
+        }
+    }
+
+    private void hello(WsConnection connection, JsonNode request) {
+        if (request.has("credits")) {
+            // 客户端声明的额度替换默认初始额度
+            connection.resetCredits(request.path("credits").asLong(initialCredits));
+        }
+        ObjectNode reply = objectMapper.createObjectNode()
+                .put("op", "welcome")
+                .put("connectionId", connection.getId())
+                .put("binaryThreshold", binaryThreshold);
+        connection.reply(toBytes(reply));
+    }
+
+    private void submit(WsConnection connection, JsonNode request, String taskId) {
+        String task = request.path("task").asText("");
+        if (task.isBlank()) {
+            connection.reply(error("submit", taskId, "Missing task"));
+            return;
+        }
+        if (taskId != null && !ReActTaskService.isValidTaskId(taskId)) {
+            connection.reply(error("submit", taskId, "Invalid taskId"));
+            return;
+        }
+        String id = taskId != null ? taskId : UUID.randomUUID().toString();
+        TaskEventSession session = taskService.submit(id, task);
+        boolean resumed = session == null;
+        if (resumed) {
+            session = taskService.findSession(id, false);
+            if (session == null) {
+                connection.reply(error("submit", id, "Task not found or expired"));
+                return;
+            }
+            log.info("🔁 任务 {} 已存在，WebSocket 续传事件", id);
+        }
+        ObjectNode reply = objectMapper.createObjectNode()
+                .put("op", "accepted")
+                .put("taskId", id)
+                .put("resumed", resumed);
+        connection.reply(toBytes(reply));
+        connection.subscribe(session, resumed ? request.path("lastEventId").asLong(0) : 0);
+    }
+
+    private void subscribe(WsConnection connection, String taskId, long afterEventId) {
+        TaskEventSession session = taskId == null ? null : taskService.findSession(taskId, false);
+        if (session == null) {
+            connection.reply(error("subscribe", taskId, "Task not found or expired"));
+            return;
+        }
+        log.info("🔁 WebSocket 订阅任务 {}，从事件 {} 之后续传", taskId, afterEventId);
+        connection.subscribe(session, Math.max(0, afterEventId));
+    }
+
+    private void ack(WsConnection connection, String op, String taskId, boolean ok) {
+        ObjectNode reply = objectMapper.createObjectNode()
+                .put("op", "ack")
+                .put("ref", op)
+                .put("taskId", taskId)
+                .put("ok", ok);
+        connection.reply(toBytes(reply));
+    }
+
+    private byte[] error(String ref, String taskId, String message) {
+        ObjectNode reply = objectMapper.createObjectNode()
+                .put("op", "error")
+                .put("ref", ref)
+                .put("taskId", taskId)
+                .put("message", message);
+        return toBytes(reply);
+    }
+
+    private byte[] toBytes(ObjectNode node) {
+        try {
+            return objectMapper.writeValueAsBytes(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public List<WsConnectionMetrics> getMetrics() {
+        List<WsConnectionMetrics> metrics = new ArrayList<>(connections.size());
+        for (WsConnection connection : connections.values()) {
+            metrics.add(connection.metrics());
+        }
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+}
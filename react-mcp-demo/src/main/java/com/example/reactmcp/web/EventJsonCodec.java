@@ -0,0 +1,184 @@
+package com.example.reactmcp.web;
+
+import com.example.reactmcp.model.EventKind;
+import com.example.reactmcp.model.ReActStepEvent;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ReActStepEvent 的 JSON 编码器
+ * 直接用 JsonGenerator 按字段写入目标输出流（HTTP 响应缓冲区 / WebSocket 帧缓冲区），
+ * 不经过反射序列化，也不生成中间 String；字段名和事件类型名都是预编码的 SerializedString
+ * JsonFactory 取自应用共享的 ObjectMapper，全应用只有一份 JSON 配置
+ */
+@Component
+public class EventJsonCodec {
+
+    private static final SerializedString F_ID = new SerializedString("id");
+    private static final SerializedString F_TYPE = new SerializedString("type");
+    private static final SerializedString F_CONTENT = new SerializedString("content");
+    private static final SerializedString F_TOOL_NAME = new SerializedString("toolName");
+    private static final SerializedString F_TOOL_INPUT = new SerializedString("toolInput");
+    private static final SerializedString F_TOOL_OUTPUT = new SerializedString("toolOutput");
+    private static final SerializedString F_TIMESTAMP = new SerializedString("timestamp");
+
+    // WebSocket 信封字段
+    private static final SerializedString F_OP = new SerializedString("op");
+    private static final SerializedString F_TASK_ID = new SerializedString("taskId");
+    private static final SerializedString F_EVENT = new SerializedString("event");
+    private static final SerializedString F_PAYLOAD_FIELD = new SerializedString("payloadField");
+    private static final SerializedString OP_EVENT = new SerializedString("event");
+
+    /**
+     * 可以从事件中拆出、作为二进制帧负载发送的大文本字段
+     */
+    public static final String CONTENT_FIELD = "content";
+    public static final String TOOL_OUTPUT_FIELD = "toolOutput";
+
+    private static final Map<EventKind, SerializedString> KIND_NAMES = new EnumMap<>(EventKind.class);
+
+    static {
+        for (EventKind kind : EventKind.values()) {
+            KIND_NAMES.put(kind, new SerializedString(kind.wireName()));
+        }
+    }
+
+    private final JsonFactory factory;
+
+    public EventJsonCodec(ObjectMapper objectMapper) {
+        // 写完一个事件后由调用方决定是否关闭输出流（HTTP 响应 / WebSocket 缓冲区）
+        this.factory = objectMapper.getFactory().copy()
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * 写出单个事件
+     */
+    public void write(ReActStepEvent event, OutputStream out) throws IOException {
+        try (JsonGenerator gen = factory.createGenerator(out, JsonEncoding.UTF8)) {
+            writeEvent(event, gen);
+        }
+    }
+
+    /**
+     * 写出事件数组（batch 帧）
+     */
+    public void writeBatch(List<ReActStepEvent> events, OutputStream out) throws IOException {
+        try (JsonGenerator gen = factory.createGenerator(out, JsonEncoding.UTF8)) {
+            gen.writeStartArray();
+            for (ReActStepEvent event : events) {
+                writeEvent(event, gen);
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    /**
+     * 编码为字节数组（用于需要完整帧的传输方式）
+     */
+    public byte[] toBytes(ReActStepEvent event) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(estimateSize(event));
+        write(event, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 写出 WebSocket 事件信封：{"op":"event","taskId":"...","event":{...}}
+     * detachedField 不为 null 时（CONTENT_FIELD / TOOL_OUTPUT_FIELD），事件中省略该字段，
+     * 由调用方把字段内容作为二进制帧负载紧跟在信封之后发送，信封中用 payloadField 注明字段名
+     */
+    public void writeEnvelope(String taskId, ReActStepEvent event, String detachedField, OutputStream out)
+            throws IOException {
+        SerializedString detached = CONTENT_FIELD.equals(detachedField) ? F_CONTENT
+                : TOOL_OUTPUT_FIELD.equals(detachedField) ? F_TOOL_OUTPUT : null;
+        try (JsonGenerator gen = factory.createGenerator(out, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeFieldName(F_OP);
+            gen.writeString(OP_EVENT);
+            gen.writeFieldName(F_TASK_ID);
+            gen.writeString(taskId);
+            if (detached != null) {
+                gen.writeFieldName(F_PAYLOAD_FIELD);
+                gen.writeString(detached);
+            }
+            gen.writeFieldName(F_EVENT);
+            writeEvent(event, gen, detached);
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * 从 JSON 还原事件（集群转发时读取其他节点的 SSE 数据），未知类型返回 null
+     * 不保留原事件 ID，由接收方的会话重新分配
+     */
+    public static ReActStepEvent read(JsonNode node) {
+        EventKind kind = EventKind.fromWireName(node.path("type").asText(null));
+        if (kind == null) {
+            return null;
+        }
+        return ReActStepEvent.restore(kind,
+                node.path("content").asText(null),
+                node.path("toolName").asText(null),
+                node.path("toolInput").asText(null),
+                node.path("toolOutput").asText(null),
+                node.path("timestamp").asLong(System.currentTimeMillis()));
+    }
+
+    private static void writeEvent(ReActStepEvent event, JsonGenerator gen) throws IOException {
+        writeEvent(event, gen, null);
+    }
+
+    private static void writeEvent(ReActStepEvent event, JsonGenerator gen, SerializedString omit) throws IOException {
+        gen.writeStartObject();
+        if (event.getId() > 0) {
+            gen.writeFieldName(F_ID);
+            gen.writeNumber(event.getId());
+        }
+        gen.writeFieldName(F_TYPE);
+        gen.writeString(KIND_NAMES.get(event.getKind()));
+        if (omit != F_CONTENT) {
+            writeOptional(gen, F_CONTENT, event.getContent());
+        }
+        writeOptional(gen, F_TOOL_NAME, event.getToolName());
+        writeOptional(gen, F_TOOL_INPUT, event.getToolInput());
+        if (omit != F_TOOL_OUTPUT) {
+            writeOptional(gen, F_TOOL_OUTPUT, event.getToolOutput());
+        }
+        gen.writeFieldName(F_TIMESTAMP);
+        gen.writeNumber(event.getTimestamp());
+        gen.writeEndObject();
+    }
+
+    private static void writeOptional(JsonGenerator gen, SerializedString name, String value) throws IOException {
+        if (value != null) {
+            gen.writeFieldName(name);
+            gen.writeString(value);
+        }
+    }
+
+    /**
+     * 按文本字段长度预估 JSON 大小，避免缓冲区反复扩容
+     */
+    static int estimateSize(ReActStepEvent event) {
+        int size = 96;
+        size += length(event.getContent()) + length(event.getToolName())
+                + length(event.getToolInput()) + length(event.getToolOutput());
+        return size + (size >> 3);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.reactmcp.web;
+
+import com.example.reactmcp.model.ReActStepEvent;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * ReActStepEvent 专用的 HTTP 消息转换器（只写不读）
+ * SseEmitter 发送事件对象时经由它把 JSON 直接写进响应输出流
+ * 支持单个事件和事件数组（batch 帧）
+ */
+public class ReActEventMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private final EventJsonCodec codec;
+
+    public ReActEventMessageConverter(EventJsonCodec codec) {
+        super(MediaType.APPLICATION_JSON);
+        this.codec = codec;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == ReActStepEvent.class || clazz == ReActStepEvent[].class;
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("ReActStepEvent is write-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        if (value instanceof ReActStepEvent[] events) {
+            codec.writeBatch(Arrays.asList(events), outputMessage.getBody());
+        } else {
+            codec.write((ReActStepEvent) value, outputMessage.getBody());
+        }
+    }
+}
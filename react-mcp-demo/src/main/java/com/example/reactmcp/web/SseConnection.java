@@ -0,0 +1,272 @@
+package com.example.reactmcp.web;
+
+import com.example.reactmcp.model.ReActStepEvent;
+import com.example.reactmcp.model.SseConnectionMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 单个 SSE 连接的写入端
+ * - offer 只把事件放入有界缓冲区，网络写入由 SseWriterStage 的写线程完成
+ * - 缓冲区第一个事件到达后等待 coalesceMillis，把这段时间内的事件合成一帧发送（多个事件用 batch 帧）
+ * - 缓冲区满时按策略处理：merge 先尝试把同类型的相邻事件合并，否则丢弃最旧的可丢弃事件
+ * - 任务开始 / 最终答案 / 错误事件永远不会被丢弃或合并
+ */
+class SseConnection {
+
+    private static final Logger log = LoggerFactory.getLogger(SseConnection.class);
+
+    private final long connectionId;
+    private final String taskId;
+    private final SseEmitter emitter;
+    private final ScheduledExecutorService writer;
+    private final long coalesceMillis;
+    private final int capacity;
+    private final boolean mergeOnOverflow;
+    private final Consumer<SseConnection> onClosed;
+    private final long connectedAt = System.currentTimeMillis();
+
+    // 以下字段由 this 保护
+    private final ArrayDeque<Pending> buffer = new ArrayDeque<>();
+    private boolean flushScheduled;
+    private boolean completeRequested;
+    private boolean closed;
+    private int maxQueued;
+    private long dropped;
+    private long merged;
+
+    // 写线程持有 writeLock 串行写入；计数器只由写线程更新，volatile 供指标读取（不等待慢写入）
+    private final Object writeLock = new Object();
+    private volatile long eventsSent;
+    private volatile long framesSent;
+    private volatile long heartbeatsSent;
+    private volatile long lastSentEventId;
+    private volatile long lastWriteAt = System.currentTimeMillis();
+    private volatile long lastLagMillis;
+    private volatile long maxLagMillis;
+
+    SseConnection(long connectionId, String taskId, SseEmitter emitter, ScheduledExecutorService writer, long coalesceMillis, int capacity,
+                  boolean mergeOnOverflow, Consumer<SseConnection> onClosed) {
+        this.connectionId = connectionId;
+        this.taskId = taskId;
+        this.emitter = emitter;
+        this.writer = writer;
+        this.coalesceMillis = coalesceMillis;
+        this.capacity = Math.max(1, capacity);
+        this.mergeOnOverflow = mergeOnOverflow;
+        this.onClosed = onClosed;
+    }
+
+    long getConnectionId() {
+        return connectionId;
+    }
+
+    /**
+     * 接收事件（在事件投递线程上调用，不做任何网络写入）
+     */
+    synchronized void offer(ReActStepEvent event) {
+        if (closed || completeRequested) {
+            return;
+        }
+        if (buffer.size() >= capacity) {
+            if (mergeOnOverflow && mergeIntoLast(event)) {
+                merged++;
+                return;
+            }
+            dropOldest();
+        }
+        buffer.addLast(new Pending(event, System.currentTimeMillis()));
+        maxQueued = Math.max(maxQueued, buffer.size());
+        scheduleFlush(coalesceMillis);
+    }
+
+    /**
+     * 任务结束：发送完缓冲区后关闭连接
+     */
+    synchronized void complete() {
+        if (closed) {
+            return;
+        }
+        completeRequested = true;
+        scheduleFlush(0);
+    }
+
+    private void scheduleFlush(long delayMillis) {
+        if (flushScheduled) {
+            return;
+        }
+        flushScheduled = true;
+        try {
+            writer.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // 写线程池已关闭（应用退出中）
+            flushScheduled = false;
+        }
+    }
+
+    private void flush() {
+        synchronized (writeLock) {
+            List<Pending> batch;
+            boolean finish;
+            synchronized (this) {
+                flushScheduled = false;
+                if (closed) {
+                    return;
+                }
+                batch = new ArrayList<>(buffer);
+                buffer.clear();
+                finish = completeRequested;
+            }
+            try {
+                if (!batch.isEmpty()) {
+                    write(batch);
+                }
+                if (finish) {
+                    markClosed();
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("SSE connection {} for task {} closed while writing: {}", connectionId, taskId, e.getMessage());
+                markClosed();
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) throws IOException {
+        long now = System.currentTimeMillis();
+        long lag = now - batch.get(0).enqueuedAt;
+        ReActStepEvent last = batch.get(batch.size() - 1).event;
+
+        // 事件对象交给 ReActEventMessageConverter，由 EventJsonCodec 直接写入响应流
+        if (batch.size() == 1) {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(last.getId()))
+                    .name(last.getType())
+                    .data(last, MediaType.APPLICATION_JSON));
+        } else {
+            ReActStepEvent[] events = new ReActStepEvent[batch.size()];
+            for (int i = 0; i < events.length; i++) {
+                events[i] = batch.get(i).event;
+            }
+            // 一帧携带多个事件，帧 ID 取最后一个事件的 ID，重连时从它之后续传
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(last.getId()))
+                    .name("batch")
+                    .data(events, MediaType.APPLICATION_JSON));
+        }
+
+        eventsSent += batch.size();
+        framesSent++;
+        lastSentEventId = last.getId();
+        lastWriteAt = System.currentTimeMillis();
+        lastLagMillis = lag;
+        maxLagMillis = Math.max(maxLagMillis, lag);
+    }
+
+    /**
+     * 空闲超过 intervalMillis 时发送心跳注释，防止代理或客户端因空闲断开连接
+     */
+    void heartbeatIfIdle(long intervalMillis) {
+        if (System.currentTimeMillis() - lastWriteAt < intervalMillis) {
+            return;
+        }
+        synchronized (writeLock) {
+            synchronized (this) {
+                if (closed || !buffer.isEmpty()) {
+                    return;
+                }
+            }
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+                heartbeatsSent++;
+                lastWriteAt = System.currentTimeMillis();
+            } catch (IOException | IllegalStateException e) {
+                log.debug("SSE heartbeat failed for task {}: {}", taskId, e.getMessage());
+                markClosed();
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    /**
+     * 连接已由容器关闭（完成 / 超时 / 出错）
+     */
+    void markClosed() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer.clear();
+        }
+        onClosed.accept(this);
+    }
+
+    /**
+     * 与缓冲区最后一个同类型事件合并（生成新事件对象，原事件在重放缓冲区中共享）
+     */
+    private boolean mergeIntoLast(ReActStepEvent event) {
+        Pending last = buffer.peekLast();
+        if (last == null || !event.getKind().isMergeable() || event.getKind() != last.event.getKind()) {
+            return false;
+        }
+        buffer.pollLast();
+        buffer.addLast(new Pending(ReActStepEvent.merge(last.event, event), last.enqueuedAt));
+        return true;
+    }
+
+    private void dropOldest() {
+        Iterator<Pending> it = buffer.iterator();
+        while (it.hasNext()) {
+            if (it.next().event.getKind().isDroppable()) {
+                it.remove();
+                dropped++;
+                return;
+            }
+        }
+    }
+
+    SseConnectionMetrics metrics() {
+        SseConnectionMetrics metrics = new SseConnectionMetrics();
+        metrics.setConnectionId(connectionId);
+        metrics.setTaskId(taskId);
+        metrics.setConnectedAt(connectedAt);
+        synchronized (this) {
+            metrics.setQueued(buffer.size());
+            metrics.setMaxQueued(maxQueued);
+            metrics.setDropped(dropped);
+            metrics.setMerged(merged);
+            Pending oldest = buffer.peekFirst();
+            metrics.setCurrentLagMs(oldest == null ? 0 : System.currentTimeMillis() - oldest.enqueuedAt);
+        }
+        metrics.setEventsSent(eventsSent);
+        metrics.setFramesSent(framesSent);
+        metrics.setHeartbeatsSent(heartbeatsSent);
+        metrics.setLastSentEventId(lastSentEventId);
+        metrics.setLastLagMs(lastLagMillis);
+        metrics.setMaxLagMs(maxLagMillis);
+        return metrics;
+    }
+
+    private static final class Pending {
+        private final ReActStepEvent event;
+        private final long enqueuedAt;
+
+        Pending(ReActStepEvent event, long enqueuedAt) {
+            this.event = event;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
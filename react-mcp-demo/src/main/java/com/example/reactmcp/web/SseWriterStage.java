@@ -0,0 +1,102 @@
+package com.example.reactmcp.web;
+
+import com.example.reactmcp.model.SseConnectionMetrics;
+import com.example.reactmcp.service.TaskEventSession;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SSE 写入阶段
+ * 事件投递线程只把事件放进每个连接的缓冲区，实际的网络写入、合批和心跳都在这里的写线程上完成，
+ * 慢客户端最多拖慢自己的连接，不会影响事件投递和 ReAct 主流程
+ */
+@Component
+public class SseWriterStage {
+
+    private final ScheduledExecutorService writer;
+    private final Map<Long, SseConnection> connections = new ConcurrentHashMap<>();
+    private final AtomicLong connectionIds = new AtomicLong();
+
+    private final long timeoutMillis;
+    private final long coalesceMillis;
+    private final int bufferSize;
+    private final boolean mergeOnOverflow;
+
+    public SseWriterStage(
+            @Value("${app.sse.timeout-millis:300000}") long timeoutMillis,
+            @Value("${app.sse.coalesce-millis:50}") long coalesceMillis,
+            @Value("${app.sse.heartbeat-seconds:15}") long heartbeatSeconds,
+            @Value("${app.sse.buffer-size:256}") int bufferSize,
+            @Value("${app.sse.overflow-policy:merge}") String overflowPolicy,
+            @Value("${app.sse.writer-threads:2}") int writerThreads) {
+        this.timeoutMillis = timeoutMillis;
+        this.coalesceMillis = coalesceMillis;
+        this.bufferSize = bufferSize;
+        this.mergeOnOverflow = !"drop".equalsIgnoreCase(overflowPolicy);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.writer = Executors.newScheduledThreadPool(Math.max(1, writerThreads), r -> {
+            Thread thread = new Thread(r, "sse-writer-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long heartbeatMillis = TimeUnit.SECONDS.toMillis(heartbeatSeconds);
+        if (heartbeatMillis > 0) {
+            writer.scheduleWithFixedDelay(() -> connections.values().forEach(c -> c.heartbeatIfIdle(heartbeatMillis)),
+                    heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 为任务会话创建 SSE 连接：先重放 afterEventId 之后的事件，再推送新事件
+     */
+    public SseEmitter open(TaskEventSession session, long afterEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        long id = connectionIds.incrementAndGet();
+        Runnable[] unsubscribe = new Runnable[1];
+        SseConnection connection = new SseConnection(id, session.getTaskId(), emitter, writer,
+                coalesceMillis, bufferSize, mergeOnOverflow, c -> {
+                    connections.remove(c.getConnectionId());
+                    if (unsubscribe[0] != null) {
+                        unsubscribe[0].run();
+                    }
+                });
+        connections.put(id, connection);
+
+        emitter.onCompletion(connection::markClosed);
+        emitter.onTimeout(connection::markClosed);
+        emitter.onError(e -> connection.markClosed());
+        unsubscribe[0] = session.subscribe(afterEventId, connection::offer, connection::complete);
+        if (!connections.containsKey(id)) {
+            // 订阅期间连接已关闭
+            unsubscribe[0].run();
+        }
+        return emitter;
+    }
+
+    public List<SseConnectionMetrics> getMetrics() {
+        List<SseConnectionMetrics> metrics = new ArrayList<>(connections.size());
+        for (SseConnection connection : connections.values()) {
+            metrics.add(connection.metrics());
+        }
+        return metrics;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+}
@@ -0,0 +1,420 @@
+package com.example.reactmcp.web;
+
+import com.example.reactmcp.model.ReActStepEvent;
+import com.example.reactmcp.model.WsConnectionMetrics;
+import com.example.reactmcp.service.TaskEventSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * 单个 WebSocket 连接的写入端，一个连接可以同时订阅多个任务
+ * - 事件投递线程只把事件放进有界缓冲区，网络写入在 AgentWebSocketHandler 的写线程上串行完成
+ * - 流控：客户端通过 hello / credit 消息授予额度，每发送一个事件消耗一个额度，额度用完后事件在服务端缓冲
+ * - 缓冲区满时与 SSE 相同的策略：merge 先合并同任务同类型的相邻事件，否则丢弃最旧的可丢弃事件
+ * - 控制应答不受额度限制，并且先于缓冲的事件发送
+ * - 文本字段超过 binaryThreshold 个字符的事件改用二进制帧：
+ *   [4 字节大端信封长度][信封 JSON（省略大字段）][大字段的 UTF-8 原文]，避免大段文本再做一次 JSON 转义
+ */
+class WsConnection {
+
+    private static final Logger log = LoggerFactory.getLogger(WsConnection.class);
+
+    private final WebSocketSession session;
+    private final EventJsonCodec codec;
+    private final ScheduledExecutorService writer;
+    private final int capacity;
+    private final boolean mergeOnOverflow;
+    private final int binaryThreshold;
+    private final Consumer<WsConnection> onClosed;
+    private final long connectedAt = System.currentTimeMillis();
+
+    // 以下字段由 this 保护
+    private final ArrayDeque<Pending> buffer = new ArrayDeque<>();
+    private final ArrayDeque<WebSocketMessage<?>> controlReplies = new ArrayDeque<>();
+    private final Map<String, Subscription> subscriptions = new HashMap<>();
+    private long credits;
+    private boolean flushScheduled;
+    private boolean closed;
+    private int maxQueued;
+    private long dropped;
+    private long merged;
+
+    // 写线程持有 writeLock 串行写入；计数器只由写线程更新，volatile 供指标读取
+    private final Object writeLock = new Object();
+    private volatile long eventsSent;
+    private volatile long textFrames;
+    private volatile long binaryFrames;
+    private volatile long bytesSent;
+    private volatile long lastWriteAt = System.currentTimeMillis();
+    private volatile long maxLagMillis;
+    private volatile long controlMessages;
+
+    WsConnection(WebSocketSession session, EventJsonCodec codec, ScheduledExecutorService writer,
+                 long initialCredits, int capacity, boolean mergeOnOverflow, int binaryThreshold,
+                 Consumer<WsConnection> onClosed) {
+        this.session = session;
+        this.codec = codec;
+        this.writer = writer;
+        this.credits = Math.max(0, initialCredits);
+        this.capacity = Math.max(1, capacity);
+        this.mergeOnOverflow = mergeOnOverflow;
+        this.binaryThreshold = binaryThreshold;
+        this.onClosed = onClosed;
+    }
+
+    String getId() {
+        return session.getId();
+    }
+
+    void countControlMessage() {
+        controlMessages++;
+    }
+
+    /**
+     * 订阅任务事件：先重放 afterEventId 之后的事件，再推送新事件；同一任务重复订阅时替换旧订阅
+     */
+    void subscribe(TaskEventSession taskSession, long afterEventId) {
+        String taskId = taskSession.getTaskId();
+        Subscription subscription = new Subscription();
+        Subscription previous;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            previous = subscriptions.put(taskId, subscription);
+        }
+        if (previous != null) {
+            previous.cancel();
+        }
+        Runnable unsubscribe = taskSession.subscribe(afterEventId,
+                event -> offer(taskId, event),
+                () -> taskCompleted(taskId, subscription));
+        subscription.attach(unsubscribe);
+        synchronized (this) {
+            if (closed || subscriptions.get(taskId) != subscription) {
+                // 订阅期间连接已关闭或任务已结束
+                subscription.cancel();
+            }
+        }
+    }
+
+    void unsubscribe(String taskId) {
+        Subscription subscription;
+        synchronized (this) {
+            subscription = subscriptions.remove(taskId);
+        }
+        if (subscription != null) {
+            subscription.cancel();
+        }
+    }
+
+    /**
+     * 增加发送额度，并尝试发送已缓冲的事件
+     */
+    synchronized void addCredits(long amount) {
+        if (closed || amount <= 0) {
+            return;
+        }
+        credits = Math.min(Long.MAX_VALUE - amount, credits) + amount;
+        if (!buffer.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * 重新设置剩余额度（客户端 hello 时声明自己的接收窗口）
+     */
+    synchronized void resetCredits(long amount) {
+        if (closed) {
+            return;
+        }
+        credits = Math.max(0, amount);
+        if (credits > 0 && !buffer.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * 发送控制应答（不消耗额度）
+     */
+    synchronized void reply(byte[] json) {
+        if (closed) {
+            return;
+        }
+        controlReplies.addLast(new TextMessage(json));
+        scheduleFlush();
+    }
+
+    /**
+     * 接收事件（在事件投递线程上调用，不做任何网络写入）
+     */
+    synchronized void offer(String taskId, ReActStepEvent event) {
+        if (closed) {
+            return;
+        }
+        if (buffer.size() >= capacity) {
+            if (mergeOnOverflow && mergeIntoLast(taskId, event)) {
+                merged++;
+                return;
+            }
+            dropOldest();
+        }
+        buffer.addLast(new Pending(taskId, event, System.currentTimeMillis()));
+        maxQueued = Math.max(maxQueued, buffer.size());
+        if (credits > 0) {
+            scheduleFlush();
+        }
+    }
+
+    private void taskCompleted(String taskId, Subscription subscription) {
+        synchronized (this) {
+            subscriptions.remove(taskId, subscription);
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled) {
+            return;
+        }
+        flushScheduled = true;
+        try {
+            writer.execute(this::flush);
+        } catch (RuntimeException e) {
+            // 写线程池已关闭（应用退出中）
+            flushScheduled = false;
+        }
+    }
+
+    private void flush() {
+        synchronized (writeLock) {
+            List<WebSocketMessage<?>> replies;
+            List<Pending> events;
+            synchronized (this) {
+                flushScheduled = false;
+                if (closed) {
+                    return;
+                }
+                replies = new ArrayList<>(controlReplies);
+                controlReplies.clear();
+                int count = (int) Math.min(credits, buffer.size());
+                events = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    events.add(buffer.pollFirst());
+                }
+                credits -= count;
+            }
+            try {
+                for (WebSocketMessage<?> reply : replies) {
+                    send(reply);
+                    textFrames++;
+                }
+                long now = System.currentTimeMillis();
+                for (Pending pending : events) {
+                    send(encode(pending));
+                    eventsSent++;
+                    maxLagMillis = Math.max(maxLagMillis, now - pending.enqueuedAt);
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("WebSocket connection {} closed while writing: {}", getId(), e.getMessage());
+                closeSession(CloseStatus.SESSION_NOT_RELIABLE);
+            }
+        }
+    }
+
+    private WebSocketMessage<?> encode(Pending pending) throws IOException {
+        ReActStepEvent event = pending.event;
+        String detachedField = null;
+        String payload = null;
+        if (length(event.getToolOutput()) > binaryThreshold) {
+            detachedField = EventJsonCodec.TOOL_OUTPUT_FIELD;
+            payload = event.getToolOutput();
+        } else if (length(event.getContent()) > binaryThreshold) {
+            detachedField = EventJsonCodec.CONTENT_FIELD;
+            payload = event.getContent();
+        }
+
+        if (detachedField == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(EventJsonCodec.estimateSize(event) + 64);
+            codec.writeEnvelope(pending.taskId, event, null, out);
+            textFrames++;
+            return new TextMessage(out.toByteArray());
+        }
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream(256);
+        codec.writeEnvelope(pending.taskId, event, detachedField, header);
+        byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+        int headerLength = header.size();
+        ByteBuffer frame = ByteBuffer.allocate(4 + headerLength + body.length);
+        frame.putInt(headerLength);
+        frame.put(header.toByteArray());
+        frame.put(body);
+        frame.flip();
+        binaryFrames++;
+        return new BinaryMessage(frame);
+    }
+
+    private void send(WebSocketMessage<?> message) throws IOException {
+        session.sendMessage(message);
+        bytesSent += message.getPayloadLength();
+        lastWriteAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 空闲超过 intervalMillis 时发送 ping，防止代理因空闲断开连接
+     */
+    void pingIfIdle(long intervalMillis) {
+        if (System.currentTimeMillis() - lastWriteAt < intervalMillis) {
+            return;
+        }
+        synchronized (writeLock) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+            }
+            try {
+                session.sendMessage(new PingMessage());
+                lastWriteAt = System.currentTimeMillis();
+            } catch (IOException | IllegalStateException e) {
+                log.debug("WebSocket ping failed for connection {}: {}", getId(), e.getMessage());
+                closeSession(CloseStatus.SESSION_NOT_RELIABLE);
+            }
+        }
+    }
+
+    private void closeSession(CloseStatus status) {
+        markClosed();
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            // 连接已断开
+        }
+    }
+
+    /**
+     * 连接已关闭：取消所有任务订阅（任务本身继续执行，客户端重连后可按 lastEventId 续传）
+     */
+    void markClosed() {
+        List<Subscription> active;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer.clear();
+            controlReplies.clear();
+            active = new ArrayList<>(subscriptions.values());
+            subscriptions.clear();
+        }
+        for (Subscription subscription : active) {
+            subscription.cancel();
+        }
+        onClosed.accept(this);
+    }
+
+    /**
+     * 与缓冲区最后一个同任务、同类型的事件合并
+     */
+    private boolean mergeIntoLast(String taskId, ReActStepEvent event) {
+        Pending last = buffer.peekLast();
+        if (last == null || !event.getKind().isMergeable()
+                || event.getKind() != last.event.getKind() || !taskId.equals(last.taskId)) {
+            return false;
+        }
+        buffer.pollLast();
+        buffer.addLast(new Pending(taskId, ReActStepEvent.merge(last.event, event), last.enqueuedAt));
+        return true;
+    }
+
+    private void dropOldest() {
+        Iterator<Pending> it = buffer.iterator();
+        while (it.hasNext()) {
+            if (it.next().event.getKind().isDroppable()) {
+                it.remove();
+                dropped++;
+                return;
+            }
+        }
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    WsConnectionMetrics metrics() {
+        WsConnectionMetrics metrics = new WsConnectionMetrics();
+        metrics.setConnectionId(getId());
+        metrics.setConnectedAt(connectedAt);
+        synchronized (this) {
+            metrics.setSubscriptions(subscriptions.size());
+            metrics.setCredits(credits);
+            metrics.setQueued(buffer.size());
+            metrics.setMaxQueued(maxQueued);
+            metrics.setDropped(dropped);
+            metrics.setMerged(merged);
+        }
+        metrics.setEventsSent(eventsSent);
+        metrics.setTextFrames(textFrames);
+        metrics.setBinaryFrames(binaryFrames);
+        metrics.setBytesSent(bytesSent);
+        metrics.setControlMessages(controlMessages);
+        metrics.setMaxLagMs(maxLagMillis);
+        return metrics;
+    }
+
+    private static final class Pending {
+        private final String taskId;
+        private final ReActStepEvent event;
+        private final long enqueuedAt;
+
+        Pending(String taskId, ReActStepEvent event, long enqueuedAt) {
+            this.taskId = taskId;
+            this.event = event;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    /**
+     * 任务订阅句柄：订阅返回前连接可能已关闭，取消请求会在拿到句柄后补做
+     */
+    private static final class Subscription {
+        private Runnable unsubscribe;
+        private boolean cancelled;
+
+        synchronized void attach(Runnable unsubscribe) {
+            this.unsubscribe = unsubscribe;
+            if (cancelled) {
+                unsubscribe.run();
+            }
+        }
+
+        synchronized void cancel() {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            if (unsubscribe != null) {
+                unsubscribe.run();
+            }
+        }
+    }
+}
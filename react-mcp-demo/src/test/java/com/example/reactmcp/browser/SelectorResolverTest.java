@@ -0,0 +1,53 @@
+package com.example.reactmcp.browser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SelectorResolverTest {
+
+    @Test
+    void detectsPlaywrightEngineSelectors() {
+        assertThat(SelectorResolver.isEngineSelector("text=登录")).isTrue();
+        assertThat(SelectorResolver.isEngineSelector("//button[@id='go']")).isTrue();
+        assertThat(SelectorResolver.isEngineSelector("xpath=//input")).isTrue();
+        assertThat(SelectorResolver.isEngineSelector("button:has-text(\"搜索\")")).isTrue();
+        assertThat(SelectorResolver.isEngineSelector("form >> input")).isTrue();
+        assertThat(SelectorResolver.isEngineSelector("  role=button")).isTrue();
+    }
+
+    @Test
+    void detectsAnyNamedEngineIncludingCustomOnes() {
+        assertThat(SelectorResolver.isEngineSelector("placeholder=搜索")).isTrue();
+        assertThat(SelectorResolver.isEngineSelector("data-test-id=submit")).isTrue();
+        assertThat(SelectorResolver.isEngineSelector("nth=0")).isTrue();
+        assertThat(SelectorResolver.isEngineSelector("text:light=登录")).isTrue();
+        assertThat(SelectorResolver.isEngineSelector("ref=e12")).isTrue();
+        assertThat(SelectorResolver.isEngineSelector("a[href=x]")).isFalse();
+    }
+
+    @Test
+    void treatsPlainCssAsQuerySelectorCompatible() {
+        assertThat(SelectorResolver.isEngineSelector("#kw")).isFalse();
+        assertThat(SelectorResolver.isEngineSelector("input[name=\"wd\"]")).isFalse();
+        assertThat(SelectorResolver.isEngineSelector("div.result > a:nth-child(2)")).isFalse();
+    }
+
+    @Test
+    void detectsTagOnlySelectorsAsGeneric() {
+        assertThat(SelectorResolver.isGenericSelector("button")).isTrue();
+        assertThat(SelectorResolver.isGenericSelector(" input ")).isTrue();
+        assertThat(SelectorResolver.isGenericSelector("input[type=submit]")).isTrue();
+        assertThat(SelectorResolver.isGenericSelector("input[type='text']")).isTrue();
+        assertThat(SelectorResolver.isGenericSelector("input[type=\"search\"]")).isTrue();
+    }
+
+    @Test
+    void doesNotTreatSpecificSelectorsAsGeneric() {
+        assertThat(SelectorResolver.isGenericSelector("#su")).isFalse();
+        assertThat(SelectorResolver.isGenericSelector("input[name=wd]")).isFalse();
+        assertThat(SelectorResolver.isGenericSelector("input[type='text\"]")).isFalse();
+        assertThat(SelectorResolver.isGenericSelector("button.primary")).isFalse();
+        assertThat(SelectorResolver.isGenericSelector("form input")).isFalse();
+    }
+}
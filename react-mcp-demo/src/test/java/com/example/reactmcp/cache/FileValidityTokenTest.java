@@ -0,0 +1,47 @@
+package com.example.reactmcp.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileValidityTokenTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final FileValidityToken tokens = new FileValidityToken();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void fileTokenChangesWithContent() throws Exception {
+        Path file = dir.resolve("a.txt");
+        Files.writeString(file, "one");
+        String before = tokens.token(arguments("filePath", file));
+
+        Files.writeString(file, "three");
+
+        assertThat(before).isNotNull();
+        assertThat(tokens.token(arguments("filePath", file))).isNotNull().isNotEqualTo(before);
+    }
+
+    @Test
+    void directoriesAreNotCached() {
+        assertThat(tokens.token(arguments("directoryPath", dir).put("recursive", true))).isNull();
+        assertThat(tokens.token(arguments("directoryPath", dir).put("recursive", false))).isNull();
+    }
+
+    @Test
+    void missingFileIsNotCached() {
+        assertThat(tokens.token(arguments("filePath", dir.resolve("missing.txt")))).isNull();
+    }
+
+    private ObjectNode arguments(String name, Path path) {
+        return mapper.createObjectNode().put(name, path.toString());
+    }
+}
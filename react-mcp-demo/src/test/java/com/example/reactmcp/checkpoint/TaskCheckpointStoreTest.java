@@ -0,0 +1,61 @@
+package com.example.reactmcp.checkpoint;
+
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskCheckpointStoreTest {
+
+    private static final ToolExecutionRequest NAVIGATE = request("1", "navigate");
+    private static final ToolExecutionRequest CLICK = request("2", "click");
+
+    @Test
+    void keepsConversationWithoutToolCalls() {
+        List<ChatMessage> messages = List.of(SystemMessage.from("system"), UserMessage.from("task"),
+                AiMessage.from("answer"));
+
+        assertThat(TaskCheckpointStore.trimIncompleteToolCalls(messages)).isSameAs(messages);
+    }
+
+    @Test
+    void keepsToolCallsWithAllResults() {
+        List<ChatMessage> messages = List.of(UserMessage.from("task"),
+                AiMessage.from(List.of(NAVIGATE, CLICK)),
+                ToolExecutionResultMessage.from(NAVIGATE, "ok"),
+                ToolExecutionResultMessage.from(CLICK, "ok"));
+
+        assertThat(TaskCheckpointStore.trimIncompleteToolCalls(messages)).isSameAs(messages);
+    }
+
+    @Test
+    void dropsLastToolCallMissingResults() {
+        List<ChatMessage> messages = List.of(UserMessage.from("task"),
+                AiMessage.from(List.of(NAVIGATE)),
+                ToolExecutionResultMessage.from(NAVIGATE, "ok"),
+                AiMessage.from(List.of(NAVIGATE, CLICK)),
+                ToolExecutionResultMessage.from(NAVIGATE, "ok"));
+
+        List<ChatMessage> trimmed = TaskCheckpointStore.trimIncompleteToolCalls(messages);
+
+        assertThat(trimmed).containsExactlyElementsOf(messages.subList(0, 3));
+    }
+
+    @Test
+    void dropsToolCallWithoutAnyResult() {
+        List<ChatMessage> messages = List.of(UserMessage.from("task"), AiMessage.from(List.of(CLICK)));
+
+        assertThat(TaskCheckpointStore.trimIncompleteToolCalls(messages)).containsExactly(messages.get(0));
+    }
+
+    private static ToolExecutionRequest request(String id, String name) {
+        return ToolExecutionRequest.builder().id(id).name(name).arguments("{}").build();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.reactmcp.history;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HistorySegmentTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackAppendedRecords() throws IOException {
+        HistorySegment segment = HistorySegment.create(1, dir.resolve("s.log"), 4096);
+        int first = segment.append((byte) 1, bytes("hello"));
+        int second = segment.append((byte) 2, bytes("世界"));
+
+        assertThat(first).isEqualTo(HistorySegment.HEADER_SIZE);
+        assertThat(second).isEqualTo(first + HistorySegment.RECORD_HEADER_SIZE + 5);
+        HistorySegment.Record record = segment.read(second);
+        assertThat(record.type).isEqualTo((byte) 2);
+        assertThat(new String(record.payload, StandardCharsets.UTF_8)).isEqualTo("世界");
+        assertThat(segment.read(second + 1)).isNull();
+    }
+
+    @Test
+    void rejectsRecordThatLeavesNoEndMarker() throws IOException {
+        HistorySegment segment = HistorySegment.create(1, dir.resolve("s.log"), 64);
+        int room = 64 - HistorySegment.HEADER_SIZE - HistorySegment.RECORD_HEADER_SIZE - 4;
+
+        assertThat(segment.append((byte) 1, new byte[room + 1])).isEqualTo(-1);
+        assertThat(segment.append((byte) 1, new byte[room])).isEqualTo(HistorySegment.HEADER_SIZE);
+        assertThat(segment.append((byte) 1, new byte[1])).isEqualTo(-1);
+    }
+
+    @Test
+    void recoverRestoresRecordsAndWritePosition() throws IOException {
+        Path file = dir.resolve("s.log");
+        HistorySegment segment = HistorySegment.create(1, file, 4096);
+        segment.append((byte) 1, bytes("a"));
+        segment.append((byte) 2, bytes("bb"));
+        int end = segment.getWritePosition();
+        segment.force();
+
+        HistorySegment reopened = HistorySegment.open(1, file);
+        List<String> payloads = new ArrayList<>();
+        reopened.recover(record -> payloads.add(new String(record.payload, StandardCharsets.UTF_8)));
+
+        assertThat(payloads).containsExactly("a", "bb");
+        assertThat(reopened.getWritePosition()).isEqualTo(end);
+        assertThat(reopened.append((byte) 1, bytes("c"))).isEqualTo(end);
+    }
+
+    @Test
+    void recoverStopsAtCorruptedRecord() throws IOException {
+        Path file = dir.resolve("s.log");
+        HistorySegment segment = HistorySegment.create(1, file, 4096);
+        segment.append((byte) 1, bytes("good"));
+        int corrupted = segment.append((byte) 1, bytes("bad"));
+        segment.append((byte) 1, bytes("after"));
+        segment.force();
+
+        // 改写第二条记录负载的一个字节，CRC 校验失败
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), corrupted + HistorySegment.RECORD_HEADER_SIZE);
+        }
+
+        HistorySegment reopened = HistorySegment.open(1, file);
+        List<String> payloads = new ArrayList<>();
+        reopened.recover(record -> payloads.add(new String(record.payload, StandardCharsets.UTF_8)));
+
+        assertThat(payloads).containsExactly("good");
+        assertThat(reopened.getWritePosition()).isEqualTo(corrupted);
+    }
+
+    @Test
+    void openRejectsFileWithoutMagic() throws IOException {
+        Path file = dir.resolve("other.log");
+        Files.write(file, new byte[64]);
+
+        assertThatThrownBy(() -> HistorySegment.open(1, file)).isInstanceOf(IOException.class);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.reactmcp.history;
+
+import com.example.reactmcp.model.ReActStepEvent;
+import com.example.reactmcp.model.TaskHistoryEntry;
+import com.example.reactmcp.model.TaskHistoryPage;
+import com.example.reactmcp.web.EventJsonCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskHistoryStoreTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @TempDir
+    Path dir;
+
+    private TaskHistoryStore open(int segmentSizeMb, int maxSegments) {
+        return new TaskHistoryStore(mapper, new EventJsonCodec(mapper), true, dir.toString(),
+                segmentSizeMb, maxSegments, 1024, 10);
+    }
+
+    @Test
+    void rebuildsIndexFromSegmentsAfterRestart() {
+        TaskHistoryStore store = open(1, 4);
+        store.taskSubmitted("t1", "搜索天气");
+        store.eventDelivered("t1", ReActStepEvent.thought("想法").withId(1));
+        store.eventDelivered("t1", ReActStepEvent.finalAnswer("晴").withId(2));
+        store.taskSubmitted("t2", "打开网页");
+        store.eventDelivered("t2", ReActStepEvent.thought("进行中").withId(1));
+        store.close();
+        assertThat(store.getWritten()).isEqualTo(5);
+
+        TaskHistoryStore reopened = open(1, 4);
+        try {
+            TaskHistoryPage page = reopened.page(0, 10, null, null);
+            assertThat(page.getTotal()).isEqualTo(2);
+            // 按提交时间倒序
+            assertThat(page.getItems()).extracting(TaskHistoryEntry::getTaskId).containsExactly("t2", "t1");
+
+            TaskHistoryEntry finished = reopened.get("t1");
+            assertThat(finished.getStatus()).isEqualTo("completed");
+            assertThat(finished.getResult()).isEqualTo("晴");
+            assertThat(finished.getEvents()).hasSize(2);
+            assertThat(finished.getEvents().get(0).path("content").asText()).isEqualTo("想法");
+
+            // 重启前未结束的任务标记为中断
+            assertThat(reopened.get("t2").getStatus()).isEqualTo("interrupted");
+            assertThat(reopened.get("missing")).isNull();
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void evictsTasksOfDeletedSegments() {
+        TaskHistoryStore store = open(1, 2);
+        // 每条约 300KB，1MB 的分段放不下 4 条，写满后滚动并删除最旧的分段
+        String large = "x".repeat(300 * 1024);
+        for (int i = 0; i < 12; i++) {
+            store.taskSubmitted("t" + i, large);
+        }
+        store.close();
+
+        TaskHistoryPage page = store.page(0, 20, null, null);
+        assertThat(page.getTotal()).isLessThan(12);
+        assertThat(page.getItems().get(0).getTaskId()).isEqualTo("t11");
+        assertThat(store.get("t0")).isNull();
+    }
+
+    @Test
+    void recoverDropsSegmentsBeyondMaxSegments() throws Exception {
+        TaskHistoryStore store = open(1, 8);
+        String large = "x".repeat(300 * 1024);
+        for (int i = 0; i < 12; i++) {
+            store.taskSubmitted("t" + i, large);
+        }
+        store.close();
+        assertThat(segmentFiles()).hasSizeGreaterThan(2);
+
+        TaskHistoryStore reopened = open(1, 2);
+        try {
+            assertThat(segmentFiles()).hasSize(2);
+            assertThat(reopened.get("t0")).isNull();
+            assertThat(reopened.get("t11")).isNotNull();
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().startsWith("history-")).toList();
+        }
+    }
+}
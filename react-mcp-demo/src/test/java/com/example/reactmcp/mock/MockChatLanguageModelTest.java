@@ -0,0 +1,50 @@
+package com.example.reactmcp.mock;
+
+import com.example.reactmcp.config.LangchainProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MockChatLanguageModelTest {
+
+    private MockChatLanguageModel model(long seed) throws Exception {
+        LangchainProperties.MockConfig config = new LangchainProperties.MockConfig();
+        config.setSeed(seed);
+        config.setLatencyMs(0);
+        config.setErrorRate(0.5);
+        return new MockChatLanguageModel(config, new ObjectMapper());
+    }
+
+    /**
+     * 依次调用同一步直到成功，记录每次的结果（失败记为 error）
+     */
+    private List<String> run(MockChatLanguageModel model, String task) {
+        List<ChatMessage> messages = List.of(UserMessage.from(task));
+        List<String> outcomes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            try {
+                outcomes.add(model.generate(messages).content().text());
+                break;
+            } catch (RuntimeException e) {
+                outcomes.add("error");
+            }
+        }
+        return outcomes;
+    }
+
+    @Test
+    void fixedSeedReproducesResponsesAndInjectedErrors() throws Exception {
+        for (String task : List.of("任务一", "任务二", "任务三", "任务四")) {
+            List<String> first = run(model(42), task);
+            assertThat(run(model(42), task)).isEqualTo(first);
+            // 重试不会一直落在同一个错误上
+            assertThat(first.get(first.size() - 1)).isNotEqualTo("error");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.reactmcp.retrieval;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PassageRankerTest {
+
+    @Test
+    void splitsAtBlankLinesAndTrimsWhitespace() {
+        int[] bounds = PassageRanker.split("aaa\n\n  bbb  \n", 8);
+
+        assertThat(bounds).containsExactly(0, 3, 7, 10);
+    }
+
+    @Test
+    void splitsLongLineAtSentenceEnd() {
+        String text = "abcdefghijklmnop. qrstuvwxyz0123456789";
+        int[] bounds = PassageRanker.split(text, 10);
+
+        assertThat(text.substring(bounds[0], bounds[1])).isEqualTo("abcdefghijklmnop.");
+        for (int i = 0; i < bounds.length; i += 2) {
+            assertThat(bounds[i + 1] - bounds[i]).isLessThanOrEqualTo(20);
+        }
+    }
+
+    @Test
+    void queryTermsDropStopWordsAndDuplicatesIgnoringCase() {
+        assertThat(PassageRanker.queryTerms("The Weather of weather")).containsExactly(PassageRanker.queryTerms("weather"));
+        assertThat(PassageRanker.queryTerms("北京天气")).hasSize(3);
+        assertThat(PassageRanker.queryTerms("天")).hasSize(1);
+        assertThat(PassageRanker.queryTerms("  ")).isEmpty();
+        assertThat(PassageRanker.queryTerms(null)).isEmpty();
+    }
+
+    @Test
+    void selectsMatchingPassagesInOriginalOrder() {
+        String text = "Stock prices rose today.\n\n"
+                + "北京天气晴，气温 25 度。\n\n"
+                + "Sports news and results.\n\n"
+                + "Tomorrow's weather in Beijing: rain.";
+
+        PassageRanker.Result result = PassageRanker.rank(text, "北京 weather", 200, 20);
+
+        assertThat(result.getPassages()).isEqualTo(4);
+        assertThat(result.isMatched()).isTrue();
+        assertThat(result.getSelected()).isEqualTo(2);
+        assertThat(result.getText()).isEqualTo("北京天气晴，气温 25 度。\n\n…\n\nTomorrow's weather in Beijing: rain.");
+    }
+
+    @Test
+    void prefersHigherScoringPassageWithinBudget() {
+        String text = "weather report\n\nweather weather weather forecast\n\nunrelated";
+
+        PassageRanker.Result result = PassageRanker.rank(text, "weather", 40, 20);
+
+        assertThat(result.getSelected()).isEqualTo(1);
+        assertThat(result.getText()).isEqualTo("weather weather weather forecast");
+    }
+
+    @Test
+    void fallsBackToLeadingPassagesWithoutMatch() {
+        String text = "first paragraph\n\nsecond paragraph\n\nthird paragraph";
+
+        PassageRanker.Result result = PassageRanker.rank(text, "nothing", 35, 20);
+
+        assertThat(result.isMatched()).isFalse();
+        assertThat(result.getText()).isEqualTo("first paragraph\nsecond paragraph");
+    }
+
+    @Test
+    void truncatesSingleOversizedPassageToBudget() {
+        PassageRanker.Result result = PassageRanker.rank("x".repeat(100), "", 10, 1000);
+
+        assertThat(result.getText()).hasSize(10);
+    }
+}
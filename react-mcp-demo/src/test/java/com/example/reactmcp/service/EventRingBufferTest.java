@@ -0,0 +1,110 @@
+package com.example.reactmcp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventRingBufferTest {
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertThat(new EventRingBuffer<String>(0).capacity()).isEqualTo(2);
+        assertThat(new EventRingBuffer<String>(5).capacity()).isEqualTo(8);
+        assertThat(new EventRingBuffer<String>(16).capacity()).isEqualTo(16);
+    }
+
+    @Test
+    void rejectsOfferWhenFullAndAcceptsAgainAfterPoll() {
+        EventRingBuffer<Integer> buffer = new EventRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.offer(4)).isTrue();
+        assertThat(buffer.offer(5)).isFalse();
+    }
+
+    @Test
+    void keepsFifoOrderAcrossWrapAround() {
+        EventRingBuffer<Integer> buffer = new EventRingBuffer<>(4);
+        List<Integer> polled = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+            if (i % 3 == 2) {
+                Integer value;
+                while ((value = buffer.poll()) != null) {
+                    polled.add(value);
+                }
+            }
+        }
+        Integer value;
+        while ((value = buffer.poll()) != null) {
+            polled.add(value);
+        }
+        assertThat(polled).hasSize(20);
+        for (int i = 0; i < 20; i++) {
+            assertThat(polled.get(i)).isEqualTo(i);
+        }
+        assertThat(buffer.isEmpty()).isTrue();
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test
+    void deliversEveryElementOnceWithConcurrentProducers() throws Exception {
+        int producers = 4;
+        int perProducer = 5_000;
+        EventRingBuffer<long[]> buffer = new EventRingBuffer<>(64);
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (long i = 0; i < perProducer; i++) {
+                    // 队列满时让出 CPU 后重试，保证所有元素最终入队
+                    while (!buffer.offer(new long[]{producer, i})) {
+                        Thread.yield();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long[] nextExpected = new long[producers];
+        int received = 0;
+        start.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer && System.nanoTime() < deadline) {
+            long[] element = buffer.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            // 同一生产者的元素保持入队顺序，且不重复不丢失
+            int producer = (int) element[0];
+            assertThat(element[1]).isEqualTo(nextExpected[producer]);
+            nextExpected[producer]++;
+            received++;
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertThat(received).isEqualTo(producers * perProducer);
+        assertThat(buffer.poll()).isNull();
+        assertThat(buffer.size()).isZero();
+    }
+}
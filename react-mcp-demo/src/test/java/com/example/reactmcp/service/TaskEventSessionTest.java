@@ -0,0 +1,88 @@
+package com.example.reactmcp.service;
+
+import com.example.reactmcp.model.EventKind;
+import com.example.reactmcp.model.ReActStepEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskEventSessionTest {
+
+    // 同步投递，publish 返回时事件已派发给订阅者
+    private TaskEventSession newSession(int replayCapacity) {
+        return new TaskEventSession("task-1", 16, replayCapacity, Runnable::run, session -> { });
+    }
+
+    @Test
+    void assignsIncreasingIdsOnDelivery() {
+        TaskEventSession session = newSession(8);
+        List<ReActStepEvent> received = new ArrayList<>();
+        session.subscribe(received::add, () -> { });
+
+        session.publish(ReActStepEvent.thought("a"));
+        session.publish(ReActStepEvent.thought("b"));
+
+        assertThat(received).extracting(ReActStepEvent::getId).containsExactly(1L, 2L);
+        assertThat(session.getLastEventId()).isEqualTo(2);
+    }
+
+    @Test
+    void replaysEventsAfterLastEventIdThenStreamsNewOnes() {
+        TaskEventSession session = newSession(8);
+        for (int i = 1; i <= 3; i++) {
+            session.publish(ReActStepEvent.thought("t" + i));
+        }
+
+        List<ReActStepEvent> received = new ArrayList<>();
+        session.subscribe(1, received::add, () -> { });
+        session.publish(ReActStepEvent.thought("t4"));
+
+        assertThat(received).extracting(ReActStepEvent::getContent).containsExactly("t2", "t3", "t4");
+        assertThat(received).extracting(ReActStepEvent::getId).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void replayStartsAtOldestRetainedEventWhenBufferRolledOver() {
+        TaskEventSession session = newSession(2);
+        for (int i = 1; i <= 5; i++) {
+            session.publish(ReActStepEvent.thought("t" + i));
+        }
+
+        List<ReActStepEvent> received = new ArrayList<>();
+        session.subscribe(0, received::add, () -> { });
+
+        assertThat(received).extracting(ReActStepEvent::getId).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void subscribeWithoutReplaySkipsHistory() {
+        TaskEventSession session = newSession(8);
+        session.publish(ReActStepEvent.thought("old"));
+
+        List<ReActStepEvent> received = new ArrayList<>();
+        session.subscribe(received::add, () -> { });
+        session.publish(ReActStepEvent.thought("new"));
+
+        assertThat(received).extracting(ReActStepEvent::getContent).containsExactly("new");
+    }
+
+    @Test
+    void lateSubscriberToClosedSessionGetsTerminalEventAndCompletion() {
+        TaskEventSession session = newSession(8);
+        session.publish(ReActStepEvent.thought("t1"));
+        session.complete(ReActStepEvent.finalAnswer("done"));
+        assertThat(session.isClosed()).isTrue();
+        assertThat(session.publish(ReActStepEvent.thought("late"))).isFalse();
+
+        List<ReActStepEvent> received = new ArrayList<>();
+        AtomicInteger completions = new AtomicInteger();
+        session.subscribe(1, received::add, completions::incrementAndGet);
+
+        assertThat(received).extracting(ReActStepEvent::getKind).containsExactly(EventKind.FINAL_ANSWER);
+        assertThat(completions).hasValue(1);
+    }
+}
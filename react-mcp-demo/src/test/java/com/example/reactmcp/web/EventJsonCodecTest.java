@@ -0,0 +1,80 @@
+package com.example.reactmcp.web;
+
+import com.example.reactmcp.model.EventKind;
+import com.example.reactmcp.model.ReActStepEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventJsonCodecTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final EventJsonCodec codec = new EventJsonCodec(mapper);
+
+    @Test
+    void roundTripsEveryFieldIncludingEscapes() throws Exception {
+        ReActStepEvent event = ReActStepEvent.restore(EventKind.ACTION, "说明 \"引号\"\n换行",
+                "click", "{\"selector\":\"#a\\\\b\"}", "结果\t\u0001", 1234L).withId(7);
+
+        JsonNode node = mapper.readTree(codec.toBytes(event));
+
+        assertThat(node.path("id").asLong()).isEqualTo(7);
+        assertThat(node.path("type").asText()).isEqualTo("action");
+        ReActStepEvent restored = EventJsonCodec.read(node);
+        assertThat(restored.getKind()).isEqualTo(EventKind.ACTION);
+        assertThat(restored.getContent()).isEqualTo(event.getContent());
+        assertThat(restored.getToolName()).isEqualTo("click");
+        assertThat(restored.getToolInput()).isEqualTo(event.getToolInput());
+        assertThat(restored.getToolOutput()).isEqualTo(event.getToolOutput());
+        assertThat(restored.getTimestamp()).isEqualTo(1234L);
+    }
+
+    @Test
+    void omitsNullFieldsAndUnassignedId() throws Exception {
+        JsonNode node = mapper.readTree(codec.toBytes(ReActStepEvent.thought("想法")));
+
+        assertThat(node.has("id")).isFalse();
+        assertThat(node.has("toolName")).isFalse();
+        assertThat(node.has("toolOutput")).isFalse();
+        assertThat(node.path("content").asText()).isEqualTo("想法");
+    }
+
+    @Test
+    void writesBatchAsArray() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.writeBatch(List.of(ReActStepEvent.thought("a").withId(1),
+                ReActStepEvent.finalAnswer("b").withId(2)), out);
+
+        JsonNode node = mapper.readTree(out.toByteArray());
+
+        assertThat(node.isArray()).isTrue();
+        assertThat(node).hasSize(2);
+        assertThat(node.get(1).path("type").asText()).isEqualTo("final_answer");
+        assertThat(EventJsonCodec.read(node.get(1)).getContent()).isEqualTo("b");
+    }
+
+    @Test
+    void envelopeOmitsDetachedField() throws Exception {
+        ReActStepEvent event = ReActStepEvent.observation("很长的工具输出").withId(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.writeEnvelope("task-1", event, EventJsonCodec.TOOL_OUTPUT_FIELD, out);
+
+        JsonNode node = mapper.readTree(out.toByteArray());
+
+        assertThat(node.path("op").asText()).isEqualTo("event");
+        assertThat(node.path("taskId").asText()).isEqualTo("task-1");
+        assertThat(node.path("payloadField").asText()).isEqualTo("toolOutput");
+        assertThat(node.path("event").has("toolOutput")).isFalse();
+        assertThat(node.path("event").path("id").asLong()).isEqualTo(3);
+    }
+
+    @Test
+    void readReturnsNullForUnknownType() throws Exception {
+        assertThat(EventJsonCodec.read(mapper.readTree("{\"type\":\"unknown\"}"))).isNull();
+    }
+}
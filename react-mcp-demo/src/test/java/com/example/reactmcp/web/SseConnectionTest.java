@@ -0,0 +1,171 @@
+package com.example.reactmcp.web;
+
+import com.example.reactmcp.model.EventKind;
+import com.example.reactmcp.model.ReActStepEvent;
+import com.example.reactmcp.model.SseConnectionMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SseConnectionTest {
+
+    // 合批窗口足够长，测试在窗口内完成全部 offer，再由 complete 触发的那次 flush 一起发送
+    private static final long COALESCE_MILLIS = 1000;
+
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor();
+    private final RecordingEmitter emitter = new RecordingEmitter();
+    private final AtomicInteger closedCallbacks = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        writer.shutdownNow();
+    }
+
+    private SseConnection newConnection(int capacity, boolean mergeOnOverflow) {
+        return new SseConnection(1, "task-1", emitter, writer, COALESCE_MILLIS, capacity, mergeOnOverflow,
+                c -> closedCallbacks.incrementAndGet());
+    }
+
+    @Test
+    void coalescesEventsIntoOneBatchFrameThenCompletes() throws Exception {
+        SseConnection connection = newConnection(16, true);
+        connection.offer(ReActStepEvent.thought("a").withId(1));
+        connection.offer(ReActStepEvent.action("click", "{}").withId(2));
+        connection.offer(ReActStepEvent.observation("ok").withId(3));
+        connection.complete();
+
+        assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(emitter.frames).hasSize(1);
+        Frame frame = emitter.frames.get(0);
+        assertThat(frame.name).isEqualTo("batch");
+        assertThat(frame.id).isEqualTo("3");
+        assertThat(frame.events).extracting(ReActStepEvent::getId).containsExactly(1L, 2L, 3L);
+
+        SseConnectionMetrics metrics = connection.metrics();
+        assertThat(metrics.getEventsSent()).isEqualTo(3);
+        assertThat(metrics.getFramesSent()).isEqualTo(1);
+        assertThat(metrics.getLastSentEventId()).isEqualTo(3);
+        assertThat(closedCallbacks).hasValue(1);
+    }
+
+    @Test
+    void sendsSingleEventUnderItsOwnName() throws Exception {
+        SseConnection connection = newConnection(16, true);
+        connection.offer(ReActStepEvent.finalAnswer("done").withId(9));
+        connection.complete();
+
+        assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(emitter.frames).hasSize(1);
+        assertThat(emitter.frames.get(0).name).isEqualTo("final_answer");
+        assertThat(emitter.frames.get(0).id).isEqualTo("9");
+    }
+
+    @Test
+    void mergesAdjacentEventsOfSameKindWhenFull() throws Exception {
+        SseConnection connection = newConnection(2, true);
+        connection.offer(ReActStepEvent.taskStarted("task-1").withId(1));
+        connection.offer(ReActStepEvent.thought("a").withId(2));
+        connection.offer(ReActStepEvent.thought("b").withId(3));
+        assertThat(connection.metrics().getMerged()).isEqualTo(1);
+        connection.complete();
+
+        assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        List<ReActStepEvent> sent = emitter.frames.get(0).events;
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(1).getContent()).isEqualTo("a\nb");
+        assertThat(sent.get(1).getId()).isEqualTo(3);
+    }
+
+    @Test
+    void dropsOldestDroppableEventButKeepsTerminalOnes() throws Exception {
+        SseConnection connection = newConnection(2, false);
+        connection.offer(ReActStepEvent.taskStarted("task-1").withId(1));
+        connection.offer(ReActStepEvent.thought("a").withId(2));
+        connection.offer(ReActStepEvent.finalAnswer("done").withId(3));
+        assertThat(connection.metrics().getDropped()).isEqualTo(1);
+        connection.complete();
+
+        assertThat(emitter.completed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(emitter.frames.get(0).events).extracting(ReActStepEvent::getKind)
+                .containsExactly(EventKind.TASK_STARTED, EventKind.FINAL_ANSWER);
+    }
+
+    @Test
+    void heartbeatOnlyWhenIdleAndNotAfterClose() {
+        SseConnection connection = newConnection(16, true);
+        connection.heartbeatIfIdle(60_000);
+        assertThat(connection.metrics().getHeartbeatsSent()).isZero();
+
+        connection.heartbeatIfIdle(0);
+        assertThat(connection.metrics().getHeartbeatsSent()).isEqualTo(1);
+        assertThat(emitter.comments).isEqualTo(1);
+
+        connection.markClosed();
+        connection.heartbeatIfIdle(0);
+        connection.offer(ReActStepEvent.thought("late").withId(1));
+        assertThat(connection.metrics().getHeartbeatsSent()).isEqualTo(1);
+        assertThat(connection.metrics().getQueued()).isZero();
+        assertThat(closedCallbacks).hasValue(1);
+    }
+
+    private static final class Frame {
+        private String id;
+        private String name;
+        private final List<ReActStepEvent> events = new ArrayList<>();
+    }
+
+    /**
+     * 记录发送内容的 SseEmitter，不写入真实的 HTTP 响应
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<Frame> frames = new ArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private int comments;
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) throws IOException {
+            Frame frame = new Frame();
+            boolean comment = false;
+            for (var part : builder.build()) {
+                Object data = part.getData();
+                if (data instanceof ReActStepEvent event) {
+                    frame.events.add(event);
+                } else if (data instanceof ReActStepEvent[] events) {
+                    frame.events.addAll(Arrays.asList(events));
+                } else if (data instanceof String text) {
+                    for (String line : text.split("\n")) {
+                        if (line.startsWith("id:")) {
+                            frame.id = line.substring(3);
+                        } else if (line.startsWith("event:")) {
+                            frame.name = line.substring(6);
+                        } else if (line.startsWith(":")) {
+                            comment = true;
+                        }
+                    }
+                }
+            }
+            if (comment) {
+                comments++;
+            } else {
+                frames.add(frame);
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+    }
+}
@@ -7,6 +7,7 @@
 #   ./start-backend.sh                    # 编译并启动
 #   ./start-backend.sh --skip-build       # 跳过编译，直接启动
 #   ./start-backend.sh --copy-to-frontend # 编译后复制到客户端目录
+#   ./start-backend.sh --fast-startup     # AOT + CDS + 延迟初始化构建并启动（冷启动更快）
 ###############################################################################
 
 set -e  # 遇到错误立即退出
@@ -45,6 +46,7 @@ log_error() {
 # 检查参数
 SKIP_BUILD=false
 COPY_TO_FRONTEND=false
+FAST_STARTUP=false
 
 for arg in "$@"
 do
@@ -57,6 +59,10 @@ do
             COPY_TO_FRONTEND=true
             shift
             ;;
+        --fast-startup)
+            FAST_STARTUP=true
+            shift
+            ;;
     esac
 done
 
@@ -105,8 +111,13 @@ if [ "$SKIP_BUILD" = false ]; then
         exit 1
     fi
     
-    log_info "执行 Maven 编译: mvn clean package -DskipTests"
-    mvn clean package -DskipTests
+    MVN_ARGS="clean package -DskipTests"
+    if [ "$FAST_STARTUP" = true ]; then
+        # 额外执行 AOT 处理，并用一次训练运行生成 CDS 归档 target/fast-startup/application.jsa
+        MVN_ARGS="$MVN_ARGS -Pfast-startup"
+    fi
+    log_info "执行 Maven 编译: mvn $MVN_ARGS"
+    mvn $MVN_ARGS
     
     if [ ! -f "target/$JAR_NAME" ]; then
         log_error "JAR 文件编译失败，未找到 target/$JAR_NAME"
@@ -170,7 +181,11 @@ fi
 log_info "Java 版本: $(java -version 2>&1 | head -1)"
 
 # 启动服务
-log_info "执行启动命令: java -jar target/$JAR_NAME"
+if [ "$FAST_STARTUP" = true ]; then
+    log_info "执行启动命令: java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=fast-startup -jar target/fast-startup/$JAR_NAME"
+else
+    log_info "执行启动命令: java -jar target/$JAR_NAME"
+fi
 echo ""
 echo "╔════════════════════════════════════════════════════════════════╗"
 echo "║                 后端服务正在启动...                           ║"
@@ -182,7 +197,17 @@ echo "╚═══════════════════════
 echo ""
 
 cd "$BACKEND_DIR"
-java -jar "target/$JAR_NAME"
+if [ "$FAST_STARTUP" = true ]; then
+    if [ ! -f "target/fast-startup/application.jsa" ]; then
+        log_error "未找到 CDS 归档 target/fast-startup/application.jsa，请去掉 --skip-build 以 -Pfast-startup 重新构建"
+        exit 1
+    fi
+    cd target/fast-startup
+    java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+         -Dspring.profiles.active=fast-startup -jar "$JAR_NAME"
+else
+    java -jar "target/$JAR_NAME"
+fi
 
 ###############################################################################
 # 说明：java -jar 会阻塞终端，服务日志将在此输出